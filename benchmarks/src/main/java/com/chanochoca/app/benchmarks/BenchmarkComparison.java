@@ -0,0 +1,83 @@
+package com.chanochoca.app.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * `BenchmarkComparison` compara dos resultados de JMH en formato JSON (`-rf json`) y detecta regresiones.
+ *
+ * Uso: `java -cp benchmarks.jar com.chanochoca.app.benchmarks.BenchmarkComparison base.json actual.json [umbral%]`
+ *
+ * Para cada benchmark (con sus parámetros) presente en ambos archivos, imprime la puntuación de cada versión y la
+ * variación porcentual. En los modos de tiempo (`avgt`, `sample`, `ss`) una puntuación mayor es peor; en el modo
+ * `thrpt`, una puntuación menor es peor. Si algún benchmark empeora más que el umbral (10 % por defecto), el proceso
+ * termina con código de salida `1`, por lo que puede utilizarse en un pipeline de CI.
+ */
+public final class BenchmarkComparison {
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        var baseline = read(new File(args[0]));
+        var current = read(new File(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (var entry : current.entrySet()) {
+            var before = baseline.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            var after = entry.getValue();
+            double change = (after.score() - before.score()) / before.score() * 100;
+            double worsening = after.mode().equals("thrpt") ? -change : change;
+            boolean regression = worsening > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), before.score(), after.score(),
+                    change, after.unit(), regression ? "  REGRESSION" : "");
+        }
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Lee un archivo de resultados de JMH, indexado por nombre del benchmark y sus parámetros.
+     */
+    private static Map<String, Result> read(File file) throws IOException {
+        var results = new LinkedHashMap<String, Result>();
+        for (JsonNode benchmark : new ObjectMapper().readTree(file)) {
+            var key = new StringBuilder(benchmark.path("benchmark").asText());
+            benchmark.path("params").fields().forEachRemaining(param ->
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            var metric = benchmark.path("primaryMetric");
+            results.put(key.toString(), new Result(benchmark.path("mode").asText(),
+                    metric.path("score").asDouble(), metric.path("scoreUnit").asText()));
+        }
+        return results;
+    }
+
+    /**
+     * La puntuación principal de un benchmark.
+     *
+     * @param mode El modo de JMH (`thrpt`, `avgt`, `sample` o `ss`).
+     * @param score La puntuación.
+     * @param unit La unidad de la puntuación.
+     */
+    private record Result(String mode, double score, String unit) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.chanochoca.app.benchmarks;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * `EmbeddedDatabases` crea bases de datos H2 en memoria, en modo de compatibilidad con MySQL, con el esquema de
+ * `loan-service` y `fraud-detection-service`.
+ *
+ * Cada base de datos se crea con las migraciones de Flyway del servicio correspondiente. Antes de aplicarlas se define
+ * en H2 la función `UUID_TO_BIN` de MySQL que utilizan, con la misma conversión que `TimeOrderedIds.toBytes`.
+ */
+final class EmbeddedDatabases {
+
+    private EmbeddedDatabases() {
+    }
+
+    /**
+     * Crea una base de datos con la tabla `loans`.
+     *
+     * @param name El nombre de la base de datos; cada nombre es una base de datos independiente.
+     * @return El `DataSource` de la base de datos.
+     */
+    static DataSource loans(String name) {
+        return migrate(name, "classpath:db/migration/loans");
+    }
+
+    /**
+     * Crea una base de datos con la tabla `fraud_records`.
+     *
+     * @param name El nombre de la base de datos; cada nombre es una base de datos independiente.
+     * @return El `DataSource` de la base de datos.
+     */
+    static DataSource fraudRecords(String name) {
+        return migrate(name, "classpath:db/migration/fraud");
+    }
+
+    private static DataSource migrate(String name, String location) {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(dataSource).execute(
+                "CREATE ALIAS IF NOT EXISTS UUID_TO_BIN FOR 'com.chanochoca.app.loans.id.TimeOrderedIds.toBytes'");
+        Flyway.configure().dataSource(dataSource).locations(location).load().migrate();
+        return dataSource;
+    }
+}
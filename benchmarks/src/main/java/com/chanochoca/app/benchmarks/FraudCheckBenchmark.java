@@ -0,0 +1,116 @@
+package com.chanochoca.app.benchmarks;
+
+import com.chanochoca.app.fraudetect.config.FraudFilterProperties;
+import com.chanochoca.app.fraudetect.config.FraudIndexProperties;
+import com.chanochoca.app.fraudetect.config.FraudInvalidationProperties;
+import com.chanochoca.app.fraudetect.config.FraudRulesProperties;
+import com.chanochoca.app.fraudetect.dto.FraudCheckRequest;
+import com.chanochoca.app.fraudetect.index.FraudFilter;
+import com.chanochoca.app.fraudetect.index.FraudIndex;
+import com.chanochoca.app.fraudetect.notification.FraudChangeNotifier;
+import com.chanochoca.app.fraudetect.repository.FraudRecordRepository;
+import com.chanochoca.app.fraudetect.rules.FraudDecision;
+import com.chanochoca.app.fraudetect.rules.FraudRecordRule;
+import com.chanochoca.app.fraudetect.rules.FraudRuleEngine;
+import com.chanochoca.app.fraudetect.service.FraudCheckMetrics;
+import com.chanochoca.app.fraudetect.service.FraudDetectionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `FraudCheckBenchmark` mide `FraudDetectionService.checkForFraud`, con la regla `fraud-records` como única regla, con
+ * cada uno de sus almacenes de respaldo:
+ *
+ * - `index`: el índice en memoria `FraudIndex`.
+ * - `filter`: el filtro de Bloom `FraudFilter`, que solo consulta la base de datos H2 para sus positivos.
+ * - `database`: consultas a `fraud_records` en una base de datos H2 en memoria (sin la latencia de red de MySQL).
+ *
+ * La mitad de los clientes consultados tiene registros de fraude.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FraudCheckBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"index", "filter", "database"})
+    public String store;
+
+    @Param({"10000"})
+    public int fraudRecords;
+
+    private FraudDetectionService service;
+    private List<FraudCheckRequest> batch;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        var dataSource = EmbeddedDatabases.fraudRecords("fraud-" + store + "-" + fraudRecords);
+        var rows = new ArrayList<Object[]>(fraudRecords);
+        for (int i = 0; i < fraudRecords; i++) {
+            rows.add(new Object[]{i + 1L, new byte[16], i * 2});
+        }
+        new JdbcTemplate(dataSource).batchUpdate(
+                "INSERT INTO fraud_records (id, fraudRecordId, customerId) VALUES (?, ?, ?)", rows);
+
+        var repository = new FraudRecordRepository(JdbcClient.create(dataSource));
+        var notifier = new FraudChangeNotifier(
+                new FraudInvalidationProperties(List.of(), Duration.ofSeconds(2), null), RestClient.builder());
+        var properties = new FraudIndexProperties(store.equals("index"), Duration.ofSeconds(5), Duration.ofMinutes(10),
+                fraudRecords, null, Duration.ofMinutes(1));
+        var fraudIndex = new FraudIndex(repository, properties, notifier, new SimpleMeterRegistry());
+        if (properties.enabled()) {
+            fraudIndex.rebuild();
+        }
+        var filterProperties = new FraudFilterProperties(store.equals("filter"), fraudRecords, 12, null,
+                Duration.ofSeconds(5), Duration.ofHours(1));
+        var fraudFilter = new FraudFilter(repository, filterProperties, new SimpleMeterRegistry());
+        if (filterProperties.enabled()) {
+            fraudFilter.rebuild();
+        }
+        var fraudRecordRules = new FraudRecordRule.Factory(repository, fraudIndex, fraudFilter,
+                new FraudCheckMetrics(new SimpleMeterRegistry()));
+        var rulesProperties = new FraudRulesProperties(List.of(), 16384, 10, Duration.ofMinutes(1), 100_000);
+        var engine = new FraudRuleEngine(rulesProperties, List.of(fraudRecordRules), new SimpleMeterRegistry());
+        service = new FraudDetectionService(engine, ObservationRegistry.NOOP);
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(FraudCheckRequest.of(i * 37 % (fraudRecords * 2)));
+        }
+    }
+
+    @Benchmark
+    public FraudDecision checkOne() {
+        next = (next + 1) % (fraudRecords * 2);
+        return service.checkForFraud(FraudCheckRequest.of(next), null);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public FraudDecision[] checkBatch() {
+        return service.checkForFraud(batch, null);
+    }
+}
@@ -0,0 +1,168 @@
+package com.chanochoca.app.benchmarks;
+
+import com.chanochoca.app.fraudetect.controller.FraudCheckMessageConverter;
+import com.chanochoca.app.fraudetect.dto.FraudCheckRequest;
+import com.chanochoca.app.loans.client.FraudCheckEncoding;
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `FraudCheckEncodingBenchmark` compara el costo de una llamada a `/fraud/check/batch` en JSON y en el formato binario
+ * `application/x-fraud-check`, con los mismos convertidores que utilizan `loan-service` y `fraud-detection-service`.
+ *
+ * Cada operación es una llamada completa sin la red: `loan-service` escribe las verificaciones, el servicio de fraude
+ * las lee y escribe las decisiones, y `loan-service` las lee. El tiempo por operación es el CPU de la codificación por
+ * llamada. Al preparar cada combinación de parámetros se imprimen los bytes de la llamada en la red (`wire bytes`): el
+ * cuerpo más los encabezados `Content-Type` y `Accept`, sin el resto de la solicitud HTTP, que no depende del formato.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FraudCheckEncodingBenchmark {
+
+    private static final ResolvableType REQUESTS =
+            ResolvableType.forClassWithGenerics(List.class, FraudCheckRequest.class);
+    private static final ResolvableType STATUSES = ResolvableType.forClassWithGenerics(List.class,
+            com.chanochoca.app.fraudetect.entity.LoanStatus.class);
+
+    @Param({"json", "binary"})
+    public String encoding;
+
+    @Param({"1", "100"})
+    public int checks;
+
+    private MediaType mediaType;
+    private HttpMessageConverter<Object> clientConverter;
+    private GenericHttpMessageConverter<Object> serverConverter;
+    private com.chanochoca.app.loans.client.FraudCheckRequest[] requests;
+    private List<com.chanochoca.app.fraudetect.entity.LoanStatus> statuses;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        var objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        if (encoding.equals("binary")) {
+            mediaType = FraudCheckEncoding.MEDIA_TYPE;
+            clientConverter = (HttpMessageConverter<Object>) (HttpMessageConverter<?>)
+                    new com.chanochoca.app.loans.client.FraudCheckMessageConverter();
+            serverConverter = new FraudCheckMessageConverter();
+        } else {
+            mediaType = MediaType.APPLICATION_JSON;
+            clientConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+            serverConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+        }
+        requests = new com.chanochoca.app.loans.client.FraudCheckRequest[checks];
+        statuses = new ArrayList<>(checks);
+        for (int i = 0; i < checks; i++) {
+            requests[i] = new com.chanochoca.app.loans.client.FraudCheckRequest(100 + i,
+                    new Money(500_000 + i * 137L, Currency.values()[i % Currency.values().length]));
+            statuses.add(i % 10 == 0 ? com.chanochoca.app.fraudetect.entity.LoanStatus.REJECTED
+                    : com.chanochoca.app.fraudetect.entity.LoanStatus.APPROVED);
+        }
+        String accept = encoding.equals("binary")
+                ? "application/x-fraud-check, application/json;q=0.5"
+                : "application/json";
+        int requestHeaderBytes = headerBytes("Content-Type", mediaType.toString()) + headerBytes("Accept", accept);
+        int responseHeaderBytes = headerBytes("Content-Type", mediaType.toString());
+
+        var request = new Output();
+        clientConverter.write(requests, mediaType, request);
+        var response = new Output();
+        serverConverter.write(statuses, STATUSES.getType(), mediaType, response);
+        System.out.printf("%nwire bytes (encoding=%s, checks=%d): request %d, response %d%n", encoding, checks,
+                requestHeaderBytes + request.body.size(), responseHeaderBytes + response.body.size());
+    }
+
+    @Benchmark
+    public LoanStatus[] call() throws IOException {
+        var request = new Output();
+        clientConverter.write(requests, mediaType, request);
+        var received = serverConverter.read(REQUESTS.getType(), null, request.received());
+        if (((List<?>) received).size() != checks) {
+            throw new IllegalStateException("Unexpected request count");
+        }
+        var response = new Output();
+        serverConverter.write(statuses, STATUSES.getType(), mediaType, response);
+        return (LoanStatus[]) clientConverter.read(LoanStatus[].class, response.received());
+    }
+
+    private static int headerBytes(String name, String value) {
+        return (name + ": " + value + "\r\n").getBytes(StandardCharsets.US_ASCII).length;
+    }
+
+    /**
+     * El cuerpo de un mensaje HTTP que escribe un convertidor, en memoria.
+     */
+    private static final class Output implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(2048);
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Devuelve el mensaje tal como lo recibe el otro servicio.
+         */
+        Input received() {
+            return new Input(headers, body.toByteArray());
+        }
+    }
+
+    /**
+     * Un mensaje HTTP recibido, en memoria.
+     */
+    private record Input(HttpHeaders headers, byte[] content) implements HttpInputMessage {
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(content);
+        }
+    }
+}
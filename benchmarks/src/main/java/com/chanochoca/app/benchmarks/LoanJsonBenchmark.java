@@ -0,0 +1,74 @@
+package com.chanochoca.app.benchmarks;
+
+import com.chanochoca.app.loans.dto.LoanDto;
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import com.chanochoca.app.loans.id.TimeOrderedIds;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `LoanJsonBenchmark` mide la serialización y deserialización JSON de listas de `LoanDto`, con un `ObjectMapper`
+ * configurado igual que el de Spring Boot.
+ *
+ * Con `-prof gc`, JMH informa además los bytes asignados por operación (`gc.alloc.rate.norm`), que reflejan el costo de
+ * leer y escribir los montos con `MoneyJson`.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanJsonBenchmark {
+
+    @Param({"10", "1000"})
+    public int loans;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<LoanDto> loanDtos;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        var objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        var listType = objectMapper.getTypeFactory().constructCollectionType(List.class, LoanDto.class);
+        writer = objectMapper.writerFor(listType);
+        reader = objectMapper.readerFor(listType);
+        loanDtos = new ArrayList<>(loans);
+        for (int i = 0; i < loans; i++) {
+            loanDtos.add(new LoanDto(TimeOrderedIds.next().toString(), "Customer " + i, 100 + i,
+                    new Money(500_000, Currency.INR), i % 10 == 0 ? LoanStatus.REJECTED : LoanStatus.APPROVED));
+        }
+        json = writer.writeValueAsBytes(loanDtos);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(loanDtos);
+    }
+
+    @Benchmark
+    public List<LoanDto> deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,53 @@
+package com.chanochoca.app.benchmarks;
+
+import com.chanochoca.app.loans.dto.LoanDto;
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.Loan;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import com.chanochoca.app.loans.id.TimeOrderedIds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `LoanMappingBenchmark` mide la conversión entre la entidad `Loan` y el DTO `LoanDto`, que se realiza por cada
+ * préstamo solicitado y por cada préstamo listado.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanMappingBenchmark {
+
+    private Loan loan;
+    private LoanDto loanDto;
+
+    @Setup
+    public void setUp() {
+        loan = new Loan(1L, TimeOrderedIds.next(), "John", 101, new Money(500_000, Currency.INR),
+                LoanStatus.APPROVED);
+        loanDto = LoanDto.from(loan);
+    }
+
+    @Benchmark
+    public LoanDto loanToDto() {
+        return LoanDto.from(loan);
+    }
+
+    @Benchmark
+    public Loan dtoToLoan() {
+        return Loan.from(loanDto);
+    }
+}
@@ -0,0 +1,72 @@
+package com.chanochoca.app.benchmarks;
+
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.Loan;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import com.chanochoca.app.loans.repository.LoanRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `LoanRowMappingBenchmark` mide la lectura y el mapeo de filas de `loans` a `Loan` a través de `LoanRepository`, sobre
+ * una base de datos H2 en memoria en modo MySQL.
+ *
+ * Mide tanto la lectura de una página (`findPage`, con `JdbcClient`) como el recorrido con cursor (`forEach`).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanRowMappingBenchmark {
+
+    @Param({"1000"})
+    public int rows;
+
+    private LoanRepository repository;
+
+    @Setup
+    public void setUp() {
+        var dataSource = EmbeddedDatabases.loans("loans-" + rows);
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new LoanRepository(JdbcClient.create(jdbcTemplate), jdbcTemplate, event -> {});
+        var loans = new ArrayList<Loan>(rows);
+        for (int i = 0; i < rows; i++) {
+            loans.add(Loan.builder()
+                    .customerName("Customer " + i)
+                    .customerId(100 + i)
+                    .amount(new Money(500_000, Currency.INR))
+                    .loanStatus(LoanStatus.APPROVED)
+                    .build());
+        }
+        repository.saveAll(loans);
+    }
+
+    @Benchmark
+    public List<Loan> findPage() {
+        return repository.findPage(0, rows);
+    }
+
+    @Benchmark
+    public void forEach(Blackhole blackhole) {
+        repository.forEach(500, blackhole::consume);
+    }
+}
@@ -0,0 +1,78 @@
+package com.chanochoca.app.benchmarks;
+
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
+import io.micrometer.observation.aop.ObservedAspect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `ObservedAspectBenchmark` mide el costo por llamada del aspecto `@Observed`, que los servicios aplican a
+ * `LoanRepository` y a los métodos anotados.
+ *
+ * Compara una llamada directa con una llamada a través del proxy de Spring AOP, con un registro de observaciones sin
+ * manejadores (`noop`) y con uno que registra métricas (`metrics`), como en los servicios.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObservedAspectBenchmark {
+
+    @Param({"noop", "metrics"})
+    public String registry;
+
+    private ObservedTarget direct;
+    private ObservedTarget observed;
+    private int value;
+
+    @Setup
+    public void setUp() {
+        var observationRegistry = ObservationRegistry.create();
+        if (registry.equals("metrics")) {
+            observationRegistry.observationConfig()
+                    .observationHandler(new DefaultMeterObservationHandler(new SimpleMeterRegistry()));
+        }
+        direct = new ObservedTarget();
+        var proxyFactory = new AspectJProxyFactory(new ObservedTarget());
+        proxyFactory.addAspect(new ObservedAspect(observationRegistry));
+        observed = proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public int directCall() {
+        return direct.increment(value++);
+    }
+
+    @Benchmark
+    public int observedCall() {
+        return observed.increment(value++);
+    }
+
+    /**
+     * Objetivo de las llamadas medidas.
+     */
+    public static class ObservedTarget {
+
+        @Observed(name = "benchmark.increment")
+        public int increment(int value) {
+            return value + 1;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.chanochoca.app.benchmarks;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * `ProcessCpuProfiler` es un profiler de JMH que informa el tiempo de CPU de todo el proceso por operación
+ * (`cpu.time.norm`), incluido el de los hilos que no ejecutan el benchmark, como los de JFR y los del recolector de
+ * basura, y por separado el de los hilos de JFR (`cpu.time.jfr.norm`: el que escribe la grabación, el de las tareas
+ * periódicas y el que procesa los eventos de un `RecordingStream`).
+ *
+ * A diferencia del tiempo transcurrido, el tiempo de CPU no incluye el tiempo en que el proceso espera a que otros
+ * procesos liberen la CPU, por lo que varía mucho menos entre ejecuciones en una máquina compartida. El de los hilos de
+ * JFR, además, no depende de la variación del benchmark, de modo que mide con precisión el costo de la grabación fuera
+ * de los hilos de la aplicación; el costo dentro de ellos (el muestreo y el registro de los eventos) solo se ve en
+ * `cpu.time.norm`. Se usa con `-prof com.chanochoca.app.benchmarks.ProcessCpuProfiler`.
+ */
+public class ProcessCpuProfiler implements InternalProfiler {
+
+    private final com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private long startCpuTime;
+    private Map<Long, Long> startJfrCpuTimes = Map.of();
+
+    @Override
+    public String getDescription() {
+        return "Process CPU time per operation, including JFR and GC threads";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        startCpuTime = os.getProcessCpuTime();
+        startJfrCpuTimes = jfrCpuTimes();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        long cpuTime = os.getProcessCpuTime() - startCpuTime;
+        long jfrCpuTime = 0;
+        for (var thread : jfrCpuTimes().entrySet()) {
+            jfrCpuTime += thread.getValue() - startJfrCpuTimes.getOrDefault(thread.getKey(), 0L);
+        }
+        long operations = Math.max(result.getMetadata().getAllOps(), 1);
+        double nanosPerUnit = benchmarkParams.getTimeUnit().toNanos(1);
+        String unit = shortUnit(benchmarkParams) + "/op";
+        return List.of(
+                new ScalarResult("cpu.time.norm", cpuTime / nanosPerUnit / operations, unit, AggregationPolicy.AVG),
+                new ScalarResult("cpu.time.jfr.norm", jfrCpuTime / nanosPerUnit / operations, unit,
+                        AggregationPolicy.AVG));
+    }
+
+    /**
+     * Devuelve el tiempo de CPU acumulado de cada hilo de JFR en curso, por identificador de hilo.
+     *
+     * Los hilos que terminan durante la iteración (al detener una grabación) no se cuentan.
+     */
+    private Map<Long, Long> jfrCpuTimes() {
+        var cpuTimes = new HashMap<Long, Long>();
+        for (ThreadInfo thread : threads.dumpAllThreads(false, false)) {
+            if (thread.getThreadName().startsWith("JFR ")) {
+                long cpuTime = threads.getThreadCpuTime(thread.getThreadId());
+                if (cpuTime >= 0) {
+                    cpuTimes.put(thread.getThreadId(), cpuTime);
+                }
+            }
+        }
+        return cpuTimes;
+    }
+
+    private static String shortUnit(BenchmarkParams benchmarkParams) {
+        return switch (benchmarkParams.getTimeUnit()) {
+            case NANOSECONDS -> "ns";
+            case MICROSECONDS -> "us";
+            case MILLISECONDS -> "ms";
+            default -> benchmarkParams.getTimeUnit().name().toLowerCase();
+        };
+    }
+}
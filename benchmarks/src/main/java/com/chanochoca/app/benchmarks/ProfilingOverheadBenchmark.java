@@ -0,0 +1,159 @@
+package com.chanochoca.app.benchmarks;
+
+import com.chanochoca.app.loans.dto.LoanDto;
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.Loan;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import com.chanochoca.app.loans.repository.LoanRepository;
+import com.chanochoca.app.observability.profiling.ContinuousRecording;
+import com.chanochoca.app.observability.profiling.HotSpotMetrics;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `ProfilingOverheadBenchmark` mide el costo de la grabación continua de JFR (`ContinuousRecording`) y de las métricas
+ * de puntos calientes (`HotSpotMetrics`) sobre dos caminos de una solicitud de `loan-service`: la lectura y el mapeo de
+ * una página de `loans` en H2 (que además registra `LoanRowMappingEvent`) y la lectura y escritura JSON de una lista de
+ * `LoanDto`.
+ *
+ * `profiling=off` no graba; `profiling=on` graba con la configuración de los servicios (`default`, 5 minutos, 100 MB) y
+ * publica `HotSpotMetrics`. Cada combinación se mide en varias JVM (`@Fork`), de modo que el intervalo de error de JMH
+ * incluye la variación entre ejecuciones y no solo entre iteraciones.
+ *
+ * En una máquina compartida esa variación suele ser mayor que el costo que se quiere medir, por lo que
+ * `profiling=alternating` inicia y detiene la grabación en iteraciones alternas de la misma JVM: cada iteración con
+ * grabación se compara con el promedio de las dos vecinas sin ella (y viceversa), lo que elimina las diferencias de
+ * compilación entre JVM y la deriva lenta de la máquina. Al iniciarse, JFR escribe y procesa una ráfaga de eventos
+ * iniciales y recompila el código instrumentado, por lo que antes de cada iteración con grabación se espera
+ * `SETTLE_TIME` y las iteraciones deben ser largas (por ejemplo, `-i 40 -r 5`) para medir el costo permanente y no el
+ * del inicio.
+ *
+ * Con `-prof com.chanochoca.app.benchmarks.ProcessCpuProfiler`, cada iteración informa además el tiempo de CPU del
+ * proceso y el de los hilos de JFR por operación, que varía mucho menos que el tiempo transcurrido.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(5)
+@State(Scope.Benchmark)
+public class ProfilingOverheadBenchmark {
+
+    /** La espera después de iniciar la grabación con `profiling=alternating`. */
+    private static final Duration SETTLE_TIME = Duration.ofSeconds(1);
+
+    @Param({"off", "on", "alternating"})
+    public String profiling;
+
+    @Param({"1000"})
+    public int rows;
+
+    private ContinuousRecording recording;
+    private IterationType phase;
+    private int iteration;
+    private LoanRepository repository;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException, ParseException {
+        if (profiling.equals("on")) {
+            startRecording();
+        }
+        var dataSource = EmbeddedDatabases.loans("profiling-" + profiling);
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new LoanRepository(JdbcClient.create(jdbcTemplate), jdbcTemplate, event -> {});
+        var loans = new ArrayList<Loan>(rows);
+        for (int i = 0; i < rows; i++) {
+            loans.add(Loan.builder()
+                    .customerName("Customer " + i)
+                    .customerId(100 + i)
+                    .amount(new Money(500_000, Currency.INR))
+                    .loanStatus(LoanStatus.APPROVED)
+                    .build());
+        }
+        repository.saveAll(loans);
+
+        var objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        var listType = objectMapper.getTypeFactory().constructCollectionType(List.class, LoanDto.class);
+        writer = objectMapper.writerFor(listType);
+        reader = objectMapper.readerFor(listType);
+        json = writer.writeValueAsBytes(repository.findPage(0, rows).stream().map(LoanDto::from).toList());
+    }
+
+    /**
+     * Con `profiling=alternating`, inicia la grabación antes de las iteraciones impares de cada fase (calentamiento y
+     * medición, contando desde 1 como JMH) y la detiene antes de las pares.
+     */
+    @Setup(Level.Iteration)
+    public void alternate(IterationParams params) throws IOException, ParseException, InterruptedException {
+        if (!profiling.equals("alternating")) {
+            return;
+        }
+        if (params.getType() != phase) {
+            phase = params.getType();
+            iteration = 0;
+        }
+        if (iteration++ % 2 == 0) {
+            stopRecording();
+            startRecording();
+            Thread.sleep(SETTLE_TIME);
+        } else {
+            stopRecording();
+        }
+    }
+
+    @TearDown
+    public void stopRecording() {
+        if (recording != null) {
+            recording.destroy();
+            recording = null;
+        }
+    }
+
+    private void startRecording() throws IOException, ParseException {
+        recording = new ContinuousRecording("default", Duration.ofMinutes(5), 100L * 1024 * 1024, Map.of());
+        recording.afterPropertiesSet();
+        new HotSpotMetrics(recording, Duration.ofMillis(20), 10, Duration.ofMinutes(1)).bindTo(new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public List<Loan> findPage() {
+        return repository.findPage(0, rows);
+    }
+
+    @Benchmark
+    public byte[] jsonRoundTrip() throws IOException {
+        List<LoanDto> loans = reader.readValue(json);
+        return writer.writeValueAsBytes(loans);
+    }
+}
@@ -0,0 +1,16 @@
+package com.chanochoca.app.fraudetect.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * `FraudCheckProperties` agrupa la configuración de los endpoints de verificación de fraude (`fraud.check.*`).
+ *
+ * @param maxBatchSize La cantidad máxima de solicitudes que acepta una llamada a `/fraud/check/batch`. Las llamadas con
+ *                     más solicitudes se rechazan con `400 Bad Request`. Debe ser mayor o igual a
+ *                     `loan.batch.chunk-size` y `fraud.client.batch.max-size` de `loan-service`.
+ */
+@ConfigurationProperties(prefix = "fraud.check")
+public record FraudCheckProperties(
+        @DefaultValue("1000") int maxBatchSize) {
+}
@@ -0,0 +1,30 @@
+package com.chanochoca.app.fraudetect.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * `FraudFilterProperties` agrupa la configuración del filtro de Bloom de clientes marcados (`fraud.filter.*`).
+ *
+ * @param enabled Indica si el servicio descarta con el filtro a los clientes que definitivamente no tienen registros de
+ *                fraude. Si es `false`, sin el índice en memoria cada verificación consulta la base de datos.
+ * @param expectedInsertions La cantidad de clientes marcados que se espera, usada para dimensionar el filtro.
+ * @param bitsPerKey Los bits reservados por cliente esperado; con `12` la tasa de falsos positivos es cercana al 0,5 %.
+ * @param snapshotPath El archivo donde se guarda el filtro para cargarlo al reiniciar sin recorrer `fraud_records`.
+ *                     Si no se indica, el filtro solo vive en memoria.
+ * @param refreshInterval El intervalo entre refrescos incrementales, que solo leen los registros con `id` mayor al último cargado.
+ * @param fullRefreshInterval El intervalo entre reconstrucciones completas del filtro, necesarias para reflejar registros
+ *                            eliminados (un filtro de Bloom no admite eliminaciones).
+ */
+@ConfigurationProperties(prefix = "fraud.filter")
+public record FraudFilterProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1000000") long expectedInsertions,
+        @DefaultValue("12") int bitsPerKey,
+        Path snapshotPath,
+        @DefaultValue("5s") Duration refreshInterval,
+        @DefaultValue("1h") Duration fullRefreshInterval) {
+}
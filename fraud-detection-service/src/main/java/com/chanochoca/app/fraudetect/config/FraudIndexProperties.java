@@ -0,0 +1,29 @@
+package com.chanochoca.app.fraudetect.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * `FraudIndexProperties` agrupa la configuración del índice en memoria de registros de fraude (`fraud.index.*`).
+ *
+ * @param enabled Indica si el servicio responde desde el índice en memoria. Si es `false`, siempre se consulta la base de datos.
+ * @param refreshInterval El intervalo entre refrescos incrementales, que solo leen los registros con `id` mayor al último cargado.
+ * @param fullRefreshInterval El intervalo entre reconstrucciones completas del índice, necesarias para reflejar registros
+ *                            eliminados o insertados con un `id` menor al último cargado.
+ * @param expectedSize La cantidad de clientes marcados que se espera, usada para dimensionar el conjunto inicial.
+ * @param snapshotPath El archivo donde se guarda periódicamente el índice, para cargarlo al iniciar sin recorrer
+ *                     `fraud_records`. Si no se indica, el índice siempre se carga desde la base de datos.
+ * @param snapshotInterval El intervalo entre escrituras del archivo; solo se escribe si el índice cambió.
+ */
+@ConfigurationProperties(prefix = "fraud.index")
+public record FraudIndexProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("5s") Duration refreshInterval,
+        @DefaultValue("10m") Duration fullRefreshInterval,
+        @DefaultValue("1024") int expectedSize,
+        Path snapshotPath,
+        @DefaultValue("1m") Duration snapshotInterval) {
+}
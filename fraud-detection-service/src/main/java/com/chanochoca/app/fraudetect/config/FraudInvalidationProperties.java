@@ -0,0 +1,25 @@
+package com.chanochoca.app.fraudetect.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * `FraudInvalidationProperties` agrupa la configuración de los avisos de cambios en los registros de fraude
+ * (`fraud.invalidation.*`).
+ *
+ * @param targets Las URI base de los servicios (por ejemplo, `loan-service`) que guardan decisiones de fraude en caché
+ *                y deben ser avisados cuando un cliente es agregado o eliminado de los registros de fraude.
+ * @param timeout El tiempo máximo de conexión y de respuesta de cada aviso.
+ * @param token El secreto compartido que se envía en el encabezado `X-Fraud-Cache-Token` de cada aviso; debe coincidir
+ *              con `fraud.client.cache.invalidation-token` de los servicios avisados. Si no se indica, no se envían
+ *              avisos.
+ */
+@ConfigurationProperties(prefix = "fraud.invalidation")
+public record FraudInvalidationProperties(
+        @DefaultValue List<String> targets,
+        @DefaultValue("2s") Duration timeout,
+        String token) {
+}
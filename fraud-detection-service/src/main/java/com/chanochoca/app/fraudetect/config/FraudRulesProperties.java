@@ -0,0 +1,86 @@
+package com.chanochoca.app.fraudetect.config;
+
+import com.chanochoca.app.fraudetect.entity.Currency;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * `FraudRulesProperties` agrupa la configuración del motor de reglas de fraude (`fraud.rules.*`).
+ *
+ * @param definitions Las reglas a evaluar, en cualquier orden: el motor las ordena por costo. Si no se define ninguna,
+ *                    solo se evalúa la regla `fraud-records` (los registros de la tabla `fraud_records`).
+ * @param velocityCounterWidth La cantidad de columnas por fila de los contadores de frecuencia; determina la memoria
+ *                             de cada regla `velocity` y la probabilidad de que dos clientes compartan un contador.
+ * @param velocityBuckets La cantidad de intervalos en que se divide la ventana de cada regla `velocity`; la ventana
+ *                        avanza de a un intervalo.
+ * @param duplicateWindow El tiempo mínimo durante el que se recuerda el identificador de una llamada
+ *                        (`X-Fraud-Request-Id`), para no registrar dos veces en las reglas `velocity` las
+ *                        verificaciones repetidas por una solicitud de cobertura.
+ * @param maxTrackedRequestIds La cantidad máxima de identificadores de llamada recordados por ventana; si llegan más,
+ *                             los más antiguos se olvidan antes de `duplicateWindow`.
+ */
+@ConfigurationProperties(prefix = "fraud.rules")
+public record FraudRulesProperties(
+        List<RuleDefinition> definitions,
+        @DefaultValue("16384") int velocityCounterWidth,
+        @DefaultValue("10") int velocityBuckets,
+        @DefaultValue("1m") Duration duplicateWindow,
+        @DefaultValue("100000") int maxTrackedRequestIds) {
+
+    public FraudRulesProperties {
+        if (definitions == null || definitions.isEmpty()) {
+            definitions = List.of(new RuleDefinition("fraud-records", null, null, null, null, Map.of(), Set.of()));
+        }
+    }
+
+    /**
+     * `RuleDefinition` es la definición de una regla en la configuración. Cada tipo de regla usa solo algunos parámetros.
+     *
+     * @param type El tipo de regla: `fraud-records`, `blocklist`, `amount` o `velocity` (o el de una fábrica propia).
+     * @param name El nombre de la regla en los registros y métricas; si no se indica, se usa el tipo.
+     * @param cost El costo relativo de la regla, para reemplazar el costo por defecto de su tipo.
+     * @param maxCount Para `velocity`: la cantidad máxima de solicitudes de un cliente dentro de la ventana.
+     * @param window Para `velocity`: la duración de la ventana.
+     * @param thresholds Para `amount`: el monto máximo por moneda; las monedas sin umbral no se limitan.
+     * @param customerIds Para `blocklist`: los clientes cuyas solicitudes se rechazan siempre.
+     */
+    public record RuleDefinition(
+            String type,
+            String name,
+            Integer cost,
+            Integer maxCount,
+            Duration window,
+            Map<Currency, BigDecimal> thresholds,
+            Set<Integer> customerIds) {
+
+        public RuleDefinition {
+            thresholds = thresholds == null ? Map.of() : thresholds;
+            customerIds = customerIds == null ? Set.of() : customerIds;
+        }
+
+        /**
+         * Devuelve el nombre de la regla, o su tipo si no tiene nombre.
+         *
+         * @return El nombre de la regla.
+         */
+        public String nameOrType() {
+            return name != null ? name : type;
+        }
+
+        /**
+         * Devuelve el costo de la regla, o el costo por defecto de su tipo si no se indicó.
+         *
+         * @param defaultCost El costo por defecto del tipo de regla.
+         * @return El costo de la regla.
+         */
+        public int costOr(int defaultCost) {
+            return cost != null ? cost : defaultCost;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.chanochoca.app.fraudetect.config;
+
+import com.chanochoca.app.fraudetect.controller.FraudCheckMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * `WebConfig` es una clase de configuración de Spring MVC que registra los formatos adicionales de los endpoints de
+ * `fraud-detection-service`.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * Agrega el formato binario `application/x-fraud-check` a los convertidores de Spring MVC.
+     *
+     * @param converters Los convertidores de Spring MVC, con los de Spring Boot ya registrados.
+     *
+     * El convertidor se agrega al final de la lista, después del de JSON: cuando el encabezado `Accept` admite ambos
+     * formatos con la misma preferencia (como en las solicitudes sin `Accept`), se elige JSON.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new FraudCheckMessageConverter());
+    }
+}
@@ -0,0 +1,162 @@
+package com.chanochoca.app.fraudetect.controller;
+
+import com.chanochoca.app.fraudetect.dto.FraudCheckRequest;
+import com.chanochoca.app.fraudetect.entity.Currency;
+import com.chanochoca.app.fraudetect.entity.LoanStatus;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * `FraudCheckMessageConverter` lee y escribe el formato binario `application/x-fraud-check` de los endpoints
+ * `/fraud/check` y `/fraud/check/batch`, una alternativa compacta a JSON para `loan-service`.
+ *
+ * El formato tiene un tamaño fijo por elemento, con los enteros en orden big-endian:
+ *
+ * - **Solicitud** (cuerpo de `POST /fraud/check/batch`): 14 bytes por verificación: el `customerId` (4 bytes), el
+ *   monto en unidades menores (8 bytes, `Long.MIN_VALUE` si la solicitud no indica un monto) y el código numérico
+ *   ISO 4217 de la moneda (2 bytes, `0` si no se indica; `356` para `INR`, `840` para `USD`, `978` para `EUR`).
+ * - **Respuesta** (de ambos endpoints): 1 byte por decisión, `A` para `APPROVED` y `R` para `REJECTED`, en el orden de
+ *   las solicitudes.
+ *
+ * El convertidor se agrega después de los de JSON (`WebConfig`), por lo que las respuestas se escriben en este formato
+ * solo si el encabezado `Accept` lo prefiere; los clientes que aceptan cualquier tipo de contenido siguen recibiendo
+ * JSON.
+ */
+public class FraudCheckMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    /** El tipo de contenido del formato binario de las verificaciones de fraude. */
+    public static final MediaType MEDIA_TYPE = new MediaType("application", "x-fraud-check");
+
+    /** Tamaño en bytes de una verificación en el cuerpo de una solicitud. */
+    static final int REQUEST_SIZE = 14;
+
+    /** Monto que indica que la solicitud no tiene monto. */
+    static final long NO_AMOUNT = Long.MIN_VALUE;
+
+    private static final byte APPROVED = 'A';
+    private static final byte REJECTED = 'R';
+
+    private static final ResolvableType REQUESTS = ResolvableType.forClassWithGenerics(List.class, FraudCheckRequest.class);
+    private static final ResolvableType STATUSES = ResolvableType.forClassWithGenerics(List.class, LoanStatus.class);
+
+    /** Monedas indexadas por su código numérico ISO 4217. */
+    private static final Currency[] CURRENCIES;
+
+    static {
+        int max = 0;
+        for (Currency currency : Currency.values()) {
+            max = Math.max(max, numericCode(currency));
+        }
+        CURRENCIES = new Currency[max + 1];
+        for (Currency currency : Currency.values()) {
+            CURRENCIES[numericCode(currency)] = currency;
+        }
+    }
+
+    public FraudCheckMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == LoanStatus.class || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return REQUESTS.isAssignableFrom(ResolvableType.forType(type)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (clazz == LoanStatus.class) {
+            return true;
+        }
+        return type != null && List.class.isAssignableFrom(clazz)
+                && STATUSES.isAssignableFrom(ResolvableType.forType(type));
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readRequests(inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return readRequests(inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        byte[] body;
+        if (value instanceof LoanStatus status) {
+            body = new byte[]{code(status)};
+        } else {
+            var statuses = (List<?>) value;
+            body = new byte[statuses.size()];
+            for (int i = 0; i < body.length; i++) {
+                body[i] = code((LoanStatus) statuses.get(i));
+            }
+        }
+        outputMessage.getBody().write(body);
+    }
+
+    @Override
+    protected Long getContentLength(Object value, @Nullable MediaType contentType) {
+        return value instanceof List<?> statuses ? (long) statuses.size() : 1L;
+    }
+
+    /**
+     * Lee las verificaciones del cuerpo de `POST /fraud/check/batch`.
+     */
+    private static List<FraudCheckRequest> readRequests(HttpInputMessage inputMessage) throws IOException {
+        byte[] body = inputMessage.getBody().readAllBytes();
+        if (body.length % REQUEST_SIZE != 0) {
+            throw new HttpMessageNotReadableException("The body length " + body.length + " is not a multiple of "
+                    + REQUEST_SIZE, inputMessage);
+        }
+        var buffer = ByteBuffer.wrap(body);
+        var requests = new ArrayList<FraudCheckRequest>(body.length / REQUEST_SIZE);
+        while (buffer.hasRemaining()) {
+            int customerId = buffer.getInt();
+            long amount = buffer.getLong();
+            int currencyCode = buffer.getShort() & 0xFFFF;
+            Currency currency = null;
+            if (currencyCode != 0) {
+                currency = currencyCode < CURRENCIES.length ? CURRENCIES[currencyCode] : null;
+                if (currency == null) {
+                    throw new HttpMessageNotReadableException("Unknown currency code " + currencyCode, inputMessage);
+                }
+            }
+            requests.add(new FraudCheckRequest(customerId,
+                    amount == NO_AMOUNT ? null : BigDecimal.valueOf(amount, 2), currency));
+        }
+        return requests;
+    }
+
+    private static byte code(LoanStatus status) {
+        return switch (status) {
+            case APPROVED -> APPROVED;
+            case REJECTED -> REJECTED;
+        };
+    }
+
+    private static int numericCode(Currency currency) {
+        return java.util.Currency.getInstance(currency.name()).getNumericCode();
+    }
+}
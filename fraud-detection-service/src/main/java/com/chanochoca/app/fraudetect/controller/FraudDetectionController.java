@@ -1,19 +1,45 @@
 package com.chanochoca.app.fraudetect.controller;
 
+import com.chanochoca.app.fraudetect.config.FraudCheckProperties;
+import com.chanochoca.app.fraudetect.dto.FraudCheckRequest;
+import com.chanochoca.app.fraudetect.entity.Currency;
 import com.chanochoca.app.fraudetect.entity.LoanStatus;
+import com.chanochoca.app.fraudetect.rules.FraudDecision;
 import com.chanochoca.app.fraudetect.service.FraudDetectionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * `FraudDetectionController` es un controlador de Spring que maneja las solicitudes relacionadas con la detección de fraude.
  *
- * Este controlador expone un endpoint HTTP para verificar si un cliente tiene un registro de fraude, interactuando con el
- * servicio `FraudDetectionService` para obtener el estado del préstamo basado en la existencia de registros de fraude.
+ * Este controlador expone endpoints HTTP para evaluar una o varias solicitudes de préstamo con las reglas de fraude,
+ * interactuando con el servicio `FraudDetectionService` para obtener el estado del préstamo.
+ *
+ * Si alguna decisión depende del monto, la moneda o el momento de la solicitud (por ejemplo, por un límite de
+ * frecuencia), la respuesta incluye el encabezado `Cache-Control: no-store`, para que los clientes no guarden la
+ * decisión por cliente.
+ *
+ * Además de JSON, ambos endpoints aceptan y devuelven el formato binario `application/x-fraud-check`
+ * (`FraudCheckMessageConverter`), que `loan-service` solicita con el encabezado `Accept` y utiliza para el cuerpo de
+ * `/fraud/check/batch`. Sin ese encabezado, las respuestas se escriben en JSON.
+ *
+ * `loan-service` envía en `X-Fraud-Request-Id` un identificador por llamada, que repiten sus solicitudes de cobertura;
+ * las reglas con estado, como los límites de frecuencia, registran una sola vez las llamadas con el mismo identificador.
  */
 @RestController
 @RequestMapping("/fraud")
@@ -21,22 +47,73 @@ import org.springframework.web.bind.annotation.RestController;
 @Slf4j
 public class FraudDetectionController {
 
+    /** El encabezado con el identificador de la llamada, que se repite en las solicitudes de cobertura. */
+    public static final String REQUEST_ID_HEADER = "X-Fraud-Request-Id";
+
     private final FraudDetectionService fraudDetectionService;
+    private final FraudCheckProperties fraudCheckProperties;
 
     /**
-     * Verifica si existe un registro de fraude para un cliente específico.
+     * Evalúa una solicitud de préstamo con las reglas de fraude.
      *
-     * @param customerId El ID del cliente para verificar si tiene un registro de fraude.
-     * @return `LoanStatus.REJECTED` si existe un registro de fraude para el cliente, `LoanStatus.APPROVED` en caso contrario.
+     * @param customerId El ID del cliente que solicita el préstamo.
+     * @param amount El monto solicitado (opcional; sin monto no se aplican las reglas de monto).
+     * @param currency La moneda del préstamo (opcional, `INR` por defecto).
+     * @param requestId El identificador de la llamada (opcional).
+     * @return `LoanStatus.REJECTED` si alguna regla de fraude coincide, `LoanStatus.APPROVED` en caso contrario.
      *
      * Este método maneja solicitudes GET en el endpoint `/fraud/check`. Utiliza el servicio `FraudDetectionService` para
-     * comprobar si el cliente con el `customerId` proporcionado tiene un registro de fraude. El resultado se devuelve como
-     * un estado de préstamo (`LoanStatus`) que indica si el préstamo está aprobado o rechazado basado en la existencia
-     * del registro de fraude. El método también registra información sobre la verificación de fraude utilizando `Slf4j`.
+     * evaluar la solicitud del cliente con el `customerId` proporcionado. El resultado se devuelve como un estado de
+     * préstamo (`LoanStatus`) que indica si el préstamo está aprobado o rechazado. El método también registra la
+     * verificación de fraude con nivel `DEBUG` utilizando `Slf4j`.
      */
     @GetMapping("/check")
-    public LoanStatus checkForFraud(@RequestParam int customerId) {
-        log.info("Checking for fraud for customer id: {}", customerId);
-        return fraudDetectionService.checkForFraud(customerId);
+    public ResponseEntity<LoanStatus> checkForFraud(@RequestParam int customerId,
+                                                    @RequestParam(required = false) BigDecimal amount,
+                                                    @RequestParam(required = false) Currency currency,
+                                                    @RequestHeader(name = REQUEST_ID_HEADER, required = false)
+                                                    String requestId) {
+        log.debug("Checking for fraud for customer id: {}", customerId);
+        FraudDecision decision = fraudDetectionService.checkForFraud(new FraudCheckRequest(customerId, amount, currency),
+                requestId);
+        if (decision.rule() != null) {
+            log.debug("Customer id {} rejected by fraud rule {}", customerId, decision.rule());
+        }
+        return response(decision.cacheable()).body(decision.status());
+    }
+
+    /**
+     * Evalúa en una sola solicitud varias solicitudes de préstamo.
+     *
+     * @param requests Las solicitudes a evaluar: objetos `{ "customerId", "amount", "currency" }` o IDs de clientes.
+     * @param requestId El identificador de la llamada (opcional).
+     * @return Una lista con el estado del préstamo (`LoanStatus`) de cada solicitud, en el mismo orden que `requests`.
+     *
+     * Este método maneja solicitudes POST en el endpoint `/fraud/check/batch`. Permite que los clientes que procesan
+     * préstamos en lote realicen una sola llamada HTTP en lugar de una por cliente. Las llamadas con más de
+     * `fraud.check.max-batch-size` solicitudes se rechazan con `400 Bad Request` antes de evaluarlas.
+     */
+    @PostMapping("/check/batch")
+    public ResponseEntity<List<LoanStatus>> checkForFraud(@RequestBody List<FraudCheckRequest> requests,
+                                                          @RequestHeader(name = REQUEST_ID_HEADER, required = false)
+                                                          String requestId) {
+        if (requests.size() > fraudCheckProperties.maxBatchSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A fraud check batch accepts at most "
+                    + fraudCheckProperties.maxBatchSize() + " requests but got " + requests.size());
+        }
+        log.debug("Checking for fraud for {} customer ids", requests.size());
+        var decisions = fraudDetectionService.checkForFraud(requests, requestId);
+        var statuses = new ArrayList<LoanStatus>(decisions.length);
+        boolean cacheable = true;
+        for (FraudDecision decision : decisions) {
+            statuses.add(decision.status());
+            cacheable &= decision.cacheable();
+        }
+        return response(cacheable).body(statuses);
+    }
+
+    private static ResponseEntity.BodyBuilder response(boolean cacheable) {
+        var response = ResponseEntity.ok();
+        return cacheable ? response : response.cacheControl(CacheControl.noStore());
     }
 }
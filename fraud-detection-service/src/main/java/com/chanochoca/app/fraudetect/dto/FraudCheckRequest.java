@@ -0,0 +1,37 @@
+package com.chanochoca.app.fraudetect.dto;
+
+import com.chanochoca.app.fraudetect.entity.Currency;
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.math.BigDecimal;
+
+/**
+ * `FraudCheckRequest` es la solicitud de préstamo que se verifica: el cliente y, si se conocen, el monto y la moneda.
+ *
+ * En el cuerpo de `POST /fraud/check/batch` cada elemento puede ser un objeto
+ * `{ "customerId": ..., "amount": ..., "currency": ... }` o, por compatibilidad con los clientes anteriores, solo el ID
+ * del cliente como número.
+ *
+ * @param customerId El ID del cliente.
+ * @param amount El monto solicitado, o `null` si no se conoce (las reglas de monto no se aplican).
+ * @param currency La moneda del préstamo; si no se indica, se asume `Currency.DEFAULT`.
+ */
+public record FraudCheckRequest(int customerId, BigDecimal amount, Currency currency) {
+
+    public FraudCheckRequest {
+        if (currency == null) {
+            currency = Currency.DEFAULT;
+        }
+    }
+
+    /**
+     * Crea la verificación de un cliente sin monto, a partir de un elemento numérico del cuerpo de la solicitud.
+     *
+     * @param customerId El ID del cliente.
+     * @return La verificación del cliente.
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static FraudCheckRequest of(int customerId) {
+        return new FraudCheckRequest(customerId, null, null);
+    }
+}
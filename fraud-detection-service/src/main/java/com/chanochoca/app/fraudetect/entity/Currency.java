@@ -0,0 +1,25 @@
+package com.chanochoca.app.fraudetect.entity;
+
+/**
+ * La enumeración `Currency` representa las monedas en las que puede estar denominado el préstamo que se verifica.
+ *
+ * Es la misma enumeración que utiliza `loan-service`; las reglas de fraude la usan para aplicar umbrales de monto por
+ * moneda.
+ *
+ * - `INR`: Rupia India.
+ * - `USD`: Dólar Estadounidense.
+ * - `EUR`: Euro.
+ */
+public enum Currency {
+    /** Rupia India. */
+    INR,
+
+    /** Dólar Estadounidense. */
+    USD,
+
+    /** Euro. */
+    EUR;
+
+    /** Moneda que se asume cuando la verificación no indica una moneda. */
+    public static final Currency DEFAULT = INR;
+}
@@ -0,0 +1,270 @@
+package com.chanochoca.app.fraudetect.index;
+
+import com.chanochoca.app.fraudetect.config.FraudFilterProperties;
+import com.chanochoca.app.fraudetect.repository.FraudRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * `FraudFilter` es un filtro de Bloom (`BlockedBloomFilter`) de los clientes que tienen registros de fraude.
+ *
+ * Ocupa unos pocos bits por cliente, en lugar de los ~8 bytes por cliente de `FraudIndex`, a cambio de una tasa de
+ * falsos positivos acotada: si el filtro indica que un cliente no está, la verificación termina sin consultar la base de
+ * datos; si indica que puede estar, `FraudDetectionService` lo confirma con `existsByCustomerId`. Como la gran mayoría de
+ * los clientes no tiene registros de fraude, casi ninguna verificación llega a MySQL.
+ *
+ * El filtro se mantiene igual que el índice en memoria, con refrescos incrementales desde la última marca de agua y
+ * reconstrucciones completas periódicas (las únicas que reflejan registros eliminados). Cada reconstrucción, y el cierre
+ * de la aplicación, guardan el filtro en `fraud.filter.snapshot-path`; al iniciar, el filtro se mapea en memoria desde
+ * ese archivo y solo se leen de `fraud_records` los registros posteriores a su marca de agua. Si la tabla tiene un `id`
+ * máximo menor a esa marca de agua (fue vaciada o recreada), el filtro se reconstruye por completo.
+ *
+ * Métricas publicadas:
+ *
+ * - `fraud.filter.checks` con la etiqueta `result`: `negative` (descartado sin consultar la base de datos),
+ *   `true_positive` (confirmado por la base de datos) o `false_positive` (la base de datos no tenía registros).
+ * - `fraud.filter.false.positive.rate`: proporción observada de falsos positivos entre los clientes sin registros.
+ * - `fraud.filter.expected.false.positive.rate`: tasa de falsos positivos estimada con la ocupación actual del filtro.
+ * - `fraud.filter.memory`: tamaño del filtro en bytes.
+ * - `fraud.filter.entries`: cantidad aproximada de clientes en el filtro.
+ * - `fraud.filter.refresh`: duración de cada carga, con la etiqueta `type` (`snapshot`, `incremental` o `full`).
+ */
+@Component
+@Slf4j
+public class FraudFilter implements SchedulingConfigurer {
+
+    private final FraudRecordRepository fraudRecordRepository;
+    private final FraudFilterProperties properties;
+
+    private final Counter negatives;
+    private final Counter truePositives;
+    private final Counter falsePositives;
+    private final Timer snapshotLoadTimer;
+    private final Timer incrementalRefreshTimer;
+    private final Timer fullRefreshTimer;
+
+    /** Filtro publicado; se reemplaza por completo en cada reconstrucción. */
+    private volatile BlockedBloomFilter filter;
+
+    /** Mayor `id` de `fraud_records` cargado en el filtro. Solo lo modifica el hilo de refresco. */
+    private long highWaterMark = -1;
+
+    public FraudFilter(FraudRecordRepository fraudRecordRepository, FraudFilterProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.fraudRecordRepository = fraudRecordRepository;
+        this.properties = properties;
+        this.negatives = checkCounter(meterRegistry, "negative");
+        this.truePositives = checkCounter(meterRegistry, "true_positive");
+        this.falsePositives = checkCounter(meterRegistry, "false_positive");
+        this.snapshotLoadTimer = Timer.builder("fraud.filter.refresh").tag("type", "snapshot").register(meterRegistry);
+        this.incrementalRefreshTimer = Timer.builder("fraud.filter.refresh").tag("type", "incremental").register(meterRegistry);
+        this.fullRefreshTimer = Timer.builder("fraud.filter.refresh").tag("type", "full").register(meterRegistry);
+        Gauge.builder("fraud.filter.false.positive.rate", this, FraudFilter::observedFalsePositiveRate)
+                .register(meterRegistry);
+        Gauge.builder("fraud.filter.expected.false.positive.rate", this, FraudFilter::expectedFalsePositiveRate)
+                .register(meterRegistry);
+        Gauge.builder("fraud.filter.memory", this, FraudFilter::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("fraud.filter.entries", this, FraudFilter::entries).register(meterRegistry);
+    }
+
+    /**
+     * Indica si el filtro ya completó su primera carga y puede descartar clientes.
+     *
+     * @return `true` si el filtro está listo, `false` mientras se está cargando o si está deshabilitado.
+     */
+    public boolean isReady() {
+        return properties.enabled() && filter != null;
+    }
+
+    /**
+     * Verifica si un cliente puede tener registros de fraude según el filtro.
+     *
+     * @param customerId El ID del cliente a verificar.
+     * @return `false` si el cliente definitivamente no tiene registros de fraude, `true` si debe confirmarse con la base
+     *         de datos (y luego informarse con `recordPositive`).
+     *
+     * Este método no accede a la base de datos ni crea objetos; debe invocarse solo cuando `isReady()` es `true`.
+     */
+    public boolean mightContain(int customerId) {
+        boolean positive = filter.mightContain(customerId);
+        if (!positive) {
+            negatives.increment();
+        }
+        return positive;
+    }
+
+    /**
+     * Registra el resultado de confirmar con la base de datos un positivo del filtro.
+     *
+     * @param flagged `true` si el cliente tenía registros de fraude, `false` si fue un falso positivo.
+     */
+    public void recordPositive(boolean flagged) {
+        (flagged ? truePositives : falsePositives).increment();
+    }
+
+    /**
+     * Registra las tareas periódicas de refresco incremental y reconstrucción completa del filtro.
+     *
+     * La reconstrucción no se ejecuta al iniciar, sino después del primer intervalo: la primera carga la hace el
+     * refresco, desde el archivo del filtro si existe.
+     *
+     * @param taskRegistrar El registro de tareas programadas de Spring.
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (!properties.enabled()) {
+            return;
+        }
+        taskRegistrar.addFixedDelayTask(this::refresh, properties.refreshInterval());
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(this::rebuild, properties.fullRefreshInterval(),
+                properties.fullRefreshInterval()));
+    }
+
+    /**
+     * Agrega al filtro los registros de fraude insertados desde el último refresco.
+     *
+     * Si el filtro todavía no fue cargado, lo carga desde el archivo y le agrega los registros posteriores a su marca de
+     * agua antes de publicarlo; si no hay archivo, realiza una carga completa. Si la tabla tiene un `id` máximo menor a
+     * la marca de agua del archivo (fue vaciada o recreada), el archivo no corresponde a la tabla y también se realiza
+     * una carga completa, como en `FraudIndex`.
+     */
+    synchronized void refresh() {
+        BlockedBloomFilter current = filter;
+        try {
+            if (current == null) {
+                current = loadSnapshot();
+                if (current == null) {
+                    rebuild();
+                    return;
+                }
+                long maxId = fraudRecordRepository.maxId();
+                if (maxId < highWaterMark) {
+                    log.info("fraud_records ends at id {} before the snapshot high-water mark {}, rebuilding the filter",
+                            maxId, highWaterMark);
+                    rebuild();
+                    return;
+                }
+            }
+            BlockedBloomFilter target = current;
+            highWaterMark = incrementalRefreshTimer.recordCallable(() ->
+                    fraudRecordRepository.forEachCustomerIdAfter(highWaterMark, (id, customerId) -> target.add(customerId)));
+            filter = target;
+        } catch (Exception e) {
+            log.warn("Incremental refresh of the fraud filter failed", e);
+        }
+    }
+
+    /**
+     * Vuelve a cargar la tabla completa en un filtro nuevo, lo publica de forma atómica y lo guarda en el archivo.
+     *
+     * Además de la tarea programada, puede invocarse para cargar el filtro de inmediato sin esperar al primer refresco,
+     * por ejemplo desde los benchmarks, que no inician el contexto de Spring. Si la carga falla, el filtro conserva su
+     * contenido anterior.
+     */
+    public synchronized void rebuild() {
+        try {
+            BlockedBloomFilter previous = filter;
+            long expected = Math.max(properties.expectedInsertions(), previous == null ? 0 : previous.entries() * 5 / 4);
+            BlockedBloomFilter rebuilt = BlockedBloomFilter.create(expected, properties.bitsPerKey());
+            highWaterMark = fullRefreshTimer.recordCallable(() ->
+                    fraudRecordRepository.forEachCustomerIdAfter(-1, (id, customerId) -> rebuilt.add(customerId)));
+            filter = rebuilt;
+            log.info("Fraud filter loaded with {} customer ids up to record id {} ({} bytes)", rebuilt.entries(),
+                    highWaterMark, rebuilt.memoryBytes());
+            writeSnapshot();
+        } catch (Exception e) {
+            log.warn("Full rebuild of the fraud filter failed", e);
+        }
+    }
+
+    /**
+     * Guarda el filtro al cerrar la aplicación, para que el próximo inicio solo lea los registros posteriores.
+     */
+    @PreDestroy
+    synchronized void close() {
+        writeSnapshot();
+    }
+
+    /**
+     * Mapea el filtro guardado en `fraud.filter.snapshot-path`.
+     *
+     * @return El filtro, o `null` si no hay archivo o no se pudo leer.
+     */
+    private BlockedBloomFilter loadSnapshot() {
+        Path path = properties.snapshotPath();
+        if (path == null || !Files.exists(path)) {
+            return null;
+        }
+        try {
+            BlockedBloomFilter.Snapshot snapshot = snapshotLoadTimer.recordCallable(() -> BlockedBloomFilter.map(path));
+            highWaterMark = snapshot.highWaterMark();
+            log.info("Fraud filter mapped from {} with {} customer ids up to record id {}", path,
+                    snapshot.filter().entries(), highWaterMark);
+            return snapshot.filter();
+        } catch (Exception e) {
+            log.warn("Could not load the fraud filter snapshot {}, rebuilding it from the database", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Escribe el filtro publicado en `fraud.filter.snapshot-path`, si está configurado.
+     */
+    private void writeSnapshot() {
+        Path path = properties.snapshotPath();
+        BlockedBloomFilter current = filter;
+        if (path == null || current == null) {
+            return;
+        }
+        try {
+            current.writeTo(path, highWaterMark);
+        } catch (IOException e) {
+            log.warn("Could not write the fraud filter snapshot {}", path, e);
+        }
+    }
+
+    /**
+     * Calcula la proporción de clientes sin registros de fraude que el filtro no pudo descartar.
+     */
+    private double observedFalsePositiveRate() {
+        double falsePositiveCount = falsePositives.count();
+        double clean = negatives.count() + falsePositiveCount;
+        return clean == 0 ? Double.NaN : falsePositiveCount / clean;
+    }
+
+    private double expectedFalsePositiveRate() {
+        BlockedBloomFilter current = filter;
+        return current == null ? Double.NaN : current.expectedFalsePositiveRate();
+    }
+
+    private double memoryBytes() {
+        BlockedBloomFilter current = filter;
+        return current == null ? 0 : current.memoryBytes();
+    }
+
+    private double entries() {
+        BlockedBloomFilter current = filter;
+        return current == null ? 0 : current.entries();
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("fraud.filter.checks")
+                .description("Customers checked against the fraud Bloom filter, by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,325 @@
+package com.chanochoca.app.fraudetect.index;
+
+import com.chanochoca.app.fraudetect.config.FraudIndexProperties;
+import com.chanochoca.app.fraudetect.notification.FraudChangeNotifier;
+import com.chanochoca.app.fraudetect.repository.FraudRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * `FraudIndex` es un índice en memoria de los clientes que tienen registros de fraude.
+ *
+ * Mantiene todos los `customerId` de la tabla `fraud_records` en un `IntHashSet`, de modo que la verificación de fraude
+ * se resuelve en memoria, sin una consulta a MySQL por cada solicitud de préstamo. El índice se carga al iniciar la
+ * aplicación y se refresca periódicamente:
+ *
+ * - **Refresco incremental:** lee solo los registros cuyo `id` es mayor al último `id` cargado (marca de agua).
+ * - **Reconstrucción completa:** vuelve a leer toda la tabla en un conjunto nuevo, para reflejar eliminaciones o
+ *   registros insertados con un `id` menor a la marca de agua.
+ *
+ * Si se configura `fraud.index.snapshot-path`, el índice se guarda periódicamente (y al detener el servicio) en un
+ * archivo binario con los clientes y la marca de agua (`FraudIndexSnapshot`). Al iniciar, el índice se carga desde ese
+ * archivo antes de que el servicio acepte solicitudes y responde de inmediato; el primer refresco lee de
+ * `fraud_records` solo los registros posteriores a la marca de agua del archivo. Si la tabla tiene un `id` máximo menor
+ * a esa marca de agua (fue vaciada o recreada), el índice se reconstruye por completo.
+ *
+ * Mientras la primera carga no haya terminado, `isReady()` devuelve `false` y el servicio debe consultar el repositorio.
+ * Cuando un refresco agrega o elimina clientes, se avisa a `FraudChangeNotifier` para que los servicios que guardan
+ * decisiones en caché las invaliden.
+ *
+ * Métricas publicadas:
+ *
+ * - `fraud.index.lookups` con la etiqueta `result` (`hit` si el cliente está en el índice, `miss` si no lo está).
+ * - `fraud.index.size`: cantidad de clientes marcados en el índice.
+ * - `fraud.index.refresh.lag`: segundos transcurridos desde el último refresco exitoso.
+ * - `fraud.index.refresh`: duración de cada refresco, con la etiqueta `type` (`snapshot`, `incremental` o `full`).
+ * - `fraud.index.time.to.ready`: tiempo desde la creación del índice hasta su primera carga, con la etiqueta `source`
+ *   (`snapshot` o `database`).
+ */
+@Component
+@Slf4j
+public class FraudIndex implements SchedulingConfigurer {
+
+    private final FraudRecordRepository fraudRecordRepository;
+    private final FraudIndexProperties properties;
+    private final FraudChangeNotifier changeNotifier;
+    private final MeterRegistry meterRegistry;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer incrementalRefreshTimer;
+    private final Timer fullRefreshTimer;
+    private final Timer snapshotLoadTimer;
+
+    /** Instante (en nanosegundos) de creación del índice, para medir el tiempo hasta la primera carga. */
+    private final long createdNanos = System.nanoTime();
+
+    /** Conjunto de clientes marcados; se reemplaza por completo en cada reconstrucción. */
+    private volatile IntHashSet customerIds;
+
+    /** Mayor `id` de `fraud_records` cargado en el índice. Solo lo modifica el hilo de refresco. */
+    private long highWaterMark = -1;
+
+    /** Instante (en nanosegundos) del último refresco exitoso. */
+    private volatile long lastRefreshNanos;
+
+    /** Indica si el índice se cargó desde el archivo y falta verificar que la tabla no fue vaciada o recreada. */
+    private boolean snapshotUnverified;
+
+    /** Cantidad de cambios aplicados al índice, y la que tenía al escribir el último archivo. */
+    private long changes;
+    private long snapshotChanges;
+
+    public FraudIndex(FraudRecordRepository fraudRecordRepository, FraudIndexProperties properties,
+                      FraudChangeNotifier changeNotifier, MeterRegistry meterRegistry) {
+        this.fraudRecordRepository = fraudRecordRepository;
+        this.properties = properties;
+        this.changeNotifier = changeNotifier;
+        this.meterRegistry = meterRegistry;
+        this.hits = Counter.builder("fraud.index.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("fraud.index.lookups").tag("result", "miss").register(meterRegistry);
+        this.incrementalRefreshTimer = Timer.builder("fraud.index.refresh").tag("type", "incremental").register(meterRegistry);
+        this.fullRefreshTimer = Timer.builder("fraud.index.refresh").tag("type", "full").register(meterRegistry);
+        this.snapshotLoadTimer = Timer.builder("fraud.index.refresh").tag("type", "snapshot").register(meterRegistry);
+        Gauge.builder("fraud.index.size", this, FraudIndex::size).register(meterRegistry);
+        Gauge.builder("fraud.index.refresh.lag", this, FraudIndex::refreshLagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si el índice ya completó su primera carga y puede responder consultas.
+     *
+     * @return `true` si el índice está listo, `false` mientras se está calentando o si está deshabilitado.
+     */
+    public boolean isReady() {
+        return properties.enabled() && customerIds != null;
+    }
+
+    /**
+     * Verifica si un cliente tiene un registro de fraude según el índice en memoria.
+     *
+     * @param customerId El ID del cliente a verificar.
+     * @return `true` si el cliente está en el índice, `false` en caso contrario.
+     *
+     * Este método no accede a la base de datos ni crea objetos; debe invocarse solo cuando `isReady()` es `true`.
+     */
+    public boolean contains(int customerId) {
+        boolean flagged = customerIds.contains(customerId);
+        (flagged ? hits : misses).increment();
+        return flagged;
+    }
+
+    /**
+     * Registra las tareas periódicas de refresco incremental, reconstrucción completa y escritura del archivo del índice.
+     *
+     * La reconstrucción no se ejecuta al iniciar, sino después del primer intervalo: la primera carga la hace el
+     * refresco, o la carga del archivo si existe.
+     *
+     * @param taskRegistrar El registro de tareas programadas de Spring.
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (!properties.enabled()) {
+            return;
+        }
+        taskRegistrar.addFixedDelayTask(this::refresh, properties.refreshInterval());
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(this::rebuild, properties.fullRefreshInterval(),
+                properties.fullRefreshInterval()));
+        if (properties.snapshotPath() != null) {
+            taskRegistrar.addFixedDelayTask(new FixedDelayTask(this::writeSnapshot, properties.snapshotInterval(),
+                    properties.snapshotInterval()));
+        }
+    }
+
+    /**
+     * Carga el índice desde `fraud.index.snapshot-path` al crear el componente, antes de que el servicio acepte
+     * solicitudes. No accede a la base de datos.
+     */
+    @PostConstruct
+    synchronized void loadSnapshot() {
+        Path path = properties.snapshotPath();
+        if (!properties.enabled() || path == null || !Files.exists(path)) {
+            return;
+        }
+        try {
+            FraudIndexSnapshot snapshot = snapshotLoadTimer.recordCallable(() ->
+                    FraudIndexSnapshot.read(path, properties.expectedSize()));
+            highWaterMark = snapshot.highWaterMark();
+            snapshotUnverified = true;
+            customerIds = snapshot.customerIds();
+            lastRefreshNanos = System.nanoTime();
+            log.info("Fraud index loaded from {} with {} customer ids up to record id {}, written {} ms ago", path,
+                    snapshot.customerIds().size(), highWaterMark,
+                    System.currentTimeMillis() - snapshot.writtenAtMillis());
+            markReady("snapshot");
+        } catch (Exception e) {
+            log.warn("Could not load the fraud index snapshot {}, loading it from the database", path, e);
+        }
+    }
+
+    /**
+     * Agrega al índice los registros de fraude insertados desde el último refresco.
+     *
+     * Si el índice todavía no fue cargado, realiza una carga completa. Si fue cargado desde el archivo y la tabla tiene
+     * un `id` máximo menor a la marca de agua del archivo, también realiza una carga completa.
+     */
+    synchronized void refresh() {
+        if (customerIds == null) {
+            rebuild();
+            return;
+        }
+        try {
+            if (snapshotUnverified) {
+                long maxId = fraudRecordRepository.maxId();
+                snapshotUnverified = false;
+                if (maxId < highWaterMark) {
+                    log.info("fraud_records ends at id {} before the snapshot high-water mark {}, rebuilding the index",
+                            maxId, highWaterMark);
+                    rebuild();
+                    return;
+                }
+            }
+            IntHashSet current = customerIds;
+            IntStream.Builder added = IntStream.builder();
+            highWaterMark = incrementalRefreshTimer.recordCallable(() ->
+                    fraudRecordRepository.forEachCustomerIdAfter(highWaterMark, (id, customerId) -> {
+                        if (current.add(customerId)) {
+                            added.add(customerId);
+                        }
+                    }));
+            lastRefreshNanos = System.nanoTime();
+            int[] changed = added.build().toArray();
+            if (changed.length > 0) {
+                changes++;
+            }
+            changeNotifier.customersChanged(changed);
+        } catch (Exception e) {
+            log.warn("Incremental refresh of the fraud index failed", e);
+        }
+    }
+
+    /**
+     * Vuelve a cargar la tabla completa en un conjunto nuevo y lo publica de forma atómica.
+     *
+     * Además de la tarea programada, puede invocarse para cargar el índice de inmediato sin esperar al primer refresco,
+     * por ejemplo desde los benchmarks, que no inician el contexto de Spring. Si la carga falla, el índice conserva su
+     * contenido anterior.
+     */
+    public synchronized void rebuild() {
+        try {
+            IntHashSet rebuilt = new IntHashSet(Math.max(properties.expectedSize(), size()));
+            highWaterMark = fullRefreshTimer.recordCallable(() ->
+                    fraudRecordRepository.forEachCustomerIdAfter(-1, (id, customerId) -> rebuilt.add(customerId)));
+            IntHashSet previous = customerIds;
+            customerIds = rebuilt;
+            lastRefreshNanos = System.nanoTime();
+            changes++;
+            log.info("Fraud index loaded with {} customer ids up to record id {}", rebuilt.size(), highWaterMark);
+            if (previous == null) {
+                markReady("database");
+            } else {
+                changeNotifier.customersChanged(difference(previous, rebuilt));
+            }
+        } catch (Exception e) {
+            log.warn("Full rebuild of the fraud index failed", e);
+        }
+    }
+
+    /**
+     * Escribe el índice en `fraud.index.snapshot-path` si cambió desde la última escritura.
+     */
+    synchronized void writeSnapshot() {
+        Path path = properties.snapshotPath();
+        IntHashSet current = customerIds;
+        if (path == null || current == null || changes == snapshotChanges) {
+            return;
+        }
+        try {
+            FraudIndexSnapshot.write(path, current, highWaterMark);
+            snapshotChanges = changes;
+            log.debug("Fraud index written to {} with {} customer ids up to record id {}", path, current.size(),
+                    highWaterMark);
+        } catch (IOException e) {
+            log.warn("Could not write the fraud index snapshot {}", path, e);
+        }
+    }
+
+    /**
+     * Guarda el índice al detener el servicio, para que el próximo inicio lo cargue desde el archivo.
+     */
+    @PreDestroy
+    void close() {
+        writeSnapshot();
+    }
+
+    /**
+     * Publica el tiempo transcurrido desde la creación del índice hasta su primera carga.
+     *
+     * @param source El origen de la primera carga (`snapshot` o `database`).
+     */
+    private void markReady(String source) {
+        long timeToReady = System.nanoTime() - createdNanos;
+        TimeGauge.builder("fraud.index.time.to.ready", () -> timeToReady, TimeUnit.NANOSECONDS)
+                .description("Time from index creation to its first load")
+                .tag("source", source)
+                .register(meterRegistry);
+        log.info("Fraud index ready from {} in {} ms ({} ms after JVM start)", source,
+                TimeUnit.NANOSECONDS.toMillis(timeToReady), ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    /**
+     * Calcula los clientes que están en uno solo de los dos conjuntos (agregados o eliminados).
+     */
+    private static int[] difference(IntHashSet previous, IntHashSet current) {
+        IntStream.Builder changed = IntStream.builder();
+        previous.forEach(customerId -> {
+            if (!current.contains(customerId)) {
+                changed.add(customerId);
+            }
+        });
+        current.forEach(customerId -> {
+            if (!previous.contains(customerId)) {
+                changed.add(customerId);
+            }
+        });
+        return changed.build().toArray();
+    }
+
+    /**
+     * Devuelve la cantidad de clientes marcados en el índice.
+     *
+     * @return El tamaño del índice, o `0` si todavía no fue cargado.
+     */
+    public int size() {
+        IntHashSet current = customerIds;
+        return current == null ? 0 : current.size();
+    }
+
+    /**
+     * Calcula los segundos transcurridos desde el último refresco exitoso.
+     */
+    private double refreshLagSeconds() {
+        if (customerIds == null) {
+            return Double.NaN;
+        }
+        return (System.nanoTime() - lastRefreshNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,105 @@
+package com.chanochoca.app.fraudetect.index;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * `FraudIndexSnapshot` guarda y carga el contenido de `FraudIndex` en un archivo binario compacto, para que el índice
+ * esté listo en milisegundos al iniciar el servicio, sin recorrer `fraud_records`.
+ *
+ * El archivo tiene una cabecera de 24 bytes seguida de los `customerId` ordenados de forma ascendente, como `int` de
+ * 4 bytes en orden *little-endian*:
+ *
+ * - `int` número mágico `FIX1`.
+ * - `int` cantidad de clientes.
+ * - `long` marca de agua: el mayor `id` de `fraud_records` incluido en el archivo.
+ * - `long` instante de escritura, en milisegundos desde la época.
+ *
+ * @param customerIds Los clientes marcados.
+ * @param highWaterMark El mayor `id` de `fraud_records` incluido en el archivo.
+ * @param writtenAtMillis El instante en que se escribió el archivo.
+ */
+record FraudIndexSnapshot(IntHashSet customerIds, long highWaterMark, long writtenAtMillis) {
+
+    static final int MAGIC = 0x46495831;
+    static final int HEADER_BYTES = 24;
+
+    /**
+     * Escribe los clientes del índice en un archivo, reemplazando de forma atómica el archivo existente.
+     *
+     * @param path La ruta del archivo.
+     * @param customerIds Los clientes marcados. No deben modificarse durante la escritura.
+     * @param highWaterMark El mayor `id` de `fraud_records` incluido en el índice.
+     * @throws IOException si no se pudo escribir el archivo.
+     *
+     * El archivo se escribe primero en un archivo temporal del mismo directorio y luego se renombra, de modo que un
+     * proceso que se detenga a mitad de la escritura deje el archivo anterior completo.
+     */
+    static void write(Path path, IntHashSet customerIds, long highWaterMark) throws IOException {
+        int[] sorted = new int[customerIds.size()];
+        int[] count = {0};
+        customerIds.forEach(customerId -> sorted[count[0]++] = customerId);
+        Arrays.sort(sorted);
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (var channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        HEADER_BYTES + (long) sorted.length * Integer.BYTES);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC).putInt(sorted.length).putLong(highWaterMark).putLong(System.currentTimeMillis());
+                buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(sorted);
+                buffer.force();
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * Carga un archivo escrito con `write`.
+     *
+     * @param path La ruta del archivo.
+     * @param expectedSize La capacidad mínima del conjunto a crear.
+     * @return Los clientes y la marca de agua del archivo.
+     * @throws IOException si el archivo no existe, no se pudo leer o no tiene el formato esperado.
+     *
+     * El archivo se mapea en memoria y se recorre una única vez en forma secuencial para llenar el conjunto, sin copias
+     * intermedias en el heap.
+     */
+    static FraudIndexSnapshot read(Path path, int expectedSize) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid fraud index snapshot size " + size + ": " + path);
+            }
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a fraud index snapshot: " + path);
+            }
+            int count = buffer.getInt();
+            long highWaterMark = buffer.getLong();
+            long writtenAtMillis = buffer.getLong();
+            if (count < 0 || size != HEADER_BYTES + (long) count * Integer.BYTES) {
+                throw new IOException("Truncated fraud index snapshot: " + path);
+            }
+            var ids = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            var customerIds = new IntHashSet(Math.max(expectedSize, count));
+            for (int i = 0; i < count; i++) {
+                customerIds.add(ids.get(i));
+            }
+            return new FraudIndexSnapshot(customerIds, highWaterMark, writtenAtMillis);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.chanochoca.app.fraudetect.index;
+
+import java.util.function.IntConsumer;
+
+/**
+ * `IntHashSet` es un conjunto de enteros primitivos basado en direccionamiento abierto con sondeo lineal.
+ *
+ * A diferencia de un `Set<Integer>`, no crea objetos `Integer` por cada elemento ni nodos de enlace: todos los
+ * valores viven en un único arreglo `int[]`, lo que hace que las búsquedas sean del orden de nanosegundos y que el
+ * consumo de memoria sea de aproximadamente 4 a 8 bytes por elemento.
+ *
+ * El conjunto admite un único hilo escritor y múltiples hilos lectores concurrentes. Las inserciones se realizan sobre
+ * el arreglo actual y los lectores pueden tardar en observarlas; cuando el arreglo crece, el nuevo arreglo se publica
+ * a través de un campo `volatile`, por lo que los lectores siempre ven un arreglo completo y consistente. No se
+ * soportan eliminaciones: para eliminar elementos se construye un conjunto nuevo.
+ */
+public final class IntHashSet {
+
+    /** Valor que marca una posición vacía del arreglo. El cero se almacena aparte en `containsZero`. */
+    private static final int EMPTY = 0;
+
+    /** Factor de carga máximo antes de duplicar el tamaño del arreglo. */
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /** Arreglo de claves; su longitud siempre es una potencia de dos. */
+    private volatile int[] keys;
+
+    /** Indica si el valor `0` pertenece al conjunto. */
+    private volatile boolean containsZero;
+
+    /** Cantidad de elementos almacenados. */
+    private volatile int size;
+
+    /**
+     * Crea un conjunto vacío dimensionado para contener la cantidad de elementos indicada sin redimensionarse.
+     *
+     * @param expectedSize La cantidad de elementos que se espera almacenar.
+     */
+    public IntHashSet(int expectedSize) {
+        this.keys = new int[capacityFor(expectedSize)];
+    }
+
+    /**
+     * Agrega un valor al conjunto. Solo debe invocarse desde el hilo escritor.
+     *
+     * @param value El valor a agregar.
+     * @return `true` si el valor no estaba presente y fue agregado, `false` en caso contrario.
+     */
+    public boolean add(int value) {
+        if (value == EMPTY) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        if ((size + 1) > keys.length * LOAD_FACTOR) {
+            keys = rehash(keys, keys.length << 1);
+        }
+        int[] table = keys;
+        int mask = table.length - 1;
+        int index = mix(value) & mask;
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        table[index] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Verifica si un valor pertenece al conjunto. Puede invocarse desde cualquier hilo.
+     *
+     * @param value El valor a buscar.
+     * @return `true` si el valor está en el conjunto, `false` en caso contrario.
+     */
+    public boolean contains(int value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+        int[] table = keys;
+        int mask = table.length - 1;
+        int index = mix(value) & mask;
+        int current;
+        while ((current = table[index]) != EMPTY) {
+            if (current == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Devuelve la cantidad de elementos del conjunto.
+     *
+     * @return El número de valores distintos almacenados.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Recorre todos los valores del conjunto, sin un orden definido.
+     *
+     * @param action La función que recibe cada valor.
+     */
+    public void forEach(IntConsumer action) {
+        if (containsZero) {
+            action.accept(EMPTY);
+        }
+        for (int value : keys) {
+            if (value != EMPTY) {
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * Calcula la capacidad del arreglo (potencia de dos) necesaria para el tamaño esperado.
+     */
+    private static int capacityFor(int expectedSize) {
+        int required = (int) Math.ceil(Math.max(expectedSize, 8) / LOAD_FACTOR);
+        return Integer.highestOneBit(required - 1) << 1;
+    }
+
+    /**
+     * Copia las claves de un arreglo a otro de mayor capacidad.
+     */
+    private static int[] rehash(int[] source, int capacity) {
+        int[] table = new int[capacity];
+        int mask = capacity - 1;
+        for (int value : source) {
+            if (value != EMPTY) {
+                int index = mix(value) & mask;
+                while (table[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = value;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Dispersa los bits del valor para evitar agrupamientos con identificadores consecutivos.
+     */
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,78 @@
+package com.chanochoca.app.fraudetect.notification;
+
+import com.chanochoca.app.fraudetect.config.FraudInvalidationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+/**
+ * `FraudChangeNotifier` avisa a los servicios configurados en `fraud.invalidation.targets` cuando cambian los clientes
+ * con registros de fraude.
+ *
+ * Los servicios que guardan decisiones de fraude en caché (como `loan-service`) reciben los IDs de los clientes
+ * afectados en su endpoint `/fraud-cache/invalidate` y descartan esas decisiones antes de que venza su tiempo de vida.
+ * Los avisos son de mejor esfuerzo: si un servicio no responde, el error se registra y la decisión en caché vence
+ * igualmente por tiempo.
+ *
+ * Cada aviso incluye el secreto compartido `fraud.invalidation.token` en el encabezado `X-Fraud-Cache-Token`, que los
+ * servicios avisados exigen. Si no está configurado, no se envían avisos.
+ */
+@Component
+@Slf4j
+public class FraudChangeNotifier {
+
+    /** El encabezado con el secreto compartido de los avisos. */
+    private static final String TOKEN_HEADER = "X-Fraud-Cache-Token";
+
+    private final List<String> targets;
+    private final RestClient restClient;
+
+    public FraudChangeNotifier(FraudInvalidationProperties properties, RestClient.Builder restClientBuilder) {
+        if (!properties.targets().isEmpty() && !StringUtils.hasText(properties.token())) {
+            log.warn("fraud.invalidation.token is not set, {} will not be notified about fraud record changes",
+                    properties.targets());
+            this.targets = List.of();
+        } else {
+            this.targets = properties.targets();
+        }
+        this.restClient = restClientBuilder
+                .defaultHeaders(headers -> {
+                    if (StringUtils.hasText(properties.token())) {
+                        headers.set(TOKEN_HEADER, properties.token());
+                    }
+                })
+                .requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(properties.timeout())
+                        .withReadTimeout(properties.timeout())))
+                .build();
+    }
+
+    /**
+     * Avisa a los servicios configurados que cambiaron los registros de fraude de los clientes indicados.
+     *
+     * @param customerIds Los IDs de los clientes agregados o eliminados de los registros de fraude.
+     */
+    public void customersChanged(int[] customerIds) {
+        if (customerIds.length == 0) {
+            return;
+        }
+        for (String target : targets) {
+            try {
+                restClient.post()
+                        .uri(target + "/fraud-cache/invalidate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(customerIds)
+                        .retrieve()
+                        .toBodilessEntity();
+            } catch (Exception e) {
+                log.warn("Could not notify {} about {} changed customer ids", target, customerIds.length, e);
+            }
+        }
+    }
+}
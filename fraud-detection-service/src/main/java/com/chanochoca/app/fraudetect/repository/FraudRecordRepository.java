@@ -1,20 +1,27 @@
 package com.chanochoca.app.fraudetect.repository;
 
+import com.chanochoca.app.fraudetect.index.IntHashSet;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+
 /**
  * `FraudRecordRepository` es una clase de repositorio que gestiona el acceso a los registros de fraude en la base de datos.
  *
  * Esta clase utiliza `JdbcClient` para ejecutar consultas SQL y realizar operaciones de acceso a datos relacionadas con
- * los registros de fraude. Proporciona un método para verificar si existe un registro de fraude para un cliente específico.
+ * los registros de fraude. Proporciona un método para verificar si existe un registro de fraude para un cliente específico
+ * y métodos para recorrer los registros de forma incremental, utilizados por el índice en memoria `FraudIndex`.
  */
 @Repository
 @RequiredArgsConstructor
 public class FraudRecordRepository {
 
+    /** La cantidad máxima de IDs de clientes en la lista `IN (...)` de una consulta. */
+    static final int IN_LIST_CHUNK_SIZE = 500;
+
     private final JdbcClient jdbcClient;
 
     /**
@@ -39,4 +46,99 @@ public class FraudRecordRepository {
                 .query(Integer.class)
                 .single() > 0;
     }
+
+    /**
+     * Busca cuáles de los clientes indicados tienen al menos un registro de fraude.
+     *
+     * @param customerIds Los IDs de los clientes a verificar.
+     * @return Un conjunto con los IDs de los clientes que tienen registros de fraude.
+     *
+     * Este método resuelve los clientes con consultas `WHERE customerId IN (...)` de a `IN_LIST_CHUNK_SIZE` IDs, en
+     * lugar de una consulta por cliente. Dividir la lista acota el tamaño de cada sentencia y permite que MySQL reutilice
+     * el plan de las consultas con la misma cantidad de parámetros.
+     */
+    @Transactional(readOnly = true)
+    public IntHashSet findFlaggedCustomerIds(int[] customerIds) {
+        var flagged = new IntHashSet(customerIds.length);
+        if (customerIds.length == 0) {
+            return flagged;
+        }
+        var sql = """
+                SELECT DISTINCT customerId
+                FROM fraud_records
+                WHERE customerId IN (:customerIds);
+                """;
+        for (int from = 0; from < customerIds.length; from += IN_LIST_CHUNK_SIZE) {
+            int to = Math.min(from + IN_LIST_CHUNK_SIZE, customerIds.length);
+            jdbcClient.sql(sql)
+                    .param("customerIds", Arrays.stream(customerIds, from, to).boxed().toList())
+                    .query(rs -> {
+                        flagged.add(rs.getInt(1));
+                    });
+        }
+        return flagged;
+    }
+
+    /**
+     * Devuelve el mayor `id` de la tabla de registros de fraude.
+     *
+     * @return El mayor `id`, o `0` si la tabla está vacía.
+     *
+     * Se utiliza para detectar que la tabla fue vaciada o recreada después de escribir un archivo del índice: en ese
+     * caso el mayor `id` es menor a la marca de agua del archivo.
+     */
+    @Transactional(readOnly = true)
+    public long maxId() {
+        var sql = """
+                SELECT COALESCE(MAX(id), 0)
+                FROM fraud_records;
+                """;
+        return jdbcClient.sql(sql)
+                .query(Long.class)
+                .single();
+    }
+
+    /**
+     * Recorre los registros de fraude cuyo `id` es mayor al indicado, en orden ascendente de `id`.
+     *
+     * @param afterId El `id` a partir del cual (excluido) se recorren los registros. Usar `-1` para recorrer toda la tabla.
+     * @param consumer La función que recibe el `id` y el `customerId` de cada registro.
+     * @return El mayor `id` recorrido, o `afterId` si no se encontraron registros nuevos.
+     *
+     * Este método permite cargar y refrescar de forma incremental el índice en memoria sin materializar una lista de
+     * objetos: cada fila se entrega directamente al consumidor como valores primitivos.
+     */
+    @Transactional(readOnly = true)
+    public long forEachCustomerIdAfter(long afterId, FraudRecordConsumer consumer) {
+        var sql = """
+                SELECT id, customerId
+                FROM fraud_records
+                WHERE id > :afterId
+                ORDER BY id;
+                """;
+        long[] highWaterMark = {afterId};
+        jdbcClient.sql(sql)
+                .param("afterId", afterId)
+                .query(rs -> {
+                    long id = rs.getLong(1);
+                    consumer.accept(id, rs.getInt(2));
+                    highWaterMark[0] = id;
+                });
+        return highWaterMark[0];
+    }
+
+    /**
+     * `FraudRecordConsumer` recibe los valores primitivos de un registro de fraude sin necesidad de crear objetos.
+     */
+    @FunctionalInterface
+    public interface FraudRecordConsumer {
+
+        /**
+         * Procesa un registro de fraude.
+         *
+         * @param id El ID del registro de fraude en la base de datos.
+         * @param customerId El ID del cliente asociado con el registro de fraude.
+         */
+        void accept(long id, int customerId);
+    }
 }
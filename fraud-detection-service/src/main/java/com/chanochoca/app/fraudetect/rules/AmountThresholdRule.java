@@ -0,0 +1,60 @@
+package com.chanochoca.app.fraudetect.rules;
+
+import com.chanochoca.app.fraudetect.config.FraudRulesProperties.RuleDefinition;
+import com.chanochoca.app.fraudetect.dto.FraudCheckRequest;
+import com.chanochoca.app.fraudetect.entity.Currency;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * `AmountThresholdRule` (tipo `amount`) rechaza las solicitudes cuyo monto supera el umbral de su moneda.
+ *
+ * Las solicitudes sin monto y las monedas sin umbral configurado no se rechazan.
+ *
+ * @param name El nombre de la regla.
+ * @param cost El costo de la regla.
+ * @param thresholds El monto máximo por moneda.
+ */
+public record AmountThresholdRule(String name, int cost, Map<Currency, BigDecimal> thresholds) implements FraudRule {
+
+    /** Costo por defecto: una comparación en memoria. */
+    static final int DEFAULT_COST = 1;
+
+    @Override
+    public boolean customerScoped() {
+        return false;
+    }
+
+    @Override
+    public boolean matches(FraudCheckRequest request) {
+        if (request.amount() == null) {
+            return false;
+        }
+        BigDecimal threshold = thresholds.get(request.currency());
+        return threshold != null && request.amount().compareTo(threshold) > 0;
+    }
+
+    /**
+     * `Factory` crea las reglas de tipo `amount`.
+     */
+    @Component
+    public static class Factory implements FraudRuleFactory {
+
+        @Override
+        public String type() {
+            return "amount";
+        }
+
+        @Override
+        public FraudRule create(RuleDefinition definition) {
+            if (definition.thresholds().isEmpty()) {
+                throw new IllegalArgumentException("Fraud rule '" + definition.nameOrType() + "' needs thresholds");
+            }
+            return new AmountThresholdRule(definition.nameOrType(), definition.costOr(DEFAULT_COST),
+                    new EnumMap<>(definition.thresholds()));
+        }
+    }
+}
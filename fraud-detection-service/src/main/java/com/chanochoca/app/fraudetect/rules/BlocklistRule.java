@@ -0,0 +1,50 @@
+package com.chanochoca.app.fraudetect.rules;
+
+import com.chanochoca.app.fraudetect.config.FraudRulesProperties.RuleDefinition;
+import com.chanochoca.app.fraudetect.dto.FraudCheckRequest;
+import com.chanochoca.app.fraudetect.index.IntHashSet;
+import org.springframework.stereotype.Component;
+
+/**
+ * `BlocklistRule` (tipo `blocklist`) rechaza a los clientes de una lista fija definida en la configuración.
+ *
+ * Los clientes se guardan en un `IntHashSet`, por lo que la evaluación es una búsqueda en memoria sin crear objetos.
+ *
+ * @param name El nombre de la regla.
+ * @param cost El costo de la regla.
+ * @param customerIds Los clientes bloqueados.
+ */
+public record BlocklistRule(String name, int cost, IntHashSet customerIds) implements FraudRule {
+
+    /** Costo por defecto: una búsqueda en memoria. */
+    static final int DEFAULT_COST = 1;
+
+    @Override
+    public boolean customerScoped() {
+        return true;
+    }
+
+    @Override
+    public boolean matches(FraudCheckRequest request) {
+        return customerIds.contains(request.customerId());
+    }
+
+    /**
+     * `Factory` crea las reglas de tipo `blocklist`.
+     */
+    @Component
+    public static class Factory implements FraudRuleFactory {
+
+        @Override
+        public String type() {
+            return "blocklist";
+        }
+
+        @Override
+        public FraudRule create(RuleDefinition definition) {
+            var customerIds = new IntHashSet(definition.customerIds().size());
+            definition.customerIds().forEach(customerIds::add);
+            return new BlocklistRule(definition.nameOrType(), definition.costOr(DEFAULT_COST), customerIds);
+        }
+    }
+}
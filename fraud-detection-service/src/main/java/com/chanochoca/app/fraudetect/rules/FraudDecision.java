@@ -0,0 +1,14 @@
+package com.chanochoca.app.fraudetect.rules;
+
+import com.chanochoca.app.fraudetect.entity.LoanStatus;
+
+/**
+ * `FraudDecision` es el resultado de evaluar una solicitud con el motor de reglas.
+ *
+ * @param status `LoanStatus.REJECTED` si alguna regla coincidió, `LoanStatus.APPROVED` en caso contrario.
+ * @param rule El nombre de la regla que rechazó la solicitud, o `null` si fue aprobada.
+ * @param cacheable `true` si la decisión solo depende del cliente y puede guardarse en caché: fue rechazada por una
+ *                  regla de cliente, o fue aprobada y ninguna regla del plan depende del monto o del momento.
+ */
+public record FraudDecision(LoanStatus status, String rule, boolean cacheable) {
+}
@@ -0,0 +1,133 @@
+package com.chanochoca.app.fraudetect.rules;
+
+import com.chanochoca.app.fraudetect.config.FraudRulesProperties.RuleDefinition;
+import com.chanochoca.app.fraudetect.dto.FraudCheckRequest;
+import com.chanochoca.app.fraudetect.entity.LoanStatus;
+import com.chanochoca.app.fraudetect.index.FraudFilter;
+import com.chanochoca.app.fraudetect.index.FraudIndex;
+import com.chanochoca.app.fraudetect.repository.FraudRecordRepository;
+import com.chanochoca.app.fraudetect.service.FraudCheckMetrics;
+import com.chanochoca.app.fraudetect.service.FraudCheckMetrics.Source;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * `FraudRecordRule` (tipo `fraud-records`) rechaza a los clientes que tienen registros en la tabla `fraud_records`.
+ *
+ * Las consultas se resuelven desde el índice en memoria `FraudIndex`. Mientras el índice se está calentando o si fue
+ * deshabilitado mediante `fraud.index.enabled=false`, el filtro de Bloom `FraudFilter` descarta a los clientes que
+ * definitivamente no tienen registros de fraude y el repositorio solo se consulta para los positivos del filtro (o para
+ * todos los clientes, si el filtro tampoco está listo). En los lotes, todos los clientes que deben consultarse se
+ * resuelven con una única consulta.
+ *
+ * Cada consulta se registra en `FraudCheckMetrics` con su resultado y su origen.
+ */
+@RequiredArgsConstructor
+public class FraudRecordRule implements FraudRule {
+
+    /** Costo por defecto: una búsqueda en memoria, o una consulta a la base de datos mientras el índice se calienta. */
+    static final int DEFAULT_COST = 10;
+
+    private final String name;
+    private final int cost;
+    private final FraudRecordRepository fraudRecordRepository;
+    private final FraudIndex fraudIndex;
+    private final FraudFilter fraudFilter;
+    private final FraudCheckMetrics fraudCheckMetrics;
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public int cost() {
+        return cost;
+    }
+
+    @Override
+    public boolean customerScoped() {
+        return true;
+    }
+
+    @Override
+    public boolean matches(FraudCheckRequest request) {
+        int customerId = request.customerId();
+        boolean flagged;
+        Source source;
+        if (fraudIndex.isReady()) {
+            flagged = fraudIndex.contains(customerId);
+            source = Source.INDEX;
+        } else if (fraudFilter.isReady() && !fraudFilter.mightContain(customerId)) {
+            flagged = false;
+            source = Source.FILTER;
+        } else {
+            flagged = fraudRecordRepository.existsByCustomerId(customerId);
+            source = Source.REPOSITORY;
+            if (fraudFilter.isReady()) {
+                fraudFilter.recordPositive(flagged);
+            }
+        }
+        fraudCheckMetrics.recordCheck(flagged ? LoanStatus.REJECTED : LoanStatus.APPROVED, source);
+        return flagged;
+    }
+
+    @Override
+    public void matches(List<FraudCheckRequest> requests, BitSet pending, BitSet hits) {
+        if (fraudIndex.isReady()) {
+            FraudRule.super.matches(requests, pending, hits);
+            return;
+        }
+        boolean filtered = fraudFilter.isReady();
+        IntStream.Builder positives = IntStream.builder();
+        BitSet lookups = new BitSet(requests.size());
+        for (int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(i + 1)) {
+            int customerId = requests.get(i).customerId();
+            if (filtered && !fraudFilter.mightContain(customerId)) {
+                fraudCheckMetrics.recordCheck(LoanStatus.APPROVED, Source.FILTER);
+            } else {
+                positives.add(customerId);
+                lookups.set(i);
+            }
+        }
+        var flagged = fraudRecordRepository.findFlaggedCustomerIds(positives.build().toArray());
+        for (int i = lookups.nextSetBit(0); i >= 0; i = lookups.nextSetBit(i + 1)) {
+            boolean rejected = flagged.contains(requests.get(i).customerId());
+            fraudCheckMetrics.recordCheck(rejected ? LoanStatus.REJECTED : LoanStatus.APPROVED, Source.REPOSITORY);
+            if (filtered) {
+                fraudFilter.recordPositive(rejected);
+            }
+            if (rejected) {
+                hits.set(i);
+            }
+        }
+    }
+
+    /**
+     * `Factory` crea las reglas de tipo `fraud-records`.
+     */
+    @Component
+    @RequiredArgsConstructor
+    public static class Factory implements FraudRuleFactory {
+
+        private final FraudRecordRepository fraudRecordRepository;
+        private final FraudIndex fraudIndex;
+        private final FraudFilter fraudFilter;
+        private final FraudCheckMetrics fraudCheckMetrics;
+
+        @Override
+        public String type() {
+            return "fraud-records";
+        }
+
+        @Override
+        public FraudRule create(RuleDefinition definition) {
+            return new FraudRecordRule(definition.nameOrType(), definition.costOr(DEFAULT_COST), fraudRecordRepository,
+                    fraudIndex, fraudFilter, fraudCheckMetrics);
+        }
+    }
+}
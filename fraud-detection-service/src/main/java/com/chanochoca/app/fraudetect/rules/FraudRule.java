@@ -0,0 +1,74 @@
+package com.chanochoca.app.fraudetect.rules;
+
+import com.chanochoca.app.fraudetect.dto.FraudCheckRequest;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * `FraudRule` es una regla del motor de reglas de fraude: decide si una solicitud de préstamo debe rechazarse.
+ *
+ * Las reglas se crean a partir de la configuración (`fraud.rules.definitions`) mediante un `FraudRuleFactory` y
+ * `FraudRuleEngine` las ordena por `cost()` en un plan de evaluación: la primera regla que coincide rechaza la
+ * solicitud y las siguientes no se evalúan.
+ */
+public interface FraudRule {
+
+    /**
+     * Devuelve el nombre de la regla, usado en los registros y como etiqueta `rule` de las métricas.
+     *
+     * @return El nombre de la regla.
+     */
+    String name();
+
+    /**
+     * Devuelve el costo relativo de evaluar la regla. Las reglas más baratas se evalúan primero.
+     *
+     * @return El costo de la regla; `1` para comparaciones en memoria, valores altos para consultas a la base de datos.
+     */
+    int cost();
+
+    /**
+     * Indica si la decisión de la regla depende solo del cliente (y no del monto, la moneda o el momento de la
+     * solicitud), de modo que `loan-service` puede guardarla en caché.
+     *
+     * @return `true` si la regla solo depende del cliente.
+     */
+    boolean customerScoped();
+
+    /**
+     * Registra una solicitud antes de evaluar el plan. El motor la invoca para todas las solicitudes y todas las reglas,
+     * aunque una regla anterior ya la haya rechazado; las reglas con estado (como los límites de frecuencia) la usan para
+     * contar intentos.
+     *
+     * @param request La solicitud a registrar.
+     */
+    default void observe(FraudCheckRequest request) {
+    }
+
+    /**
+     * Evalúa la regla para una solicitud.
+     *
+     * @param request La solicitud a evaluar.
+     * @return `true` si la solicitud debe rechazarse.
+     */
+    boolean matches(FraudCheckRequest request);
+
+    /**
+     * Evalúa la regla para las solicitudes de un lote que todavía no fueron rechazadas.
+     *
+     * @param requests Las solicitudes del lote.
+     * @param pending Las posiciones de `requests` a evaluar.
+     * @param hits Las posiciones de `requests` que la regla rechaza; este método solo agrega posiciones.
+     *
+     * La implementación por defecto evalúa cada solicitud con `matches`; las reglas que consultan la base de datos la
+     * reemplazan para resolver todo el lote con una sola consulta.
+     */
+    default void matches(List<FraudCheckRequest> requests, BitSet pending, BitSet hits) {
+        for (int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(i + 1)) {
+            if (matches(requests.get(i))) {
+                hits.set(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.chanochoca.app.fraudetect.rules;
+
+import com.chanochoca.app.fraudetect.config.FraudRulesProperties;
+import com.chanochoca.app.fraudetect.config.FraudRulesProperties.RuleDefinition;
+import com.chanochoca.app.fraudetect.dto.FraudCheckRequest;
+import com.chanochoca.app.fraudetect.entity.LoanStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * `FraudRuleEngine` evalúa las solicitudes de préstamo con las reglas de fraude configuradas en `fraud.rules.definitions`.
+ *
+ * Al crear el componente, cada definición se convierte en una regla mediante el `FraudRuleFactory` de su tipo y las
+ * reglas se ordenan por costo en un plan de evaluación fijo (arreglos de reglas, decisiones y medidores, sin búsquedas
+ * por nombre al evaluar). Para cada solicitud:
+ *
+ * 1. Todas las reglas la registran con `observe` (por ejemplo, para contar intentos en los límites de frecuencia),
+ *    salvo que su identificador de llamada ya se haya recibido en `fraud.rules.duplicate-window`: las solicitudes de
+ *    cobertura de `loan-service` repiten el identificador de la original y no deben contarse dos veces.
+ * 2. Las reglas se evalúan en orden de costo; la primera que coincide rechaza la solicitud y las siguientes no se evalúan.
+ *
+ * En los lotes, cada regla evalúa de una vez todas las solicitudes que siguen pendientes, lo que permite a las reglas
+ * que consultan la base de datos resolver el lote con una sola consulta.
+ *
+ * Métricas publicadas, con la etiqueta `rule`:
+ *
+ * - `fraud.rule.evaluation`: duración de cada evaluación de la regla (de una solicitud o de las pendientes de un lote).
+ * - `fraud.rule.evaluations`: solicitudes evaluadas por la regla.
+ * - `fraud.rule.hits`: solicitudes rechazadas por la regla. La tasa de coincidencias es `hits / evaluations`.
+ *
+ * Además, `fraud.rule.duplicates` (sin etiquetas) cuenta las llamadas que no se registraron por repetir un
+ * identificador de llamada.
+ */
+@Component
+@Slf4j
+public class FraudRuleEngine {
+
+    private final FraudRule[] plan;
+    private final FraudDecision[] rejections;
+    private final FraudDecision approval;
+    private final Timer[] timers;
+    private final Counter[] evaluations;
+    private final Counter[] hits;
+    private final RecentRequestIds recentRequestIds;
+    private final Counter duplicates;
+
+    public FraudRuleEngine(FraudRulesProperties properties, List<FraudRuleFactory> factories,
+                           MeterRegistry meterRegistry) {
+        Map<String, FraudRuleFactory> factoriesByType = factories.stream()
+                .collect(Collectors.toMap(FraudRuleFactory::type, Function.identity()));
+        this.plan = properties.definitions().stream()
+                .map(definition -> create(factoriesByType, definition))
+                .sorted(Comparator.comparingInt(FraudRule::cost))
+                .toArray(FraudRule[]::new);
+        boolean requestScoped = Arrays.stream(plan).anyMatch(rule -> !rule.customerScoped());
+        this.approval = new FraudDecision(LoanStatus.APPROVED, null, !requestScoped);
+        this.rejections = new FraudDecision[plan.length];
+        this.timers = new Timer[plan.length];
+        this.evaluations = new Counter[plan.length];
+        this.hits = new Counter[plan.length];
+        for (int i = 0; i < plan.length; i++) {
+            String name = plan[i].name();
+            rejections[i] = new FraudDecision(LoanStatus.REJECTED, name, plan[i].customerScoped());
+            timers[i] = Timer.builder("fraud.rule.evaluation")
+                    .description("Fraud rule evaluation time")
+                    .tag("rule", name)
+                    .register(meterRegistry);
+            evaluations[i] = Counter.builder("fraud.rule.evaluations")
+                    .description("Loan applications evaluated by the fraud rule")
+                    .tag("rule", name)
+                    .register(meterRegistry);
+            hits[i] = Counter.builder("fraud.rule.hits")
+                    .description("Loan applications rejected by the fraud rule")
+                    .tag("rule", name)
+                    .register(meterRegistry);
+        }
+        this.recentRequestIds = new RecentRequestIds(properties.duplicateWindow(), properties.maxTrackedRequestIds());
+        this.duplicates = Counter.builder("fraud.rule.duplicates")
+                .description("Fraud check calls not observed by the rules because their request id was already seen")
+                .register(meterRegistry);
+        log.info("Fraud rule plan: {}", Arrays.stream(plan)
+                .map(rule -> rule.name() + " (cost " + rule.cost() + ")")
+                .collect(Collectors.joining(" -> ")));
+    }
+
+    private static FraudRule create(Map<String, FraudRuleFactory> factories, RuleDefinition definition) {
+        FraudRuleFactory factory = factories.get(definition.type());
+        if (factory == null) {
+            throw new IllegalStateException("Unknown fraud rule type '" + definition.type() + "', expected one of "
+                    + factories.keySet());
+        }
+        return factory.create(definition);
+    }
+
+    /**
+     * Evalúa una solicitud.
+     *
+     * @param request La solicitud a evaluar.
+     * @param requestId El identificador de la llamada, o `null` si no se conoce.
+     * @return La decisión, con la regla que rechazó la solicitud si corresponde.
+     */
+    public FraudDecision evaluate(FraudCheckRequest request, String requestId) {
+        if (firstSeen(requestId)) {
+            for (FraudRule rule : plan) {
+                rule.observe(request);
+            }
+        }
+        for (int i = 0; i < plan.length; i++) {
+            long start = System.nanoTime();
+            boolean matched = plan[i].matches(request);
+            timers[i].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            evaluations[i].increment();
+            if (matched) {
+                hits[i].increment();
+                return rejections[i];
+            }
+        }
+        return approval;
+    }
+
+    /**
+     * Evalúa un lote de solicitudes.
+     *
+     * @param requests Las solicitudes a evaluar.
+     * @param requestId El identificador de la llamada, o `null` si no se conoce.
+     * @return Las decisiones, en el mismo orden que `requests`.
+     */
+    public FraudDecision[] evaluate(List<FraudCheckRequest> requests, String requestId) {
+        if (firstSeen(requestId)) {
+            for (FraudCheckRequest request : requests) {
+                for (FraudRule rule : plan) {
+                    rule.observe(request);
+                }
+            }
+        }
+        var decisions = new FraudDecision[requests.size()];
+        var pending = new BitSet(requests.size());
+        pending.set(0, requests.size());
+        for (int i = 0; i < plan.length && !pending.isEmpty(); i++) {
+            var matched = new BitSet(requests.size());
+            long start = System.nanoTime();
+            plan[i].matches(requests, pending, matched);
+            timers[i].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            evaluations[i].increment(pending.cardinality());
+            hits[i].increment(matched.cardinality());
+            for (int j = matched.nextSetBit(0); j >= 0; j = matched.nextSetBit(j + 1)) {
+                decisions[j] = rejections[i];
+            }
+            pending.andNot(matched);
+        }
+        for (int j = pending.nextSetBit(0); j >= 0; j = pending.nextSetBit(j + 1)) {
+            decisions[j] = approval;
+        }
+        return decisions;
+    }
+
+    /**
+     * Indica si las solicitudes de una llamada deben registrarse en las reglas: las llamadas sin identificador siempre
+     * se registran.
+     */
+    private boolean firstSeen(String requestId) {
+        if (requestId == null || recentRequestIds.firstSeen(requestId, System.nanoTime())) {
+            return true;
+        }
+        duplicates.increment();
+        return false;
+    }
+}
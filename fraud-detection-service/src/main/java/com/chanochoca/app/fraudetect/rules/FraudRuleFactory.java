@@ -0,0 +1,28 @@
+package com.chanochoca.app.fraudetect.rules;
+
+import com.chanochoca.app.fraudetect.config.FraudRulesProperties.RuleDefinition;
+
+/**
+ * `FraudRuleFactory` crea las reglas de un tipo a partir de su definición en la configuración.
+ *
+ * Cada fábrica es un componente de Spring; para agregar un tipo de regla basta con declarar una nueva fábrica con un
+ * `type()` distinto y usarlo en `fraud.rules.definitions[n].type`.
+ */
+public interface FraudRuleFactory {
+
+    /**
+     * Devuelve el tipo de regla que crea esta fábrica, tal como se indica en `fraud.rules.definitions[n].type`.
+     *
+     * @return El tipo de regla.
+     */
+    String type();
+
+    /**
+     * Crea una regla a partir de su definición.
+     *
+     * @param definition La definición de la regla.
+     * @return La regla.
+     * @throws IllegalArgumentException si a la definición le falta un parámetro requerido por el tipo de regla.
+     */
+    FraudRule create(RuleDefinition definition);
+}
@@ -0,0 +1,72 @@
+package com.chanochoca.app.fraudetect.rules;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * `RecentRequestIds` recuerda los identificadores de llamada recibidos recientemente, para que el motor de reglas
+ * registre una sola vez las verificaciones repetidas por una solicitud de cobertura de `loan-service`.
+ *
+ * Los identificadores se guardan en dos generaciones: la actual recibe los nuevos y la anterior solo se consulta. La
+ * actual pasa a ser la anterior cuando cumple `window` o cuando alcanza `maxSize` identificadores, y la anterior se
+ * descarta; por lo tanto, un identificador se recuerda entre `window` y `2 * window` (menos si llegan más de `maxSize`
+ * identificadores en una ventana), y la memoria no supera `2 * maxSize` identificadores.
+ */
+final class RecentRequestIds {
+
+    private final long windowNanos;
+    private final int maxSize;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    /**
+     * Crea el registro de identificadores.
+     *
+     * @param window El tiempo mínimo durante el que se recuerda un identificador.
+     * @param maxSize La cantidad máxima de identificadores por generación.
+     */
+    RecentRequestIds(Duration window, int maxSize) {
+        this.windowNanos = window.toNanos();
+        this.maxSize = Math.max(maxSize, 1);
+        this.current = new Generation(System.nanoTime());
+        this.previous = new Generation(System.nanoTime());
+    }
+
+    /**
+     * Registra un identificador de llamada.
+     *
+     * @param requestId El identificador.
+     * @param nanoTime El instante de la llamada, medido con `System.nanoTime()`.
+     * @return `true` si el identificador no se había recibido recientemente.
+     */
+    boolean firstSeen(String requestId, long nanoTime) {
+        var generation = current;
+        if (nanoTime - generation.start() >= windowNanos || generation.ids().size() >= maxSize) {
+            generation = rotate(generation, nanoTime);
+        }
+        return !previous.ids().contains(requestId) && generation.ids().add(requestId);
+    }
+
+    private synchronized Generation rotate(Generation expected, long nanoTime) {
+        if (current == expected) {
+            previous = expected;
+            current = new Generation(nanoTime);
+        }
+        return current;
+    }
+
+    /**
+     * Una generación de identificadores.
+     *
+     * @param start El instante en que se creó la generación.
+     * @param ids Los identificadores recibidos.
+     */
+    private record Generation(long start, Set<String> ids) {
+
+        Generation(long start) {
+            this(start, ConcurrentHashMap.newKeySet());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.chanochoca.app.fraudetect.rules;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * `SlidingWindowCounter` cuenta eventos por clave (un `customerId`) dentro de una ventana deslizante, con memoria fija
+ * y sin bloqueos.
+ *
+ * Es un *count-min sketch* de dos filas en el que cada celda es una ventana circular de intervalos: cada clave se
+ * asigna a una columna por fila, y su cuenta es el mínimo entre las sumas de ambas columnas. Dos clientes solo
+ * comparten una cuenta si coinciden en las dos filas, por lo que la cuenta puede sobrestimarse levemente, pero nunca
+ * subestimarse.
+ *
+ * Cada intervalo se guarda en un único `long` con el número de intervalo (40 bits altos) y la cuenta (24 bits bajos),
+ * de modo que reiniciar un intervalo vencido e incrementarlo es una sola operación `compareAndSet`. La ventana avanza
+ * de a un intervalo: un evento deja de contarse entre `window - window / buckets` y `window` después de ocurrir.
+ */
+final class SlidingWindowCounter {
+
+    private static final int ROWS = 2;
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final int buckets;
+    private final int columnMask;
+    private final long bucketNanos;
+    private final long originNanos = System.nanoTime();
+
+    /** Celdas indexadas por `((row * columnas + columna) * buckets + intervalo % buckets)`. */
+    private final AtomicLongArray cells;
+
+    /**
+     * Crea un contador.
+     *
+     * @param window La duración de la ventana.
+     * @param buckets La cantidad de intervalos en que se divide la ventana.
+     * @param width La cantidad de columnas por fila, redondeada a la siguiente potencia de dos.
+     */
+    SlidingWindowCounter(Duration window, int buckets, int width) {
+        int columns = Integer.highestOneBit(Math.max(width, 2) - 1) << 1;
+        this.buckets = Math.max(buckets, 1);
+        this.columnMask = columns - 1;
+        this.bucketNanos = Math.max(window.toNanos() / this.buckets, 1);
+        this.cells = new AtomicLongArray(ROWS * columns * this.buckets);
+    }
+
+    /**
+     * Registra un evento de una clave.
+     *
+     * @param key La clave.
+     * @param nanoTime El instante del evento, medido con `System.nanoTime()`.
+     */
+    void increment(int key, long nanoTime) {
+        long hash = hash(key);
+        long slice = slice(nanoTime);
+        add(cell(0, (int) hash, slice), slice);
+        add(cell(1, (int) (hash >>> 32), slice), slice);
+    }
+
+    /**
+     * Cuenta los eventos de una clave dentro de la ventana que termina en el instante indicado.
+     *
+     * @param key La clave.
+     * @param nanoTime El final de la ventana, medido con `System.nanoTime()`.
+     * @return La cantidad de eventos, posiblemente sobrestimada por colisiones.
+     */
+    long count(int key, long nanoTime) {
+        long hash = hash(key);
+        long slice = slice(nanoTime);
+        return Math.min(sum(cell(0, (int) hash, 0), slice), sum(cell(1, (int) (hash >>> 32), 0), slice));
+    }
+
+    private void add(int index, long slice) {
+        while (true) {
+            long current = cells.get(index);
+            long next = (current >>> COUNT_BITS) == slice
+                    ? current + ((current & COUNT_MASK) == COUNT_MASK ? 0 : 1)
+                    : (slice << COUNT_BITS) | 1;
+            if (cells.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Suma los intervalos de una celda que pertenecen a la ventana que termina en `slice`.
+     */
+    private long sum(int base, long slice) {
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long cell = cells.get(base + i);
+            if (slice - (cell >>> COUNT_BITS) < buckets) {
+                total += cell & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Devuelve la posición del intervalo `slice` en la celda de la fila y columna indicadas.
+     */
+    private int cell(int row, int column, long slice) {
+        return ((row * (columnMask + 1) + (column & columnMask)) * buckets) + (int) (slice % buckets);
+    }
+
+    /**
+     * Devuelve el número de intervalo del instante indicado, contado desde la creación del contador.
+     */
+    private long slice(long nanoTime) {
+        return Math.max(nanoTime - originNanos, 0) / bucketNanos + buckets;
+    }
+
+    /**
+     * Mezcla los bits de la clave (finalizador de MurmurHash3), para obtener dos columnas independientes.
+     */
+    private static long hash(int key) {
+        long hash = key * 0x9e3779b97f4a7c15L;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,69 @@
+package com.chanochoca.app.fraudetect.rules;
+
+import com.chanochoca.app.fraudetect.config.FraudRulesProperties;
+import com.chanochoca.app.fraudetect.config.FraudRulesProperties.RuleDefinition;
+import com.chanochoca.app.fraudetect.dto.FraudCheckRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * `VelocityRule` (tipo `velocity`) rechaza a los clientes que solicitan más de `maxCount` préstamos dentro de la
+ * ventana `window`.
+ *
+ * Cada solicitud se cuenta en `observe`, aunque otra regla la rechace, de modo que los intentos rechazados también
+ * cuentan, pero solo una vez por identificador de llamada (`X-Fraud-Request-Id`): `FraudRuleEngine` no registra las
+ * verificaciones repetidas por las solicitudes de cobertura de `loan-service`. Las cuentas se guardan en memoria en un `SlidingWindowCounter` de tamaño fijo, sin consultas a la base de
+ * datos; por lo tanto son locales a cada instancia del servicio y se pierden al reiniciarlo.
+ *
+ * @param name El nombre de la regla.
+ * @param cost El costo de la regla.
+ * @param maxCount La cantidad máxima de solicitudes permitidas dentro de la ventana.
+ * @param counter El contador de solicitudes por cliente.
+ */
+public record VelocityRule(String name, int cost, int maxCount, SlidingWindowCounter counter) implements FraudRule {
+
+    /** Costo por defecto: la suma de los intervalos de dos celdas en memoria. */
+    static final int DEFAULT_COST = 2;
+
+    @Override
+    public boolean customerScoped() {
+        return false;
+    }
+
+    @Override
+    public void observe(FraudCheckRequest request) {
+        counter.increment(request.customerId(), System.nanoTime());
+    }
+
+    @Override
+    public boolean matches(FraudCheckRequest request) {
+        return counter.count(request.customerId(), System.nanoTime()) > maxCount;
+    }
+
+    /**
+     * `Factory` crea las reglas de tipo `velocity`.
+     */
+    @Component
+    @RequiredArgsConstructor
+    public static class Factory implements FraudRuleFactory {
+
+        private final FraudRulesProperties properties;
+
+        @Override
+        public String type() {
+            return "velocity";
+        }
+
+        @Override
+        public FraudRule create(RuleDefinition definition) {
+            if (definition.maxCount() == null || definition.window() == null) {
+                throw new IllegalArgumentException("Fraud rule '" + definition.nameOrType()
+                        + "' needs max-count and window");
+            }
+            var counter = new SlidingWindowCounter(definition.window(), properties.velocityBuckets(),
+                    properties.velocityCounterWidth());
+            return new VelocityRule(definition.nameOrType(), definition.costOr(DEFAULT_COST), definition.maxCount(),
+                    counter);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.chanochoca.app.fraudetect.service;
+
+import com.chanochoca.app.fraudetect.entity.LoanStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * `FraudCheckMetrics` publica las métricas de negocio de las verificaciones de fraude.
+ *
+ * Los contadores de todas las combinaciones de etiquetas se registran al crear el componente y se guardan en un
+ * arreglo indexado por el ordinal de `LoanStatus` y de `Source`, de modo que registrar una verificación no busca el
+ * medidor en el `MeterRegistry` ni crea arreglos de etiquetas.
+ *
+ * Métricas publicadas:
+ *
+ * - `fraud.checks` con las etiquetas `result` (`APPROVED` o `REJECTED`) y `source` (`index` si la decisión se tomó
+ *   con el índice en memoria, `filter` si el filtro de Bloom descartó al cliente, `repository` si se consultó la base de
+ *   datos): clientes verificados.
+ */
+@Component
+public class FraudCheckMetrics {
+
+    private static final LoanStatus[] STATUSES = LoanStatus.values();
+    private static final Source[] SOURCES = Source.values();
+
+    /** Contadores indexados por `status.ordinal() * SOURCES.length + source.ordinal()`. */
+    private final Counter[] checks = new Counter[STATUSES.length * SOURCES.length];
+
+    public FraudCheckMetrics(MeterRegistry meterRegistry) {
+        for (LoanStatus status : STATUSES) {
+            for (Source source : SOURCES) {
+                checks[status.ordinal() * SOURCES.length + source.ordinal()] = Counter.builder("fraud.checks")
+                        .description("Customers checked for fraud, by result and decision source")
+                        .tag("result", status.name())
+                        .tag("source", source.tag)
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Registra la verificación de fraude de un cliente.
+     *
+     * @param status El resultado de la verificación.
+     * @param source El origen de la decisión.
+     */
+    public void recordCheck(LoanStatus status, Source source) {
+        checks[status.ordinal() * SOURCES.length + source.ordinal()].increment();
+    }
+
+    /**
+     * `Source` es el origen de la decisión de una verificación de fraude.
+     */
+    public enum Source {
+
+        /** El índice en memoria `FraudIndex`. */
+        INDEX("index"),
+
+        /** El filtro de Bloom `FraudFilter`, que descartó al cliente sin consultar la base de datos. */
+        FILTER("filter"),
+
+        /** Una consulta a `fraud_records`. */
+        REPOSITORY("repository");
+
+        private final String tag;
+
+        Source(String tag) {
+            this.tag = tag;
+        }
+    }
+}
@@ -1,35 +1,74 @@
 package com.chanochoca.app.fraudetect.service;
 
+import com.chanochoca.app.fraudetect.dto.FraudCheckRequest;
 import com.chanochoca.app.fraudetect.entity.LoanStatus;
-import com.chanochoca.app.fraudetect.repository.FraudRecordRepository;
+import com.chanochoca.app.fraudetect.rules.FraudDecision;
+import com.chanochoca.app.fraudetect.rules.FraudRuleEngine;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * `FraudDetectionService` es un servicio que proporciona la lógica de negocio para la detección de fraude.
  *
- * Este servicio interactúa con el repositorio de registros de fraude para determinar el estado del préstamo basado en
- * la existencia de registros de fraude asociados con un cliente específico.
+ * Este servicio evalúa cada solicitud de préstamo con el motor de reglas `FraudRuleEngine`: registros de fraude del
+ * cliente, listas de bloqueo, umbrales de monto por moneda y límites de frecuencia, según `fraud.rules.definitions`.
+ *
+ * Cuando alguna solicitud es rechazada, se agrega la etiqueta `loan.status=REJECTED` a la observación de la solicitud
+ * en curso, para que el muestreo de cola conserve la traza aunque no haya sido muestreada al iniciarse.
  */
 @Service
 @RequiredArgsConstructor
 public class FraudDetectionService {
 
-    private final FraudRecordRepository fraudRecordRepository;
+    private final FraudRuleEngine fraudRuleEngine;
+    private final ObservationRegistry observationRegistry;
 
     /**
-     * Verifica si existe un registro de fraude para el cliente especificado y devuelve el estado del préstamo
-     * basado en la existencia de dicho registro.
+     * Evalúa una solicitud de préstamo con las reglas de fraude.
      *
-     * @param customerId El ID del cliente para verificar si tiene un registro de fraude.
-     * @return `LoanStatus.REJECTED` si existe un registro de fraude para el cliente, `LoanStatus.APPROVED` en caso contrario.
+     * @param request La solicitud: el cliente y, si se conocen, el monto y la moneda.
+     * @param requestId El identificador de la llamada (`X-Fraud-Request-Id`), o `null` si el cliente no lo envió.
+     * @return La decisión: `LoanStatus.REJECTED` si alguna regla coincide, `LoanStatus.APPROVED` en caso contrario.
+     */
+    public FraudDecision checkForFraud(FraudCheckRequest request, String requestId) {
+        var decision = fraudRuleEngine.evaluate(request, requestId);
+        if (decision.status() == LoanStatus.REJECTED) {
+            tagRejected();
+        }
+        return decision;
+    }
+
+    /**
+     * Evalúa en una sola operación varias solicitudes de préstamo.
      *
-     * Este método utiliza el repositorio de registros de fraude (`fraudRecordRepository`) para determinar si hay un registro
-     * de fraude para el cliente con el ID proporcionado. Si se encuentra un registro de fraude, el préstamo se considera
-     * como rechazado (`LoanStatus.REJECTED`). Si no se encuentra ningún registro de fraude, el préstamo se considera
-     * aprobado (`LoanStatus.APPROVED`).
+     * @param requests Las solicitudes a evaluar.
+     * @param requestId El identificador de la llamada (`X-Fraud-Request-Id`), o `null` si el cliente no lo envió.
+     * @return Las decisiones, en el mismo orden que `requests`.
+     *
+     * Las reglas que consultan la base de datos resuelven todas las solicitudes pendientes del lote con una única
+     * consulta.
+     */
+    public FraudDecision[] checkForFraud(List<FraudCheckRequest> requests, String requestId) {
+        var decisions = fraudRuleEngine.evaluate(requests, requestId);
+        for (FraudDecision decision : decisions) {
+            if (decision.status() == LoanStatus.REJECTED) {
+                tagRejected();
+                break;
+            }
+        }
+        return decisions;
+    }
+
+    /**
+     * Marca la observación en curso (la solicitud HTTP) con la etiqueta `loan.status=REJECTED`.
      */
-    public LoanStatus checkForFraud(int customerId) {
-        return fraudRecordRepository.existsByCustomerId(customerId) ? LoanStatus.REJECTED : LoanStatus.APPROVED;
+    private void tagRejected() {
+        var observation = observationRegistry.getCurrentObservation();
+        if (observation != null) {
+            observation.highCardinalityKeyValue("loan.status", LoanStatus.REJECTED.name());
+        }
     }
 }
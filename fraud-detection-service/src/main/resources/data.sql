@@ -2,5 +2,5 @@ truncate table fraud_records;
 ALTER TABLE fraud_records
     AUTO_INCREMENT = 1;
 INSERT INTO fraud_records (id, fraudRecordId, customerId)
-VALUES (1, UUID(), 101),
-       (3, UUID(), 103);
+VALUES (1, UUID_TO_BIN('0191aae1-a401-7000-8001-000000000001'), 101),
+       (3, UUID_TO_BIN('0191aae1-a403-7000-8001-000000000003'), 103);
@@ -0,0 +1,4 @@
+ALTER TABLE fraud_records ADD COLUMN fraudRecordIdBin BINARY(16) NULL AFTER fraudRecordId;
+UPDATE fraud_records SET fraudRecordIdBin = UUID_TO_BIN(fraudRecordId);
+ALTER TABLE fraud_records DROP COLUMN fraudRecordId;
+ALTER TABLE fraud_records CHANGE COLUMN fraudRecordIdBin fraudRecordId BINARY(16) NOT NULL;
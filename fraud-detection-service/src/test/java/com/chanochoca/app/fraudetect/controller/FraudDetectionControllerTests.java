@@ -0,0 +1,91 @@
+package com.chanochoca.app.fraudetect.controller;
+
+import com.chanochoca.app.fraudetect.config.FraudCheckProperties;
+import com.chanochoca.app.fraudetect.dto.FraudCheckRequest;
+import com.chanochoca.app.fraudetect.entity.Currency;
+import com.chanochoca.app.fraudetect.entity.LoanStatus;
+import com.chanochoca.app.fraudetect.rules.FraudDecision;
+import com.chanochoca.app.fraudetect.service.FraudDetectionService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FraudDetectionControllerTests {
+
+    private final FraudDetectionService service = mock(FraudDetectionService.class);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new FraudDetectionController(service,
+                    new FraudCheckProperties(2)))
+            .setMessageConverters(new MappingJackson2HttpMessageConverter(), new FraudCheckMessageConverter())
+            .build();
+
+    @Test
+    void negotiatesTheBinaryFormatOnlyWhenAcceptPrefersIt() throws Exception {
+        when(service.checkForFraud(any(FraudCheckRequest.class), any()))
+                .thenReturn(new FraudDecision(LoanStatus.REJECTED, "fraud-records", true));
+
+        mockMvc.perform(get("/fraud/check").param("customerId", "7")
+                        .accept(FraudCheckMessageConverter.MEDIA_TYPE, MediaType.parseMediaType("application/json;q=0.5")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(FraudCheckMessageConverter.MEDIA_TYPE))
+                .andExpect(content().bytes(new byte[]{'R'}));
+        mockMvc.perform(get("/fraud/check").param("customerId", "7").accept(MediaType.ALL))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().string("\"REJECTED\""));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readsAndWritesBinaryBatches() throws Exception {
+        when(service.checkForFraud(any(List.class), any())).thenReturn(new FraudDecision[]{
+                new FraudDecision(LoanStatus.APPROVED, null, true),
+                new FraudDecision(LoanStatus.REJECTED, "amount-threshold", false)});
+        var body = ByteBuffer.allocate(2 * FraudCheckMessageConverter.REQUEST_SIZE)
+                .putInt(7).putLong(FraudCheckMessageConverter.NO_AMOUNT).putShort((short) 0)
+                .putInt(8).putLong(1_234_567).putShort((short) 840)
+                .array();
+
+        mockMvc.perform(post("/fraud/check/batch")
+                        .contentType(FraudCheckMessageConverter.MEDIA_TYPE)
+                        .accept(FraudCheckMessageConverter.MEDIA_TYPE)
+                        .header(FraudDetectionController.REQUEST_ID_HEADER, "call-1")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(new byte[]{'A', 'R'}));
+
+        ArgumentCaptor<List<FraudCheckRequest>> requests = ArgumentCaptor.forClass(List.class);
+        verify(service).checkForFraud(requests.capture(), eq("call-1"));
+        assertThat(requests.getValue()).containsExactly(
+                new FraudCheckRequest(7, null, Currency.INR),
+                new FraudCheckRequest(8, new BigDecimal("12345.67"), Currency.USD));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rejectsBatchesLargerThanTheMaximumSize() throws Exception {
+        mockMvc.perform(post("/fraud/check/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2, 3]"))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).checkForFraud(any(List.class), any());
+    }
+}
@@ -0,0 +1,58 @@
+package com.chanochoca.app.fraudetect.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class BlockedBloomFilterTests {
+
+    @Test
+    void hasNoFalseNegativesAndFewFalsePositives() {
+        var filter = BlockedBloomFilter.create(100_000, 12);
+        for (int i = 0; i < 100_000; i++) {
+            filter.add(i * 2);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(filter.mightContain(i * 2)).isTrue();
+            if (filter.mightContain(i * 2 + 1)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.01)
+                .isCloseTo(filter.expectedFalsePositiveRate(), offset(0.002));
+    }
+
+    @Test
+    void mapsSnapshotWithoutModifyingTheFile(@TempDir Path directory) throws IOException {
+        var filter = BlockedBloomFilter.create(1_000, 12);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add(i);
+        }
+        Path path = directory.resolve("fraud-filter.bin");
+        filter.writeTo(path, 42);
+        byte[] written = Files.readAllBytes(path);
+
+        var snapshot = BlockedBloomFilter.map(path);
+        assertThat(snapshot.highWaterMark()).isEqualTo(42);
+        assertThat(snapshot.filter().entries()).isEqualTo(filter.entries());
+        assertThat(snapshot.filter().memoryBytes()).isEqualTo(filter.memoryBytes());
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(snapshot.filter().mightContain(i)).isTrue();
+        }
+
+        int absent = -1;
+        while (snapshot.filter().mightContain(absent)) {
+            absent--;
+        }
+        assertThat(snapshot.filter().add(absent)).isTrue();
+        assertThat(snapshot.filter().mightContain(absent)).isTrue();
+        assertThat(Files.readAllBytes(path)).isEqualTo(written);
+    }
+}
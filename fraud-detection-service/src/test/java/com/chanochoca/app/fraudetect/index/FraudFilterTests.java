@@ -0,0 +1,92 @@
+package com.chanochoca.app.fraudetect.index;
+
+import com.chanochoca.app.fraudetect.config.FraudFilterProperties;
+import com.chanochoca.app.fraudetect.repository.FraudRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FraudFilterTests {
+
+    /** Registros de fraude por `id`, como en la tabla `fraud_records`. */
+    private final TreeMap<Long, Integer> records = new TreeMap<>();
+
+    private final FraudRecordRepository repository = mock(FraudRecordRepository.class);
+
+    @TempDir
+    Path directory;
+
+    private Path snapshot;
+    private FraudFilter filter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(repository.maxId()).thenAnswer(invocation -> records.isEmpty() ? 0L : records.lastKey());
+        when(repository.forEachCustomerIdAfter(anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            FraudRecordRepository.FraudRecordConsumer consumer = invocation.getArgument(1);
+            long highWaterMark = afterId;
+            for (Map.Entry<Long, Integer> record : records.tailMap(afterId, false).entrySet()) {
+                consumer.accept(record.getKey(), record.getValue());
+                highWaterMark = record.getKey();
+            }
+            return highWaterMark;
+        });
+        snapshot = directory.resolve("fraud-filter.bin");
+        var written = BlockedBloomFilter.create(1_000, 12);
+        written.add(101);
+        written.add(102);
+        written.writeTo(snapshot, 10);
+        var properties = new FraudFilterProperties(true, 1_000, 12, snapshot, Duration.ofSeconds(5),
+                Duration.ofHours(1));
+        filter = new FraudFilter(repository, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void firstRefreshReadsOnlyRecordsAfterTheSnapshotHighWaterMark() {
+        for (long id = 1; id <= 10; id++) {
+            records.put(id, 100 + (int) id);
+        }
+        records.put(11L, 201);
+
+        filter.refresh();
+
+        assertThat(filter.isReady()).isTrue();
+        assertThat(filter.mightContain(101)).isTrue();
+        assertThat(filter.mightContain(201)).isTrue();
+        verify(repository).forEachCustomerIdAfter(eq(10L), any());
+        verify(repository, never()).forEachCustomerIdAfter(eq(-1L), any());
+    }
+
+    @Test
+    void rebuildsWhenTheTableEndsBeforeTheSnapshotHighWaterMark() {
+        records.put(1L, 301);
+        records.put(2L, 302);
+
+        filter.refresh();
+
+        assertThat(filter.isReady()).isTrue();
+        assertThat(filter.mightContain(301)).isTrue();
+        assertThat(filter.mightContain(302)).isTrue();
+        assertThat(filter.mightContain(101)).isFalse();
+        assertThat(filter.mightContain(102)).isFalse();
+        verify(repository).forEachCustomerIdAfter(eq(-1L), any());
+        verify(repository, never()).forEachCustomerIdAfter(eq(10L), any());
+    }
+}
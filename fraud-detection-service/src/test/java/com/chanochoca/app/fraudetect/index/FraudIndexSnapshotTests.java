@@ -0,0 +1,48 @@
+package com.chanochoca.app.fraudetect.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+class FraudIndexSnapshotTests {
+
+    @Test
+    void roundTripsCustomerIdsAndHighWaterMark(@TempDir Path directory) throws IOException {
+        var customerIds = new IntHashSet(16);
+        for (int i = -50; i <= 50; i++) {
+            customerIds.add(i * 7);
+        }
+        Path path = directory.resolve("fraud-index.bin");
+        FraudIndexSnapshot.write(path, customerIds, 1234);
+
+        assertThat(Files.size(path)).isEqualTo(FraudIndexSnapshot.HEADER_BYTES + 101L * Integer.BYTES);
+        var snapshot = FraudIndexSnapshot.read(path, 16);
+        assertThat(snapshot.highWaterMark()).isEqualTo(1234);
+        assertThat(snapshot.customerIds().size()).isEqualTo(101);
+        for (int i = -50; i <= 50; i++) {
+            assertThat(snapshot.customerIds().contains(i * 7)).isTrue();
+            assertThat(snapshot.customerIds().contains(i * 7 + 1)).isFalse();
+        }
+    }
+
+    @Test
+    void rejectsTruncatedFiles(@TempDir Path directory) throws IOException {
+        var customerIds = new IntHashSet(4);
+        customerIds.add(101);
+        customerIds.add(103);
+        Path path = directory.resolve("fraud-index.bin");
+        FraudIndexSnapshot.write(path, customerIds, 3);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThatIOException().isThrownBy(() -> FraudIndexSnapshot.read(path, 4))
+                .withMessageContaining("Truncated");
+    }
+}
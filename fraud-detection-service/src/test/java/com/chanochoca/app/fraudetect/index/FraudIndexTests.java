@@ -0,0 +1,109 @@
+package com.chanochoca.app.fraudetect.index;
+
+import com.chanochoca.app.fraudetect.config.FraudIndexProperties;
+import com.chanochoca.app.fraudetect.notification.FraudChangeNotifier;
+import com.chanochoca.app.fraudetect.repository.FraudRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FraudIndexTests {
+
+    /** Registros de fraude por `id`, como en la tabla `fraud_records`. */
+    private final TreeMap<Long, Integer> records = new TreeMap<>();
+
+    private final FraudRecordRepository repository = mock(FraudRecordRepository.class);
+    private final FraudChangeNotifier changeNotifier = mock(FraudChangeNotifier.class);
+
+    private FraudIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.maxId()).thenAnswer(invocation -> records.isEmpty() ? 0L : records.lastKey());
+        when(repository.forEachCustomerIdAfter(anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            FraudRecordRepository.FraudRecordConsumer consumer = invocation.getArgument(1);
+            long highWaterMark = afterId;
+            for (Map.Entry<Long, Integer> record : records.tailMap(afterId, false).entrySet()) {
+                consumer.accept(record.getKey(), record.getValue());
+                highWaterMark = record.getKey();
+            }
+            return highWaterMark;
+        });
+        var properties = new FraudIndexProperties(true, Duration.ofSeconds(5), Duration.ofMinutes(10), 16, null,
+                Duration.ofMinutes(1));
+        index = new FraudIndex(repository, properties, changeNotifier, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void isNotReadyBeforeTheFirstLoad() {
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void rebuildLoadsEveryFlaggedCustomer() {
+        records.put(1L, 101);
+        records.put(2L, 102);
+        records.put(3L, 101);
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.contains(101)).isTrue();
+        assertThat(index.contains(102)).isTrue();
+        assertThat(index.contains(103)).isFalse();
+        verify(changeNotifier, never()).customersChanged(any());
+    }
+
+    @Test
+    void refreshReadsOnlyNewRecordsAndNotifiesAddedCustomers() {
+        records.put(1L, 101);
+        index.refresh();
+        records.put(2L, 101);
+        records.put(3L, 102);
+
+        index.refresh();
+
+        assertThat(index.contains(102)).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+        verify(repository).forEachCustomerIdAfter(eq(1L), any());
+        var changed = ArgumentCaptor.forClass(int[].class);
+        verify(changeNotifier).customersChanged(changed.capture());
+        assertThat(changed.getValue()).containsExactly(102);
+    }
+
+    @Test
+    void rebuildDropsDeletedRecordsAndNotifiesEveryChangedCustomer() {
+        records.put(1L, 101);
+        records.put(2L, 102);
+        index.rebuild();
+        records.remove(1L);
+        records.put(3L, 103);
+
+        index.rebuild();
+
+        assertThat(index.contains(101)).isFalse();
+        assertThat(index.contains(102)).isTrue();
+        assertThat(index.contains(103)).isTrue();
+        var changed = ArgumentCaptor.forClass(int[].class);
+        verify(changeNotifier, times(1)).customersChanged(changed.capture());
+        assertThat(changed.getValue()).containsExactlyInAnyOrder(101, 103);
+    }
+}
@@ -0,0 +1,23 @@
+package com.chanochoca.app.fraudetect.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntHashSetTests {
+
+    @Test
+    void addAndContainsAcrossResizes() {
+        var set = new IntHashSet(1);
+        for (int i = -500; i <= 500; i++) {
+            assertThat(set.add(i * 31)).isTrue();
+        }
+        assertThat(set.add(0)).isFalse();
+        assertThat(set.size()).isEqualTo(1001);
+        for (int i = -500; i <= 500; i++) {
+            assertThat(set.contains(i * 31)).isTrue();
+            assertThat(set.contains(i * 31 + 1)).isFalse();
+        }
+    }
+
+}
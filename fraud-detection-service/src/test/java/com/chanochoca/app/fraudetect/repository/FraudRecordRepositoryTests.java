@@ -0,0 +1,37 @@
+package com.chanochoca.app.fraudetect.repository;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class FraudRecordRepositoryTests {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void splitsTheInListIntoChunks() {
+        var jdbcClient = mock(JdbcClient.class, RETURNS_DEEP_STUBS);
+        var repository = new FraudRecordRepository(jdbcClient);
+        int[] customerIds = IntStream.range(0, 2 * FraudRecordRepository.IN_LIST_CHUNK_SIZE + 1).toArray();
+
+        repository.findFlaggedCustomerIds(customerIds);
+
+        verify(jdbcClient, times(3)).sql(anyString());
+        ArgumentCaptor<Object> chunks = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcClient.sql(anyString()), times(3)).param(eq("customerIds"), chunks.capture());
+        assertThat(chunks.getAllValues()).extracting(chunk -> ((List<?>) chunk).size())
+                .containsExactly(FraudRecordRepository.IN_LIST_CHUNK_SIZE, FraudRecordRepository.IN_LIST_CHUNK_SIZE, 1);
+        assertThat(chunks.getAllValues()).flatExtracting(chunk -> (List<Object>) chunk)
+                .containsExactly(IntStream.of(customerIds).boxed().toArray());
+    }
+}
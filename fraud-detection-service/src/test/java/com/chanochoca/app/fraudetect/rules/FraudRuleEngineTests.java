@@ -0,0 +1,142 @@
+package com.chanochoca.app.fraudetect.rules;
+
+import com.chanochoca.app.fraudetect.config.FraudRulesProperties;
+import com.chanochoca.app.fraudetect.config.FraudRulesProperties.RuleDefinition;
+import com.chanochoca.app.fraudetect.dto.FraudCheckRequest;
+import com.chanochoca.app.fraudetect.entity.Currency;
+import com.chanochoca.app.fraudetect.entity.LoanStatus;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FraudRuleEngineTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private FraudRuleEngine engine(RuleDefinition... definitions) {
+        var properties = new FraudRulesProperties(List.of(definitions), 1024, 10, Duration.ofMinutes(1), 100);
+        return new FraudRuleEngine(properties, List.of(new BlocklistRule.Factory(), new AmountThresholdRule.Factory(),
+                new VelocityRule.Factory(properties)), meterRegistry);
+    }
+
+    private static RuleDefinition blocklist(Integer... customerIds) {
+        return new RuleDefinition("blocklist", null, null, null, null, null, Set.of(customerIds));
+    }
+
+    private static RuleDefinition amount(Currency currency, String threshold) {
+        return new RuleDefinition("amount", null, null, null, null, Map.of(currency, new BigDecimal(threshold)), null);
+    }
+
+    private static RuleDefinition velocity(int maxCount) {
+        return new RuleDefinition("velocity", null, null, maxCount, Duration.ofMinutes(1), null, null);
+    }
+
+    @Test
+    void evaluatesCheapestRuleFirstAndStopsAtTheFirstMatch() {
+        var engine = engine(new RuleDefinition("blocklist", "expensive", 50, null, null, null, Set.of(7)), blocklist(7));
+
+        FraudDecision decision = engine.evaluate(new FraudCheckRequest(7, null, null), null);
+
+        assertThat(decision.status()).isEqualTo(LoanStatus.REJECTED);
+        assertThat(decision.rule()).isEqualTo("blocklist");
+        assertThat(meterRegistry.counter("fraud.rule.evaluations", "rule", "expensive").count()).isZero();
+        assertThat(meterRegistry.counter("fraud.rule.hits", "rule", "blocklist").count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsAmountsAboveTheThresholdOfTheirCurrency() {
+        var engine = engine(amount(Currency.USD, "1000"));
+
+        assertThat(engine.evaluate(new FraudCheckRequest(1, new BigDecimal("1000"), Currency.USD), null).status())
+                .isEqualTo(LoanStatus.APPROVED);
+        assertThat(engine.evaluate(new FraudCheckRequest(1, new BigDecimal("1000.01"), Currency.USD), null).status())
+                .isEqualTo(LoanStatus.REJECTED);
+        assertThat(engine.evaluate(new FraudCheckRequest(1, new BigDecimal("5000"), Currency.EUR), null).status())
+                .isEqualTo(LoanStatus.APPROVED);
+        assertThat(engine.evaluate(new FraudCheckRequest(1, null, Currency.USD), null).status())
+                .isEqualTo(LoanStatus.APPROVED);
+    }
+
+    @Test
+    void rejectsCustomersAboveTheVelocityLimit() {
+        var engine = engine(velocity(3));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(engine.evaluate(FraudCheckRequest.of(1), null).status()).isEqualTo(LoanStatus.APPROVED);
+        }
+        assertThat(engine.evaluate(FraudCheckRequest.of(1), null).status()).isEqualTo(LoanStatus.REJECTED);
+        assertThat(engine.evaluate(FraudCheckRequest.of(2), null).status()).isEqualTo(LoanStatus.APPROVED);
+    }
+
+    @Test
+    void countsRepeatedRequestIdsOnlyOnce() {
+        var engine = engine(velocity(1));
+
+        assertThat(engine.evaluate(FraudCheckRequest.of(1), "call-1").status()).isEqualTo(LoanStatus.APPROVED);
+        assertThat(engine.evaluate(FraudCheckRequest.of(1), "call-1").status()).isEqualTo(LoanStatus.APPROVED);
+        assertThat(engine.evaluate(List.of(FraudCheckRequest.of(2)), "call-2")[0].status())
+                .isEqualTo(LoanStatus.APPROVED);
+        assertThat(engine.evaluate(List.of(FraudCheckRequest.of(2)), "call-2")[0].status())
+                .isEqualTo(LoanStatus.APPROVED);
+        assertThat(meterRegistry.get("fraud.rule.duplicates").counter().count()).isEqualTo(2);
+
+        assertThat(engine.evaluate(FraudCheckRequest.of(1), "call-3").status()).isEqualTo(LoanStatus.REJECTED);
+        assertThat(engine.evaluate(FraudCheckRequest.of(2), null).status()).isEqualTo(LoanStatus.REJECTED);
+    }
+
+    @Test
+    void forgetsTheOldestRequestIdsBeyondTheMaximum() {
+        var recent = new RecentRequestIds(Duration.ofMinutes(1), 2);
+        long now = System.nanoTime();
+
+        assertThat(recent.firstSeen("a", now)).isTrue();
+        assertThat(recent.firstSeen("b", now)).isTrue();
+        assertThat(recent.firstSeen("c", now)).isTrue();
+        assertThat(recent.firstSeen("a", now)).isFalse();
+        assertThat(recent.firstSeen("d", now)).isTrue();
+        assertThat(recent.firstSeen("e", now)).isTrue();
+        assertThat(recent.firstSeen("a", now)).isTrue();
+        assertThat(recent.firstSeen("e", now + Duration.ofSeconds(59).toNanos())).isFalse();
+        assertThat(recent.firstSeen("e", now + Duration.ofMinutes(3).toNanos())).isTrue();
+    }
+
+    @Test
+    void marksRequestScopedDecisionsAsNotCacheable() {
+        assertThat(engine(blocklist(7)).evaluate(FraudCheckRequest.of(1), null).cacheable()).isTrue();
+
+        var engine = engine(blocklist(7), velocity(10));
+        assertThat(engine.evaluate(FraudCheckRequest.of(7), null).cacheable()).isTrue();
+        assertThat(engine.evaluate(FraudCheckRequest.of(1), null).cacheable()).isFalse();
+    }
+
+    @Test
+    void evaluatesBatchesInOrder() {
+        var engine = engine(blocklist(2), amount(Currency.INR, "100"));
+
+        var decisions = engine.evaluate(List.of(FraudCheckRequest.of(1), FraudCheckRequest.of(2),
+                new FraudCheckRequest(3, new BigDecimal("500"), null)), null);
+
+        assertThat(decisions).extracting(FraudDecision::status)
+                .containsExactly(LoanStatus.APPROVED, LoanStatus.REJECTED, LoanStatus.REJECTED);
+        assertThat(decisions).extracting(FraudDecision::rule).containsExactly(null, "blocklist", "amount");
+    }
+
+    @Test
+    void readsBatchElementsAsObjectsOrCustomerIds() throws Exception {
+        List<FraudCheckRequest> requests = new ObjectMapper().readValue(
+                "[101, {\"customerId\": 102, \"amount\": 5000, \"currency\": \"USD\"}]", new TypeReference<>() {
+                });
+
+        assertThat(requests).containsExactly(new FraudCheckRequest(101, null, Currency.INR),
+                new FraudCheckRequest(102, new BigDecimal("5000"), Currency.USD));
+    }
+}
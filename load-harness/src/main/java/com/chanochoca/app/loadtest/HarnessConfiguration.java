@@ -0,0 +1,83 @@
+package com.chanochoca.app.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * `HarnessConfiguration` es una configuración de los servicios a comparar en la prueba de carga: un nombre y las
+ * propiedades que se aplican a `loan-service` y a `fraud-detection-service` además de las propiedades base.
+ *
+ * @param name El nombre de la configuración, utilizado en el informe y en los archivos de resultados.
+ * @param properties Las propiedades de Spring que definen la configuración.
+ * @param loanProperties Las propiedades de Spring que solo se aplican a `loan-service`.
+ */
+record HarnessConfiguration(String name, Map<String, String> properties, Map<String, String> loanProperties) {
+
+    /** Configuraciones predefinidas, por nombre. */
+    private static final Map<String, HarnessConfiguration> CATALOGUE = new LinkedHashMap<>();
+
+    HarnessConfiguration(String name, Map<String, String> properties) {
+        this(name, properties, Map.of());
+    }
+
+    static {
+        register(new HarnessConfiguration("platform", Map.of()));
+        register(new HarnessConfiguration("virtual", Map.of("spring.threads.virtual.enabled", "true")));
+        register(new HarnessConfiguration("unpooled", Map.of("fraud.client.pool.keep-alive", "false")));
+        register(new HarnessConfiguration("no-cache", Map.of("fraud.client.cache.enabled", "false")));
+        register(new HarnessConfiguration("batched", Map.of(
+                "fraud.client.cache.enabled", "false",
+                "fraud.client.batch.enabled", "true")));
+        register(new HarnessConfiguration("reactive", Map.of(), Map.of(
+                "spring.main.web-application-type", "reactive",
+                "spring.reactor.context-propagation", "auto",
+                "resilience4j.bulkhead.instances.fraud-detection.max-wait-duration", "0")));
+        register(new HarnessConfiguration("write-behind", Map.of("loan.write-behind.enabled", "true")));
+        register(new HarnessConfiguration("no-index", Map.of(
+                "fraud.index.enabled", "false",
+                "fraud.filter.enabled", "false")));
+        register(new HarnessConfiguration("bloom-filter", Map.of("fraud.index.enabled", "false")));
+        register(new HarnessConfiguration("no-rules", Map.of("fraud.rules.definitions[0].type", "fraud-records")));
+        register(new HarnessConfiguration("full-sampling", Map.of(
+                "observability.sampling.enabled", "false",
+                "management.tracing.sampling.probability", "1.0")));
+        register(new HarnessConfiguration("no-profiling", Map.of("observability.profiling.enabled", "false")));
+        register(new HarnessConfiguration("sharded", Map.of(), Map.of(
+                "loan.sharding.enabled", "true",
+                "loan.sharding.migrate", "true",
+                "loan.sharding.shards[0].name", "loans-0",
+                "loan.sharding.shards[0].url", shardUrl("loans-0"),
+                "loan.sharding.shards[1].name", "loans-1",
+                "loan.sharding.shards[1].url", shardUrl("loans-1"),
+                "loan.sharding.shards[2].name", "loans-2",
+                "loan.sharding.shards[2].url", shardUrl("loans-2"))));
+        register(new HarnessConfiguration("json-encoding", Map.of("fraud.client.encoding", "json")));
+    }
+
+    /**
+     * Devuelve la URL de una base de datos H2 en memoria para un shard de `loan-service`. `ShardingConfig` le aplica las
+     * migraciones de `spring.flyway.locations` al iniciar.
+     */
+    private static String shardUrl(String name) {
+        return "jdbc:h2:mem:sharded-" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+    }
+
+    private static void register(HarnessConfiguration configuration) {
+        CATALOGUE.put(configuration.name(), configuration);
+    }
+
+    /**
+     * Busca una configuración predefinida.
+     *
+     * @param name El nombre de la configuración.
+     * @return La configuración.
+     * @throws IllegalArgumentException si no existe una configuración con ese nombre.
+     */
+    static HarnessConfiguration named(String name) {
+        var configuration = CATALOGUE.get(name);
+        if (configuration == null) {
+            throw new IllegalArgumentException("Unknown configuration '" + name + "', expected one of " + CATALOGUE.keySet());
+        }
+        return configuration;
+    }
+}
@@ -0,0 +1,117 @@
+package com.chanochoca.app.loadtest;
+
+import ch.qos.logback.classic.LoggerContext;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * `LoadHarness` es una prueba de carga de extremo a extremo de la cadena `POST /loan` → `/fraud/check` → base de datos.
+ *
+ * Para cada configuración indicada, inicia ambos servicios en este proceso con bases de datos H2 en memoria
+ * (`ServiceStack`), envía tráfico con tasa de llegada constante (`OpenModelLoadGenerator`), primero durante el
+ * calentamiento y luego durante la medición, y detiene los servicios. Al final imprime una tabla comparativa con el
+ * rendimiento y los percentiles de latencia de cada configuración, y guarda los histogramas completos en formato
+ * `.hgrm` (HdrHistogram) en el directorio de salida.
+ *
+ * Argumentos (todos opcionales):
+ *
+ * - `--configs=platform,virtual`: las configuraciones a comparar (ver `HarnessConfiguration`).
+ * - `--rate=200`: la tasa de llegada, en solicitudes por segundo.
+ * - `--warmup=10s` y `--duration=30s`: la duración del calentamiento y de la medición.
+ * - `--customers=1000`: la cantidad de clientes distintos (uno de cada diez tiene registros de fraude).
+ * - `--output=load-harness-results`: el directorio de los histogramas.
+ */
+@Slf4j
+public final class LoadHarness {
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var options = parse(args);
+        var configurations = options.getOrDefault("configs", "platform,virtual").split(",");
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        var warmup = Duration.parse("PT" + options.getOrDefault("warmup", "10s"));
+        var duration = Duration.parse("PT" + options.getOrDefault("duration", "30s"));
+        int customers = Integer.parseInt(options.getOrDefault("customers", "1000"));
+        var output = Path.of(options.getOrDefault("output", "load-harness-results"));
+        Files.createDirectories(output);
+
+        var generator = new OpenModelLoadGenerator(customers);
+        var results = new ArrayList<LoadResult>();
+        try (var sink = StubSink.start()) {
+            System.setProperty("harness.loki.url", sink.lokiEndpoint());
+            for (String name : configurations) {
+                var configuration = HarnessConfiguration.named(name.strip());
+                try (var stack = ServiceStack.start(configuration, sink)) {
+                    log.info("Warming up '{}' at {} req/s for {}", configuration.name(), rate, warmup);
+                    generator.run(configuration.name(), stack.loanEndpoint(), rate, warmup);
+                    log.info("Measuring '{}' at {} req/s for {}", configuration.name(), rate, duration);
+                    var result = generator.run(configuration.name(), stack.loanEndpoint(), rate, duration);
+                    results.add(result);
+                    writeHistograms(output, result);
+                }
+            }
+            log.info("Stub sink received {} span batches and {} log batches ({} bytes)",
+                    sink.spanBatches(), sink.logBatches(), sink.bytes());
+            // Detiene Logback (y envía los registros pendientes) antes de cerrar el receptor simulado.
+            ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        }
+        printReport(System.out, results);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        var options = new HashMap<String, String>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --option=value but got " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Imprime la tabla comparativa de las configuraciones, con las latencias en milisegundos.
+     */
+    static void printReport(PrintStream out, List<LoadResult> results) {
+        out.printf("%n%-14s %8s %8s %7s %9s | %-29s | %-29s%n", "configuration", "rate", "sent", "failed",
+                "req/s", "response time p50/p99/p99.9", "service time p50/p99/p99.9");
+        for (var result : results) {
+            out.printf("%-14s %8d %8d %7d %9.1f | %-29s | %-29s%n", result.configuration(), result.targetRate(),
+                    result.sent(), result.failed(), result.throughput(), percentiles(result.responseTime()),
+                    percentiles(result.serviceTime()));
+        }
+    }
+
+    private static String percentiles(Histogram histogram) {
+        return "%8.2f %9.2f %9.2f".formatted(millis(histogram, 50), millis(histogram, 99), millis(histogram, 99.9));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+
+    private static void writeHistograms(Path output, LoadResult result) throws IOException {
+        write(output.resolve(result.configuration() + "-response-time.hgrm"), result.responseTime());
+        write(output.resolve(result.configuration() + "-service-time.hgrm"), result.serviceTime());
+    }
+
+    private static void write(Path file, Histogram histogram) throws IOException {
+        try (var out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.chanochoca.app.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * `LoadResult` es el resultado de una corrida de la prueba de carga con una configuración.
+ *
+ * @param configuration El nombre de la configuración medida.
+ * @param targetRate La tasa de llegada objetivo, en solicitudes por segundo.
+ * @param sent La cantidad de solicitudes enviadas.
+ * @param succeeded La cantidad de solicitudes respondidas con un estado 2xx.
+ * @param failed La cantidad de solicitudes con un estado distinto de 2xx, un error de conexión o sin respuesta.
+ * @param throughput Las solicitudes exitosas por segundo, desde el inicio hasta la última respuesta.
+ * @param responseTime La latencia medida desde el instante en que la solicitud debía enviarse según la tasa de
+ *                     llegada. Incluye la espera del generador si se atrasó, por lo que no sufre de omisión coordinada.
+ *                     Incluye las solicitudes fallidas y las que no recibieron respuesta.
+ * @param serviceTime La latencia medida desde el instante en que la solicitud se envió realmente, también para las
+ *                    solicitudes fallidas y las que no recibieron respuesta.
+ */
+record LoadResult(String configuration, int targetRate, long sent, long succeeded, long failed, double throughput,
+                  Histogram responseTime, Histogram serviceTime) {
+}
@@ -0,0 +1,120 @@
+package com.chanochoca.app.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * `OpenModelLoadGenerator` envía solicitudes `POST /loan` con un modelo abierto de tasa de llegada constante.
+ *
+ * A diferencia de un modelo cerrado (N usuarios que esperan cada respuesta antes de enviar la siguiente solicitud), la
+ * solicitud `i` se envía en el instante `inicio + i / tasa`, independientemente de cuántas solicitudes estén en curso.
+ * Si el servicio se degrada, las solicitudes se acumulan en lugar de espaciarse, como ocurre con el tráfico real.
+ *
+ * La latencia se registra dos veces: desde el instante previsto de envío (tiempo de respuesta, sin omisión coordinada)
+ * y desde el instante real de envío (tiempo de servicio). Las solicitudes fallidas también se registran, con el tiempo
+ * transcurrido hasta el error, y las que no reciben respuesta con el tiempo máximo de espera: si solo se registraran
+ * las exitosas, un servicio que falla rápido o deja de responder mostraría percentiles mejores que uno que responde.
+ */
+final class OpenModelLoadGenerator {
+
+    /** Latencia máxima registrable en los histogramas, y tiempo máximo de espera de cada respuesta. */
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final int customers;
+
+    /**
+     * Crea un generador de carga.
+     *
+     * @param customers La cantidad de clientes distintos; cada solicitud elige uno al azar entre `1` y `customers`.
+     */
+    OpenModelLoadGenerator(int customers) {
+        this.customers = customers;
+    }
+
+    /**
+     * Envía solicitudes a la tasa indicada durante el tiempo indicado y espera sus respuestas.
+     *
+     * @param configuration El nombre de la configuración medida.
+     * @param endpoint La URI del endpoint `POST /loan`.
+     * @param rate La tasa de llegada, en solicitudes por segundo.
+     * @param duration La duración del envío de solicitudes.
+     * @return El resultado de la corrida.
+     */
+    LoadResult run(String configuration, URI endpoint, int rate, Duration duration) throws InterruptedException {
+        var responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        var serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        var succeeded = new LongAdder();
+        var failed = new LongAdder();
+        var lastCompletion = new AtomicLong();
+        var pending = new ArrayList<CompletableFuture<?>>();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long sent = 0;
+        for (long intended = start; intended < end; intended = start + sent * intervalNanos) {
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            long scheduled = intended;
+            long actual = now;
+            pending.add(httpClient.sendAsync(request(endpoint), HttpResponse.BodyHandlers.discarding())
+                    .orTimeout(HIGHEST_TRACKABLE_NANOS, TimeUnit.NANOSECONDS)
+                    .whenComplete((response, error) -> {
+                        long completed = System.nanoTime();
+                        lastCompletion.accumulateAndGet(completed, Math::max);
+                        responseTime.recordValue(Math.min(completed - scheduled, HIGHEST_TRACKABLE_NANOS));
+                        serviceTime.recordValue(Math.min(completed - actual, HIGHEST_TRACKABLE_NANOS));
+                        if (error == null && response.statusCode() / 100 == 2) {
+                            succeeded.increment();
+                        } else {
+                            failed.increment();
+                        }
+                    }));
+            sent++;
+        }
+        awaitAll(pending);
+
+        double elapsedSeconds = (Math.max(lastCompletion.get(), end) - start) / (double) TimeUnit.SECONDS.toNanos(1);
+        return new LoadResult(configuration, rate, sent, succeeded.sum(), failed.sum(),
+                succeeded.sum() / elapsedSeconds, responseTime, serviceTime);
+    }
+
+    private HttpRequest request(URI endpoint) {
+        int customerId = ThreadLocalRandom.current().nextInt(1, customers + 1);
+        var body = """
+                {"customerName":"Customer %d","customerId":%d,"amount":5000.00}""".formatted(customerId, customerId);
+        return HttpRequest.newBuilder(endpoint)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static void awaitAll(ArrayList<CompletableFuture<?>> pending) throws InterruptedException {
+        try {
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+        } catch (ExecutionException | TimeoutException e) {
+            // Los errores y las solicitudes sin respuesta ya se contabilizaron como fallidas.
+        }
+    }
+}
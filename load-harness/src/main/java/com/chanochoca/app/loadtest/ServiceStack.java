@@ -0,0 +1,121 @@
+package com.chanochoca.app.loadtest;
+
+import com.chanochoca.app.fraudetect.FraudDetectionServiceApplication;
+import com.chanochoca.app.loans.LoanServiceApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * `ServiceStack` inicia `fraud-detection-service` y `loan-service` en el mismo proceso, cada uno con su propio contexto
+ * de Spring, su propia base de datos H2 en memoria (modo MySQL) y un puerto libre.
+ *
+ * Los servicios no leen sus `application.properties`: todas las propiedades se pasan como argumentos, de modo que la
+ * prueba no depende de MySQL, Tempo ni Loki. Las trazas y los registros se envían a `StubSink`. Cada base de datos se
+ * crea con las mismas migraciones de Flyway que en producción; `harness/flyway/beforeMigrate.sql` define en H2 las
+ * funciones de MySQL que utilizan. En el modo reactivo, `loan-service` accede a la misma base de datos con R2DBC.
+ */
+final class ServiceStack implements AutoCloseable {
+
+    /** La ubicación de las callbacks de Flyway que adaptan las migraciones a H2. */
+    private static final String HARNESS_MIGRATIONS = "classpath:harness/flyway";
+
+    private final ConfigurableApplicationContext fraudDetection;
+    private final ConfigurableApplicationContext loans;
+
+    private ServiceStack(ConfigurableApplicationContext fraudDetection, ConfigurableApplicationContext loans) {
+        this.fraudDetection = fraudDetection;
+        this.loans = loans;
+    }
+
+    /**
+     * Inicia ambos servicios con la configuración indicada.
+     *
+     * @param configuration La configuración a aplicar sobre las propiedades base.
+     * @param sink El receptor de trazas y registros.
+     * @return Los servicios iniciados.
+     */
+    static ServiceStack start(HarnessConfiguration configuration, StubSink sink) {
+        var fraudProperties = baseProperties("fraud-detection", configuration, sink);
+        fraudProperties.put("spring.datasource.url", database("fraud-" + configuration.name()));
+        fraudProperties.put("spring.flyway.locations", "classpath:db/migration/fraud," + HARNESS_MIGRATIONS);
+        fraudProperties.put("spring.sql.init.data-locations", "classpath:harness/fraud-data.sql");
+        fraudProperties.put("fraud.index.expected-size", "100000");
+        fraudProperties.put("fraud.index.snapshot-path", "");
+        fraudProperties.put("fraud.filter.expected-insertions", "100000");
+        fraudProperties.put("fraud.filter.snapshot-path", "");
+        // r2dbc-h2 está en el classpath por el modo reactivo de loan-service; sin esta exclusión, Spring Boot crearía
+        // una ConnectionFactory embebida en lugar del DataSource de fraud-detection-service.
+        fraudProperties.put("spring.autoconfigure.exclude", R2dbcAutoConfiguration.class.getName());
+        var fraudDetection = run(FraudDetectionServiceApplication.class, fraudProperties, configuration.properties());
+
+        var loanProperties = baseProperties("loan-service", configuration, sink);
+        loanProperties.put("spring.datasource.url", database("loans-" + configuration.name()));
+        loanProperties.put("spring.r2dbc.url", reactiveDatabase("loans-" + configuration.name()));
+        loanProperties.put("spring.r2dbc.username", "sa");
+        loanProperties.put("spring.flyway.locations", "classpath:db/migration/loans," + HARNESS_MIGRATIONS);
+        loanProperties.put("spring.sql.init.data-locations", "");
+        loanProperties.put("fraud.client.base-url", "http://127.0.0.1:" + port(fraudDetection));
+        loanProperties.putAll(configuration.loanProperties());
+        var loans = run(LoanServiceApplication.class, loanProperties, configuration.properties());
+        return new ServiceStack(fraudDetection, loans);
+    }
+
+    /**
+     * Devuelve la URI del endpoint `POST /loan`.
+     */
+    URI loanEndpoint() {
+        return URI.create("http://127.0.0.1:" + port(loans) + "/loan");
+    }
+
+    private static Map<String, String> baseProperties(String applicationName, HarnessConfiguration configuration,
+                                                      StubSink sink) {
+        var properties = new LinkedHashMap<String, String>();
+        properties.put("spring.config.name", "load-harness");
+        properties.put("spring.application.name", applicationName);
+        properties.put("logging.config", "classpath:harness/logback-harness.xml");
+        properties.put("server.port", "0");
+        properties.put("spring.sql.init.mode", "always");
+        properties.put("observability.sampling.keep-tags[loan.status]", "REJECTED");
+        properties.put("management.zipkin.tracing.endpoint", sink.zipkinEndpoint());
+        properties.put("management.observations.key-values.application", applicationName);
+        properties.put("logging.pattern.correlation", "[${spring.application.name:},%X{traceId:-},%X{spanId:-}]");
+        return properties;
+    }
+
+    private static ConfigurableApplicationContext run(Class<?> application, Map<String, String> properties,
+                                                      Map<String, String> configurationProperties) {
+        var merged = new LinkedHashMap<>(properties);
+        merged.putAll(configurationProperties);
+        var args = merged.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(application).run(args);
+    }
+
+    private static String database(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * Devuelve la URL de R2DBC de la misma base de datos que `database(name)`, utilizada por el modo reactivo.
+     */
+    private static String reactiveDatabase(String name) {
+        return "r2dbc:h2:mem:///" + name + "?options=MODE=MySQL;DB_CLOSE_DELAY=-1";
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    @Override
+    public void close() {
+        loans.close();
+        fraudDetection.close();
+    }
+}
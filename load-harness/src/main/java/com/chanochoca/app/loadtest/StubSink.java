@@ -0,0 +1,89 @@
+package com.chanochoca.app.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * `StubSink` es un receptor HTTP simulado de trazas (Zipkin) y registros (Loki) para la prueba de carga.
+ *
+ * Acepta y descarta los envíos de los servicios, de modo que la exportación de trazas y registros forma parte del costo
+ * medido sin depender de Tempo ni de Loki. Contabiliza la cantidad de envíos y de bytes recibidos.
+ */
+final class StubSink implements AutoCloseable {
+
+    private final HttpServer server;
+    private final LongAdder spanBatches = new LongAdder();
+    private final LongAdder logBatches = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    private StubSink(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Inicia el receptor en un puerto libre de la interfaz local.
+     *
+     * @return El receptor iniciado.
+     * @throws IOException si no se pudo abrir el puerto.
+     */
+    static StubSink start() throws IOException {
+        var server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        var sink = new StubSink(server);
+        server.createContext("/api/v2/spans", exchange -> sink.accept(exchange, sink.spanBatches));
+        server.createContext("/loki/api/v1/push", exchange -> sink.accept(exchange, sink.logBatches));
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return sink;
+    }
+
+    /**
+     * Devuelve la URL a la que los servicios exportan sus trazas.
+     */
+    String zipkinEndpoint() {
+        return baseUrl() + "/api/v2/spans";
+    }
+
+    /**
+     * Devuelve la URL a la que los servicios envían sus registros.
+     */
+    String lokiEndpoint() {
+        return baseUrl() + "/loki/api/v1/push";
+    }
+
+    long spanBatches() {
+        return spanBatches.sum();
+    }
+
+    long logBatches() {
+        return logBatches.sum();
+    }
+
+    long bytes() {
+        return bytes.sum();
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void accept(HttpExchange exchange, LongAdder batches) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            bytes.add(body.transferTo(OutputStream.nullOutputStream()));
+            batches.increment();
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
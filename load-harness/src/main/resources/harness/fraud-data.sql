@@ -0,0 +1,4 @@
+-- Marca como fraudulentos a uno de cada diez clientes (10, 20, 30, ...).
+INSERT INTO fraud_records (id, fraudRecordId, customerId)
+SELECT X, CAST(RANDOM_UUID() AS BINARY(16)), X * 10
+FROM SYSTEM_RANGE(1, 100000);
@@ -0,0 +1,337 @@
+package com.chanochoca.app.loans.client;
+
+import com.chanochoca.app.loans.config.FraudClientProperties;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.reactive.function.client.WebClientException;
+import reactor.core.Exceptions;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * `FraudCallGuard` es la capa de resiliencia alrededor de las llamadas HTTP al servicio de detección de fraude.
+ *
+ * Cada llamada atraviesa:
+ *
+ * - **Circuit breaker:** deja de llamar al servicio de fraude cuando la tasa de errores o de llamadas lentas supera el
+ *   umbral configurado, y vuelve a probarlo luego de un tiempo.
+ * - **Bulkhead:** limita la cantidad de llamadas HTTP concurrentes al servicio de fraude, para que una degradación del
+ *   servicio no acapare todos los hilos de `loan-service`. Cada llamada HTTP en curso ocupa un permiso, incluidas las
+ *   de cobertura.
+ * - **Solicitudes de cobertura (opcional):** si la llamada no respondió luego de una demora basada en el percentil 95
+ *   de la latencia reciente y hay un permiso libre en el bulkhead, envía una segunda llamada idéntica, utiliza la
+ *   primera respuesta exitosa y cancela la otra llamada.
+ *
+ * Cuando la llamada no está permitida o falla, `fallback` devuelve la decisión de respaldo configurada en
+ * `fraud.client.resilience.fallback-decision`.
+ *
+ * Las llamadas de `WebClient` del modo reactivo atraviesan las mismas capas, con la misma instancia de bulkhead y de
+ * circuit breaker, mediante los operadores de `resilience4j-reactor`, sin bloquear el hilo que las ejecuta. En ese
+ * modo, `resilience4j.bulkhead.instances.fraud-detection.max-wait-duration` debe ser `0`, porque esperar un permiso
+ * bloquearía el event loop.
+ *
+ * Cada llamada se registra como la observación `fraud.client.call` (visible en Tempo y Prometheus). También se
+ * publican `fraud.client.latency`, `fraud.client.fallbacks` (con la etiqueta `reason`), `fraud.client.hedges` (con la
+ * etiqueta `winner`) y las métricas `resilience4j.*` de la instancia `fraud-detection`.
+ */
+@Component
+@Slf4j
+public class FraudCallGuard {
+
+    /** Nombre de la instancia de Resilience4j y de la etiqueta de las métricas. */
+    public static final String INSTANCE = "fraud-detection";
+
+    /** Intervalo mínimo entre recálculos de la demora de cobertura. */
+    private static final long HEDGE_DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** Cantidad mínima de mediciones de latencia para calcular la demora de cobertura a partir del percentil. */
+    private static final long MIN_SAMPLES_FOR_HEDGE_DELAY = 20;
+
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final ObservationRegistry observationRegistry;
+    private final LoanStatus fallbackDecision;
+    private final FraudClientProperties.Hedging hedging;
+
+    private final Timer latency;
+    private final Counter circuitOpenFallbacks;
+    private final Counter bulkheadFullFallbacks;
+    private final Counter errorFallbacks;
+    private final Counter primaryWins;
+    private final Counter hedgeWins;
+
+    /** Ejecutor de las llamadas cuando las solicitudes de cobertura están habilitadas; propaga el contexto de trazas. */
+    private final ExecutorService hedgeExecutor;
+
+    private volatile long hedgeDelayNanos;
+    private volatile long hedgeDelayComputedAt;
+
+    public FraudCallGuard(BulkheadRegistry bulkheadRegistry, CircuitBreakerRegistry circuitBreakerRegistry,
+                          ObservationRegistry observationRegistry, MeterRegistry meterRegistry,
+                          FraudClientProperties properties) {
+        this.bulkhead = bulkheadRegistry.bulkhead(INSTANCE);
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(INSTANCE);
+        this.observationRegistry = observationRegistry;
+        this.fallbackDecision = properties.resilience().fallbackDecision();
+        this.hedging = properties.resilience().hedging();
+        this.latency = Timer.builder("fraud.client.latency")
+                .description("Latency of successful calls to fraud-detection, including hedged attempts")
+                .publishPercentiles(hedging.percentile())
+                .register(meterRegistry);
+        this.circuitOpenFallbacks = fallbackCounter(meterRegistry, "circuit-open");
+        this.bulkheadFullFallbacks = fallbackCounter(meterRegistry, "bulkhead-full");
+        this.errorFallbacks = fallbackCounter(meterRegistry, "error");
+        this.primaryWins = Counter.builder("fraud.client.hedges").tag("winner", "primary").register(meterRegistry);
+        this.hedgeWins = Counter.builder("fraud.client.hedges").tag("winner", "hedge").register(meterRegistry);
+        this.hedgeExecutor = hedging.enabled()
+                ? ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor(),
+                        () -> ContextSnapshotFactory.builder().build().captureAll())
+                : null;
+        this.hedgeDelayNanos = hedging.maxDelay().toNanos();
+    }
+
+    /**
+     * Ejecuta una llamada al servicio de fraude a través del bulkhead, el circuit breaker y, si están habilitadas, las
+     * solicitudes de cobertura.
+     *
+     * @param request La llamada HTTP al servicio de fraude. Debe ser idempotente, ya que puede ejecutarse dos veces.
+     * @param <T> El tipo de la respuesta.
+     * @return La respuesta del servicio de fraude.
+     * @throws CallNotPermittedException si el circuito está abierto.
+     * @throws BulkheadFullException si se alcanzó el límite de llamadas concurrentes.
+     * @throws RestClientException si la llamada falló.
+     */
+    public <T> T execute(Supplier<T> request) {
+        Supplier<T> timed = () -> {
+            long start = System.nanoTime();
+            T response = hedgeExecutor != null ? hedged(request) : Bulkhead.decorateSupplier(bulkhead, request).get();
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return response;
+        };
+        return Observation.createNotStarted("fraud.client.call", observationRegistry)
+                .lowCardinalityKeyValue("hedging", String.valueOf(hedgeExecutor != null))
+                .observe(() -> CircuitBreaker.decorateSupplier(circuitBreaker, timed).get());
+    }
+
+    /**
+     * Ejecuta una llamada reactiva al servicio de fraude a través del bulkhead, el circuit breaker y, si están
+     * habilitadas, las solicitudes de cobertura.
+     *
+     * @param request La llamada HTTP al servicio de fraude, que se realiza al suscribirse. Debe ser idempotente, ya que
+     *                puede suscribirse dos veces.
+     * @param <T> El tipo de la respuesta.
+     * @return Un `Mono` con la respuesta del servicio de fraude, que emite `CallNotPermittedException`,
+     *         `BulkheadFullException` o `WebClientException` si la llamada no está permitida o falla.
+     *
+     * La observación `fraud.client.call` se crea con `Micrometer.observation` como hija de la observación del contexto
+     * de Reactor (la de la solicitud HTTP), por lo que el span y el encabezado `traceparent` de la llamada conservan
+     * la traza aunque la respuesta llegue en otro hilo.
+     */
+    public <T> Mono<T> execute(Mono<T> request) {
+        return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return (hedging.enabled() ? hedged(request) : request)
+                            .doOnNext(response -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+                })
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .name("fraud.client.call")
+                .tag("hedging", String.valueOf(hedging.enabled()))
+                .tap(Micrometer.observation(observationRegistry));
+    }
+
+    /**
+     * Devuelve la decisión de respaldo para una llamada que no pudo completarse y registra el motivo.
+     *
+     * @param failure La excepción lanzada por `execute`.
+     * @return La decisión configurada en `fraud.client.resilience.fallback-decision`.
+     * @throws RuntimeException la misma excepción, si no corresponde a una falla del servicio de fraude.
+     */
+    public LoanStatus fallback(RuntimeException failure) {
+        switch (failure) {
+            case CallNotPermittedException e -> circuitOpenFallbacks.increment();
+            case BulkheadFullException e -> bulkheadFullFallbacks.increment();
+            case RuntimeException e when e instanceof RestClientException || e instanceof WebClientException -> {
+                errorFallbacks.increment();
+                log.warn("Fraud Detection Service call failed, using fallback decision {}", fallbackDecision, e);
+            }
+            default -> throw failure;
+        }
+        return fallbackDecision;
+    }
+
+    /**
+     * Ejecuta la llamada y, si no respondió luego de la demora de cobertura, envía una segunda llamada.
+     *
+     * Cada llamada HTTP ocupa su propio permiso del bulkhead mientras está en curso. La primera espera un permiso como
+     * una llamada sin cobertura; la de cobertura solo se envía si hay un permiso libre. Cuando una llamada responde, la
+     * otra se cancela interrumpiendo su hilo virtual, lo que cierra su conexión y libera su permiso.
+     */
+    private <T> T hedged(Supplier<T> request) {
+        bulkhead.acquirePermission();
+        var primary = new CompletableFuture<T>();
+        Future<?> primaryTask;
+        try {
+            primaryTask = hedgeExecutor.submit(() -> attempt(request, primary));
+        } catch (RuntimeException e) {
+            bulkhead.onComplete();
+            throw e;
+        }
+        Future<?> hedgeTask = null;
+        try {
+            T response = primary.get(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            primaryWins.increment();
+            return response;
+        } catch (TimeoutException e) {
+            if (!bulkhead.tryAcquirePermission()) {
+                return await(primary, primaryWins);
+            }
+            var hedge = new CompletableFuture<T>();
+            try {
+                hedgeTask = hedgeExecutor.submit(() -> attempt(request, hedge));
+            } catch (RuntimeException rejected) {
+                bulkhead.onComplete();
+                return await(primary, primaryWins);
+            }
+            var winner = new CompletableFuture<T>();
+            var failures = new AtomicInteger();
+            primary.whenComplete((response, error) -> complete(winner, response, error, failures, primaryWins));
+            hedge.whenComplete((response, error) -> complete(winner, response, error, failures, hedgeWins));
+            return await(winner, null);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Fraud Detection Service", e);
+        } finally {
+            primaryTask.cancel(true);
+            if (hedgeTask != null) {
+                hedgeTask.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Realiza una de las llamadas de una solicitud con cobertura y libera su permiso del bulkhead al terminar.
+     */
+    private <T> void attempt(Supplier<T> request, CompletableFuture<T> result) {
+        try {
+            result.complete(request.get());
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    /**
+     * Suscribe la llamada y, si no respondió luego de la demora de cobertura, suscribe una segunda llamada. Si ambas
+     * fallan, emite el error de la primera.
+     */
+    private <T> Mono<T> hedged(Mono<T> request) {
+        var primary = request.doOnNext(response -> primaryWins.increment());
+        var hedge = Mono.defer(() -> Mono.delay(Duration.ofNanos(hedgeDelayNanos())))
+                .then(request.transformDeferred(BulkheadOperator.of(bulkhead)))
+                .doOnNext(response -> hedgeWins.increment());
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(e -> e instanceof NoSuchElementException && e.getCause() != null,
+                        e -> Exceptions.unwrapMultiple(e.getCause()).getFirst());
+    }
+
+    /**
+     * Completa la respuesta con la primera llamada exitosa, o con el error si ambas llamadas fallaron.
+     */
+    private static <T> void complete(CompletableFuture<T> winner, T response, Throwable error, AtomicInteger failures,
+                                     Counter wins) {
+        if (error == null) {
+            if (winner.complete(response)) {
+                wins.increment();
+            }
+        } else if (failures.incrementAndGet() == 2) {
+            winner.completeExceptionally(error);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future, Counter wins) {
+        try {
+            T response = future.get();
+            if (wins != null) {
+                wins.increment();
+            }
+            return response;
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Fraud Detection Service", e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        return e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+    }
+
+    /**
+     * Devuelve la demora de cobertura, recalculándola a partir del percentil de latencia como máximo una vez por segundo.
+     */
+    private long hedgeDelayNanos() {
+        long now = System.nanoTime();
+        if (now - hedgeDelayComputedAt > HEDGE_DELAY_REFRESH_NANOS) {
+            hedgeDelayComputedAt = now;
+            var snapshot = latency.takeSnapshot();
+            long delay = hedging.maxDelay().toNanos();
+            if (snapshot.count() >= MIN_SAMPLES_FOR_HEDGE_DELAY) {
+                for (ValueAtPercentile value : snapshot.percentileValues()) {
+                    delay = (long) value.value(TimeUnit.NANOSECONDS);
+                }
+            }
+            hedgeDelayNanos = Math.clamp(delay, hedging.minDelay().toNanos(), hedging.maxDelay().toNanos());
+        }
+        return hedgeDelayNanos;
+    }
+
+    private static Counter fallbackCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("fraud.client.fallbacks")
+                .description("Fraud decisions answered with the fallback decision")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void close() {
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdown();
+        }
+    }
+}
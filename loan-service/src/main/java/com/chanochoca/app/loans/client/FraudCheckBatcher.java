@@ -0,0 +1,169 @@
+package com.chanochoca.app.loans.client;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextScheduledExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * `FraudCheckBatcher` agrupa verificaciones de fraude concurrentes en una sola llamada al servicio de fraude.
+ *
+ * La primera verificación de un lote abre una ventana de tiempo; todas las verificaciones que llegan durante esa
+ * ventana se suman al mismo lote. El lote se envía cuando la ventana vence o cuando alcanza el tamaño máximo, lo que
+ * ocurra primero. De esta forma, N solicitudes de préstamo concurrentes cuestan una sola solicitud HTTP en lugar de N.
+ *
+ * Cuando el lote se completa por tamaño, la llamada se realiza en el hilo que agregó la última verificación; cuando
+ * vence la ventana, se realiza en un hilo del ejecutor interno del agrupador, con el contexto (la traza y el MDC) de la
+ * verificación que abrió el lote, capturado con `ContextSnapshotFactory` al programar la ventana. En el modo de hilos
+ * de plataforma, ese ejecutor tiene a lo sumo `maxConcurrentFlushes` hilos; los lotes que vencen mientras todos están
+ * ocupados esperan en una cola.
+ */
+final class FraudCheckBatcher implements AutoCloseable {
+
+    private final Function<FraudCheckRequest[], FraudDecision[]> batchCall;
+    private final long windowNanos;
+    private final int maxSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ScheduledExecutorService timer;
+    private final ExecutorService flusher;
+
+    /** Verificaciones del lote abierto. Protegido por `lock`. */
+    private List<PendingCheck> pending = new ArrayList<>();
+
+    /** Número del lote abierto; permite ignorar temporizadores de lotes que ya fueron enviados. Protegido por `lock`. */
+    private long batchNumber;
+
+    /**
+     * Crea un agrupador de verificaciones de fraude.
+     *
+     * @param batchCall La función que verifica un lote de solicitudes y devuelve sus decisiones en el mismo orden.
+     * @param window El tiempo máximo de espera de un lote antes de ser enviado.
+     * @param maxSize La cantidad de verificaciones que provoca el envío inmediato del lote.
+     * @param virtualThreads Indica si los lotes que vencen por tiempo se envían desde hilos virtuales.
+     * @param maxConcurrentFlushes La cantidad máxima de hilos de plataforma que envían lotes vencidos por tiempo al
+     *                             mismo tiempo. No se aplica con hilos virtuales.
+     */
+    FraudCheckBatcher(Function<FraudCheckRequest[], FraudDecision[]> batchCall, Duration window, int maxSize,
+                      boolean virtualThreads, int maxConcurrentFlushes) {
+        this.batchCall = batchCall;
+        this.windowNanos = window.toNanos();
+        this.maxSize = maxSize;
+        var contextSnapshotFactory = ContextSnapshotFactory.builder().build();
+        this.timer = ContextScheduledExecutorService.wrap(Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("fraud-batch-timer")
+                .daemon(true)
+                .factory()), contextSnapshotFactory::captureAll);
+        ExecutorService executor;
+        if (virtualThreads) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fraud-batch-", 0).factory());
+        } else {
+            var pool = new ThreadPoolExecutor(maxConcurrentFlushes, maxConcurrentFlushes, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), Thread.ofPlatform().name("fraud-batch-", 0).daemon(true).factory());
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        this.flusher = ContextExecutorService.wrap(executor, contextSnapshotFactory::captureAll);
+    }
+
+    /**
+     * Agrega una verificación de fraude al lote abierto.
+     *
+     * @param request La solicitud de préstamo a verificar.
+     * @return Un `CompletableFuture` que se completa con la decisión cuando el lote recibe la respuesta.
+     */
+    CompletableFuture<FraudDecision> submit(FraudCheckRequest request) {
+        var check = new PendingCheck(request, new CompletableFuture<>());
+        List<PendingCheck> ready = null;
+        lock.lock();
+        try {
+            pending.add(check);
+            if (pending.size() >= maxSize) {
+                ready = drain();
+            } else if (pending.size() == 1) {
+                long batch = batchNumber;
+                timer.schedule(() -> flushOnTimeout(batch), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (ready != null) {
+            flush(ready);
+        }
+        return check.result();
+    }
+
+    /**
+     * Envía el lote indicado si sigue abierto cuando vence su ventana.
+     */
+    private void flushOnTimeout(long batch) {
+        List<PendingCheck> ready = null;
+        lock.lock();
+        try {
+            if (batchNumber == batch && !pending.isEmpty()) {
+                ready = drain();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (ready != null) {
+            var checks = ready;
+            flusher.execute(() -> flush(checks));
+        }
+    }
+
+    /**
+     * Cierra el lote abierto y devuelve sus verificaciones. Debe invocarse con `lock` adquirido.
+     */
+    private List<PendingCheck> drain() {
+        var ready = pending;
+        pending = new ArrayList<>(Math.min(maxSize, ready.size() * 2));
+        batchNumber++;
+        return ready;
+    }
+
+    /**
+     * Realiza la llamada del lote y completa el resultado de cada verificación.
+     */
+    private void flush(List<PendingCheck> checks) {
+        var requests = new FraudCheckRequest[checks.size()];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = checks.get(i).request();
+        }
+        try {
+            var decisions = batchCall.apply(requests);
+            for (int i = 0; i < requests.length; i++) {
+                checks.get(i).result().complete(decisions[i]);
+            }
+        } catch (Throwable e) {
+            checks.forEach(check -> check.result().completeExceptionally(e));
+        }
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        flusher.shutdown();
+    }
+
+    /**
+     * Una verificación pendiente de un lote.
+     *
+     * @param request La solicitud de préstamo a verificar.
+     * @param result El resultado que se completa cuando llega la respuesta del lote.
+     */
+    private record PendingCheck(FraudCheckRequest request, CompletableFuture<FraudDecision> result) {
+    }
+}
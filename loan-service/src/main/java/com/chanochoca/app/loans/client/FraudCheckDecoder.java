@@ -0,0 +1,40 @@
+package com.chanochoca.app.loans.client;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractDataBufferDecoder;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+import java.util.Map;
+
+/**
+ * `FraudCheckDecoder` lee las respuestas `LoanStatus` y `LoanStatus[]` del servicio de fraude en el formato
+ * `application/x-fraud-check` (`FraudCheckEncoding`) en el `WebClient` del modo reactivo.
+ */
+public class FraudCheckDecoder extends AbstractDataBufferDecoder<Object> {
+
+    public FraudCheckDecoder() {
+        super(FraudCheckEncoding.MEDIA_TYPE);
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        return FraudCheckEncoding.canDecode(elementType.toClass()) && super.canDecode(elementType, mimeType);
+    }
+
+    @Override
+    public Object decode(DataBuffer buffer, ResolvableType targetType, @Nullable MimeType mimeType,
+                         @Nullable Map<String, Object> hints) {
+        var body = new byte[buffer.readableByteCount()];
+        buffer.read(body);
+        DataBufferUtils.release(buffer);
+        try {
+            return FraudCheckEncoding.decode(body, targetType.toClass());
+        } catch (IllegalArgumentException e) {
+            throw new DecodingException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.chanochoca.app.loans.client;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractSingleValueEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * `FraudCheckEncoder` escribe los cuerpos `FraudCheckRequest[]` en el formato `application/x-fraud-check`
+ * (`FraudCheckEncoding`) en el `WebClient` del servicio de fraude del modo reactivo.
+ */
+public class FraudCheckEncoder extends AbstractSingleValueEncoder<Object> {
+
+    public FraudCheckEncoder() {
+        super(FraudCheckEncoding.MEDIA_TYPE);
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        return FraudCheckEncoding.canEncode(elementType.toClass()) && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    protected Flux<DataBuffer> encode(Object requests, DataBufferFactory bufferFactory, ResolvableType type,
+                                      @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        return Flux.just(bufferFactory.wrap(FraudCheckEncoding.encode((FraudCheckRequest[]) requests)));
+    }
+}
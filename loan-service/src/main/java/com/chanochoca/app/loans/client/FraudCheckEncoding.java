@@ -0,0 +1,185 @@
+package com.chanochoca.app.loans.client;
+
+import com.chanochoca.app.loans.config.FraudClientProperties;
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.id.TimeOrderedIds;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * `FraudCheckEncoding` implementa el formato binario `application/x-fraud-check` que el servicio de fraude acepta como
+ * alternativa a JSON en `/fraud/check` y `/fraud/check/batch`.
+ *
+ * Cada elemento ocupa un tamaño fijo, con los enteros en orden big-endian, por lo que se lee y se escribe sin
+ * analizar texto:
+ *
+ * - **Solicitud:** 14 bytes por verificación: el `customerId` (4 bytes), el monto en unidades menores (8 bytes,
+ *   `Long.MIN_VALUE` si no se indica) y el código numérico ISO 4217 de la moneda (2 bytes, `0` si no se indica).
+ * - **Respuesta:** 1 byte por decisión, `A` para `APPROVED` y `R` para `REJECTED`.
+ *
+ * Una verificación de 100 préstamos ocupa 1400 bytes en lugar de unos 5000 en JSON, y su respuesta 100 bytes en lugar
+ * de unos 1100. Con `fraud.client.encoding=binary` (el valor por defecto) los clientes envían el cuerpo en este formato
+ * y lo solicitan con `Accept: application/x-fraud-check, application/json;q=0.5`, de modo que las respuestas en JSON
+ * de un servicio de fraude que no lo admite se siguen leyendo. Si el servicio de fraude rechaza un cuerpo binario con
+ * `415 Unsupported Media Type` (por ejemplo, una instancia anterior durante un despliegue gradual), los clientes repiten
+ * la misma llamada en JSON y siguen enviando los cuerpos en JSON hasta reiniciarse.
+ */
+public final class FraudCheckEncoding {
+
+    /** El tipo de contenido del formato binario. */
+    public static final MediaType MEDIA_TYPE = new MediaType("application", "x-fraud-check");
+
+    /**
+     * El encabezado con el identificador de una llamada al servicio de fraude. La solicitud de cobertura de
+     * `FraudCallGuard` repite el identificador de la original, y el servicio de fraude registra una sola vez las
+     * verificaciones con el mismo identificador en sus reglas con estado, como los límites de frecuencia.
+     */
+    public static final String REQUEST_ID_HEADER = "X-Fraud-Request-Id";
+
+    /** Tamaño en bytes de una verificación en el cuerpo de una solicitud. */
+    static final int REQUEST_SIZE = 14;
+
+    private static final long NO_AMOUNT = Long.MIN_VALUE;
+    private static final byte APPROVED = 'A';
+    private static final byte REJECTED = 'R';
+
+    private static final short[] CURRENCY_CODES = new short[Currency.values().length];
+
+    static {
+        for (Currency currency : Currency.values()) {
+            CURRENCY_CODES[currency.ordinal()] =
+                    (short) java.util.Currency.getInstance(currency.name()).getNumericCode();
+        }
+    }
+
+    private static final List<MediaType> BINARY_ACCEPT =
+            List.of(MEDIA_TYPE, new MediaType(MediaType.APPLICATION_JSON, Map.of("q", "0.5")));
+    private static final List<MediaType> JSON_ACCEPT = List.of(MediaType.APPLICATION_JSON);
+
+    private FraudCheckEncoding() {
+    }
+
+    /**
+     * Devuelve los encabezados de las solicitudes al servicio de fraude en una codificación.
+     *
+     * @param encoding La codificación configurada en `fraud.client.encoding`.
+     * @param withBody Indica si la solicitud tiene cuerpo, como las de `/fraud/check/batch`.
+     * @return Encabezados inmutables con `Accept` y, si la solicitud tiene cuerpo, con su `Content-Type`.
+     */
+    static HttpHeaders headers(FraudClientProperties.Encoding encoding, boolean withBody) {
+        boolean binary = encoding == FraudClientProperties.Encoding.BINARY;
+        var headers = new HttpHeaders();
+        headers.setAccept(binary ? BINARY_ACCEPT : JSON_ACCEPT);
+        if (withBody) {
+            headers.setContentType(binary ? MEDIA_TYPE : MediaType.APPLICATION_JSON);
+        }
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    /**
+     * Genera el identificador de una llamada al servicio de fraude, que se envía en `REQUEST_ID_HEADER`.
+     *
+     * Debe generarse una vez por llamada, antes de `FraudCallGuard`, para que la solicitud de cobertura envíe el
+     * mismo valor que la original.
+     *
+     * @return Un identificador nuevo.
+     */
+    static String requestId() {
+        return TimeOrderedIds.next().toString();
+    }
+
+    /**
+     * Devuelve una copia de los encabezados de una solicitud con un identificador de llamada nuevo.
+     *
+     * @param headers Los encabezados devueltos por `headers`.
+     * @return Los encabezados con `REQUEST_ID_HEADER`.
+     */
+    static HttpHeaders withRequestId(HttpHeaders headers) {
+        return withRequestId(headers, requestId());
+    }
+
+    /**
+     * Devuelve una copia de los encabezados de una solicitud con un identificador de llamada.
+     *
+     * @param headers Los encabezados devueltos por `headers`.
+     * @param requestId El identificador, que se repite al volver a enviar la misma llamada en otra codificación.
+     * @return Los encabezados con `REQUEST_ID_HEADER`.
+     */
+    static HttpHeaders withRequestId(HttpHeaders headers, String requestId) {
+        var copy = new HttpHeaders();
+        copy.addAll(headers);
+        copy.set(REQUEST_ID_HEADER, requestId);
+        return copy;
+    }
+
+    /**
+     * Escribe las verificaciones del cuerpo de una solicitud a `/fraud/check/batch`.
+     *
+     * @param requests Las verificaciones.
+     * @return El cuerpo de la solicitud, de `REQUEST_SIZE` bytes por verificación.
+     */
+    static byte[] encode(FraudCheckRequest[] requests) {
+        var buffer = ByteBuffer.allocate(requests.length * REQUEST_SIZE);
+        for (FraudCheckRequest request : requests) {
+            var amount = request.amount();
+            buffer.putInt(request.customerId())
+                    .putLong(amount == null ? NO_AMOUNT : amount.minorUnits())
+                    .putShort(amount == null ? 0 : CURRENCY_CODES[amount.currency().ordinal()]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Lee las decisiones de una respuesta del servicio de fraude.
+     *
+     * @param body El cuerpo de la respuesta.
+     * @return Los estados de los préstamos, uno por byte del cuerpo.
+     * @throws IllegalArgumentException Si algún byte no corresponde a un estado.
+     */
+    static LoanStatus[] decode(byte[] body) {
+        var statuses = new LoanStatus[body.length];
+        for (int i = 0; i < body.length; i++) {
+            statuses[i] = switch (body[i]) {
+                case APPROVED -> LoanStatus.APPROVED;
+                case REJECTED -> LoanStatus.REJECTED;
+                default -> throw new IllegalArgumentException("Unknown fraud decision code " + body[i]);
+            };
+        }
+        return statuses;
+    }
+
+    /**
+     * Convierte las decisiones leídas al tipo que espera la llamada: un único `LoanStatus` o un arreglo.
+     *
+     * @throws IllegalArgumentException Si se espera un único `LoanStatus` y la respuesta no tiene exactamente uno.
+     */
+    static Object decode(byte[] body, Class<?> type) {
+        var statuses = decode(body);
+        if (type != LoanStatus.class) {
+            return statuses;
+        }
+        if (statuses.length != 1) {
+            throw new IllegalArgumentException("Expected one fraud decision but got " + statuses.length);
+        }
+        return statuses[0];
+    }
+
+    /**
+     * Indica si un tipo es el cuerpo de una solicitud al servicio de fraude que este formato puede escribir.
+     */
+    static boolean canEncode(Class<?> type) {
+        return type == FraudCheckRequest[].class;
+    }
+
+    /**
+     * Indica si un tipo es el cuerpo de una respuesta del servicio de fraude que este formato puede leer.
+     */
+    static boolean canDecode(Class<?> type) {
+        return type == LoanStatus.class || type == LoanStatus[].class;
+    }
+}
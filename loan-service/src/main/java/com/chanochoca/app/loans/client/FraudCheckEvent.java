@@ -0,0 +1,53 @@
+package com.chanochoca.app.loans.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * `FraudCheckEvent` es el evento de JFR de una evaluación de fraude, individual o en lote, tal como la ve
+ * `loan-service`: incluye la caché de decisiones, la espera del lote y la capa de resiliencia.
+ *
+ * Por defecto solo se registran las evaluaciones de más de 1 ms (las respuestas de la caché quedan fuera); el umbral se
+ * cambia con `observability.profiling.thresholds[com.chanochoca.loans.FraudCheck]`.
+ */
+@Name("com.chanochoca.loans.FraudCheck")
+@Label("Fraud Check")
+@Category("Loan Service")
+@Description("Fraud evaluation of one or more loans, including the decision cache and the resilience layer")
+@StackTrace(false)
+@Threshold("1 ms")
+final class FraudCheckEvent extends Event {
+
+    @Label("Customer Id")
+    @Description("Customer evaluated, or 0 for a batch")
+    int customerId;
+
+    @Label("Loans")
+    int loans;
+
+    @Label("Outcome")
+    @Description("APPROVED or REJECTED, or BATCH for a batch evaluation")
+    String outcome;
+
+    /**
+     * Termina el evento y lo registra si supera el umbral.
+     *
+     * @param customerId El cliente evaluado, o `0` para un lote.
+     * @param loans La cantidad de préstamos evaluados.
+     * @param outcome La decisión, o `BATCH` para un lote.
+     */
+    void complete(int customerId, int loans, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.customerId = customerId;
+            this.loans = loans;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
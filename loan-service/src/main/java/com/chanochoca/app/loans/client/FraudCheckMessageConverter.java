@@ -0,0 +1,58 @@
+package com.chanochoca.app.loans.client;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+
+/**
+ * `FraudCheckMessageConverter` lee y escribe el formato `application/x-fraud-check` (`FraudCheckEncoding`) en el
+ * `RestTemplate` del servicio de fraude: escribe los cuerpos `FraudCheckRequest[]` y lee las respuestas `LoanStatus`
+ * y `LoanStatus[]`.
+ *
+ * Solo se aplica a los cuerpos con ese tipo de contenido, por lo que convive con el convertidor de JSON.
+ */
+public class FraudCheckMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public FraudCheckMessageConverter() {
+        super(FraudCheckEncoding.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return FraudCheckEncoding.canDecode(clazz) || FraudCheckEncoding.canEncode(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return FraudCheckEncoding.canDecode(clazz) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return FraudCheckEncoding.canEncode(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return FraudCheckEncoding.decode(inputMessage.getBody().readAllBytes(), clazz);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object requests, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(FraudCheckEncoding.encode((FraudCheckRequest[]) requests));
+    }
+
+    @Override
+    protected Long getContentLength(Object requests, @Nullable MediaType contentType) {
+        return (long) ((FraudCheckRequest[]) requests).length * FraudCheckEncoding.REQUEST_SIZE;
+    }
+}
@@ -0,0 +1,30 @@
+package com.chanochoca.app.loans.client;
+
+import com.chanochoca.app.loans.dto.MoneyJson;
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.Money;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * `FraudCheckRequest` es la solicitud de préstamo que se envía al servicio de fraude para evaluarla: el cliente, el
+ * monto y la moneda. Es el elemento del cuerpo de `POST /fraud/check/batch`, donde el monto se escribe como un número
+ * decimal (`amount`) y la moneda como una propiedad aparte (`currency`).
+ *
+ * @param customerId El ID del cliente.
+ * @param amount El monto solicitado y su moneda, o `null` si la solicitud no lo indica.
+ */
+@JsonPropertyOrder({"customerId", "amount", "currency"})
+public record FraudCheckRequest(int customerId, @JsonSerialize(using = MoneyJson.AmountSerializer.class) Money amount) {
+
+    /**
+     * Devuelve la moneda del préstamo.
+     *
+     * @return La moneda de `amount`, o `null` si la solicitud no indica un monto.
+     */
+    @JsonProperty("currency")
+    public Currency currency() {
+        return amount == null ? null : amount.currency();
+    }
+}
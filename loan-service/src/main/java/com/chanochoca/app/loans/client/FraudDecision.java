@@ -0,0 +1,71 @@
+package com.chanochoca.app.loans.client;
+
+import com.chanochoca.app.loans.entity.LoanStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * `FraudDecision` es una decisión del servicio de fraude junto con la indicación de si puede guardarse en caché.
+ *
+ * El servicio de fraude responde con `Cache-Control: no-store` cuando la decisión depende del monto, la moneda o el
+ * momento de la solicitud (por ejemplo, por un límite de frecuencia); esas decisiones no se guardan por cliente.
+ *
+ * @param status El estado del préstamo.
+ * @param cacheable `true` si la decisión solo depende del cliente.
+ */
+record FraudDecision(LoanStatus status, boolean cacheable) {
+
+    /**
+     * Indica si la respuesta del servicio de fraude puede guardarse en caché.
+     *
+     * @param response La respuesta del servicio de fraude.
+     * @return `false` si la respuesta incluye `Cache-Control: no-store`.
+     */
+    static boolean cacheable(ResponseEntity<?> response) {
+        String cacheControl = response.getHeaders().getCacheControl();
+        return cacheControl == null || !cacheControl.contains("no-store");
+    }
+
+    /**
+     * Convierte la respuesta de `/fraud/check` en una decisión.
+     *
+     * @param response La respuesta del servicio de fraude.
+     * @return La decisión, con la indicación de caché de la respuesta.
+     * @throws RestClientException Si la respuesta no tiene cuerpo. Se trata como una falla de la llamada, por lo que
+     *                             se responde con la decisión de respaldo.
+     */
+    static FraudDecision of(ResponseEntity<LoanStatus> response) {
+        var status = response.getBody();
+        if (status == null) {
+            throw new RestClientException("The Fraud Detection Service answered without a decision");
+        }
+        return new FraudDecision(status, cacheable(response));
+    }
+
+    /**
+     * Convierte la respuesta de `/fraud/check/batch` en decisiones, validando que haya una por solicitud.
+     *
+     * @param response La respuesta del servicio de fraude.
+     * @param requests La cantidad de solicitudes enviadas.
+     * @return Las decisiones, en el orden de la respuesta, todas con la indicación de caché de la respuesta.
+     * @throws RestClientException Si la respuesta no tiene cuerpo, no tiene una decisión por solicitud o alguna
+     *                             decisión es nula. Se trata como una falla de la llamada, por lo que todas las
+     *                             solicitudes se responden con la decisión de respaldo.
+     */
+    static FraudDecision[] all(ResponseEntity<LoanStatus[]> response, int requests) {
+        var statuses = response.getBody();
+        if (statuses == null || statuses.length != requests) {
+            throw new RestClientException("The Fraud Detection Service answered " + (statuses == null ? "without"
+                    : statuses.length) + " decisions for " + requests + " requests");
+        }
+        boolean cacheable = cacheable(response);
+        var decisions = new FraudDecision[statuses.length];
+        for (int i = 0; i < statuses.length; i++) {
+            if (statuses[i] == null) {
+                throw new RestClientException("The Fraud Detection Service answered a null decision");
+            }
+            decisions[i] = new FraudDecision(statuses[i], cacheable);
+        }
+        return decisions;
+    }
+}
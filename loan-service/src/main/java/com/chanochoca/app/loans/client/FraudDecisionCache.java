@@ -0,0 +1,229 @@
+package com.chanochoca.app.loans.client;
+
+import com.chanochoca.app.loans.config.FraudClientProperties;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * `FraudDecisionCache` es una caché acotada de las decisiones del servicio de detección de fraude por cliente.
+ *
+ * Un mismo cliente suele solicitar varios préstamos en poco tiempo; esta caché evita repetir la llamada al servicio de
+ * fraude para cada uno. Sus características son:
+ *
+ * - **Tamaño máximo:** al superarlo, Caffeine desaloja las entradas menos útiles.
+ * - **TTL por resultado:** las decisiones `APPROVED` y `REJECTED` vencen con tiempos de vida distintos, de modo que un
+ *   cliente recién marcado como fraudulento deja de ser aprobado en, como máximo, `approved-ttl`.
+ * - **Coalescencia:** las consultas concurrentes de un mismo cliente que no está en la caché esperan una única
+ *   llamada en curso, en lugar de realizar una llamada cada una.
+ * - **Invalidación:** el servicio de fraude puede invalidar clientes a través de `/fraud-cache` cuando sus registros cambian.
+ *   Cada invalidación incrementa una generación; las decisiones consultadas fuera de la caché (en lote) se guardan solo
+ *   si no hubo invalidaciones desde que se inició su consulta, de modo que una respuesta en curso no vuelva a guardar
+ *   una decisión invalidada. Las consultas individuales no lo necesitan: invalidar un cliente descarta su consulta en
+ *   curso de la caché.
+ * - **Decisiones por solicitud:** las decisiones que el servicio de fraude marca con `Cache-Control: no-store` (porque
+ *   dependen del monto, la moneda o la frecuencia de solicitudes) no se guardan ni se comparten entre solicitudes
+ *   concurrentes: cada solicitud consulta su propia decisión.
+ *
+ * Las métricas se publican con el nombre de caché `fraud-decisions` (`cache.gets`, `cache.evictions`, `cache.size`, ...).
+ */
+@Component
+public class FraudDecisionCache {
+
+    private final AsyncCache<Integer, FraudDecision> cache;
+
+    /** Cantidad de invalidaciones realizadas. */
+    private final AtomicLong generation = new AtomicLong();
+
+    public FraudDecisionCache(FraudClientProperties properties, MeterRegistry meterRegistry) {
+        var settings = properties.cache();
+        this.cache = settings.enabled()
+                ? CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                        .maximumSize(settings.maximumSize())
+                        .expireAfter(new DecisionExpiry(settings.approvedTtl(), settings.rejectedTtl()))
+                        .recordStats()
+                        .<Integer, FraudDecision>buildAsync(), "fraud-decisions")
+                : null;
+    }
+
+    /**
+     * Devuelve la decisión de fraude de un cliente, consultándola con `loader` si no está en la caché.
+     *
+     * @param customerId El ID del cliente.
+     * @param loader La función que consulta la decisión al servicio de fraude. Se ejecuta en el hilo que invoca este
+     *               método, por lo que conserva el contexto de trazas de la solicitud.
+     * @return El estado del préstamo para el cliente.
+     */
+    LoanStatus get(int customerId, IntFunction<FraudDecision> loader) {
+        if (cache == null) {
+            return loader.apply(customerId).status();
+        }
+        var loading = new CompletableFuture<FraudDecision>();
+        var decision = cache.get(customerId, (id, executor) -> loading);
+        if (decision == loading) {
+            FraudDecision loaded;
+            try {
+                loaded = loader.apply(customerId);
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+            loading.complete(loaded);
+            if (!loaded.cacheable()) {
+                cache.asMap().remove(customerId, loading);
+            }
+            return loaded.status();
+        }
+        FraudDecision shared;
+        try {
+            shared = decision.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return shared.cacheable() ? shared.status() : loader.apply(customerId).status();
+    }
+
+    /**
+     * Devuelve la decisión de fraude de un cliente sin bloquear, consultándola con `loader` si no está en la caché.
+     *
+     * @param customerId El ID del cliente.
+     * @param loader La función que inicia la consulta de la decisión al servicio de fraude.
+     * @return Un `CompletableFuture` que se completa con el estado del préstamo para el cliente, o con el error de la
+     *         consulta.
+     *
+     * Tiene las mismas garantías que `get`: las consultas concurrentes de un mismo cliente esperan la consulta en curso
+     * y, si la decisión compartida no puede guardarse, cada una realiza su propia consulta.
+     */
+    CompletableFuture<LoanStatus> getAsync(int customerId, IntFunction<CompletableFuture<FraudDecision>> loader) {
+        if (cache == null) {
+            return loader.apply(customerId).thenApply(FraudDecision::status);
+        }
+        var loading = new CompletableFuture<FraudDecision>();
+        var decision = cache.get(customerId, (id, executor) -> loading);
+        if (decision == loading) {
+            CompletableFuture<FraudDecision> loaded;
+            try {
+                loaded = loader.apply(customerId);
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+            loaded.whenComplete((result, error) -> {
+                if (error != null) {
+                    loading.completeExceptionally(error);
+                    return;
+                }
+                loading.complete(result);
+                if (!result.cacheable()) {
+                    cache.asMap().remove(customerId, loading);
+                }
+            });
+            return loading.thenApply(FraudDecision::status);
+        }
+        return decision.thenCompose(shared -> shared.cacheable()
+                ? CompletableFuture.completedFuture(shared.status())
+                : loader.apply(customerId).thenApply(FraudDecision::status));
+    }
+
+    /**
+     * Devuelve la decisión de fraude de un cliente si ya está disponible en la caché.
+     *
+     * @param customerId El ID del cliente.
+     * @return El estado del préstamo, o `null` si no está en la caché o todavía se está consultando.
+     */
+    public LoanStatus getIfPresent(int customerId) {
+        if (cache == null) {
+            return null;
+        }
+        var decision = cache.getIfPresent(customerId);
+        if (decision == null || !decision.isDone() || decision.isCompletedExceptionally()) {
+            return null;
+        }
+        return decision.join().cacheable() ? decision.join().status() : null;
+    }
+
+    /**
+     * Devuelve la generación actual de la caché, que debe leerse antes de iniciar una consulta fuera de la caché y
+     * pasarse a `put`.
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Guarda la decisión de fraude de un cliente obtenida fuera de la caché (por ejemplo, en una consulta en lote), si
+     * puede guardarse y no hubo invalidaciones desde que se inició su consulta.
+     *
+     * @param customerId El ID del cliente.
+     * @param decision La decisión del servicio de fraude para el cliente.
+     * @param generation La generación leída con `generation()` antes de iniciar la consulta.
+     */
+    void put(int customerId, FraudDecision decision, long generation) {
+        if (cache == null || !decision.cacheable()) {
+            return;
+        }
+        var stored = CompletableFuture.completedFuture(decision);
+        cache.put(customerId, stored);
+        if (this.generation.get() != generation) {
+            cache.asMap().remove(customerId, stored);
+        }
+    }
+
+    /**
+     * Elimina de la caché las decisiones de los clientes indicados.
+     *
+     * @param customerIds Los IDs de los clientes cuyas decisiones dejaron de ser válidas.
+     */
+    public void invalidate(int[] customerIds) {
+        generation.incrementAndGet();
+        if (cache != null) {
+            for (int customerId : customerIds) {
+                cache.synchronous().invalidate(customerId);
+            }
+        }
+    }
+
+    /**
+     * Elimina todas las decisiones de la caché.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        if (cache != null) {
+            cache.synchronous().invalidateAll();
+        }
+    }
+
+    /**
+     * Calcula el tiempo de vida de cada decisión según su resultado.
+     */
+    private record DecisionExpiry(Duration approvedTtl, Duration rejectedTtl) implements Expiry<Integer, FraudDecision> {
+
+        @Override
+        public long expireAfterCreate(Integer customerId, FraudDecision decision, long currentTime) {
+            return (decision.status() == LoanStatus.APPROVED ? approvedTtl : rejectedTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Integer customerId, FraudDecision decision, long currentTime, long currentDuration) {
+            return expireAfterCreate(customerId, decision, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Integer customerId, FraudDecision decision, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
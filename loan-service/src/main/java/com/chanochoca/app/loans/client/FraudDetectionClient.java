@@ -1,42 +1,229 @@
 package com.chanochoca.app.loans.client;
 
+import com.chanochoca.app.loans.config.FraudClientProperties;
 import com.chanochoca.app.loans.entity.LoanStatus;
-import lombok.RequiredArgsConstructor;
+import com.chanochoca.app.loans.entity.Money;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
 
 /**
  * La clase `FraudDetectionClient` es un cliente REST que se utiliza para interactuar con un servicio de detección de fraude.
  *
  * Esta clase se encarga de realizar una solicitud HTTP al servicio de detección de fraude para evaluar si un cliente
  * está involucrado en actividades fraudulentas, y en función de eso, devuelve un estado de préstamo (`LoanStatus`).
+ *
+ * Cada evaluación envía el cliente, el monto y la moneda del préstamo, que el servicio de fraude usa en sus reglas.
+ * Las decisiones que solo dependen del cliente se guardan en `FraudDecisionCache`, por lo que las evaluaciones
+ * repetidas de un mismo cliente no vuelven a llamar al servicio de fraude mientras la decisión esté vigente. Las
+ * decisiones que el servicio marca con `Cache-Control: no-store` no se guardan. Si `fraud.client.batch.enabled` es `true`,
+ * las evaluaciones concurrentes que no están en la caché se agrupan mediante `FraudCheckBatcher` en una sola llamada
+ * al endpoint `/fraud/check/batch`.
+ *
+ * Todas las llamadas HTTP pasan por `FraudCallGuard` (bulkhead, circuit breaker y solicitudes de cobertura). Si el
+ * servicio de fraude no puede ser consultado, se devuelve la decisión de respaldo configurada, que no se guarda en caché.
+ *
+ * Con `fraud.client.encoding=binary`, los cuerpos de `/fraud/check/batch` se envían en el formato binario
+ * `application/x-fraud-check` (`FraudCheckEncoding`) y las respuestas se solicitan en ese formato, con JSON como
+ * alternativa negociada con el encabezado `Accept`. Si el servicio de fraude responde `415 Unsupported Media Type` a un
+ * cuerpo binario, la llamada se repite en JSON y los lotes siguientes se envían en JSON.
+ *
+ * Cada evaluación se registra como un evento de JFR `FraudCheckEvent`, que la grabación continua conserva cuando supera
+ * su umbral.
  */
 @Component
-@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class FraudDetectionClient {
 
     private final RestTemplate fraudServiceRestTemplate;
+    private final FraudDecisionCache decisionCache;
+    private final FraudCallGuard callGuard;
+    private final FraudCheckBatcher batcher;
+    private final HttpHeaders checkHeaders;
+    private final HttpHeaders jsonBatchHeaders;
+
+    /** Los encabezados de los lotes; pasan a ser `jsonBatchHeaders` si el servicio de fraude rechaza los binarios. */
+    private volatile HttpHeaders batchHeaders;
+
+    public FraudDetectionClient(RestTemplate fraudServiceRestTemplate, FraudDecisionCache decisionCache,
+                                FraudCallGuard callGuard, FraudClientProperties properties, Environment environment) {
+        this.fraudServiceRestTemplate = fraudServiceRestTemplate;
+        this.decisionCache = decisionCache;
+        this.callGuard = callGuard;
+        this.checkHeaders = FraudCheckEncoding.headers(properties.encoding(), false);
+        this.jsonBatchHeaders = FraudCheckEncoding.headers(FraudClientProperties.Encoding.JSON, true);
+        this.batchHeaders = FraudCheckEncoding.headers(properties.encoding(), true);
+        var batch = properties.batch();
+        this.batcher = batch.enabled()
+                ? new FraudCheckBatcher(this::requestBatch, batch.window(), batch.maxSize(),
+                        Threading.VIRTUAL.isActive(environment), properties.pool().maxConnectionsPerRoute())
+                : null;
+    }
 
     /**
-     * Evalúa el estado de un préstamo para un cliente específico consultando el servicio de detección de fraude.
+     * Evalúa el estado de un préstamo consultando el servicio de detección de fraude.
      *
-     * @param customerId El ID del cliente que se va a evaluar.
+     * @param request La solicitud de préstamo: el cliente, el monto y la moneda.
      * @return El estado del préstamo (`LoanStatus`), que puede ser `APPROVED` o `REJECTED` basado en la respuesta del servicio de fraude.
      *
      * Este método realiza una solicitud GET al endpoint del servicio de fraude utilizando `RestTemplate`.
-     * Los detalles del cliente se envían como parámetro de consulta, y el servicio devuelve un estado
-     * que indica si el préstamo debe ser aprobado o rechazado.
+     * Los detalles de la solicitud se envían como parámetros de consulta, y el servicio devuelve un estado
+     * que indica si el préstamo debe ser aprobado o rechazado. Si la decisión del cliente está en la caché, no se
+     * realiza ninguna solicitud. Si el agrupamiento está habilitado, la evaluación se suma al lote abierto y el método
+     * espera la respuesta del lote.
      */
-    public LoanStatus evaluateLoan(int customerId) {
-        log.info("Calling Fraud Detection Service for customer id: {}", customerId);
-        var response = fraudServiceRestTemplate.exchange("/fraud/check?customerId=" + customerId,
-                        HttpMethod.GET, null, LoanStatus.class)
-                .getBody();
-        log.info("Fraud Detection Service response: {}", response);
-        return response;
+    public LoanStatus evaluateLoan(FraudCheckRequest request) {
+        var event = new FraudCheckEvent();
+        event.begin();
+        LoanStatus status;
+        try {
+            status = decisionCache.get(request.customerId(), customerId -> requestDecision(request));
+        } catch (RuntimeException e) {
+            status = callGuard.fallback(e);
+        }
+        event.complete(request.customerId(), 1, status.name());
+        return status;
     }
 
+    /**
+     * Consulta al servicio de fraude la decisión de una solicitud, directamente o a través del lote abierto.
+     */
+    private FraudDecision requestDecision(FraudCheckRequest request) {
+        if (batcher != null) {
+            try {
+                return batcher.submit(request).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        log.debug("Calling Fraud Detection Service for customer id: {}", request.customerId());
+        var uri = UriComponentsBuilder.fromPath("/fraud/check")
+                .queryParam("customerId", request.customerId())
+                .queryParamIfPresent("amount", Optional.ofNullable(request.amount()).map(Money::toPlainString))
+                .queryParamIfPresent("currency", Optional.ofNullable(request.currency()))
+                .toUriString();
+        var entity = new HttpEntity<Void>(FraudCheckEncoding.withRequestId(checkHeaders));
+        var decision = callGuard.execute(() -> FraudDecision.of(fraudServiceRestTemplate.exchange(uri, HttpMethod.GET,
+                entity, LoanStatus.class)));
+        log.debug("Fraud Detection Service response: {}", decision.status());
+        return decision;
+    }
+
+    /**
+     * Evalúa en una sola solicitud el estado de varios préstamos.
+     *
+     * @param requests Las solicitudes de préstamo que se van a evaluar.
+     * @return Los estados de los préstamos, en el mismo orden que `requests`.
+     *
+     * Los clientes cuya decisión está en la caché se resuelven localmente. Para el resto, este método realiza una sola
+     * solicitud POST al endpoint `/fraud/check/batch` del servicio de fraude, enviando las solicitudes en el cuerpo, y
+     * guarda en la caché las decisiones que pueden guardarse.
+     */
+    public LoanStatus[] evaluateLoans(FraudCheckRequest[] requests) {
+        var statuses = new LoanStatus[requests.length];
+        var missing = new FraudCheckRequest[requests.length];
+        int missingCount = 0;
+        for (int i = 0; i < requests.length; i++) {
+            statuses[i] = decisionCache.getIfPresent(requests[i].customerId());
+            if (statuses[i] == null) {
+                missing[missingCount++] = requests[i];
+            }
+        }
+        if (missingCount == 0) {
+            return statuses;
+        }
+        var requested = Arrays.copyOf(missing, missingCount);
+        var responses = new LoanStatus[requested.length];
+        var event = new FraudCheckEvent();
+        event.begin();
+        long generation = decisionCache.generation();
+        try {
+            var decisions = requestBatch(requested);
+            for (int i = 0; i < requested.length; i++) {
+                decisionCache.put(requested[i].customerId(), decisions[i], generation);
+                responses[i] = decisions[i].status();
+            }
+        } catch (RuntimeException e) {
+            Arrays.fill(responses, callGuard.fallback(e));
+        }
+        event.complete(0, requested.length, "BATCH");
+        for (int i = 0, next = 0; i < requests.length; i++) {
+            if (statuses[i] == null) {
+                statuses[i] = responses[next++];
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Realiza una solicitud POST al endpoint `/fraud/check/batch` con las solicitudes indicadas.
+     *
+     * Una respuesta sin cuerpo o sin una decisión por solicitud se valida dentro de `FraudCallGuard`, por lo que el
+     * circuit breaker la cuenta como una falla y quien llama responde todo el lote con la decisión de respaldo.
+     *
+     * El identificador de la llamada (`FraudCheckEncoding.REQUEST_ID_HEADER`) se genera antes de `FraudCallGuard`, de
+     * modo que una solicitud de cobertura no vuelve a contar las verificaciones en los límites de frecuencia.
+     */
+    private FraudDecision[] requestBatch(FraudCheckRequest[] requests) {
+        log.debug("Calling Fraud Detection Service for {} customer ids", requests.length);
+        String requestId = FraudCheckEncoding.requestId();
+        return callGuard.execute(() -> FraudDecision.all(exchangeBatch(requests, requestId), requests.length));
+    }
+
+    /**
+     * Envía un lote en la codificación actual y, si el servicio de fraude rechaza el cuerpo binario con
+     * `415 Unsupported Media Type`, lo vuelve a enviar una vez en JSON, con el mismo identificador de llamada, y deja
+     * JSON como codificación de los lotes siguientes.
+     */
+    private ResponseEntity<LoanStatus[]> exchangeBatch(FraudCheckRequest[] requests, String requestId) {
+        var headers = batchHeaders;
+        try {
+            return exchangeBatch(requests, headers, requestId);
+        } catch (HttpClientErrorException.UnsupportedMediaType e) {
+            if (headers == jsonBatchHeaders) {
+                throw e;
+            }
+            downgradeToJson();
+            return exchangeBatch(requests, jsonBatchHeaders, requestId);
+        }
+    }
+
+    private ResponseEntity<LoanStatus[]> exchangeBatch(FraudCheckRequest[] requests, HttpHeaders headers,
+                                                       String requestId) {
+        var entity = new HttpEntity<>(requests, FraudCheckEncoding.withRequestId(headers, requestId));
+        return fraudServiceRestTemplate.exchange("/fraud/check/batch", HttpMethod.POST, entity, LoanStatus[].class);
+    }
+
+    private void downgradeToJson() {
+        if (batchHeaders != jsonBatchHeaders) {
+            batchHeaders = jsonBatchHeaders;
+            log.warn("Fraud Detection Service does not accept {} request bodies; sending batches as JSON",
+                    FraudCheckEncoding.MEDIA_TYPE);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
 }
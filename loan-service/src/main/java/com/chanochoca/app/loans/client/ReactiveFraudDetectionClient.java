@@ -0,0 +1,196 @@
+package com.chanochoca.app.loans.client;
+
+import com.chanochoca.app.loans.config.FraudClientProperties;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * `ReactiveFraudDetectionClient` es el cliente no bloqueante del servicio de detección de fraude que utiliza el modo
+ * reactivo de `loan-service`, equivalente a `FraudDetectionClient`.
+ *
+ * Las llamadas se realizan con el `WebClient` de `ReactiveConfig`, por lo que ningún hilo espera la respuesta del
+ * servicio de fraude. Comparte con el modo servlet la caché de decisiones (`FraudDecisionCache`, con coalescencia de
+ * consultas concurrentes y sin guardar las decisiones marcadas con `Cache-Control: no-store`) y la capa de resiliencia
+ * (`FraudCallGuard`). Si el servicio de fraude no puede ser consultado, se devuelve la decisión de respaldo configurada.
+ * Como en el modo servlet, los cuerpos y las respuestas usan el formato de `fraud.client.encoding` (`FraudCheckEncoding`),
+ * leído y escrito por `FraudCheckDecoder` y `FraudCheckEncoder`, con el paso a JSON si el servicio de fraude rechaza los
+ * cuerpos binarios, y cada evaluación se registra como un evento de JFR `FraudCheckEvent`.
+ *
+ * Las consultas individuales no se agrupan con `FraudCheckBatcher` (`fraud.client.batch.*` no se aplica): el
+ * agrupamiento existe para reducir los hilos bloqueados esperando al servicio de fraude, que en este modo no existen.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveFraudDetectionClient {
+
+    private final WebClient fraudServiceWebClient;
+    private final FraudDecisionCache decisionCache;
+    private final FraudCallGuard callGuard;
+    private final HttpHeaders checkHeaders;
+    private final HttpHeaders jsonBatchHeaders;
+
+    /** Los encabezados de los lotes; pasan a ser `jsonBatchHeaders` si el servicio de fraude rechaza los binarios. */
+    private volatile HttpHeaders batchHeaders;
+
+    public ReactiveFraudDetectionClient(WebClient fraudServiceWebClient, FraudDecisionCache decisionCache,
+                                        FraudCallGuard callGuard, FraudClientProperties properties) {
+        this.fraudServiceWebClient = fraudServiceWebClient;
+        this.decisionCache = decisionCache;
+        this.callGuard = callGuard;
+        this.checkHeaders = FraudCheckEncoding.headers(properties.encoding(), false);
+        this.jsonBatchHeaders = FraudCheckEncoding.headers(FraudClientProperties.Encoding.JSON, true);
+        this.batchHeaders = FraudCheckEncoding.headers(properties.encoding(), true);
+    }
+
+    /**
+     * Evalúa el estado de un préstamo consultando el servicio de detección de fraude.
+     *
+     * @param request La solicitud de préstamo: el cliente, el monto y la moneda.
+     * @return Un `Mono` con el estado del préstamo (`APPROVED` o `REJECTED`), o con la decisión de respaldo si el
+     *         servicio de fraude no pudo ser consultado.
+     *
+     * La consulta al servicio de fraude se inicia desde la caché de decisiones, fuera de la cadena de operadores de la
+     * solicitud; por eso se le aplica explícitamente el contexto de Reactor de la solicitud, que contiene la
+     * observación en curso, de modo que el span de la llamada quede dentro de la traza de la solicitud.
+     */
+    public Mono<LoanStatus> evaluateLoan(FraudCheckRequest request) {
+        return Mono.deferContextual(context -> {
+            var event = new FraudCheckEvent();
+            event.begin();
+            return Mono.fromFuture(decisionCache.getAsync(request.customerId(),
+                            customerId -> requestDecision(request).contextWrite(context).toFuture()), true)
+                    .onErrorResume(RuntimeException.class, e -> Mono.fromSupplier(() -> callGuard.fallback(e)))
+                    .doOnNext(status -> event.complete(request.customerId(), 1, status.name()));
+        });
+    }
+
+    /**
+     * Consulta al servicio de fraude la decisión de una solicitud con una solicitud GET a `/fraud/check`.
+     *
+     * El identificador de la llamada (`FraudCheckEncoding.REQUEST_ID_HEADER`) se fija al construir la solicitud, por lo
+     * que la solicitud de cobertura, que vuelve a suscribirse a la misma, envía el mismo valor.
+     */
+    private Mono<FraudDecision> requestDecision(FraudCheckRequest request) {
+        log.debug("Calling Fraud Detection Service for customer id: {}", request.customerId());
+        var call = fraudServiceWebClient.get()
+                .uri(uri -> uri.path("/fraud/check")
+                        .queryParam("customerId", request.customerId())
+                        .queryParamIfPresent("amount", Optional.ofNullable(request.amount()).map(Money::toPlainString))
+                        .queryParamIfPresent("currency", Optional.ofNullable(request.currency()))
+                        .build())
+                .headers(headers -> headers.addAll(checkHeaders))
+                .header(FraudCheckEncoding.REQUEST_ID_HEADER, FraudCheckEncoding.requestId())
+                .retrieve()
+                .toEntity(LoanStatus.class);
+        return callGuard.execute(call.map(FraudDecision::of));
+    }
+
+    /**
+     * Evalúa en una sola solicitud el estado de varios préstamos.
+     *
+     * @param requests Las solicitudes de préstamo que se van a evaluar.
+     * @return Un `Mono` con los estados de los préstamos, en el mismo orden que `requests`.
+     *
+     * Los clientes cuya decisión está en la caché se resuelven localmente. Para el resto, se realiza una sola
+     * solicitud POST al endpoint `/fraud/check/batch` y se guardan en la caché las decisiones que pueden guardarse.
+     */
+    public Mono<LoanStatus[]> evaluateLoans(FraudCheckRequest[] requests) {
+        return Mono.defer(() -> {
+            var statuses = new LoanStatus[requests.length];
+            var missing = new FraudCheckRequest[requests.length];
+            int missingCount = 0;
+            for (int i = 0; i < requests.length; i++) {
+                statuses[i] = decisionCache.getIfPresent(requests[i].customerId());
+                if (statuses[i] == null) {
+                    missing[missingCount++] = requests[i];
+                }
+            }
+            if (missingCount == 0) {
+                return Mono.just(statuses);
+            }
+            var requested = Arrays.copyOf(missing, missingCount);
+            var event = new FraudCheckEvent();
+            event.begin();
+            long generation = decisionCache.generation();
+            return requestBatch(requested)
+                    .map(decisions -> {
+                        var responses = new LoanStatus[requested.length];
+                        for (int i = 0; i < requested.length; i++) {
+                            decisionCache.put(requested[i].customerId(), decisions[i], generation);
+                            responses[i] = decisions[i].status();
+                        }
+                        return responses;
+                    })
+                    .onErrorResume(RuntimeException.class, e -> Mono.fromSupplier(() -> {
+                        var responses = new LoanStatus[requested.length];
+                        Arrays.fill(responses, callGuard.fallback(e));
+                        return responses;
+                    }))
+                    .map(responses -> {
+                        event.complete(0, requested.length, "BATCH");
+                        for (int i = 0, next = 0; i < statuses.length; i++) {
+                            if (statuses[i] == null) {
+                                statuses[i] = responses[next++];
+                            }
+                        }
+                        return statuses;
+                    });
+        });
+    }
+
+    /**
+     * Realiza una solicitud POST al endpoint `/fraud/check/batch` con las solicitudes indicadas.
+     *
+     * Como en el modo servlet, una respuesta sin cuerpo o sin una decisión por solicitud se valida dentro de
+     * `FraudCallGuard`, por lo que el circuit breaker la cuenta como una falla y todo el lote se responde con la
+     * decisión de respaldo. Si el servicio de fraude rechaza el cuerpo binario con `415 Unsupported Media Type`, el lote
+     * se vuelve a enviar una vez en JSON, con el mismo identificador de llamada, y los lotes siguientes se envían en JSON.
+     */
+    private Mono<FraudDecision[]> requestBatch(FraudCheckRequest[] requests) {
+        log.debug("Calling Fraud Detection Service for {} customer ids", requests.length);
+        String requestId = FraudCheckEncoding.requestId();
+        var call = Mono.defer(() -> {
+            var headers = batchHeaders;
+            var exchange = exchangeBatch(requests, headers, requestId);
+            if (headers == jsonBatchHeaders) {
+                return exchange;
+            }
+            return exchange.onErrorResume(WebClientResponseException.UnsupportedMediaType.class, e -> {
+                downgradeToJson();
+                return exchangeBatch(requests, jsonBatchHeaders, requestId);
+            });
+        });
+        return callGuard.execute(call.map(response -> FraudDecision.all(response, requests.length)));
+    }
+
+    private Mono<ResponseEntity<LoanStatus[]>> exchangeBatch(FraudCheckRequest[] requests, HttpHeaders headers,
+                                                             String requestId) {
+        return fraudServiceWebClient.post()
+                .uri("/fraud/check/batch")
+                .headers(requestHeaders -> requestHeaders.addAll(headers))
+                .header(FraudCheckEncoding.REQUEST_ID_HEADER, requestId)
+                .bodyValue(requests)
+                .retrieve()
+                .toEntity(LoanStatus[].class);
+    }
+
+    private void downgradeToJson() {
+        if (batchHeaders != jsonBatchHeaders) {
+            batchHeaders = jsonBatchHeaders;
+            log.warn("Fraud Detection Service does not accept {} request bodies; sending batches as JSON",
+                    FraudCheckEncoding.MEDIA_TYPE);
+        }
+    }
+}
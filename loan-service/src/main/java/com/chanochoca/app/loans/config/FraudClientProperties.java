@@ -0,0 +1,130 @@
+package com.chanochoca.app.loans.config;
+
+import com.chanochoca.app.loans.entity.LoanStatus;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * `FraudClientProperties` agrupa la configuración del cliente del servicio de detección de fraude (`fraud.client.*`).
+ *
+ * @param baseUrl La URI base del servicio de detección de fraude.
+ * @param pool La configuración del pool de conexiones HTTP hacia el servicio de fraude.
+ * @param batch La configuración del agrupamiento de verificaciones concurrentes en una sola solicitud HTTP.
+ * @param cache La configuración de la caché de decisiones de fraude por cliente.
+ * @param resilience La configuración de la decisión de respaldo y de las solicitudes de cobertura (hedging).
+ * @param encoding El formato de los cuerpos de las solicitudes y las respuestas del servicio de fraude.
+ */
+@ConfigurationProperties(prefix = "fraud.client")
+public record FraudClientProperties(
+        @DefaultValue("http://localhost:8081") String baseUrl,
+        @DefaultValue Pool pool,
+        @DefaultValue Batch batch,
+        @DefaultValue Cache cache,
+        @DefaultValue Resilience resilience,
+        @DefaultValue("binary") Encoding encoding) {
+
+    /**
+     * Formato de los cuerpos de las solicitudes y las respuestas del servicio de fraude (`FraudCheckEncoding`).
+     *
+     * - `BINARY`: el formato binario de tamaño fijo `application/x-fraud-check`, con JSON como alternativa si el
+     *   servicio de fraude responde en JSON o rechaza los cuerpos binarios con `415 Unsupported Media Type`.
+     * - `JSON`: solo JSON, más fácil de inspeccionar.
+     */
+    public enum Encoding {
+        BINARY, JSON
+    }
+
+    /**
+     * Configuración del pool de conexiones HTTP/1.1 persistentes (keep-alive) hacia el servicio de fraude.
+     *
+     * @param maxConnectionsPerRoute La cantidad máxima de conexiones abiertas hacia el servicio de fraude.
+     * @param maxConnectionsTotal La cantidad máxima de conexiones abiertas del pool, sumando todas las rutas.
+     * @param connectTimeout El tiempo máximo para establecer una conexión nueva.
+     * @param readTimeout El tiempo máximo de espera de la respuesta una vez enviada la solicitud.
+     * @param acquireTimeout El tiempo máximo de espera de una conexión libre del pool cuando todas están en uso.
+     * @param idleEviction El tiempo de inactividad tras el cual una conexión del pool se cierra.
+     * @param timeToLive La vida máxima de una conexión, tras la cual se cierra aunque siga en uso frecuente.
+     * @param keepAlive Indica si las conexiones se reutilizan entre solicitudes. Si es `false`, cada solicitud abre y
+     *                  cierra su propia conexión; solo es útil para comparar el costo de no reutilizarlas.
+     */
+    public record Pool(
+            @DefaultValue("50") int maxConnectionsPerRoute,
+            @DefaultValue("100") int maxConnectionsTotal,
+            @DefaultValue("1s") Duration connectTimeout,
+            @DefaultValue("2s") Duration readTimeout,
+            @DefaultValue("500ms") Duration acquireTimeout,
+            @DefaultValue("30s") Duration idleEviction,
+            @DefaultValue("5m") Duration timeToLive,
+            @DefaultValue("true") boolean keepAlive) {
+    }
+
+    /**
+     * Configuración del agrupamiento (micro-batching) de verificaciones de fraude.
+     *
+     * @param enabled Indica si las llamadas concurrentes a `evaluateLoan` se agrupan en una llamada a `/fraud/check/batch`.
+     * @param window El tiempo máximo que una verificación espera a que otras se sumen al mismo lote.
+     * @param maxSize La cantidad de verificaciones que provoca el envío inmediato del lote, sin esperar la ventana.
+     */
+    public record Batch(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("5ms") Duration window,
+            @DefaultValue("100") int maxSize) {
+    }
+
+    /**
+     * Configuración de la caché de decisiones de fraude por cliente (`FraudDecisionCache`).
+     *
+     * @param enabled Indica si las decisiones del servicio de fraude se guardan en caché.
+     * @param maximumSize La cantidad máxima de clientes en la caché.
+     * @param approvedTtl El tiempo de vida de una decisión `APPROVED`.
+     * @param rejectedTtl El tiempo de vida de una decisión `REJECTED`.
+     * @param invalidationToken El secreto compartido que deben enviar las solicitudes a `/fraud-cache` en el encabezado
+     *                          `X-Fraud-Cache-Token`. Si no se indica, esos endpoints rechazan todas las solicitudes y
+     *                          las decisiones solo vencen por tiempo.
+     */
+    public record Cache(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("100000") long maximumSize,
+            @DefaultValue("30s") Duration approvedTtl,
+            @DefaultValue("10m") Duration rejectedTtl,
+            String invalidationToken) {
+    }
+
+    /**
+     * Configuración de la capa de resiliencia alrededor de las llamadas al servicio de fraude (`FraudCallGuard`).
+     *
+     * El bulkhead y el circuit breaker se configuran con las propiedades de Resilience4j de la instancia
+     * `fraud-detection` (`resilience4j.bulkhead.instances.fraud-detection.*` y
+     * `resilience4j.circuitbreaker.instances.fraud-detection.*`).
+     *
+     * @param fallbackDecision La decisión que se devuelve cuando el servicio de fraude no puede ser consultado (circuito
+     *                         abierto, bulkhead lleno o error de la llamada). Estas decisiones no se guardan en caché.
+     * @param hedging La configuración de las solicitudes de cobertura.
+     */
+    public record Resilience(
+            @DefaultValue("REJECTED") LoanStatus fallbackDecision,
+            @DefaultValue Hedging hedging) {
+    }
+
+    /**
+     * Configuración de las solicitudes de cobertura (hedged requests).
+     *
+     * Si una llamada no respondió luego de la demora de cobertura, se envía una segunda llamada idéntica y se utiliza la
+     * primera respuesta exitosa. La demora se calcula a partir del percentil `percentile` de la latencia reciente de las
+     * llamadas, acotado entre `minDelay` y `maxDelay`.
+     *
+     * @param enabled Indica si se envían solicitudes de cobertura.
+     * @param percentile El percentil de latencia a partir del cual se envía la solicitud de cobertura.
+     * @param minDelay La demora mínima antes de enviar la solicitud de cobertura.
+     * @param maxDelay La demora máxima antes de enviar la solicitud de cobertura, utilizada también mientras no hay
+     *                 suficientes mediciones de latencia.
+     */
+    public record Hedging(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("0.95") double percentile,
+            @DefaultValue("10ms") Duration minDelay,
+            @DefaultValue("500ms") Duration maxDelay) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.chanochoca.app.loans.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * `LoanProperties` agrupa la configuración del procesamiento de préstamos (`loan.*`).
+ *
+ * @param batch La configuración de las solicitudes de préstamos en lote.
+ * @param listing La configuración del listado de préstamos.
+ * @param writeBehind La configuración de la persistencia asíncrona de los préstamos aprobados.
+ * @param lookupCache La configuración de la caché de préstamos consultados por `loanId`.
+ * @param stats La configuración de las estadísticas de préstamos.
+ * @param sharding La configuración del reparto de la tabla `loans` entre varias bases de datos.
+ */
+@ConfigurationProperties(prefix = "loan")
+public record LoanProperties(@DefaultValue Batch batch, @DefaultValue Listing listing,
+                             @DefaultValue WriteBehind writeBehind, @DefaultValue LookupCache lookupCache,
+                             @DefaultValue Stats stats, @DefaultValue Sharding sharding) {
+
+    /**
+     * Configuración de las solicitudes de préstamos en lote (`POST /loan/batch`).
+     *
+     * @param chunkSize La cantidad de préstamos que se evalúan con una sola llamada al servicio de fraude y se
+     *                  persisten en una misma transacción con una inserción por lotes.
+     */
+    public record Batch(@DefaultValue("1000") int chunkSize) {
+    }
+
+    /**
+     * Configuración del listado de préstamos (`GET /loan`).
+     *
+     * @param fetchSize La cantidad de filas que el cursor JDBC trae de la base de datos en cada viaje al transmitir el listado.
+     * @param maxPageSize El tamaño máximo de página permitido en la paginación por clave.
+     */
+    public record Listing(@DefaultValue("500") int fetchSize, @DefaultValue("1000") int maxPageSize) {
+    }
+
+    /**
+     * Configuración de la persistencia asíncrona (write-behind) de los préstamos aprobados en `POST /loan`.
+     *
+     * @param enabled Indica si los préstamos se encolan y se guardan en segundo plano en lugar de en la solicitud.
+     * @param capacity La cantidad máxima de préstamos encolados pendientes de guardar.
+     * @param maxBatchSize La cantidad máxima de préstamos que se guardan en una misma transacción.
+     * @param offerTimeout El tiempo máximo que una solicitud espera lugar en la cola llena antes de guardar el préstamo
+     *                     de forma sincrónica.
+     * @param maxRetries La cantidad de reintentos de un lote que falla antes de guardar sus préstamos uno por uno.
+     * @param retryBackoff La espera antes del primer reintento de un lote; se duplica en cada reintento.
+     * @param maxRetryBackoff La espera máxima entre dos reintentos de un lote.
+     * @param shutdownTimeout El tiempo máximo de espera para guardar los préstamos encolados al detener la aplicación.
+     *                        Los préstamos que no se guardan en ese tiempo se registran en el log de préstamos no
+     *                        guardados (`loan.write-behind.dead-letter`).
+     */
+    public record WriteBehind(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("10000") int capacity,
+            @DefaultValue("500") int maxBatchSize,
+            @DefaultValue("100ms") Duration offerTimeout,
+            @DefaultValue("3") int maxRetries,
+            @DefaultValue("100ms") Duration retryBackoff,
+            @DefaultValue("5s") Duration maxRetryBackoff,
+            @DefaultValue("10s") Duration shutdownTimeout) {
+    }
+
+    /**
+     * Configuración de la caché de préstamos consultados por `loanId` (`GET /loan/{loanId}`).
+     *
+     * @param maximumSize La cantidad máxima de préstamos en la caché.
+     * @param expireAfterAccess El tiempo que un préstamo permanece en la caché desde su última consulta.
+     */
+    public record LookupCache(
+            @DefaultValue("10000") long maximumSize,
+            @DefaultValue("10m") Duration expireAfterAccess) {
+    }
+
+    /**
+     * Configuración de las estadísticas de préstamos (`GET /loan/stats`).
+     *
+     * @param topCustomers La cantidad de clientes con más préstamos que se informan.
+     */
+    public record Stats(@DefaultValue("10") int topCustomers) {
+    }
+
+    /**
+     * Configuración del reparto de la tabla `loans` entre varias bases de datos por `customerId` (`ShardedLoanRepository`).
+     *
+     * @param enabled Indica si los préstamos se guardan en los shards de `shards` en lugar de en `spring.datasource`.
+     *                Solo se aplica al modo servlet.
+     * @param shards Las bases de datos entre las que se reparten los préstamos.
+     * @param nodeId El número de esta instancia de la aplicación, de 0 a 1023, que forma parte de los `id` que genera
+     *               (`SnowflakeIds`). Cada instancia que escribe en los mismos shards debe tener uno distinto.
+     * @param virtualNodes La cantidad de puntos de cada shard en el anillo de hashing consistente.
+     * @param migrate Indica si se aplican las migraciones de Flyway a cada shard al iniciar.
+     * @param rebalance La configuración del movimiento de clientes entre shards.
+     */
+    public record Sharding(
+            @DefaultValue("false") boolean enabled,
+            List<Shard> shards,
+            @DefaultValue("0") int nodeId,
+            @DefaultValue("160") int virtualNodes,
+            @DefaultValue("true") boolean migrate,
+            @DefaultValue Rebalance rebalance) {
+
+        public Sharding {
+            shards = shards == null ? List.of() : List.copyOf(shards);
+        }
+    }
+
+    /**
+     * Configuración de una base de datos de `loan.sharding.shards`.
+     *
+     * @param name El nombre del shard, que determina qué clientes le corresponden. No debe cambiar mientras tenga datos.
+     * @param url La URL JDBC de la base de datos.
+     * @param username El usuario de la base de datos.
+     * @param password La contraseña de la base de datos.
+     * @param maximumPoolSize La cantidad máxima de conexiones del pool del shard.
+     */
+    public record Shard(String name, String url, String username, String password,
+                        @DefaultValue("10") int maximumPoolSize) {
+    }
+
+    /**
+     * Configuración del movimiento de clientes entre shards (`ShardRebalancer`).
+     *
+     * @param onStartup Indica si los clientes que no están en su shard se mueven al iniciar la aplicación. Hasta que
+     *                  termina un movimiento, las consultas de un cliente consultan todos los shards, por lo que con
+     *                  `false` deben moverse con `POST /actuator/shards`.
+     * @param batchSize La cantidad máxima de préstamos que se copian en una misma transacción.
+     */
+    public record Rebalance(@DefaultValue("true") boolean onStartup, @DefaultValue("500") int batchSize) {
+    }
+}
@@ -4,6 +4,7 @@ import io.micrometer.observation.ObservationRegistry;
 import io.micrometer.observation.aop.ObservedAspect;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
 
 /**
  * La clase `ObservationConfig` es una clase de configuración en Spring que define los beans
@@ -32,4 +33,19 @@ public class ObservationConfig {
     ObservedAspect observedAspect(ObservationRegistry registry) {
         return new ObservedAspect(registry);
     }
+
+    /**
+     * Declara un `TaskDecorator` que propaga el contexto de observación a las tareas asíncronas.
+     *
+     * @return Una instancia de `ContextPropagatingTaskDecorator`.
+     *
+     * Spring Boot aplica este decorador al ejecutor de tareas de la aplicación, tanto con hilos de plataforma como con
+     * hilos virtuales. De esta forma, el trabajo que se ejecuta fuera del hilo de la solicitud (por ejemplo, las
+     * respuestas transmitidas con `StreamingResponseBody`) conserva el `traceId` y el `spanId` de la solicitud, que se
+     * incluyen en los registros a través de `logging.pattern.correlation`.
+     */
+    @Bean
+    ContextPropagatingTaskDecorator contextPropagatingTaskDecorator() {
+        return new ContextPropagatingTaskDecorator();
+    }
 }
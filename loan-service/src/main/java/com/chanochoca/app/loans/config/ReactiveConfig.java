@@ -0,0 +1,144 @@
+package com.chanochoca.app.loans.config;
+
+import com.chanochoca.app.loans.client.FraudCheckDecoder;
+import com.chanochoca.app.loans.client.FraudCheckEncoder;
+import com.zaxxer.hikari.HikariDataSource;
+import io.netty.channel.ChannelOption;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.client.ReactorResourceFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * La clase `ReactiveConfig` es una clase de configuración en Spring que define los beans del modo reactivo de
+ * `loan-service`, que se activa con el perfil `reactive` (`spring.main.web-application-type=reactive`).
+ *
+ * En este modo, las solicitudes HTTP se atienden con Spring WebFlux sobre Reactor Netty, las llamadas al servicio de
+ * fraude se realizan con un `WebClient` no bloqueante y las consultas a la base de datos utilizan R2DBC
+ * (`spring.r2dbc.*`). Flyway, `LoanStatistics` y la inicialización de la base de datos siguen utilizando el
+ * `DataSource` JDBC, que solo se consulta al iniciar.
+ *
+ * `R2dbcAutoConfiguration` está excluida de la configuración automática de la aplicación y solo se importa aquí: en el
+ * modo servlet no se crea ninguna `ConnectionFactory`, de modo que la inicialización de la base de datos y las
+ * transacciones de `@Transactional` siguen utilizando JDBC.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(DataSourceProperties.class)
+@Import(R2dbcAutoConfiguration.class)
+public class ReactiveConfig {
+
+    /**
+     * Declara el `DataSource` JDBC del modo reactivo.
+     *
+     * @param properties La configuración de `spring.datasource.*`.
+     * @return Un pool de conexiones Hikari, configurado igual que en el modo servlet.
+     *
+     * Spring Boot no crea el `DataSource` cuando existe una `ConnectionFactory` de R2DBC, pero Flyway, `LoanStatistics`
+     * y `LoanRepository` lo siguen necesitando.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Declara el servidor web del modo reactivo.
+     *
+     * @param resourceFactory Los recursos de Reactor Netty (event loops) compartidos con los clientes HTTP.
+     * @param serverCustomizers Las personalizaciones del servidor Netty.
+     * @return Un `NettyReactiveWebServerFactory`.
+     *
+     * Como `spring-boot-starter-web` también está en el classpath, Spring Boot elegiría Tomcat para el modo reactivo;
+     * este bean fuerza Reactor Netty, de modo que ningún hilo queda bloqueado por solicitud.
+     */
+    @Bean
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory(ObjectProvider<ReactorResourceFactory> resourceFactory,
+                                                                ObjectProvider<NettyServerCustomizer> serverCustomizers) {
+        var factory = new NettyReactiveWebServerFactory();
+        resourceFactory.ifAvailable(factory::setResourceFactory);
+        serverCustomizers.orderedStream().forEach(factory::addServerCustomizers);
+        return factory;
+    }
+
+    /**
+     * Declara el pool de conexiones de Reactor Netty hacia el servicio de fraude.
+     *
+     * @param properties La configuración del cliente del servicio de fraude.
+     * @return Un `ConnectionProvider` con los mismos límites que el pool de Apache HttpClient del modo servlet:
+     *         `max-connections-total` conexiones, una espera máxima de `acquire-timeout` por una conexión libre, y
+     *         cierre de las conexiones inactivas durante más de `idle-eviction` o abiertas durante más de
+     *         `time-to-live`.
+     *
+     * Las métricas del pool se publican como `reactor.netty.connection.provider.*` con la etiqueta `name=fraud-detection`.
+     */
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider fraudServiceConnectionProvider(FraudClientProperties properties) {
+        var pool = properties.pool();
+        return ConnectionProvider.builder("fraud-detection")
+                .maxConnections(pool.maxConnectionsTotal())
+                .pendingAcquireTimeout(pool.acquireTimeout())
+                .maxIdleTime(pool.idleEviction())
+                .maxLifeTime(pool.timeToLive())
+                .evictInBackground(pool.idleEviction())
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Declara un `WebClient` configurado para interactuar con el servicio de fraude.
+     *
+     * @param webClientBuilder El `WebClient.Builder` de Spring Boot, que registra la observación
+     *                         `http.client.requests` y propaga el contexto de trazas en el encabezado `traceparent`.
+     * @param fraudServiceConnectionProvider El pool de conexiones hacia el servicio de fraude.
+     * @param properties La configuración del cliente del servicio de fraude.
+     * @return Un `WebClient` con la URI base `fraud.client.base-url`, los tiempos de espera de `fraud.client.pool.*`,
+     *         el formato binario `application/x-fraud-check` además de JSON y, si `keep-alive` es `false`, sin
+     *         reutilización de conexiones.
+     */
+    @Bean
+    WebClient fraudServiceWebClient(WebClient.Builder webClientBuilder,
+                                    ConnectionProvider fraudServiceConnectionProvider,
+                                    FraudClientProperties properties) {
+        var pool = properties.pool();
+        var httpClient = HttpClient.create(fraudServiceConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(pool.connectTimeout().toMillis()))
+                .responseTimeout(pool.readTimeout())
+                .keepAlive(pool.keepAlive());
+        return webClientBuilder
+                .baseUrl(properties.baseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> {
+                    codecs.customCodecs().register(new FraudCheckEncoder());
+                    codecs.customCodecs().register(new FraudCheckDecoder());
+                })
+                .build();
+    }
+
+    /**
+     * Declara el cliente R2DBC utilizado por `ReactiveLoanRepository`.
+     *
+     * @param connectionFactory El pool de conexiones R2DBC definido por `spring.r2dbc.*`, instrumentado con la
+     *                          observación `r2dbc.query` por cada consulta.
+     * @return Un `DatabaseClient` que traduce los parámetros con nombre (`:name`) a los marcadores del driver.
+     */
+    @Bean
+    DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+}
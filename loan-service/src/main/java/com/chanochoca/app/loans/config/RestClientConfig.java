@@ -1,8 +1,21 @@
 package com.chanochoca.app.loans.config;
 
+import com.chanochoca.app.loans.client.FraudCheckMessageConverter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -10,26 +23,102 @@ import org.springframework.web.client.RestTemplate;
  * necesarios para la configuración de clientes REST utilizando `RestTemplate`.
  *
  * Esta configuración facilita la creación y configuración de un `RestTemplate` que puede ser
- * utilizado para realizar solicitudes HTTP a otros servicios, como un servicio de fraude.
+ * utilizado para realizar solicitudes HTTP a otros servicios, como un servicio de fraude. Las
+ * solicitudes se realizan sobre un pool de conexiones HTTP/1.1 persistentes de Apache HttpClient,
+ * con tiempos de espera acotados y configurables mediante `fraud.client.*`.
+ *
+ * Solo se aplica en el modo servlet; el modo reactivo utiliza el `WebClient` de `ReactiveConfig`.
  */
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RestClientConfig {
 
+    /**
+     * Declara el pool de conexiones HTTP hacia el servicio de fraude.
+     *
+     * @param properties La configuración del cliente del servicio de fraude.
+     * @return Un `PoolingHttpClientConnectionManager` que reutiliza conexiones persistentes (keep-alive).
+     *
+     * El pool limita la cantidad de conexiones abiertas, acota el tiempo para establecer una conexión y para leer la
+     * respuesta, y renueva las conexiones que superan su tiempo de vida.
+     */
+    @Bean(destroyMethod = "close")
+    PoolingHttpClientConnectionManager fraudServiceConnectionManager(FraudClientProperties properties) {
+        var pool = properties.pool();
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(pool.maxConnectionsPerRoute())
+                .setMaxConnTotal(pool.maxConnectionsTotal())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(pool.connectTimeout()))
+                        .setSocketTimeout(Timeout.of(pool.readTimeout()))
+                        .setTimeToLive(TimeValue.of(pool.timeToLive()))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Declara el cliente HTTP que utiliza el pool de conexiones hacia el servicio de fraude.
+     *
+     * @param connectionManager El pool de conexiones hacia el servicio de fraude.
+     * @param properties La configuración del cliente del servicio de fraude.
+     * @return Un `CloseableHttpClient` que espera como máximo `acquireTimeout` por una conexión libre y cierra en segundo
+     *         plano las conexiones inactivas durante más de `idleEviction`. Si `keepAlive` es `false`, las conexiones
+     *         se cierran luego de cada solicitud.
+     */
+    @Bean(destroyMethod = "close")
+    CloseableHttpClient fraudServiceHttpClient(PoolingHttpClientConnectionManager connectionManager,
+                                               FraudClientProperties properties) {
+        var pool = properties.pool();
+        var builder = HttpClients.custom();
+        if (!pool.keepAlive()) {
+            builder.setConnectionReuseStrategy((request, response, context) -> false);
+        }
+        return builder
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(pool.acquireTimeout()))
+                        .setResponseTimeout(Timeout.of(pool.readTimeout()))
+                        .build())
+                .evictIdleConnections(TimeValue.of(pool.idleEviction()))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    /**
+     * Publica la utilización del pool de conexiones hacia el servicio de fraude como métricas de Micrometer.
+     *
+     * @param connectionManager El pool de conexiones hacia el servicio de fraude.
+     * @return Un `MeterBinder` que registra los medidores `httpcomponents.httpclient.pool.*` (conexiones disponibles,
+     *         en uso, solicitudes pendientes y máximos) con la etiqueta `httpclient=fraud-detection`.
+     */
+    @Bean
+    MeterBinder fraudServiceConnectionPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "fraud-detection");
+    }
+
     /**
      * Declara un bean de tipo `RestTemplate` configurado para interactuar con el servicio de fraude.
      *
      * @param restTemplateBuilder Un `RestTemplateBuilder` proporcionado por Spring Boot que facilita
      *                            la configuración de instancias de `RestTemplate`.
+     * @param fraudServiceHttpClient El cliente HTTP con el pool de conexiones hacia el servicio de fraude.
+     * @param properties La configuración del cliente del servicio de fraude.
      * @return Una instancia de `RestTemplate` configurada con la URI base del servicio de fraude.
      *
-     * Este `RestTemplate` se configura con la URI base "http://localhost:8081", lo que permite que
-     * todas las solicitudes realizadas con esta instancia estén dirigidas a dicho servicio.
+     * Este `RestTemplate` se configura con la URI base `fraud.client.base-url`, lo que permite que
+     * todas las solicitudes realizadas con esta instancia estén dirigidas a dicho servicio. Además de los
+     * convertidores de Spring Boot, registra `FraudCheckMessageConverter` para el formato binario
+     * `application/x-fraud-check`.
      * El `RestTemplate` es utilizado para realizar llamadas HTTP de manera sencilla y eficiente.
      */
     @Bean
-    RestTemplate fraudServiceRestTemplate(RestTemplateBuilder restTemplateBuilder) {
+    RestTemplate fraudServiceRestTemplate(RestTemplateBuilder restTemplateBuilder,
+                                          CloseableHttpClient fraudServiceHttpClient,
+                                          FraudClientProperties properties) {
         return restTemplateBuilder
-                .rootUri("http://localhost:8081")  // Establece la URI base para las solicitudes.
+                .rootUri(properties.baseUrl())  // Establece la URI base para las solicitudes.
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(fraudServiceHttpClient))
+                .additionalMessageConverters(new FraudCheckMessageConverter())
                 .build();
     }
 }
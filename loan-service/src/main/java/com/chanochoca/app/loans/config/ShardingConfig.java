@@ -0,0 +1,138 @@
+package com.chanochoca.app.loans.config;
+
+import com.chanochoca.app.loans.controller.ShardsEndpoint;
+import com.chanochoca.app.loans.id.SnowflakeIds;
+import com.chanochoca.app.loans.repository.LoanShard;
+import com.chanochoca.app.loans.repository.ShardRebalancer;
+import com.chanochoca.app.loans.repository.ShardedLoanRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import java.util.HashSet;
+
+/**
+ * La clase `ShardingConfig` es una clase de configuración en Spring que define los beans del modo con sharding de
+ * `loan-service`, que se activa con `loan.sharding.enabled=true`.
+ *
+ * En este modo, `ShardedLoanRepository` reemplaza a `LoanRepository` como `LoanStore` de los servicios y reparte los
+ * préstamos por `customerId` entre las bases de datos de `loan.sharding.shards`. `spring.datasource` y Flyway siguen
+ * configurándose como siempre; normalmente, el primer shard es esa misma base de datos, de modo que los préstamos
+ * existentes no deben copiarse antes de activar el modo.
+ *
+ * Solo se aplica al modo servlet: el modo reactivo sigue utilizando `ReactiveLoanRepository` sobre `spring.r2dbc`.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "loan.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    /**
+     * Declara el repositorio de préstamos repartido entre los shards.
+     *
+     * @param properties La configuración de `loan.sharding.*`.
+     * @param eventPublisher El publicador de los eventos `LoansSavedEvent`.
+     * @param meterRegistry El registro de las métricas de los shards.
+     * @param environment El entorno, del que se leen las ubicaciones de las migraciones (`spring.flyway.locations`).
+     * @return Un `ShardedLoanRepository` con un pool de conexiones Hikari por shard.
+     *
+     * Cada pool publica sus métricas como `hikaricp.connections.*` con la etiqueta `pool=loan-shard-<nombre>`. Si
+     * `loan.sharding.migrate` es `true`, se aplican a cada shard, antes de utilizarlo, las mismas migraciones de Flyway
+     * que a `spring.datasource`.
+     */
+    @Bean
+    @Primary
+    ShardedLoanRepository shardedLoanRepository(LoanProperties properties, ApplicationEventPublisher eventPublisher,
+                                                MeterRegistry meterRegistry, Environment environment) {
+        var sharding = properties.sharding();
+        var migrationLocations = environment.getProperty("spring.flyway.locations", String[].class,
+                new String[] {"classpath:db/migration/loans"});
+        validate(sharding);
+        var shards = sharding.shards().stream()
+                .map(shard -> new LoanShard(shard.name(),
+                        dataSource(shard, sharding.migrate() ? migrationLocations : null, meterRegistry),
+                        eventPublisher, meterRegistry))
+                .toList();
+        return new ShardedLoanRepository(shards, sharding.virtualNodes(), new SnowflakeIds(sharding.nodeId()));
+    }
+
+    /**
+     * Declara el `ShardRebalancer`, que mueve los clientes que no están en su shard.
+     *
+     * @param shardedLoanRepository El repositorio cuyos shards se equilibran.
+     * @param properties La configuración de `loan.sharding.rebalance.*`.
+     * @param meterRegistry El registro de la métrica `loan.shard.rebalance.moved`.
+     * @return Un `ShardRebalancer`.
+     */
+    @Bean
+    ShardRebalancer shardRebalancer(ShardedLoanRepository shardedLoanRepository, LoanProperties properties,
+                                    MeterRegistry meterRegistry) {
+        var rebalance = properties.sharding().rebalance();
+        return new ShardRebalancer(shardedLoanRepository, rebalance.batchSize(), rebalance.onStartup(), meterRegistry);
+    }
+
+    /**
+     * Declara el endpoint de Actuator `shards`.
+     *
+     * @param shardedLoanRepository El repositorio con los shards.
+     * @param shardRebalancer El `ShardRebalancer` que el endpoint inicia y consulta.
+     * @return Un `ShardsEndpoint`, si el endpoint está expuesto.
+     */
+    @Bean
+    @ConditionalOnAvailableEndpoint(endpoint = ShardsEndpoint.class)
+    ShardsEndpoint shardsEndpoint(ShardedLoanRepository shardedLoanRepository, ShardRebalancer shardRebalancer) {
+        return new ShardsEndpoint(shardedLoanRepository, shardRebalancer);
+    }
+
+    /**
+     * Verifica que haya al menos un shard, que cada uno tenga un nombre distinto y que el anillo tenga al menos un punto
+     * por shard, antes de crear los pools de conexiones.
+     *
+     * Dos shards con el mismo nombre ocuparían los mismos puntos del anillo y uno de ellos nunca recibiría clientes.
+     * `ConsistentHashRing` rechaza además los nombres distintos cuyos puntos coinciden.
+     */
+    private static void validate(LoanProperties.Sharding sharding) {
+        if (sharding.shards().isEmpty()) {
+            throw new IllegalStateException("loan.sharding.enabled requires at least one loan.sharding.shards entry");
+        }
+        if (sharding.virtualNodes() < 1) {
+            throw new IllegalStateException("loan.sharding.virtual-nodes must be at least 1");
+        }
+        var names = new HashSet<String>();
+        for (var shard : sharding.shards()) {
+            if (shard.name() == null || shard.name().isBlank()) {
+                throw new IllegalStateException("Every loan.sharding.shards entry requires a name");
+            }
+            if (!names.add(shard.name())) {
+                throw new IllegalStateException("Duplicate loan.sharding.shards name '" + shard.name() + "'");
+            }
+        }
+    }
+
+    /**
+     * Crea el pool de conexiones de un shard y, si se indican las ubicaciones de las migraciones, las aplica.
+     */
+    private static HikariDataSource dataSource(LoanProperties.Shard shard, String[] migrationLocations,
+                                               MeterRegistry meterRegistry) {
+        var dataSource = new HikariDataSource();
+        dataSource.setPoolName("loan-shard-" + shard.name());
+        dataSource.setJdbcUrl(shard.url());
+        dataSource.setUsername(shard.username());
+        dataSource.setPassword(shard.password());
+        dataSource.setMaximumPoolSize(shard.maximumPoolSize());
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        if (migrationLocations != null) {
+            Flyway.configure().dataSource(dataSource).locations(migrationLocations).load().migrate();
+        }
+        return dataSource;
+    }
+}
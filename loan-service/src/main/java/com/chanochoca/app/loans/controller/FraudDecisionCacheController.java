@@ -0,0 +1,86 @@
+package com.chanochoca.app.loans.controller;
+
+import com.chanochoca.app.loans.client.FraudDecisionCache;
+import com.chanochoca.app.loans.config.FraudClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * La clase `FraudDecisionCacheController` expone el mecanismo de invalidación de la caché de decisiones de fraude.
+ *
+ * El servicio de detección de fraude invoca estos endpoints cuando detecta clientes agregados o eliminados de sus
+ * registros de fraude, de modo que `loan-service` no siga utilizando una decisión que ya no es válida hasta que venza
+ * su tiempo de vida.
+ *
+ * Los endpoints se publican en el puerto de la aplicación, por lo que solo aceptan solicitudes con el secreto
+ * compartido `fraud.client.cache.invalidation-token` en el encabezado `X-Fraud-Cache-Token`; el resto se rechaza con
+ * `403 Forbidden`. Si el secreto no está configurado, todas las solicitudes se rechazan.
+ */
+@RestController
+@RequestMapping("/fraud-cache")
+@Slf4j
+public class FraudDecisionCacheController {
+
+    /** El encabezado con el secreto compartido de los avisos de invalidación. */
+    public static final String TOKEN_HEADER = "X-Fraud-Cache-Token";
+
+    private final FraudDecisionCache fraudDecisionCache;
+    private final byte[] invalidationToken;
+
+    public FraudDecisionCacheController(FraudDecisionCache fraudDecisionCache, FraudClientProperties properties) {
+        this.fraudDecisionCache = fraudDecisionCache;
+        String token = properties.cache().invalidationToken();
+        this.invalidationToken = StringUtils.hasText(token) ? token.getBytes(StandardCharsets.UTF_8) : null;
+        if (invalidationToken == null) {
+            log.info("fraud.client.cache.invalidation-token is not set, /fraud-cache rejects every request");
+        }
+    }
+
+    /**
+     * Endpoint para invalidar las decisiones de fraude de varios clientes.
+     *
+     * @param customerIds Los IDs de los clientes cuyas decisiones dejaron de ser válidas.
+     * @param token El secreto compartido enviado en el encabezado `X-Fraud-Cache-Token`.
+     *
+     * Este método responde a las solicitudes POST en la ruta `/fraud-cache/invalidate` con un estado HTTP 204 (No Content).
+     */
+    @PostMapping("/invalidate")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void invalidate(@RequestBody int[] customerIds,
+                           @RequestHeader(name = TOKEN_HEADER, required = false) String token) {
+        authorize(token);
+        log.info("Invalidating cached fraud decisions for {} customer ids", customerIds.length);
+        fraudDecisionCache.invalidate(customerIds);
+    }
+
+    /**
+     * Endpoint para invalidar todas las decisiones de fraude de la caché.
+     *
+     * @param token El secreto compartido enviado en el encabezado `X-Fraud-Cache-Token`.
+     *
+     * Este método responde a las solicitudes DELETE en la ruta `/fraud-cache` con un estado HTTP 204 (No Content).
+     */
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void invalidateAll(@RequestHeader(name = TOKEN_HEADER, required = false) String token) {
+        authorize(token);
+        log.info("Invalidating all cached fraud decisions");
+        fraudDecisionCache.invalidateAll();
+    }
+
+    /**
+     * Rechaza la solicitud con `403 Forbidden` si no incluye el secreto compartido configurado.
+     */
+    private void authorize(String token) {
+        if (invalidationToken == null || token == null
+                || !MessageDigest.isEqual(invalidationToken, token.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+    }
+}
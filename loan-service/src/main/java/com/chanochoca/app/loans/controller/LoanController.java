@@ -1,41 +1,166 @@
 package com.chanochoca.app.loans.controller;
 
 import com.chanochoca.app.loans.dto.LoanDto;
+import com.chanochoca.app.loans.dto.LoanPage;
+import com.chanochoca.app.loans.dto.LoanStats;
+import com.chanochoca.app.loans.entity.LoanStatus;
 import com.chanochoca.app.loans.service.LoanService;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * La clase `LoanController` es un controlador REST en Spring que maneja las solicitudes HTTP
- * relacionadas con los préstamos. Esta clase expone endpoints para listar todos los préstamos
- * y para aplicar a un nuevo préstamo.
+ * relacionadas con los préstamos. Esta clase expone endpoints para listar los préstamos (completos, en
+ * formato NDJSON o por páginas), para buscar un préstamo por su `loanId` o los préstamos de un cliente, para obtener
+ * estadísticas de los préstamos, para aplicar a un nuevo préstamo y para aplicar a varios préstamos en lote.
  *
  * Este controlador interactúa con el servicio de préstamos (`LoanService`) para realizar las operaciones
- * necesarias y devolver las respuestas adecuadas a las solicitudes entrantes.
+ * necesarias y devolver las respuestas adecuadas a las solicitudes entrantes. Solo se aplica en el modo servlet; el
+ * modo reactivo expone los mismos endpoints con `ReactiveLoanController`.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/loan")
-@RequiredArgsConstructor
 public class LoanController {
 
     private final LoanService loanService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter loanWriter;
+
+    public LoanController(LoanService loanService, ObjectMapper objectMapper) {
+        this.loanService = loanService;
+        this.objectMapper = objectMapper;
+        this.loanWriter = objectMapper.writerFor(LoanDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
 
     /**
      * Endpoint para listar todos los préstamos.
      *
-     * @return Una lista de objetos `LoanDto` que representan todos los préstamos existentes.
+     * @return Un arreglo JSON de objetos `LoanDto` que representan todos los préstamos existentes.
+     *
+     * Este método responde a las solicitudes GET en la ruta `/loan`. Los préstamos se leen con un cursor JDBC y se
+     * escriben en la respuesta a medida que se leen, sin materializar la tabla en una lista, por lo que el consumo de
+     * memoria no depende de la cantidad de préstamos. Responde con un estado HTTP 200 (OK).
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public StreamingResponseBody listAllLoans() {
+        return out -> {
+            try (var results = loanWriter.writeValuesAsArray(out)) {
+                loanService.streamAllLoans(writeTo(results));
+            }
+        };
+    }
+
+    /**
+     * Endpoint para transmitir todos los préstamos en formato NDJSON (un objeto JSON por línea).
+     *
+     * @return El cuerpo de la respuesta, que escribe un `LoanDto` por línea a medida que se lee cada préstamo.
+     *
+     * Este método responde a las solicitudes GET en la ruta `/loan` con `Accept: application/x-ndjson`. Permite a los
+     * consumidores procesar cada préstamo a medida que llega, sin esperar ni almacenar la respuesta completa.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public StreamingResponseBody streamAllLoans() {
+        return out -> {
+            try (var results = loanWriter.withRootValueSeparator("\n").writeValues(out)) {
+                loanService.streamAllLoans(writeTo(results));
+            }
+        };
+    }
+
+    /**
+     * Endpoint para listar los préstamos página por página.
+     *
+     * @param afterId El `nextAfterId` de la página anterior, o `0` para la primera página.
+     * @param limit La cantidad máxima de préstamos de la página, limitada por `loan.listing.max-page-size`.
+     * @return Una `LoanPage` con los préstamos de la página y el `afterId` de la página siguiente.
      *
-     * Este método responde a las solicitudes GET en la ruta `/loan`. Llama al método
-     * `listAllLoans` del servicio de préstamos para obtener una lista de todos los préstamos
-     * y los devuelve con un estado HTTP 200 (OK).
+     * Este método responde a las solicitudes GET en la ruta `/loan` que incluyen el parámetro `limit`. Utiliza
+     * paginación por clave sobre el `id` del préstamo, por lo que el costo de cada página es constante.
      */
-    @GetMapping
+    @GetMapping(params = "limit", produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.OK)
-    public List<LoanDto> listAllLoans() {
-        return loanService.listAllLoans();
+    public LoanPage listLoans(@RequestParam(defaultValue = "0") long afterId, @RequestParam int limit) {
+        return loanService.listLoans(afterId, limit);
+    }
+
+    /**
+     * Endpoint para buscar un préstamo por su identificador de negocio.
+     *
+     * @param loanId El `loanId` del préstamo, en su forma textual de UUID.
+     * @return El `LoanDto` del préstamo con estado HTTP 200 (OK), un estado HTTP 404 (Not Found) si no existe, o un
+     *         estado HTTP 400 (Bad Request) si `loanId` no es un UUID válido.
+     *
+     * Este método responde a las solicitudes GET en la ruta `/loan/{loanId}`. La búsqueda utiliza un índice único y
+     * los préstamos consultados con frecuencia se sirven desde `LoanLookupCache`.
+     */
+    @GetMapping("/{loanId}")
+    public ResponseEntity<LoanDto> findLoan(@PathVariable UUID loanId) {
+        return ResponseEntity.of(loanService.findLoan(loanId));
+    }
+
+    /**
+     * Endpoint para listar los préstamos de un cliente.
+     *
+     * @param customerId El ID del cliente.
+     * @return Un arreglo JSON con los préstamos del cliente, ordenados por `id`.
+     *
+     * Este método responde a las solicitudes GET en la ruta `/loan` que incluyen el parámetro `customerId`. La
+     * consulta utiliza el índice sobre `customerId`, por lo que no recorre la tabla.
+     */
+    @GetMapping(params = "customerId", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public List<LoanDto> findLoansByCustomer(@RequestParam int customerId) {
+        return loanService.findLoansByCustomer(customerId);
+    }
+
+    /**
+     * Endpoint para obtener el resumen de los préstamos guardados.
+     *
+     * @return Un `LoanStats` con la cantidad y la suma de montos de todos los préstamos, por estado, y de los clientes
+     *         con más préstamos.
+     *
+     * Este método responde a las solicitudes GET en la ruta `/loan/stats`. Los totales se mantienen en memoria en
+     * `LoanStatistics`, por lo que la respuesta no consulta la base de datos ni recorre la tabla de préstamos.
+     */
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public LoanStats loanStats() {
+        return loanService.loanStats();
+    }
+
+    /**
+     * Endpoint para obtener los totales de los préstamos guardados de un cliente.
+     *
+     * @param customerId El ID del cliente.
+     * @return La cantidad y la suma de montos de los préstamos del cliente, con cantidad `0` si no tiene préstamos.
+     *
+     * Este método responde a las solicitudes GET en la ruta `/loan/stats` que incluyen el parámetro `customerId`.
+     */
+    @GetMapping(value = "/stats", params = "customerId", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public LoanStats.CustomerTotals customerStats(@RequestParam int customerId) {
+        return loanService.customerStats(customerId);
     }
 
     /**
@@ -47,10 +172,65 @@ public class LoanController {
      * Este método responde a las solicitudes POST en la ruta `/loan`. Recibe un objeto
      * `LoanDto` en el cuerpo de la solicitud que contiene los detalles del préstamo
      * solicitado. Llama al método `applyLoan` del servicio de préstamos para procesar la solicitud
-     * y devuelve un mensaje indicando si la solicitud fue exitosa o no.
+     * y devuelve un mensaje indicando si la solicitud fue exitosa o no. Si el préstamo fue aprobado, la respuesta
+     * incluye el encabezado `Location` con la ruta `/loan/{loanId}` del préstamo creado.
      */
     @PostMapping
-    public String applyLoan(@RequestBody LoanDto loanDto) {
-        return loanService.applyLoan(loanDto);
+    public ResponseEntity<String> applyLoan(@RequestBody LoanDto loanDto) {
+        var loan = loanService.applyLoan(loanDto);
+        if (loan.getLoanStatus() == LoanStatus.APPROVED) {
+            return ResponseEntity.ok()
+                    .location(URI.create("/loan/" + loan.getLoanId()))
+                    .body("Loan applied successfully");
+        }
+        return ResponseEntity.ok("Sorry! Your loan was not approved");
+    }
+
+    /**
+     * Endpoint para aplicar a varios préstamos en una sola solicitud.
+     *
+     * @param loanDtos Una lista de objetos `LoanDto` con la información de cada préstamo solicitado.
+     * @return Una lista de objetos `LoanDto`, en el mismo orden que la solicitud, con el `loanStatus` de cada préstamo
+     *         y el `loanId` asignado a los préstamos aprobados.
+     *
+     * Este método responde a las solicitudes POST en la ruta `/loan/batch` con un arreglo JSON. Los préstamos se
+     * procesan en bloques de `loan.batch.chunk-size`: cada bloque se evalúa con una sola llamada al servicio de fraude y
+     * los préstamos aprobados se guardan con una inserción por lotes en una transacción por bloque.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<LoanDto> applyLoans(@RequestBody List<LoanDto> loanDtos) {
+        return loanService.applyLoans(loanDtos);
+    }
+
+    /**
+     * Endpoint para aplicar a un flujo de préstamos en formato NDJSON (un objeto JSON por línea).
+     *
+     * @param body El cuerpo de la solicitud, con un `LoanDto` por línea.
+     * @param response La respuesta HTTP, en la que se escribe el resultado de cada préstamo como NDJSON.
+     *
+     * Este método responde a las solicitudes POST en la ruta `/loan/batch` con `Content-Type: application/x-ndjson`.
+     * A diferencia de la variante con arreglo JSON, los préstamos se leen y los resultados se escriben bloque a bloque,
+     * por lo que el consumo de memoria no depende de la cantidad de préstamos de la importación.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void applyLoans(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (var loans = objectMapper.readerFor(LoanDto.class).<LoanDto>readValues(body);
+             var results = loanWriter.withRootValueSeparator("\n").writeValues(response.getOutputStream())) {
+            loanService.applyLoans(loans, writeTo(results));
+        }
+    }
+
+    /**
+     * Crea un consumidor que escribe cada `LoanDto` en la secuencia JSON indicada.
+     */
+    private static Consumer<LoanDto> writeTo(SequenceWriter results) {
+        return loanDto -> {
+            try {
+                results.write(loanDto);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
     }
 }
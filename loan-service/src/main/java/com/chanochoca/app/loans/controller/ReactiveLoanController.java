@@ -0,0 +1,166 @@
+package com.chanochoca.app.loans.controller;
+
+import com.chanochoca.app.loans.dto.LoanDto;
+import com.chanochoca.app.loans.dto.LoanPage;
+import com.chanochoca.app.loans.dto.LoanStats;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.service.ReactiveLoanService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * La clase `ReactiveLoanController` expone en el modo reactivo los mismos endpoints que `LoanController`, con Spring
+ * WebFlux.
+ *
+ * Los listados y las importaciones se transmiten como `Flux`: WebFlux escribe cada `LoanDto` en la respuesta a medida
+ * que se lee de la base de datos o se evalúa, con contrapresión hacia R2DBC, y lee los préstamos del cuerpo de la
+ * solicitud a medida que llegan, tanto en formato de arreglo JSON como NDJSON.
+ */
+@RestController
+@RequestMapping("/loan")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveLoanController {
+
+    private final ReactiveLoanService loanService;
+
+    /**
+     * Endpoint para listar todos los préstamos.
+     *
+     * @return Un arreglo JSON de objetos `LoanDto` que representan todos los préstamos existentes, escrito a medida que
+     *         se leen los préstamos.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<LoanDto> listAllLoans() {
+        return loanService.streamAllLoans();
+    }
+
+    /**
+     * Endpoint para transmitir todos los préstamos en formato NDJSON (un objeto JSON por línea).
+     *
+     * @return Un `LoanDto` por línea, escrito a medida que se lee cada préstamo.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<LoanDto> streamAllLoans() {
+        return loanService.streamAllLoans();
+    }
+
+    /**
+     * Endpoint para listar los préstamos página por página.
+     *
+     * @param afterId El `nextAfterId` de la página anterior, o `0` para la primera página.
+     * @param limit La cantidad máxima de préstamos de la página, limitada por `loan.listing.max-page-size`.
+     * @return Una `LoanPage` con los préstamos de la página y el `afterId` de la página siguiente.
+     */
+    @GetMapping(params = "limit", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<LoanPage> listLoans(@RequestParam(defaultValue = "0") long afterId, @RequestParam int limit) {
+        return loanService.listLoans(afterId, limit);
+    }
+
+    /**
+     * Endpoint para buscar un préstamo por su identificador de negocio.
+     *
+     * @param loanId El `loanId` del préstamo, en su forma textual de UUID.
+     * @return El `LoanDto` del préstamo con estado HTTP 200 (OK), un estado HTTP 404 (Not Found) si no existe, o un
+     *         estado HTTP 400 (Bad Request) si `loanId` no es un UUID válido.
+     */
+    @GetMapping("/{loanId}")
+    public Mono<ResponseEntity<LoanDto>> findLoan(@PathVariable UUID loanId) {
+        return loanService.findLoan(loanId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Endpoint para listar los préstamos de un cliente.
+     *
+     * @param customerId El ID del cliente.
+     * @return Un arreglo JSON con los préstamos del cliente, ordenados por `id`.
+     */
+    @GetMapping(params = "customerId", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<LoanDto> findLoansByCustomer(@RequestParam int customerId) {
+        return loanService.findLoansByCustomer(customerId);
+    }
+
+    /**
+     * Endpoint para obtener el resumen de los préstamos guardados.
+     *
+     * @return Un `LoanStats` con los totales mantenidos en memoria por `LoanStatistics`.
+     */
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public LoanStats loanStats() {
+        return loanService.loanStats();
+    }
+
+    /**
+     * Endpoint para obtener los totales de los préstamos guardados de un cliente.
+     *
+     * @param customerId El ID del cliente.
+     * @return La cantidad y la suma de montos de los préstamos del cliente, con cantidad `0` si no tiene préstamos.
+     */
+    @GetMapping(value = "/stats", params = "customerId", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public LoanStats.CustomerTotals customerStats(@RequestParam int customerId) {
+        return loanService.customerStats(customerId);
+    }
+
+    /**
+     * Endpoint para aplicar a un nuevo préstamo.
+     *
+     * @param loanDto Un objeto `LoanDto` que contiene la información del préstamo solicitado.
+     * @return Un mensaje de éxito o fracaso basado en el resultado de la solicitud de préstamo. Si el préstamo fue
+     *         aprobado, la respuesta incluye el encabezado `Location` con la ruta `/loan/{loanId}` del préstamo creado.
+     */
+    @PostMapping
+    public Mono<ResponseEntity<String>> applyLoan(@RequestBody LoanDto loanDto) {
+        return loanService.applyLoan(loanDto).map(loan -> {
+            if (loan.getLoanStatus() == LoanStatus.APPROVED) {
+                return ResponseEntity.ok()
+                        .location(URI.create("/loan/" + loan.getLoanId()))
+                        .body("Loan applied successfully");
+            }
+            return ResponseEntity.ok("Sorry! Your loan was not approved");
+        });
+    }
+
+    /**
+     * Endpoint para aplicar a varios préstamos en una sola solicitud.
+     *
+     * @param loanDtos Los préstamos solicitados, en un arreglo JSON que se lee a medida que llega.
+     * @return Un arreglo JSON de objetos `LoanDto`, en el mismo orden que la solicitud, con el `loanStatus` de cada
+     *         préstamo y el `loanId` asignado a los préstamos aprobados.
+     *
+     * Los préstamos se procesan en bloques de `loan.batch.chunk-size`: cada bloque se evalúa con una sola llamada al
+     * servicio de fraude y los préstamos aprobados se guardan con una sola inserción.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<LoanDto> applyLoans(@RequestBody Flux<LoanDto> loanDtos) {
+        return loanService.applyLoans(loanDtos);
+    }
+
+    /**
+     * Endpoint para aplicar a un flujo de préstamos en formato NDJSON (un objeto JSON por línea).
+     *
+     * @param loanDtos Los préstamos solicitados, uno por línea.
+     * @return El resultado de cada préstamo como NDJSON, escrito bloque a bloque.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<LoanDto> streamLoans(@RequestBody Flux<LoanDto> loanDtos) {
+        return loanService.applyLoans(loanDtos);
+    }
+}
@@ -0,0 +1,60 @@
+package com.chanochoca.app.loans.controller;
+
+import com.chanochoca.app.loans.repository.LoanShard;
+import com.chanochoca.app.loans.repository.ShardRebalancer;
+import com.chanochoca.app.loans.repository.ShardedLoanRepository;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+
+import java.util.List;
+
+/**
+ * `ShardsEndpoint` expone los shards del modo con sharding en el endpoint de Actuator `shards`.
+ *
+ * - `GET /actuator/shards`: devuelve los nombres de los shards y el estado del último movimiento de clientes.
+ * - `POST /actuator/shards`: comienza a mover los clientes que no están en su shard (`ShardRebalancer`) y responde
+ *   `202 Accepted`, o `409 Conflict` si ya hay un movimiento en curso. El progreso se consulta con `GET`.
+ */
+@WebEndpoint(id = "shards")
+public class ShardsEndpoint {
+
+    private final ShardedLoanRepository repository;
+    private final ShardRebalancer rebalancer;
+
+    public ShardsEndpoint(ShardedLoanRepository repository, ShardRebalancer rebalancer) {
+        this.repository = repository;
+        this.rebalancer = rebalancer;
+    }
+
+    /**
+     * Devuelve los shards y el estado del último movimiento.
+     *
+     * @return Los nombres de los shards, en el orden en que se configuraron, y el estado del movimiento.
+     */
+    @ReadOperation
+    public Shards shards() {
+        return new Shards(repository.shardNames(), rebalancer.status());
+    }
+
+    /**
+     * Comienza a mover los clientes que no están en su shard.
+     *
+     * @return El estado del movimiento, con `202 Accepted` si comenzó o `409 Conflict` si ya había uno en curso.
+     */
+    @WriteOperation
+    public WebEndpointResponse<ShardRebalancer.Status> rebalance() {
+        boolean started = rebalancer.start();
+        return new WebEndpointResponse<>(rebalancer.status(), started ? 202 : 409);
+    }
+
+    /**
+     * Descripción de los shards.
+     *
+     * @param shards Los nombres de los shards.
+     * @param rebalance El estado del último movimiento de clientes.
+     */
+    public record Shards(List<String> shards, ShardRebalancer.Status rebalance) {
+    }
+}
@@ -1,14 +1,18 @@
 package com.chanochoca.app.loans.dto;
 
+import com.chanochoca.app.loans.entity.Currency;
 import com.chanochoca.app.loans.entity.Loan;
 import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 /**
  * La clase `LoanDto` es un objeto de transferencia de datos (DTO) que representa la información de un préstamo.
  *
@@ -16,11 +20,16 @@ import java.math.BigDecimal;
  * como la capa de persistencia y la capa de servicio.
  *
  * Se utiliza Lombok para generar automáticamente los métodos getter, setter, constructor y builder pattern.
+ *
+ * En JSON, el monto se escribe como un número decimal (`amount`) y la moneda como una propiedad aparte (`currency`).
+ * Ambos se leen y se escriben con `MoneyJson` y `LoanDtoDeserializer`, sin crear un `BigDecimal` por préstamo.
  */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@JsonPropertyOrder({"loanId", "customerName", "customerId", "amount", "currency", "loanStatus"})
+@JsonDeserialize(using = LoanDtoDeserializer.class)
 public class LoanDto {
     /** Identificador único del préstamo a nivel de negocio. */
     private String loanId;
@@ -31,12 +40,23 @@ public class LoanDto {
     /** Identificador único del cliente. */
     private int customerId;
 
-    /** Monto total del préstamo. */
-    private BigDecimal amount;
+    /** Monto total del préstamo y su moneda. */
+    @JsonSerialize(using = MoneyJson.AmountSerializer.class)
+    private Money amount;
 
     /** Estado actual del préstamo (por ejemplo, aprobado, rechazado, pendiente). */
     private LoanStatus loanStatus;
 
+    /**
+     * Devuelve la moneda en la que está denominado el monto del préstamo.
+     *
+     * @return La moneda de `amount`, o `null` si el préstamo no tiene monto.
+     */
+    @JsonProperty("currency")
+    public Currency getCurrency() {
+        return amount == null ? null : amount.currency();
+    }
+
     /**
      * Convierte una instancia de `Loan` en un `LoanDto`.
      *
@@ -48,7 +68,7 @@ public class LoanDto {
      */
     public static LoanDto from(Loan loan) {
         return new LoanDto(
-                loan.getLoanId(),
+                loan.getLoanId() == null ? null : loan.getLoanId().toString(),
                 loan.getCustomerName(),
                 loan.getCustomerId(),
                 loan.getAmount(),
@@ -0,0 +1,97 @@
+package com.chanochoca.app.loans.dto;
+
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * `LoanDtoDeserializer` lee un `LoanDto` de JSON recorriendo sus propiedades directamente con el parser.
+ *
+ * El monto (`amount`) se lee con `MoneyJson.readMinorUnits` y se combina con la moneda (`currency`) en un `Money` al
+ * terminar el objeto, sin importar el orden de las propiedades. Si la solicitud no indica una moneda, se utiliza
+ * `Currency.DEFAULT`. Las propiedades desconocidas se ignoran. Los deserializadores de `currency` y `loanStatus` se
+ * resuelven una sola vez (`resolve`), en lugar de buscarlos en el contexto en cada préstamo.
+ *
+ * El monto es obligatorio y debe ser positivo: un objeto sin `amount`, con `amount` nulo o con un monto menor o igual
+ * a cero se rechaza como una entrada inválida (HTTP 400).
+ */
+final class LoanDtoDeserializer extends StdDeserializer<LoanDto> implements ResolvableDeserializer {
+
+    private JsonDeserializer<Object> currencyDeserializer;
+    private JsonDeserializer<Object> loanStatusDeserializer;
+
+    LoanDtoDeserializer() {
+        super(LoanDto.class);
+    }
+
+    @Override
+    public void resolve(DeserializationContext context) throws JsonMappingException {
+        currencyDeserializer = context.findRootValueDeserializer(context.constructType(Currency.class));
+        loanStatusDeserializer = context.findRootValueDeserializer(context.constructType(LoanStatus.class));
+    }
+
+    @Override
+    public LoanDto deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        }
+        var loanDto = new LoanDto();
+        long minorUnits = 0;
+        boolean hasAmount = false;
+        Currency currency = null;
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "loanId" -> loanDto.setLoanId(parser.getValueAsString());
+                case "customerName" -> loanDto.setCustomerName(parser.getValueAsString());
+                case "customerId" -> loanDto.setCustomerId(_parseIntPrimitive(parser, context));
+                case "amount" -> {
+                    hasAmount = value != JsonToken.VALUE_NULL;
+                    if (hasAmount) {
+                        minorUnits = MoneyJson.readMinorUnits(parser, context);
+                    }
+                }
+                case "currency" -> currency = (Currency) read(currencyDeserializer, parser, context);
+                case "loanStatus" -> loanDto.setLoanStatus((LoanStatus) read(loanStatusDeserializer, parser, context));
+                default -> parser.skipChildren();
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            return (LoanDto) context.handleUnexpectedToken(LoanDto.class, parser);
+        }
+        if (!hasAmount) {
+            return context.reportInputMismatch(this, "Missing required property 'amount'");
+        }
+        if (minorUnits <= 0) {
+            return context.reportInputMismatch(this, "Property 'amount' must be positive");
+        }
+        try {
+            loanDto.setAmount(new Money(minorUnits, currency != null ? currency : Currency.DEFAULT));
+        } catch (ArithmeticException e) {
+            return context.reportInputMismatch(this, e.getMessage());
+        }
+        return loanDto;
+    }
+
+    /**
+     * Lee el valor actual con un deserializador resuelto; los valores nulos se leen como `null`.
+     */
+    private static Object read(JsonDeserializer<Object> deserializer, JsonParser parser,
+                               DeserializationContext context) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return deserializer.getNullValue(context);
+        }
+        return deserializer.deserialize(parser, context);
+    }
+}
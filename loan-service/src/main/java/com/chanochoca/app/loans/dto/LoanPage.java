@@ -0,0 +1,12 @@
+package com.chanochoca.app.loans.dto;
+
+import java.util.List;
+
+/**
+ * `LoanPage` es una página de préstamos obtenida mediante paginación por clave (keyset pagination).
+ *
+ * @param loans Los préstamos de la página, ordenados por su `id` en la base de datos.
+ * @param nextAfterId El valor de `afterId` para solicitar la página siguiente, o `null` si no hay más préstamos.
+ */
+public record LoanPage(List<LoanDto> loans, Long nextAfterId) {
+}
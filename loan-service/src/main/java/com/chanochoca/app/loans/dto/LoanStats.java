@@ -0,0 +1,39 @@
+package com.chanochoca.app.loans.dto;
+
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.LoanStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * `LoanStats` es el resumen de los préstamos guardados que devuelve `GET /loan/stats`.
+ *
+ * Los montos se suman por moneda, ya que no se convierten entre monedas.
+ *
+ * @param total Los totales de todos los préstamos.
+ * @param byStatus Los totales por estado del préstamo.
+ * @param topCustomers Los clientes con más préstamos, ordenados de mayor a menor cantidad.
+ */
+public record LoanStats(Totals total, Map<LoanStatus, Totals> byStatus, List<CustomerTotals> topCustomers) {
+
+    /**
+     * `Totals` son la cantidad de préstamos de un grupo y la suma de sus montos.
+     *
+     * @param count La cantidad de préstamos.
+     * @param amount La suma de los montos, por moneda. Solo incluye las monedas con préstamos.
+     */
+    public record Totals(long count, Map<Currency, BigDecimal> amount) {
+    }
+
+    /**
+     * `CustomerTotals` son los totales de los préstamos de un cliente.
+     *
+     * @param customerId El ID del cliente.
+     * @param count La cantidad de préstamos del cliente.
+     * @param amount La suma de los montos de los préstamos del cliente, por moneda.
+     */
+    public record CustomerTotals(int customerId, long count, Map<Currency, BigDecimal> amount) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.chanochoca.app.loans.dto;
+
+import com.chanochoca.app.loans.entity.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.base.ParserBase;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * `MoneyJson` lee y escribe los montos de `Money` en JSON como números decimales (`"amount": 5000.00`), con la moneda
+ * en una propiedad aparte, sin crear objetos intermedios.
+ *
+ * - Al escribir, la parte entera se escribe con `writeNumber(long)` y los decimales se agregan directamente a la salida
+ *   del generador, sin pasar por `BigDecimal` ni por un `String`.
+ * - Al leer, los dígitos se toman del búfer de texto del parser de Jackson (`getTextCharacters`) y se convierten con
+ *   `Money.parseMinorUnits`, sin que Jackson cree un `BigDecimal` ni un `Double`.
+ *
+ * Los generadores y parsers que no escriben ni leen texto JSON directamente (por ejemplo, `TokenBuffer`) utilizan
+ * `BigDecimal`, igual que los montos negativos y los generadores que escriben los números como texto.
+ */
+public final class MoneyJson {
+
+    /**
+     * La característica del generador que corresponde a `JsonWriteFeature.WRITE_NUMBERS_AS_STRINGS`: los generadores de
+     * Jackson 2 solo exponen las características de escritura de JSON a través de su `JsonGenerator.Feature`.
+     */
+    private static final JsonGenerator.Feature NUMBERS_AS_STRINGS =
+            JsonWriteFeature.WRITE_NUMBERS_AS_STRINGS.mappedFeature();
+
+    private MoneyJson() {
+    }
+
+    /**
+     * Escribe el monto como un número JSON con `Money.SCALE` decimales.
+     *
+     * @param generator El generador JSON, posicionado donde se escribe el valor.
+     * @param amount El monto.
+     */
+    public static void writeAmount(JsonGenerator generator, Money amount) throws IOException {
+        long minorUnits = amount.minorUnits();
+        if (minorUnits < 0 || !(generator instanceof JsonGeneratorImpl)
+                || generator.isEnabled(NUMBERS_AS_STRINGS)) {
+            generator.writeNumber(amount.toBigDecimal());
+            return;
+        }
+        long cents = minorUnits % Money.MINOR_UNITS_PER_UNIT;
+        generator.writeNumber(minorUnits / Money.MINOR_UNITS_PER_UNIT);
+        generator.writeRaw('.');
+        generator.writeRaw((char) ('0' + cents / 10));
+        generator.writeRaw((char) ('0' + cents % 10));
+    }
+
+    /**
+     * Lee el valor actual del parser, un número o un texto decimal, como un monto en unidades menores.
+     *
+     * @param parser El parser JSON, posicionado sobre el valor.
+     * @param context El contexto de deserialización.
+     * @return El monto en unidades menores.
+     * @throws InvalidFormatException Si el valor no es un monto válido: no es un número, tiene más de `Money.SCALE`
+     *                                decimales o supera `Money.MAX_MINOR_UNITS`.
+     */
+    public static long readMinorUnits(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        try {
+            if (token == JsonToken.VALUE_STRING
+                    || (token.isNumeric() && parser instanceof ParserBase)) {
+                return Money.parseMinorUnits(parser.getTextCharacters(), parser.getTextOffset(),
+                        parser.getTextLength());
+            }
+            if (token.isNumeric()) {
+                return Money.minorUnits(parser.getDecimalValue());
+            }
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw InvalidFormatException.from(parser, e.getMessage(), parser.getText(), Money.class);
+        }
+        return (long) context.handleUnexpectedToken(Money.class, parser);
+    }
+
+    /**
+     * `AmountSerializer` escribe una propiedad `Money` como el número de `writeAmount`, sin la moneda.
+     */
+    public static final class AmountSerializer extends StdSerializer<Money> {
+
+        public AmountSerializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money amount, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            writeAmount(generator, amount);
+        }
+    }
+}
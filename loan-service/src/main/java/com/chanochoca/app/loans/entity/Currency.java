@@ -17,5 +17,8 @@ public enum Currency {
     USD,
 
     /** Euro. */
-    EUR
+    EUR;
+
+    /** Moneda que se asigna a los préstamos cuya solicitud no indica una moneda. */
+    public static final Currency DEFAULT = INR;
 }
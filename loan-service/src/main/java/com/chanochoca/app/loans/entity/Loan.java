@@ -6,7 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
+import java.util.UUID;
 
 /**
  * La clase `Loan` representa un préstamo en el sistema.
@@ -24,8 +24,8 @@ public class Loan {
     /** Identificador único del préstamo en la base de datos. */
     private Long id;
 
-    /** Identificador único del préstamo a nivel de negocio. */
-    private String loanId;
+    /** Identificador único del préstamo a nivel de negocio, ordenado por tiempo (ver `TimeOrderedIds`). */
+    private UUID loanId;
 
     /** Nombre del cliente asociado al préstamo. */
     private String customerName;
@@ -33,33 +33,33 @@ public class Loan {
     /** Identificador único del cliente. */
     private int customerId;
 
-    /** Monto total del préstamo. */
-    private BigDecimal amount;
+    /** Monto total del préstamo y su moneda. */
+    private Money amount;
 
     /** Estado actual del préstamo (por ejemplo, aprobado, rechazado, pendiente). */
     private LoanStatus loanStatus;
 
+    /**
+     * Devuelve la moneda en la que está denominado el monto del préstamo.
+     *
+     * @return La moneda de `amount`, o `null` si el préstamo no tiene monto.
+     */
+    public Currency getCurrency() {
+        return amount == null ? null : amount.currency();
+    }
+
     /**
      * Convierte un objeto `LoanDto` en una instancia de `Loan`.
      *
      * @param loanDto El objeto `LoanDto` que contiene la información del préstamo.
      * @return Una instancia de `Loan` construida a partir del `LoanDto` proporcionado.
      *
-     * Este método verifica si los campos `loanId` y `loanStatus` en `LoanDto` son nulos.
-     * Si ambos son nulos, el método devuelve una instancia de `Loan` sin esos campos,
-     * de lo contrario, devuelve una instancia de `Loan` con todos los campos asignados.
+     * Este método se utiliza para las solicitudes de préstamo, por lo que no copia los campos `loanId` ni
+     * `loanStatus` de `LoanDto`: el `loanId` lo asigna el servicio al guardar el préstamo y el `loanStatus` surge de
+     * la evaluación de fraude.
      */
     public static Loan from(LoanDto loanDto) {
-        if (loanDto.getLoanId() == null && loanDto.getLoanStatus() == null) {
-            return Loan.builder()
-                    .loanId(loanDto.getLoanId())
-                    .amount(loanDto.getAmount())
-                    .customerId(loanDto.getCustomerId())
-                    .customerName(loanDto.getCustomerName())
-                    .build();
-        }
         return Loan.builder()
-                .loanId(loanDto.getLoanId())
                 .amount(loanDto.getAmount())
                 .customerId(loanDto.getCustomerId())
                 .customerName(loanDto.getCustomerName())
@@ -0,0 +1,140 @@
+package com.chanochoca.app.loans.entity;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * `Money` representa un monto de dinero como una cantidad entera de unidades menores (centavos, paise) y su moneda.
+ *
+ * Todas las monedas de `Currency` tienen dos decimales, por lo que el monto `5000.00` se guarda como `500000`
+ * unidades menores. A diferencia de `BigDecimal`, un `Money` ocupa un solo objeto de tamaño fijo, se compara y se suma
+ * con aritmética de `long` y se guarda en la columna `BIGINT` `loans.amountMinor` sin conversiones.
+ *
+ * Los montos se validan al crearse: su valor absoluto no puede superar `MAX_MINOR_UNITS` y, al leerlos como texto
+ * decimal (`parseMinorUnits`), no pueden tener más de `SCALE` decimales distintos de cero.
+ *
+ * @param minorUnits El monto en unidades menores de la moneda.
+ * @param currency La moneda del monto.
+ */
+public record Money(long minorUnits, Currency currency) {
+
+    /** Cantidad de decimales de los montos, igual para todas las monedas de `Currency`. */
+    public static final int SCALE = 2;
+
+    /** Unidades menores por unidad de la moneda (`10^SCALE`). */
+    public static final long MINOR_UNITS_PER_UNIT = 100;
+
+    /** Valor absoluto máximo de un monto en unidades menores: `99999999.99`, el límite de la columna `DECIMAL(10, 2)` original. */
+    public static final long MAX_MINOR_UNITS = 9_999_999_999L;
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+        if (minorUnits > MAX_MINOR_UNITS || minorUnits < -MAX_MINOR_UNITS) {
+            throw new ArithmeticException("Amount out of range: " + minorUnits + " minor units");
+        }
+    }
+
+    /**
+     * Convierte un monto en texto decimal (por ejemplo `5000`, `5000.5` o `-12.05`) en unidades menores, sin crear
+     * objetos intermedios.
+     *
+     * @param chars El arreglo que contiene el texto.
+     * @param offset La posición del primer carácter del monto.
+     * @param length La cantidad de caracteres del monto.
+     * @return El monto en unidades menores.
+     * @throws NumberFormatException Si el texto no es un número decimal.
+     * @throws ArithmeticException Si el monto tiene más de `SCALE` decimales distintos de cero o su valor absoluto
+     *                             supera `MAX_MINOR_UNITS`.
+     *
+     * Los números en notación exponencial (`5E+3`) se convierten con `BigDecimal`.
+     */
+    public static long parseMinorUnits(char[] chars, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i++] == '-';
+        }
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                if (fractionDigits < 0) {
+                    value = value * 10 + (c - '0');
+                } else if (fractionDigits < SCALE) {
+                    value = value * 10 + (c - '0');
+                    fractionDigits++;
+                } else if (c != '0') {
+                    throw new ArithmeticException("Amount has more than " + SCALE + " decimal places: "
+                            + new String(chars, offset, length));
+                }
+                if (value > MAX_MINOR_UNITS) {
+                    throw new ArithmeticException("Amount out of range: " + new String(chars, offset, length));
+                }
+                digits++;
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c == 'e' || c == 'E') {
+                return minorUnits(new BigDecimal(chars, offset, length));
+            } else {
+                throw new NumberFormatException("Invalid amount: " + new String(chars, offset, length));
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Invalid amount: " + new String(chars, offset, length));
+        }
+        for (int scale = Math.max(fractionDigits, 0); scale < SCALE; scale++) {
+            value *= 10;
+        }
+        if (value > MAX_MINOR_UNITS) {
+            throw new ArithmeticException("Amount out of range: " + new String(chars, offset, length));
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Convierte un monto `BigDecimal` en unidades menores.
+     *
+     * @param amount El monto.
+     * @return El monto en unidades menores.
+     * @throws ArithmeticException Si el monto tiene más de `SCALE` decimales distintos de cero o su valor absoluto
+     *                             supera `MAX_MINOR_UNITS`.
+     */
+    public static long minorUnits(BigDecimal amount) {
+        long value = amount.movePointRight(SCALE).longValueExact();
+        if (value > MAX_MINOR_UNITS || value < -MAX_MINOR_UNITS) {
+            throw new ArithmeticException("Amount out of range: " + amount.toPlainString());
+        }
+        return value;
+    }
+
+    /**
+     * Devuelve el monto como `BigDecimal`, con `SCALE` decimales.
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Devuelve el monto como `double`, para métricas y otros usos que no requieren un valor exacto.
+     */
+    public double doubleValue() {
+        return (double) minorUnits / MINOR_UNITS_PER_UNIT;
+    }
+
+    /**
+     * Devuelve el monto en texto decimal con `SCALE` decimales, por ejemplo `5000.00`, sin la moneda.
+     */
+    public String toPlainString() {
+        long units = Math.abs(minorUnits / MINOR_UNITS_PER_UNIT);
+        long cents = Math.abs(minorUnits % MINOR_UNITS_PER_UNIT);
+        return (minorUnits < 0 ? "-" : "") + units + (cents < 10 ? ".0" : ".") + cents;
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString() + " " + currency;
+    }
+}
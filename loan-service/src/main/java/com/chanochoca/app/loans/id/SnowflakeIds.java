@@ -0,0 +1,67 @@
+package com.chanochoca.app.loans.id;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * `SnowflakeIds` genera los `id` numéricos de los préstamos en el modo con sharding, donde los valores
+ * autoincrementales de cada shard se repetirían entre shards.
+ *
+ * Cada identificador es un `long` positivo, ordenado por tiempo y único entre todas las instancias que utilicen un
+ * `node` distinto:
+ *
+ * - 41 bits de marca de tiempo (milisegundos desde `EPOCH`, suficientes hasta 2093).
+ * - 10 bits de nodo (`loan.sharding.node-id`, de 0 a 1023).
+ * - 12 bits de secuencia: se incrementa dentro del mismo milisegundo. Si se agota, la marca de tiempo avanza un
+ *   milisegundo, igual que en `TimeOrderedIds`.
+ *
+ * Como la marca de tiempo ocupa los bits más significativos, los identificadores generados son mayores que los `id`
+ * autoincrementales de una tabla `loans` existente, de modo que la paginación por `id` sigue devolviendo primero los
+ * préstamos anteriores a la activación del sharding.
+ */
+public final class SnowflakeIds {
+
+    /** Origen de las marcas de tiempo: 2024-01-01T00:00:00Z. */
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+
+    /** Cantidad máxima de nodos. */
+    public static final int MAX_NODES = 1 << NODE_BITS;
+
+    private final long node;
+
+    /** Último valor generado de marca de tiempo y secuencia, combinados en un `long`. */
+    private final AtomicLong lastTimestampAndSequence = new AtomicLong();
+
+    /**
+     * Crea un generador para un nodo.
+     *
+     * @param node El número de nodo, de 0 a `MAX_NODES - 1`, distinto para cada instancia de la aplicación.
+     */
+    public SnowflakeIds(int node) {
+        if (node < 0 || node >= MAX_NODES) {
+            throw new IllegalArgumentException("Node must be between 0 and " + (MAX_NODES - 1) + ": " + node);
+        }
+        this.node = node;
+    }
+
+    /**
+     * Genera un nuevo identificador.
+     *
+     * @return Un identificador mayor que todos los generados anteriormente por este generador.
+     */
+    public long next() {
+        long candidate = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        long last;
+        long next;
+        do {
+            last = lastTimestampAndSequence.get();
+            next = Math.max(candidate, last + 1);
+        } while (!lastTimestampAndSequence.compareAndSet(last, next));
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+}
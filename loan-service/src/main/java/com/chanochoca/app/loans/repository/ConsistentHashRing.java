@@ -0,0 +1,99 @@
+package com.chanochoca.app.loans.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * `ConsistentHashRing` asigna cada `customerId` a un shard mediante hashing consistente.
+ *
+ * Cada shard ocupa `virtualNodes` puntos de un anillo de valores `long`, calculados a partir del hash de 64 bits de su
+ * nombre; un cliente pertenece al shard del primer punto mayor o igual al hash de su `customerId` (o al del primer punto
+ * del anillo, si no hay ninguno mayor). Al agregar un shard, solo cambian de shard los clientes cuyos hashes caen en los puntos
+ * nuevos, aproximadamente `1 / N` del total, en lugar de casi todos como con `customerId % N`.
+ *
+ * Los puntos dependen solo de los nombres de los shards, no del orden en que se configuran, y se guardan en arreglos
+ * ordenados: cada búsqueda de un cliente es una búsqueda binaria, sin crear objetos.
+ */
+final class ConsistentHashRing {
+
+    /** Separación entre los valores de los puntos de un mismo shard antes de dispersarlos con `mix`. */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long[] points;
+    private final int[] owners;
+
+    /**
+     * Crea el anillo.
+     *
+     * @param shardNames Los nombres de los shards, sin repetir. El índice de cada nombre es el que devuelve `shardFor`.
+     * @param virtualNodes La cantidad de puntos por shard. Más puntos reparten los clientes de forma más pareja.
+     * @throws IllegalArgumentException Si no hay shards, si hay nombres repetidos o si dos shards comparten un punto,
+     *         de modo que alguno no recibiría todos los clientes que le corresponden.
+     */
+    ConsistentHashRing(List<String> shardNames, int virtualNodes) {
+        if (shardNames.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("At least one shard and one virtual node are required");
+        }
+        if (new HashSet<>(shardNames).size() != shardNames.size()) {
+            throw new IllegalArgumentException("Shard names must be unique: " + shardNames);
+        }
+        var ring = new TreeMap<Long, Integer>();
+        for (int shard = 0; shard < shardNames.size(); shard++) {
+            long nameHash = hash(shardNames.get(shard));
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                Integer owner = ring.putIfAbsent(mix(nameHash + replica * GOLDEN_GAMMA), shard);
+                if (owner != null) {
+                    throw new IllegalArgumentException("Shards '" + shardNames.get(owner) + "' and '"
+                            + shardNames.get(shard) + "' share a ring point; rename one of them");
+                }
+            }
+        }
+        this.points = ring.keySet().stream().mapToLong(Long::longValue).toArray();
+        this.owners = ring.values().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Devuelve el shard de un cliente.
+     *
+     * @param customerId El ID del cliente.
+     * @return El índice del shard en la lista de nombres con la que se creó el anillo.
+     */
+    int shardFor(int customerId) {
+        int index = Arrays.binarySearch(points, mix(customerId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * Calcula el hash de 64 bits (FNV-1a) de los bytes UTF-8 de un nombre de shard.
+     *
+     * A diferencia de `String.hashCode()`, de 32 bits, no tiene colisiones triviales entre nombres cortos (como "Aa" y
+     * "BB"), que harían que dos shards compartieran todos sus puntos.
+     */
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Distribuye los bits de un valor en los 64 bits del resultado (el paso final de MurmurHash3), de modo que valores
+     * consecutivos, como los `customerId`, queden dispersos por todo el anillo.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
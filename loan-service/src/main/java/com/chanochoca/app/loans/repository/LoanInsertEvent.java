@@ -0,0 +1,40 @@
+package com.chanochoca.app.loans.repository;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * `LoanInsertEvent` es el evento de JFR de una inserción en la tabla `loans`, de uno o de varios préstamos.
+ *
+ * Por defecto solo se registran las inserciones de más de 1 ms; el umbral se cambia con
+ * `observability.profiling.thresholds[com.chanochoca.loans.LoanInsert]`.
+ */
+@Name("com.chanochoca.loans.LoanInsert")
+@Label("Loan Insert")
+@Category("Loan Service")
+@Description("Insert of one or more loans into the loans table")
+@StackTrace(false)
+@Threshold("1 ms")
+final class LoanInsertEvent extends Event {
+
+    @Label("Loans")
+    int loans;
+
+    /**
+     * Termina el evento y lo registra si supera el umbral.
+     *
+     * @param loans La cantidad de préstamos insertados.
+     */
+    void complete(int loans) {
+        end();
+        if (shouldCommit()) {
+            this.loans = loans;
+            commit();
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package com.chanochoca.app.loans.repository;
 
+import com.chanochoca.app.loans.entity.Currency;
 import com.chanochoca.app.loans.entity.Loan;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.id.TimeOrderedIds;
 import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.ResultSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
 
 /**
  * La clase `LoanRepository` maneja las operaciones de acceso a datos para la entidad `Loan`.
@@ -20,49 +31,345 @@ import java.util.UUID;
  * CRUD (Crear, Leer, Actualizar, Eliminar) relacionadas con los préstamos.
  *
  * Las transacciones están manejadas por las anotaciones `@Transactional`, y la observabilidad
- * del repositorio es mejorada por la anotación `@Observed`.
+ * del repositorio es mejorada por la anotación `@Observed`. Cada inserción publica un `LoansSavedEvent`, que los
+ * oyentes transaccionales reciben después del commit.
+ *
+ * Las consultas y las inserciones se registran además como los eventos de JFR `LoanRowMappingEvent` y
+ * `LoanInsertEvent`, que la grabación continua conserva cuando superan su umbral.
+ *
+ * Es la implementación de `LoanStore` con una única base de datos. En el modo con sharding, `ShardedLoanRepository`
+ * crea una instancia por shard, sin proxies de Spring, y administra las transacciones de cada una; los métodos de
+ * visibilidad de paquete (`saveAllWithIds`, `copyAll`, `deleteByCustomerId`, `forEachCustomerId` y `stream`) solo
+ * se utilizan en ese modo.
  */
 @Repository
 @RequiredArgsConstructor
 @Observed
-public class LoanRepository {
+public class LoanRepository implements LoanStore {
 
     /** Cliente JDBC utilizado para interactuar con la base de datos. */
     private final JdbcClient jdbcClient;
 
+    /** Plantilla JDBC utilizada para las inserciones por lotes, que `JdbcClient` no soporta. */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Publicador de los eventos `LoansSavedEvent`. */
+    private final ApplicationEventPublisher eventPublisher;
+
     /**
-     * Recupera todos los préstamos de la base de datos.
+     * Recupera todos los préstamos de la base de datos, ordenados por `id`.
      *
      * @return Una lista de objetos `Loan` que representan todos los préstamos almacenados en la base de datos.
      *
      * Esta consulta es de solo lectura, como se indica con la anotación `@Transactional(readOnly = true)`.
      */
+    @Override
     @Transactional(readOnly = true)
     public List<Loan> findAll() {
-        var findQuery = "SELECT id, loanId, customerName, customerId, amount, loanStatus FROM loans";
-        return jdbcClient.sql(findQuery).query(Loan.class).list();
+        var findQuery = "SELECT " + LoanRowMapper.COLUMNS + " FROM loans ORDER BY id";
+        var event = new LoanRowMappingEvent();
+        event.begin();
+        var loans = jdbcClient.sql(findQuery).query(LoanRowMapper.INSTANCE).list();
+        event.complete("findAll", loans.size());
+        return loans;
+    }
+
+    /**
+     * Recupera una página de préstamos mediante paginación por clave sobre el `id` autoincremental.
+     *
+     * @param afterId El `id` a partir del cual (excluido) se recuperan los préstamos.
+     * @param limit La cantidad máxima de préstamos a recuperar.
+     * @return Una lista de hasta `limit` préstamos con `id` mayor a `afterId`, ordenados por `id`.
+     *
+     * A diferencia de la paginación con `OFFSET`, la consulta recorre el índice de la clave primaria a partir de
+     * `afterId`, por lo que su costo no crece con el número de página.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Loan> findPage(long afterId, int limit) {
+        var findQuery = "SELECT " + LoanRowMapper.COLUMNS + " FROM loans WHERE id > ? ORDER BY id LIMIT ?";
+        var event = new LoanRowMappingEvent();
+        event.begin();
+        var loans = jdbcClient.sql(findQuery)
+                .param(1, afterId)
+                .param(2, limit)
+                .query(LoanRowMapper.INSTANCE)
+                .list();
+        event.complete("findPage", loans.size());
+        return loans;
+    }
+
+    /**
+     * Busca un préstamo por su identificador de negocio.
+     *
+     * @param loanId El `loanId` del préstamo.
+     * @return El préstamo, o un `Optional` vacío si no existe.
+     *
+     * La consulta utiliza el índice único `ux_loans_loan_id`, por lo que no recorre la tabla.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Loan> findByLoanId(UUID loanId) {
+        var findQuery = "SELECT " + LoanRowMapper.COLUMNS + " FROM loans WHERE loanId = ?";
+        var event = new LoanRowMappingEvent();
+        event.begin();
+        var loan = jdbcClient.sql(findQuery)
+                .param(1, TimeOrderedIds.toBytes(loanId))
+                .query(LoanRowMapper.INSTANCE)
+                .optional();
+        event.complete("findByLoanId", loan.isPresent() ? 1 : 0);
+        return loan;
+    }
+
+    /**
+     * Recupera los préstamos de un cliente, ordenados por `id`.
+     *
+     * @param customerId El ID del cliente.
+     * @return Una lista con los préstamos del cliente, vacía si no tiene préstamos.
+     *
+     * La consulta utiliza el índice `ix_loans_customer_id` (`customerId`, `id`), que también resuelve el ordenamiento.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Loan> findByCustomerId(int customerId) {
+        var findQuery = "SELECT " + LoanRowMapper.COLUMNS + " FROM loans WHERE customerId = ? ORDER BY id";
+        var event = new LoanRowMappingEvent();
+        event.begin();
+        var loans = jdbcClient.sql(findQuery)
+                .param(1, customerId)
+                .query(LoanRowMapper.INSTANCE)
+                .list();
+        event.complete("findByCustomerId", loans.size());
+        return loans;
+    }
+
+    /**
+     * Recorre todos los préstamos de la base de datos con un cursor de solo avance, ordenados por `id`.
+     *
+     * @param fetchSize La cantidad de filas que el driver trae de la base de datos en cada viaje.
+     * @param consumer La función que recibe cada préstamo a medida que se lee.
+     *
+     * Este método no materializa la tabla en memoria: cada fila se entrega al consumidor y puede ser descartada antes
+     * de leer la siguiente. Con `useCursorFetch=true` en la URL de conexión, MySQL utiliza un cursor del lado del
+     * servidor y envía las filas en bloques de `fetchSize`.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEach(int fetchSize, Consumer<Loan> consumer) {
+        var findQuery = "SELECT " + LoanRowMapper.COLUMNS + " FROM loans ORDER BY id";
+        var event = new LoanRowMappingEvent();
+        event.begin();
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(findQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            consumer.accept(LoanRowMapper.INSTANCE.mapRow(rs, 0));
+            event.rows++;
+        });
+        event.complete("forEach", event.rows);
+    }
+
+    /**
+     * Abre un cursor de solo avance sobre todos los préstamos, ordenados por `id`.
+     *
+     * @param fetchSize La cantidad de filas que el driver trae de la base de datos en cada viaje.
+     * @return Un `Stream` que lee cada fila al consumirse. Mantiene ocupada una conexión hasta que se cierra, por lo que
+     *         debe cerrarse siempre (por ejemplo, con `try`-with-resources).
+     *
+     * A diferencia de `forEach`, quien consume las filas decide cuándo leer la siguiente, lo que permite a
+     * `ShardedLoanRepository` intercalar los cursores de varios shards.
+     */
+    Stream<Loan> stream(int fetchSize) {
+        var findQuery = "SELECT " + LoanRowMapper.COLUMNS + " FROM loans ORDER BY id";
+        PreparedStatementCreator statementCreator = connection -> {
+            var statement = connection.prepareStatement(findQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        };
+        return jdbcTemplate.queryForStream(statementCreator, LoanRowMapper.INSTANCE);
+    }
+
+    /**
+     * Recorre los IDs de los clientes con préstamos guardados, sin repetir.
+     *
+     * @param consumer La función que recibe cada ID de cliente.
+     *
+     * La consulta recorre solo el índice `ix_loans_customer_id`.
+     */
+    void forEachCustomerId(IntConsumer consumer) {
+        jdbcClient.sql("SELECT DISTINCT customerId FROM loans")
+                .query(rs -> {
+                    consumer.accept(rs.getInt(1));
+                });
+    }
+
+    /**
+     * Recorre los totales de préstamos agrupados por cliente, estado y moneda, con una única consulta de agregación.
+     *
+     * @param consumer La función que recibe cada grupo a medida que se lee.
+     *
+     * La base de datos agrupa las filas, por lo que se transfiere una fila por combinación de cliente, estado y moneda
+     * en lugar de una por préstamo, y cada fila se entrega al consumidor como valores primitivos.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachCustomerTotal(LoanTotalsConsumer consumer) {
+        var totalsQuery = """
+                SELECT customerId, loanStatus, currency, COUNT(*), SUM(amountMinor)
+                FROM loans
+                GROUP BY customerId, loanStatus, currency
+                """;
+        jdbcClient.sql(totalsQuery)
+                .query(rs -> {
+                    consumer.accept(rs.getInt(1), LoanStatus.valueOf(rs.getString(2)),
+                            Currency.valueOf(rs.getString(3)), rs.getLong(4), rs.getLong(5));
+                });
     }
 
     /**
      * Guarda un nuevo préstamo en la base de datos y devuelve su ID generado.
      *
-     * @param loan El objeto `Loan` que contiene la información del préstamo a guardar.
+     * @param loan El objeto `Loan` que contiene la información del préstamo a guardar. Se le asignan el `id` generado
+     *             y, si no tiene uno, un `loanId` nuevo.
      * @return El ID generado del préstamo guardado en la base de datos.
      *
-     * Este método inserta un nuevo registro en la tabla `loans`. Utiliza un `KeyHolder` para capturar
-     * y devolver el ID generado automáticamente por la base de datos. La operación es transaccional.
+     * Este método inserta un nuevo registro en la tabla `loans`. Utiliza un `KeyHolder` para capturar el ID generado
+     * automáticamente por la base de datos en la misma respuesta de la inserción, sin una consulta adicional. La
+     * operación es transaccional.
      */
+    @Override
     @Transactional
     public Long save(Loan loan) {
-        var insertQuery = "INSERT INTO loans(loanId, customerName, customerId, amount, loanStatus) VALUES(?, ?, ?, ?, ?)";
+        var insertQuery = "INSERT INTO loans(loanId, customerName, customerId, amountMinor, currency, loanStatus) VALUES(?, ?, ?, ?, ?, ?)";
         KeyHolder keyHolder = new GeneratedKeyHolder();
+        assignLoanId(loan);
+        var event = new LoanInsertEvent();
+        event.begin();
         jdbcClient.sql(insertQuery)
-                .param(1, UUID.randomUUID().toString())  // Genera un UUID único para el campo `loanId`.
+                .param(1, TimeOrderedIds.toBytes(loan.getLoanId())) // Asigna el identificador de negocio (BINARY(16)).
                 .param(2, loan.getCustomerName())        // Asigna el nombre del cliente.
                 .param(3, loan.getCustomerId())          // Asigna el ID del cliente.
-                .param(4, loan.getAmount())              // Asigna el monto del préstamo.
-                .param(5, loan.getLoanStatus().toString()) // Asigna el estado del préstamo.
+                .param(4, loan.getAmount().minorUnits()) // Asigna el monto del préstamo, en unidades menores.
+                .param(5, loan.getCurrency().name())     // Asigna la moneda del préstamo.
+                .param(6, loan.getLoanStatus().toString()) // Asigna el estado del préstamo.
+                .update(keyHolder, "id");
+        event.complete(1);
+        loan.setId(keyHolder.getKeyAs(Long.class));
+        eventPublisher.publishEvent(new LoansSavedEvent(List.of(loan)));
+        return loan.getId();
+    }
+
+    /**
+     * Guarda varios préstamos en la base de datos con una inserción por lotes.
+     *
+     * @param loans Los préstamos a guardar. A los que no tienen `loanId` se les asigna uno nuevo.
+     *
+     * Este método envía todas las filas en un único lote JDBC dentro de una sola transacción. Con
+     * `rewriteBatchedStatements=true` en la URL de conexión, el driver de MySQL reescribe el lote como inserciones de
+     * múltiples filas, evitando un viaje de ida y vuelta y un commit por cada préstamo.
+     */
+    @Override
+    @Transactional
+    public void saveAll(List<Loan> loans) {
+        if (loans.isEmpty()) {
+            return;
+        }
+        var insertQuery = "INSERT INTO loans(loanId, customerName, customerId, amountMinor, currency, loanStatus) VALUES(?, ?, ?, ?, ?, ?)";
+        loans.forEach(LoanRepository::assignLoanId);
+        var event = new LoanInsertEvent();
+        event.begin();
+        jdbcTemplate.batchUpdate(insertQuery, loans, loans.size(), (ps, loan) -> {
+            ps.setBytes(1, TimeOrderedIds.toBytes(loan.getLoanId()));
+            ps.setString(2, loan.getCustomerName());
+            ps.setInt(3, loan.getCustomerId());
+            ps.setLong(4, loan.getAmount().minorUnits());
+            ps.setString(5, loan.getCurrency().name());
+            ps.setString(6, loan.getLoanStatus().toString());
+        });
+        event.complete(loans.size());
+        eventPublisher.publishEvent(new LoansSavedEvent(List.copyOf(loans)));
+    }
+
+    /**
+     * Guarda varios préstamos con los `id` que ya tienen asignados, con una inserción por lotes.
+     *
+     * @param loans Los préstamos a guardar, con su `id` y su `loanId` asignados.
+     *
+     * Lo utiliza `ShardedLoanRepository`, que asigna los `id` antes de la inserción para que sean únicos entre todos
+     * los shards (los valores autoincrementales de cada shard se repetirían). Como `saveAll`, publica un
+     * `LoansSavedEvent`; quien lo invoca debe abrir la transacción.
+     */
+    void saveAllWithIds(List<Loan> loans) {
+        var insertQuery = "INSERT INTO loans(id, loanId, customerName, customerId, amountMinor, currency, loanStatus) VALUES(?, ?, ?, ?, ?, ?, ?)";
+        var event = new LoanInsertEvent();
+        event.begin();
+        insertWithIds(insertQuery, loans);
+        event.complete(loans.size());
+        eventPublisher.publishEvent(new LoansSavedEvent(List.copyOf(loans)));
+    }
+
+    /**
+     * Copia préstamos de otro shard con sus `id` y `loanId`, ignorando los que ya existen.
+     *
+     * @param loans Los préstamos a copiar.
+     * @return La cantidad de préstamos insertados.
+     *
+     * La copia no publica un `LoansSavedEvent`: los préstamos ya existían y no deben volver a sumarse a las
+     * estadísticas. Como los préstamos ya copiados se ignoran (`INSERT IGNORE` sobre el índice único
+     * `ux_loans_loan_id`), una copia interrumpida se puede repetir.
+     */
+    int copyAll(List<Loan> loans) {
+        if (loans.isEmpty()) {
+            return 0;
+        }
+        var insertQuery = "INSERT IGNORE INTO loans(id, loanId, customerName, customerId, amountMinor, currency, loanStatus) VALUES(?, ?, ?, ?, ?, ?, ?)";
+        int inserted = 0;
+        for (int[] counts : insertWithIds(insertQuery, loans)) {
+            for (int count : counts) {
+                // Con rewriteBatchedStatements, el driver de MySQL informa SUCCESS_NO_INFO (-2) por cada fila.
+                inserted += count < 0 ? 1 : count;
+            }
+        }
+        return inserted;
+    }
+
+    private int[][] insertWithIds(String insertQuery, List<Loan> loans) {
+        return jdbcTemplate.batchUpdate(insertQuery, loans, loans.size(), (ps, loan) -> {
+            ps.setLong(1, loan.getId());
+            ps.setBytes(2, TimeOrderedIds.toBytes(loan.getLoanId()));
+            ps.setString(3, loan.getCustomerName());
+            ps.setInt(4, loan.getCustomerId());
+            ps.setLong(5, loan.getAmount().minorUnits());
+            ps.setString(6, loan.getCurrency().name());
+            ps.setString(7, loan.getLoanStatus().toString());
+        });
+    }
+
+    /**
+     * Elimina los préstamos de un cliente con `id` menor o igual a `maxId`.
+     *
+     * @param customerId El ID del cliente.
+     * @param maxId El mayor `id` que se elimina.
+     * @return La cantidad de préstamos eliminados.
+     *
+     * Lo utiliza `ShardRebalancer` para eliminar del shard de origen los préstamos ya copiados a su nuevo shard.
+     */
+    int deleteByCustomerId(int customerId, long maxId) {
+        return jdbcClient.sql("DELETE FROM loans WHERE customerId = ? AND id <= ?")
+                .param(1, customerId)
+                .param(2, maxId)
                 .update();
-        return keyHolder.getKeyAs(Long.class);
+    }
+
+    /**
+     * Asigna un `loanId` nuevo, ordenado por tiempo, al préstamo si todavía no tiene uno.
+     *
+     * @param loan El préstamo a guardar.
+     */
+    static void assignLoanId(Loan loan) {
+        if (loan.getLoanId() == null) {
+            loan.setLoanId(TimeOrderedIds.next());
+        }
     }
 }
@@ -0,0 +1,63 @@
+package com.chanochoca.app.loans.repository;
+
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.Loan;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import com.chanochoca.app.loans.id.TimeOrderedIds;
+import io.r2dbc.spi.Readable;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * `LoanRowMapper` convierte una fila de la tabla `loans` en una instancia de `Loan`.
+ *
+ * A diferencia de `BeanPropertyRowMapper`, lee las columnas por posición y asigna los campos directamente, sin
+ * reflexión ni búsqueda de propiedades por nombre en cada fila. Las consultas que lo utilicen deben seleccionar las
+ * columnas en el orden de `COLUMNS`.
+ *
+ * La columna `loanId` es `BINARY(16)` y se convierte a `UUID` con `TimeOrderedIds.fromBytes`. El método `map` aplica la
+ * misma conversión a las filas de R2DBC de `ReactiveLoanRepository`. El monto se lee de la columna `BIGINT`
+ * `amountMinor` como un `long` de unidades menores, sin pasar por `BigDecimal`.
+ */
+final class LoanRowMapper implements RowMapper<Loan> {
+
+    /** Columnas que espera el mapeador, en orden. */
+    static final String COLUMNS = "id, loanId, customerName, customerId, amountMinor, currency, loanStatus";
+
+    static final LoanRowMapper INSTANCE = new LoanRowMapper();
+
+    private LoanRowMapper() {
+    }
+
+    @Override
+    public Loan mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new Loan(
+                rs.getLong(1),
+                TimeOrderedIds.fromBytes(rs.getBytes(2)),
+                rs.getString(3),
+                rs.getInt(4),
+                new Money(rs.getLong(5), Currency.valueOf(rs.getString(6))),
+                LoanStatus.valueOf(rs.getString(7))
+        );
+    }
+
+    /**
+     * Convierte una fila de R2DBC, con las columnas en el orden de `COLUMNS`, en una instancia de `Loan`.
+     *
+     * @param row La fila leída.
+     * @return El préstamo.
+     */
+    static Loan map(Readable row) {
+        return new Loan(
+                row.get(0, Long.class),
+                TimeOrderedIds.fromBytes(row.get(1, byte[].class)),
+                row.get(2, String.class),
+                row.get(3, Integer.class),
+                new Money(row.get(4, Long.class), Currency.valueOf(row.get(5, String.class))),
+                LoanStatus.valueOf(row.get(6, String.class))
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package com.chanochoca.app.loans.repository;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * `LoanRowMappingEvent` es el evento de JFR de una consulta sobre la tabla `loans` y la conversión de sus filas en
+ * instancias de `Loan` con `LoanRowMapper`.
+ *
+ * El driver entrega las filas a medida que se leen, por lo que la duración del evento incluye tanto la ejecución de la
+ * consulta como el mapeo de las filas. Se registra un evento por consulta, no por fila, para que su costo no dependa de
+ * la cantidad de filas. Por defecto solo se registran las consultas de más de 1 ms; el umbral se cambia con
+ * `observability.profiling.thresholds[com.chanochoca.loans.LoanRowMapping]`.
+ */
+@Name("com.chanochoca.loans.LoanRowMapping")
+@Label("Loan Row Mapping")
+@Category("Loan Service")
+@Description("Execution of a query on the loans table and mapping of its rows to loans")
+@StackTrace(false)
+@Threshold("1 ms")
+final class LoanRowMappingEvent extends Event {
+
+    @Label("Query")
+    @Description("Repository method that ran the query")
+    String query;
+
+    @Label("Rows")
+    int rows;
+
+    /**
+     * Termina el evento y lo registra si supera el umbral.
+     *
+     * @param query El método del repositorio que ejecutó la consulta.
+     * @param rows La cantidad de filas leídas.
+     */
+    void complete(String query, int rows) {
+        end();
+        if (shouldCommit()) {
+            this.query = query;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.chanochoca.app.loans.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * `LoanShard` es una de las bases de datos entre las que `ShardedLoanRepository` reparte la tabla `loans`.
+ *
+ * Cada shard tiene su propio `LoanRepository`, creado sin proxies de Spring, y su propio administrador de
+ * transacciones: `read` y `write` ejecutan una operación del repositorio dentro de una transacción del shard (de
+ * solo lectura en el caso de `read`), de modo que los `LoansSavedEvent` se entregan a los oyentes transaccionales
+ * después del commit del shard, igual que con `@Transactional`.
+ *
+ * La duración de cada operación se publica como `loan.shard.requests`, con las etiquetas `shard` y `operation`.
+ */
+public final class LoanShard {
+
+    private final String name;
+    private final DataSource dataSource;
+    private final LoanRepository repository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Crea un shard.
+     *
+     * @param name El nombre del shard, que determina su posición en el anillo de hashing consistente. No debe cambiar
+     *             mientras el shard tenga datos.
+     * @param dataSource El pool de conexiones del shard, con la tabla `loans` ya creada. Se cierra con `close`.
+     * @param eventPublisher El publicador de los eventos `LoansSavedEvent`.
+     * @param meterRegistry El registro de las métricas del shard.
+     */
+    public LoanShard(String name, DataSource dataSource, ApplicationEventPublisher eventPublisher,
+                     MeterRegistry meterRegistry) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.repository = new LoanRepository(JdbcClient.create(dataSource), new JdbcTemplate(dataSource),
+                eventPublisher);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Devuelve el nombre del shard.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Ejecuta una consulta en una transacción de solo lectura del shard.
+     *
+     * @param operation El nombre de la operación, para la etiqueta `operation` de `loan.shard.requests`.
+     * @param query La consulta.
+     * @return El resultado de la consulta.
+     */
+    <T> T read(String operation, Function<LoanRepository, T> query) {
+        return timer(operation).record(() -> readTransaction.execute(status -> query.apply(repository)));
+    }
+
+    /**
+     * Ejecuta una modificación en una transacción del shard.
+     *
+     * @param operation El nombre de la operación, para la etiqueta `operation` de `loan.shard.requests`.
+     * @param update La modificación.
+     * @return El resultado de la modificación.
+     */
+    <T> T write(String operation, Function<LoanRepository, T> update) {
+        return timer(operation).record(() -> writeTransaction.execute(status -> update.apply(repository)));
+    }
+
+    /**
+     * Devuelve el repositorio del shard, para las operaciones que no se ejecutan en una transacción (como los
+     * cursores de `LoanRepository.stream`, que mantienen su propia conexión hasta cerrarse).
+     */
+    LoanRepository repository() {
+        return repository;
+    }
+
+    /**
+     * Devuelve el `Timer` de `loan.shard.requests` de una operación del shard.
+     */
+    Timer timer(String operation) {
+        return timers.computeIfAbsent(operation, key -> Timer.builder("loan.shard.requests")
+                .description("Time spent on one loans shard per operation")
+                .tag("shard", name)
+                .tag("operation", key)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * Cierra el pool de conexiones del shard, si se puede cerrar.
+     */
+    void close() {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not close the data source of shard " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.chanochoca.app.loans.repository;
+
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.Loan;
+import com.chanochoca.app.loans.entity.LoanStatus;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * `LoanStore` define las operaciones de persistencia de préstamos que utilizan los servicios del modo servlet.
+ *
+ * Tiene dos implementaciones:
+ *
+ * - `LoanRepository`: una única base de datos (`spring.datasource.*`).
+ * - `ShardedLoanRepository`: la tabla `loans` repartida por `customerId` entre varias bases de datos
+ *   (`loan.sharding.*`).
+ *
+ * En ambos casos, cada inserción publica un `LoansSavedEvent` que los oyentes transaccionales reciben después del
+ * commit, y los listados se devuelven ordenados por `id`.
+ */
+public interface LoanStore {
+
+    /**
+     * Recupera todos los préstamos, ordenados por `id`.
+     *
+     * @return Una lista con todos los préstamos almacenados.
+     */
+    List<Loan> findAll();
+
+    /**
+     * Recupera una página de préstamos mediante paginación por clave sobre el `id`.
+     *
+     * @param afterId El `id` a partir del cual (excluido) se recuperan los préstamos.
+     * @param limit La cantidad máxima de préstamos a recuperar.
+     * @return Una lista de hasta `limit` préstamos con `id` mayor a `afterId`, ordenados por `id`.
+     */
+    List<Loan> findPage(long afterId, int limit);
+
+    /**
+     * Busca un préstamo por su identificador de negocio.
+     *
+     * @param loanId El `loanId` del préstamo.
+     * @return El préstamo, o un `Optional` vacío si no existe.
+     */
+    Optional<Loan> findByLoanId(UUID loanId);
+
+    /**
+     * Recupera los préstamos de un cliente, ordenados por `id`.
+     *
+     * @param customerId El ID del cliente.
+     * @return Una lista con los préstamos del cliente, vacía si no tiene préstamos.
+     */
+    List<Loan> findByCustomerId(int customerId);
+
+    /**
+     * Recorre todos los préstamos, ordenados por `id`, sin materializarlos en memoria.
+     *
+     * @param fetchSize La cantidad de filas que el driver trae de la base de datos en cada viaje.
+     * @param consumer La función que recibe cada préstamo a medida que se lee.
+     */
+    void forEach(int fetchSize, Consumer<Loan> consumer);
+
+    /**
+     * Recorre los totales de préstamos agrupados por cliente, estado y moneda.
+     *
+     * @param consumer La función que recibe cada grupo a medida que se lee.
+     */
+    void forEachCustomerTotal(LoanTotalsConsumer consumer);
+
+    /**
+     * Guarda un nuevo préstamo y devuelve su ID.
+     *
+     * @param loan El préstamo a guardar. Se le asignan el `id` y, si no tiene uno, un `loanId` nuevo.
+     * @return El ID del préstamo guardado.
+     */
+    Long save(Loan loan);
+
+    /**
+     * Guarda varios préstamos con una inserción por lotes.
+     *
+     * @param loans Los préstamos a guardar. A los que no tienen `loanId` se les asigna uno nuevo.
+     */
+    void saveAll(List<Loan> loans);
+
+    /**
+     * `LoanTotalsConsumer` recibe los totales de un grupo de préstamos sin necesidad de crear objetos intermedios.
+     */
+    @FunctionalInterface
+    interface LoanTotalsConsumer {
+
+        /**
+         * Procesa los totales de un grupo de préstamos.
+         *
+         * @param customerId El ID del cliente.
+         * @param loanStatus El estado de los préstamos del grupo.
+         * @param currency La moneda de los préstamos del grupo.
+         * @param count La cantidad de préstamos del grupo.
+         * @param amountMinorUnits La suma de los montos de los préstamos del grupo, en unidades menores (`Money`).
+         */
+        void accept(int customerId, LoanStatus loanStatus, Currency currency, long count, long amountMinorUnits);
+    }
+}
@@ -0,0 +1,241 @@
+package com.chanochoca.app.loans.repository;
+
+import com.chanochoca.app.loans.config.LoanProperties;
+import com.chanochoca.app.loans.entity.Loan;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `LoanWriteBehindQueue` persiste los préstamos aprobados de forma asíncrona (write-behind).
+ *
+ * Cuando `loan.write-behind.enabled` es `true`, `write` no espera la inserción en MySQL: agrega el préstamo a una cola
+ * acotada en memoria y retorna. Un único hilo escritor vacía la cola en lotes de hasta `max-batch-size` préstamos, que
+ * se guardan con `LoanStore.saveAll` en una sola transacción (un commit por lote en lugar de uno por préstamo).
+ * Así, la latencia de `POST /loan` queda determinada por la verificación de fraude y no por el commit.
+ *
+ * Características:
+ *
+ * - **Contrapresión:** si la cola está llena, `write` espera hasta `offer-timeout` a que haya lugar; si el tiempo vence,
+ *   el préstamo se guarda de forma sincrónica en el hilo de la solicitud, de modo que nunca se descarta.
+ * - **Reintentos:** un lote que falla se reintenta hasta `max-retries` veces, con una espera que comienza en
+ *   `retry-backoff` y se duplica en cada reintento hasta `max-retry-backoff`. Si sigue fallando, sus préstamos se
+ *   guardan uno por uno, de modo que un préstamo que la base de datos rechaza no impide guardar el resto del lote.
+ * - **Préstamos no guardados:** un préstamo que tampoco puede guardarse solo se registra completo, con nivel `ERROR`,
+ *   en el logger `loan.write-behind.dead-letter` y se cuenta en `loan.write-behind.dead-letter`, para poder
+ *   reprocesarlo. Nunca se descarta sin dejar registro.
+ * - **Cierre ordenado:** al detener la aplicación, el escritor guarda los préstamos que quedan en la cola. Si no
+ *   termina en `shutdown-timeout`, se lo interrumpe: deja de reintentar y registra como no guardados el lote en curso
+ *   y los préstamos que quedan en la cola.
+ *
+ * Los préstamos encolados y aún no guardados se pierden si el proceso termina abruptamente; por eso el modo está
+ * deshabilitado por defecto. Si está deshabilitado, `write` guarda el préstamo de forma sincrónica.
+ *
+ * Métricas publicadas:
+ *
+ * - `loan.write-behind.queue.depth`: préstamos encolados pendientes de guardar.
+ * - `loan.write-behind.flush`: duración de cada lote guardado.
+ * - `loan.write-behind.batch.size`: cantidad de préstamos por lote.
+ * - `loan.write-behind.caller-runs`: préstamos guardados en el hilo de la solicitud porque la cola estaba llena.
+ * - `loan.write-behind.retries`: reintentos de lotes que fallaron.
+ * - `loan.write-behind.dead-letter`: préstamos que no pudieron guardarse y se registraron en el log.
+ */
+@Component
+@Slf4j
+public class LoanWriteBehindQueue {
+
+    /** El logger de los préstamos que no pudieron guardarse, con el préstamo completo en cada entrada. */
+    private static final Logger deadLetterLog = LoggerFactory.getLogger("loan.write-behind.dead-letter");
+
+    private final LoanStore loanRepository;
+    private final LoanProperties.WriteBehind settings;
+    private final BlockingQueue<Loan> queue;
+    private final Thread writer;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSize;
+    private final Counter callerRuns;
+    private final Counter retries;
+    private final Counter deadLetters;
+
+    private volatile boolean running = true;
+
+    public LoanWriteBehindQueue(LoanStore loanRepository, LoanProperties properties, MeterRegistry meterRegistry,
+                                Environment environment) {
+        this.loanRepository = loanRepository;
+        this.settings = properties.writeBehind();
+        this.flushTimer = Timer.builder("loan.write-behind.flush")
+                .description("Time to persist one write-behind batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("loan.write-behind.batch.size")
+                .description("Loans persisted per write-behind batch")
+                .register(meterRegistry);
+        this.callerRuns = Counter.builder("loan.write-behind.caller-runs")
+                .description("Loans persisted on the request thread because the write-behind queue was full")
+                .register(meterRegistry);
+        this.retries = Counter.builder("loan.write-behind.retries")
+                .description("Retries of failed write-behind batches")
+                .register(meterRegistry);
+        this.deadLetters = Counter.builder("loan.write-behind.dead-letter")
+                .description("Loans that could not be persisted and were written to the dead-letter log")
+                .register(meterRegistry);
+        if (settings.enabled()) {
+            this.queue = new ArrayBlockingQueue<>(settings.capacity());
+            Gauge.builder("loan.write-behind.queue.depth", queue, BlockingQueue::size)
+                    .description("Loans waiting in the write-behind queue")
+                    .register(meterRegistry);
+            var threads = Threading.VIRTUAL.isActive(environment) ? Thread.ofVirtual() : Thread.ofPlatform();
+            this.writer = threads.name("loan-write-behind").start(this::drainLoop);
+        } else {
+            this.queue = null;
+            this.writer = null;
+        }
+    }
+
+    /**
+     * Persiste un préstamo aprobado, de forma asíncrona si el modo write-behind está habilitado.
+     *
+     * @param loan El préstamo a guardar. Si no tiene `loanId`, se le asigna uno antes de encolarlo, de modo que el
+     *             identificador está disponible para la respuesta aunque el préstamo todavía no se haya guardado.
+     */
+    public void write(Loan loan) {
+        LoanRepository.assignLoanId(loan);
+        if (queue == null) {
+            loanRepository.save(loan);
+            return;
+        }
+        try {
+            if (running && queue.offer(loan, settings.offerTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        callerRuns.increment();
+        loanRepository.save(loan);
+    }
+
+    /**
+     * Bucle del hilo escritor: espera el primer préstamo, toma los que ya están encolados y guarda el lote. Si el hilo
+     * se interrumpe al cerrar la aplicación, registra como no guardados el lote en curso y los préstamos encolados.
+     */
+    private void drainLoop() {
+        var batch = new ArrayList<Loan>(settings.maxBatchSize());
+        try {
+            while (running || !queue.isEmpty()) {
+                var first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, settings.maxBatchSize() - 1);
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            queue.drainTo(batch);
+            deadLetter(batch, "the write-behind writer was interrupted during shutdown", e);
+        }
+    }
+
+    /**
+     * Guarda un lote con una inserción por lotes, reintentando con espera exponencial si falla. Si se agotan los
+     * reintentos, guarda los préstamos uno por uno.
+     *
+     * @throws InterruptedException Si el hilo se interrumpe mientras espera un reintento; el lote no se guardó.
+     */
+    private void flush(List<Loan> batch) throws InterruptedException {
+        long backoffNanos = settings.retryBackoff().toNanos();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                flushTimer.record(() -> loanRepository.saveAll(batch));
+                batchSize.record(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= settings.maxRetries()) {
+                    log.warn("Write-behind batch of {} loans failed {} times, saving its loans one by one",
+                            batch.size(), attempt + 1, e);
+                    saveOneByOne(batch);
+                    return;
+                }
+                log.warn("Write-behind batch of {} loans failed, retrying in {} ms", batch.size(),
+                        TimeUnit.NANOSECONDS.toMillis(backoffNanos), e);
+            }
+            retries.increment();
+            TimeUnit.NANOSECONDS.sleep(backoffNanos);
+            backoffNanos = Math.min(backoffNanos * 2, settings.maxRetryBackoff().toNanos());
+        }
+    }
+
+    /**
+     * Guarda cada préstamo de un lote que no pudo guardarse completo, y registra como no guardados los que fallan.
+     */
+    private void saveOneByOne(List<Loan> batch) {
+        for (Loan loan : batch) {
+            try {
+                loanRepository.save(loan);
+            } catch (RuntimeException e) {
+                deadLetter(List.of(loan), "the loan could not be persisted", e);
+            }
+        }
+    }
+
+    /**
+     * Registra préstamos que no se guardaron en el log de préstamos no guardados, uno por entrada.
+     */
+    private void deadLetter(List<Loan> loans, String reason, Exception cause) {
+        if (loans.isEmpty()) {
+            return;
+        }
+        deadLetters.increment(loans.size());
+        log.error("{} write-behind loans were not persisted: {}; see the loan.write-behind.dead-letter log",
+                loans.size(), reason, cause);
+        for (Loan loan : loans) {
+            deadLetterLog.error("{}", loan);
+        }
+    }
+
+    /**
+     * Espera a que el escritor guarde los préstamos encolados. Si no termina en `shutdown-timeout`, lo interrumpe para
+     * que registre los préstamos pendientes como no guardados; si aun así no termina (por ejemplo, bloqueado en una
+     * inserción), los registra este hilo. Los préstamos encolados después de que el escritor terminó se guardan en
+     * este hilo.
+     */
+    @PreDestroy
+    void close() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(settings.shutdownTimeout().toMillis());
+        if (writer.isAlive()) {
+            log.error("Write-behind writer did not finish within {} with {} loans queued, interrupting it",
+                    settings.shutdownTimeout(), queue.size());
+            writer.interrupt();
+            writer.join(settings.shutdownTimeout().toMillis());
+        }
+        var remaining = new ArrayList<Loan>();
+        queue.drainTo(remaining);
+        if (writer.isAlive()) {
+            deadLetter(remaining, "the write-behind writer did not stop during shutdown", null);
+        } else {
+            saveOneByOne(remaining);
+        }
+    }
+}
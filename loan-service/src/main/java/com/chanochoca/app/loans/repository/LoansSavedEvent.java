@@ -0,0 +1,17 @@
+package com.chanochoca.app.loans.repository;
+
+import com.chanochoca.app.loans.entity.Loan;
+
+import java.util.List;
+
+/**
+ * `LoansSavedEvent` es el evento que `LoanRepository` publica al insertar préstamos, tanto con `save` como con
+ * `saveAll`. En el modo con sharding, lo publica el `LoanRepository` de cada shard en el que se insertan préstamos.
+ *
+ * El evento se publica dentro de la transacción de la inserción; los oyentes que solo deben observar préstamos
+ * confirmados lo reciben con `@TransactionalEventListener`, después del commit.
+ *
+ * @param loans Los préstamos insertados.
+ */
+public record LoansSavedEvent(List<Loan> loans) {
+}
@@ -0,0 +1,194 @@
+package com.chanochoca.app.loans.repository;
+
+import com.chanochoca.app.loans.entity.Loan;
+import com.chanochoca.app.loans.id.TimeOrderedIds;
+import io.r2dbc.spi.Parameters;
+import io.r2dbc.spi.R2dbcType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * La clase `ReactiveLoanRepository` maneja las operaciones de acceso a datos para la entidad `Loan` en el modo reactivo,
+ * con las mismas consultas que `LoanRepository`.
+ *
+ * Este repositorio utiliza el `DatabaseClient` de R2DBC, por lo que las consultas no bloquean el hilo que las ejecuta
+ * y las filas se entregan con contrapresión. Cada consulta se registra como la observación `r2dbc.query`. Cada
+ * inserción publica un `LoansSavedEvent` una vez confirmada. Al igual que en `LoanRepository`, las consultas y las
+ * inserciones se registran como los eventos de JFR `LoanRowMappingEvent` y `LoanInsertEvent`.
+ *
+ * Cada operación de escritura es una única sentencia, por lo que no requiere una transacción explícita.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveLoanRepository {
+
+    private static final String INSERT = "INSERT INTO loans(loanId, customerName, customerId, amountMinor, currency, loanStatus) VALUES ";
+
+    /** Cliente R2DBC utilizado para interactuar con la base de datos. */
+    private final DatabaseClient databaseClient;
+
+    /** Publicador de los eventos `LoansSavedEvent`. */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Recupera una página de préstamos mediante paginación por clave sobre el `id` autoincremental.
+     *
+     * @param afterId El `id` a partir del cual (excluido) se recuperan los préstamos.
+     * @param limit La cantidad máxima de préstamos a recuperar.
+     * @return Un `Flux` con hasta `limit` préstamos con `id` mayor a `afterId`, ordenados por `id`.
+     */
+    public Flux<Loan> findPage(long afterId, int limit) {
+        var findQuery = "SELECT " + LoanRowMapper.COLUMNS + " FROM loans WHERE id > :afterId ORDER BY id LIMIT :limit";
+        return recorded("findPage", databaseClient.sql(findQuery)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(LoanRowMapper::map)
+                .all());
+    }
+
+    /**
+     * Busca un préstamo por su identificador de negocio.
+     *
+     * @param loanId El `loanId` del préstamo.
+     * @return Un `Mono` con el préstamo, vacío si no existe.
+     */
+    public Mono<Loan> findByLoanId(UUID loanId) {
+        var findQuery = "SELECT " + LoanRowMapper.COLUMNS + " FROM loans WHERE loanId = :loanId";
+        return recorded("findByLoanId", databaseClient.sql(findQuery)
+                .bind("loanId", TimeOrderedIds.toBytes(loanId))
+                .map(LoanRowMapper::map)
+                .all())
+                .singleOrEmpty();
+    }
+
+    /**
+     * Recupera los préstamos de un cliente, ordenados por `id`.
+     *
+     * @param customerId El ID del cliente.
+     * @return Un `Flux` con los préstamos del cliente.
+     */
+    public Flux<Loan> findByCustomerId(int customerId) {
+        var findQuery = "SELECT " + LoanRowMapper.COLUMNS + " FROM loans WHERE customerId = :customerId ORDER BY id";
+        return recorded("findByCustomerId", databaseClient.sql(findQuery)
+                .bind("customerId", customerId)
+                .map(LoanRowMapper::map)
+                .all());
+    }
+
+    /**
+     * Recorre todos los préstamos de la base de datos, ordenados por `id`.
+     *
+     * @param fetchSize La cantidad de filas que el driver solicita a la base de datos en cada viaje.
+     * @return Un `Flux` con todos los préstamos.
+     *
+     * Las filas se solicitan a la base de datos a medida que el suscriptor las consume, por lo que un cliente lento no
+     * provoca que la tabla se acumule en memoria.
+     */
+    public Flux<Loan> findAll(int fetchSize) {
+        var findQuery = "SELECT " + LoanRowMapper.COLUMNS + " FROM loans ORDER BY id";
+        return recorded("findAll", databaseClient.sql(findQuery)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(LoanRowMapper::map)
+                .all());
+    }
+
+    /**
+     * Guarda un nuevo préstamo en la base de datos y devuelve su ID generado.
+     *
+     * @param loan El préstamo a guardar. Se le asignan el `id` generado y, si no tiene uno, un `loanId` nuevo.
+     * @return Un `Mono` con el ID generado del préstamo.
+     */
+    public Mono<Long> save(Loan loan) {
+        return Mono.defer(() -> {
+            LoanRepository.assignLoanId(loan);
+            var insert = bind(databaseClient.sql(INSERT + values(0)), 0, loan);
+            var event = new LoanInsertEvent();
+            event.begin();
+            return insert.filter(statement -> statement.returnGeneratedValues("id"))
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(id -> {
+                        event.complete(1);
+                        loan.setId(id);
+                        eventPublisher.publishEvent(new LoansSavedEvent(List.of(loan)));
+                        return id;
+                    });
+        });
+    }
+
+    /**
+     * Guarda varios préstamos en la base de datos con una única inserción de múltiples filas.
+     *
+     * @param loans Los préstamos a guardar. A los que no tienen `loanId` se les asigna uno nuevo.
+     * @return Un `Mono` que se completa cuando los préstamos se guardaron.
+     *
+     * Equivale a la inserción por lotes de `LoanRepository.saveAll` reescrita por el driver JDBC de MySQL: todas las
+     * filas se envían en una sola sentencia y un solo viaje de ida y vuelta.
+     */
+    public Mono<Void> saveAll(List<Loan> loans) {
+        if (loans.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            var insertQuery = new StringBuilder(INSERT);
+            for (int i = 0; i < loans.size(); i++) {
+                LoanRepository.assignLoanId(loans.get(i));
+                insertQuery.append(i == 0 ? "" : ", ").append(values(i));
+            }
+            var insert = databaseClient.sql(insertQuery.toString());
+            for (int i = 0; i < loans.size(); i++) {
+                insert = bind(insert, i, loans.get(i));
+            }
+            var event = new LoanInsertEvent();
+            event.begin();
+            return insert.then()
+                    .doOnSuccess(done -> {
+                        event.complete(loans.size());
+                        eventPublisher.publishEvent(new LoansSavedEvent(List.copyOf(loans)));
+                    });
+        });
+    }
+
+    /**
+     * Registra la lectura de las filas de una consulta como un `LoanRowMappingEvent`, desde la suscripción hasta que se
+     * completa.
+     */
+    private static Flux<Loan> recorded(String query, Flux<Loan> loans) {
+        return Flux.defer(() -> {
+            var event = new LoanRowMappingEvent();
+            event.begin();
+            return loans.doOnNext(loan -> event.rows++)
+                    .doOnComplete(() -> event.complete(query, event.rows));
+        });
+    }
+
+    /**
+     * Devuelve la fila `VALUES` de la inserción con los parámetros del préstamo en la posición indicada.
+     */
+    private static String values(int index) {
+        return "(:loanId" + index + ", :customerName" + index + ", :customerId" + index + ", :amount" + index
+                + ", :currency" + index + ", :loanStatus" + index + ")";
+    }
+
+    /**
+     * Asigna los parámetros de la fila `values(index)` con los datos del préstamo.
+     */
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec insert, int index, Loan loan) {
+        return insert
+                .bind("loanId" + index, TimeOrderedIds.toBytes(loan.getLoanId()))
+                .bind("customerName" + index, Parameters.in(R2dbcType.VARCHAR, loan.getCustomerName()))
+                .bind("customerId" + index, loan.getCustomerId())
+                .bind("amount" + index, loan.getAmount().minorUnits())
+                .bind("currency" + index, loan.getCurrency().name())
+                .bind("loanStatus" + index, loan.getLoanStatus().toString());
+    }
+}
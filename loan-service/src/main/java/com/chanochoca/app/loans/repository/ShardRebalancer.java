@@ -0,0 +1,158 @@
+package com.chanochoca.app.loans.repository;
+
+import com.chanochoca.app.loans.entity.Loan;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * `ShardRebalancer` mueve los préstamos de los clientes que no están en su shard, por ejemplo después de agregar un
+ * shard a `loan.sharding.shards`, sin detener la aplicación.
+ *
+ * Recorre los clientes de cada shard y, por cada cliente que el anillo de hashing consistente asigna a otro shard:
+ *
+ * 1. Lee sus préstamos del shard de origen.
+ * 2. Los copia al shard de destino en lotes de `batch-size`, con su `id` y su `loanId`. Los préstamos que ya existen
+ *    en el destino se ignoran, de modo que un movimiento interrumpido se puede repetir.
+ * 3. Elimina del shard de origen los préstamos copiados (los de `id` menor o igual al mayor copiado).
+ *
+ * Las inserciones nuevas de un cliente ya van a su shard de destino, por lo que el origen no recibe préstamos nuevos
+ * del cliente mientras se mueve. Hasta que un movimiento termina sin errores, `ShardedLoanRepository` consulta todos
+ * los shards para las consultas de un cliente. Si `rebalance-on-startup` es `true` (el valor por defecto), el
+ * movimiento comienza cuando la aplicación está lista; si es `false`, esas consultas siguen consultando todos los
+ * shards hasta que se inicia un movimiento con `start` (`POST /actuator/shards`).
+ *
+ * Los préstamos movidos se publican como `loan.shard.rebalance.moved`, con las etiquetas `source` y `target`.
+ */
+@Slf4j
+public class ShardRebalancer {
+
+    private final ShardedLoanRepository repository;
+    private final int batchSize;
+    private final boolean rebalanceOnStartup;
+    private final MeterRegistry meterRegistry;
+
+    private volatile Status status = new Status(false, null, null, 0, 0, null);
+
+    /**
+     * Crea el `ShardRebalancer`.
+     *
+     * @param repository El repositorio cuyos shards se equilibran.
+     * @param batchSize La cantidad máxima de préstamos que se copian en una misma transacción.
+     * @param rebalanceOnStartup Indica si los clientes se mueven al iniciar la aplicación.
+     * @param meterRegistry El registro de la métrica `loan.shard.rebalance.moved`.
+     */
+    public ShardRebalancer(ShardedLoanRepository repository, int batchSize, boolean rebalanceOnStartup,
+                           MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.batchSize = batchSize;
+        this.rebalanceOnStartup = rebalanceOnStartup;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Comienza el movimiento configurado con `rebalance-on-startup` cuando la aplicación está lista.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (rebalanceOnStartup) {
+            start();
+        }
+    }
+
+    /**
+     * Comienza a mover los clientes en un hilo propio.
+     *
+     * @return `true` si el movimiento comenzó, o `false` si ya había uno en curso.
+     */
+    public synchronized boolean start() {
+        if (status.running()) {
+            return false;
+        }
+        status = new Status(true, Instant.now(), null, 0, 0, null);
+        repository.rebalancing(true);
+        Thread.ofPlatform().name("shard-rebalancer").daemon().start(this::run);
+        return true;
+    }
+
+    /**
+     * Devuelve el estado del último movimiento.
+     */
+    public Status status() {
+        return status;
+    }
+
+    private void run() {
+        long customers = 0;
+        long loans = 0;
+        String error = null;
+        try {
+            for (LoanShard source : repository.shards()) {
+                var customerIds = new ArrayList<Integer>();
+                source.read("rebalance", shard -> {
+                    shard.forEachCustomerId(customerIds::add);
+                    return null;
+                });
+                for (int customerId : customerIds) {
+                    LoanShard target = repository.shardFor(customerId);
+                    if (target != source) {
+                        loans += move(customerId, source, target);
+                        customers++;
+                        status = new Status(true, status.startedAt(), null, customers, loans, null);
+                    }
+                }
+            }
+            log.info("Shard rebalancing moved {} loans of {} customers", loans, customers);
+        } catch (RuntimeException e) {
+            log.error("Shard rebalancing failed after moving {} loans of {} customers", loans, customers, e);
+            error = e.getMessage();
+        } finally {
+            // Si el movimiento falló, algunos clientes siguen fuera de su shard y deben consultarse en todos.
+            repository.rebalancing(error != null);
+            status = new Status(false, status.startedAt(), Instant.now(), customers, loans, error);
+        }
+    }
+
+    /**
+     * Mueve los préstamos de un cliente y devuelve la cantidad de préstamos eliminados del shard de origen.
+     */
+    private int move(int customerId, LoanShard source, LoanShard target) {
+        List<Loan> loans = source.read("rebalance", shard -> shard.findByCustomerId(customerId));
+        if (loans.isEmpty()) {
+            return 0;
+        }
+        for (int from = 0; from < loans.size(); from += batchSize) {
+            var batch = loans.subList(from, Math.min(from + batchSize, loans.size()));
+            target.write("rebalance", shard -> shard.copyAll(batch));
+        }
+        long maxId = loans.getLast().getId();
+        int moved = source.write("rebalance", shard -> shard.deleteByCustomerId(customerId, maxId));
+        Counter.builder("loan.shard.rebalance.moved")
+                .description("Loans moved to their shard by the rebalancer")
+                .tag("source", source.name())
+                .tag("target", target.name())
+                .register(meterRegistry)
+                .increment(moved);
+        return moved;
+    }
+
+    /**
+     * Estado de un movimiento de clientes entre shards.
+     *
+     * @param running Indica si el movimiento está en curso.
+     * @param startedAt El instante en que comenzó, o `null` si nunca se ejecutó.
+     * @param finishedAt El instante en que terminó, o `null` si está en curso o nunca se ejecutó.
+     * @param customers La cantidad de clientes movidos.
+     * @param loans La cantidad de préstamos movidos.
+     * @param error El mensaje del error que lo interrumpió, o `null` si no falló.
+     */
+    public record Status(boolean running, Instant startedAt, Instant finishedAt, long customers, long loans,
+                         String error) {
+    }
+}
@@ -0,0 +1,320 @@
+package com.chanochoca.app.loans.repository;
+
+import com.chanochoca.app.loans.entity.Loan;
+import com.chanochoca.app.loans.id.SnowflakeIds;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * La clase `ShardedLoanRepository` reparte la tabla `loans` entre varias bases de datos (`LoanShard`) según el
+ * `customerId` de cada préstamo.
+ *
+ * El shard de un cliente se elige con hashing consistente (`ConsistentHashRing`) sobre el nombre de cada shard, de
+ * modo que todos los préstamos de un cliente están en el mismo shard y, al agregar un shard, solo se mueven los
+ * clientes que le corresponden (`ShardRebalancer`).
+ *
+ * - **Escrituras:** `save` y `saveAll` insertan cada préstamo en el shard de su cliente. Los `id` se asignan antes de
+ *   la inserción con `SnowflakeIds`, porque los valores autoincrementales se repetirían entre shards. `saveAll`
+ *   inserta en paralelo un lote por shard, cada uno en su propia transacción: si un shard falla, los lotes de los demás
+ *   quedan guardados.
+ * - **Consultas de un cliente:** `findByCustomerId` consulta solo el shard del cliente.
+ * - **Consultas de todos los clientes:** `findAll`, `findPage`, `findByLoanId`, `forEach` y `forEachCustomerTotal`
+ *   consultan todos los shards en paralelo, en hilos virtuales que propagan el contexto de trazas. Los resultados de
+ *   cada shard ya vienen ordenados por `id`, por lo que se intercalan a medida que se leen (k-way merge) en lugar de
+ *   reunirlos y ordenarlos: `forEach` entrega cada préstamo sin materializar ninguna de las tablas y `findPage` lee a
+ *   lo sumo `limit` préstamos por shard.
+ *
+ * Hasta que `ShardRebalancer` termina un movimiento, un cliente puede tener préstamos en un shard que ya no es el suyo
+ * (por ejemplo, después de agregar un shard) o, durante la copia, en ambos: `findByCustomerId` consulta entonces todos
+ * los shards, y los préstamos repetidos (que conservan su `id` al copiarse) se descartan al intercalar. Por eso, con
+ * más de un shard, el repositorio comienza en ese modo y solo consulta el shard del cliente después del primer
+ * movimiento completo. `forEachCustomerTotal` puede contar dos veces los préstamos de un cliente que se está copiando.
+ */
+@Observed
+public class ShardedLoanRepository implements LoanStore, DisposableBean {
+
+    private final List<LoanShard> shards;
+    private final ConsistentHashRing ring;
+    private final SnowflakeIds ids;
+
+    /** Ejecutor de las consultas en paralelo a todos los shards; propaga el contexto de trazas. */
+    private final ExecutorService executor = ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor(),
+            () -> ContextSnapshotFactory.builder().build().captureAll());
+
+    private volatile boolean rebalancing;
+
+    /**
+     * Crea el repositorio.
+     *
+     * @param shards Los shards, con nombres distintos.
+     * @param virtualNodes La cantidad de puntos de cada shard en el anillo de hashing consistente.
+     * @param ids El generador de los `id` de los préstamos.
+     */
+    public ShardedLoanRepository(List<LoanShard> shards, int virtualNodes, SnowflakeIds ids) {
+        this.shards = List.copyOf(shards);
+        this.ring = new ConsistentHashRing(shardNames(), virtualNodes);
+        this.ids = ids;
+        this.rebalancing = this.shards.size() > 1;
+    }
+
+    @Override
+    public List<Loan> findAll() {
+        var loans = new ArrayList<Loan>();
+        merge(fanOut(shard -> shard.read("findAll", LoanRepository::findAll).iterator())).forEachRemaining(loans::add);
+        return loans;
+    }
+
+    @Override
+    public List<Loan> findPage(long afterId, int limit) {
+        var pages = fanOut(shard -> shard.read("findPage", repository -> repository.findPage(afterId, limit)).iterator());
+        var loans = new ArrayList<Loan>(limit);
+        var merged = merge(pages);
+        while (loans.size() < limit && merged.hasNext()) {
+            loans.add(merged.next());
+        }
+        return loans;
+    }
+
+    /**
+     * Busca un préstamo por su identificador de negocio.
+     *
+     * El `loanId` no indica el cliente, por lo que se consultan todos los shards en paralelo (cada uno con su índice
+     * único `ux_loans_loan_id`). `LoanLookupCache` evita repetir la consulta para los préstamos ya consultados.
+     */
+    @Override
+    public Optional<Loan> findByLoanId(UUID loanId) {
+        return fanOut(shard -> shard.read("findByLoanId", repository -> repository.findByLoanId(loanId))).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    @Override
+    public List<Loan> findByCustomerId(int customerId) {
+        if (!rebalancing) {
+            return shardFor(customerId).read("findByCustomerId", repository -> repository.findByCustomerId(customerId));
+        }
+        var loans = new ArrayList<Loan>();
+        merge(fanOut(shard -> shard.read("findByCustomerId", repository -> repository.findByCustomerId(customerId))
+                .iterator())).forEachRemaining(loans::add);
+        return loans;
+    }
+
+    /**
+     * Recorre todos los préstamos de todos los shards, ordenados por `id`.
+     *
+     * Se abre un cursor por shard, en paralelo, y los préstamos se intercalan a medida que se leen: en memoria solo
+     * se conservan las filas de cada cursor que el driver ya trajo (`fetchSize`).
+     */
+    @Override
+    public void forEach(int fetchSize, Consumer<Loan> consumer) {
+        // Los cursores se registran a medida que se abren, para cerrarlos también si falla la apertura de otro.
+        var streams = Collections.synchronizedList(new ArrayList<Stream<Loan>>(shards.size()));
+        try {
+            var cursors = fanOut(shard -> shard.timer("forEach").record(() -> {
+                var stream = shard.repository().stream(fetchSize);
+                streams.add(stream);
+                return stream.iterator();
+            }));
+            merge(cursors).forEachRemaining(consumer);
+        } finally {
+            streams.forEach(Stream::close);
+        }
+    }
+
+    /**
+     * Recorre los totales de préstamos de todos los shards.
+     *
+     * Los préstamos de un cliente están en un único shard, por lo que los grupos de los distintos shards no se
+     * superponen y no es necesario combinarlos. Los shards se consultan en paralelo y cada grupo se entrega al
+     * consumidor de a uno por vez.
+     */
+    @Override
+    public void forEachCustomerTotal(LoanTotalsConsumer consumer) {
+        var lock = new ReentrantLock();
+        fanOut(shard -> shard.read("forEachCustomerTotal", repository -> {
+            repository.forEachCustomerTotal((customerId, loanStatus, currency, count, amountMinorUnits) -> {
+                lock.lock();
+                try {
+                    consumer.accept(customerId, loanStatus, currency, count, amountMinorUnits);
+                } finally {
+                    lock.unlock();
+                }
+            });
+            return null;
+        }));
+    }
+
+    @Override
+    public Long save(Loan loan) {
+        LoanRepository.assignLoanId(loan);
+        loan.setId(ids.next());
+        shardFor(loan.getCustomerId()).write("save", repository -> {
+            repository.saveAllWithIds(List.of(loan));
+            return null;
+        });
+        return loan.getId();
+    }
+
+    @Override
+    public void saveAll(List<Loan> loans) {
+        if (loans.isEmpty()) {
+            return;
+        }
+        var batches = new ArrayList<List<Loan>>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            batches.add(new ArrayList<>());
+        }
+        for (Loan loan : loans) {
+            LoanRepository.assignLoanId(loan);
+            loan.setId(ids.next());
+            batches.get(ring.shardFor(loan.getCustomerId())).add(loan);
+        }
+        fanOut(shard -> {
+            var batch = batches.get(shards.indexOf(shard));
+            if (!batch.isEmpty()) {
+                shard.write("saveAll", repository -> {
+                    repository.saveAllWithIds(batch);
+                    return null;
+                });
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Devuelve los nombres de los shards, en el orden en que se configuraron.
+     */
+    public List<String> shardNames() {
+        return shards.stream().map(LoanShard::name).toList();
+    }
+
+    /**
+     * Devuelve los shards, en el orden en que se configuraron.
+     */
+    List<LoanShard> shards() {
+        return shards;
+    }
+
+    /**
+     * Devuelve el shard de un cliente.
+     */
+    LoanShard shardFor(int customerId) {
+        return shards.get(ring.shardFor(customerId));
+    }
+
+    /**
+     * Indica si los préstamos de un cliente pueden estar en un shard distinto del suyo, porque `ShardRebalancer` los
+     * está moviendo o todavía no los movió. Mientras es `true`, `findByCustomerId` consulta todos los shards.
+     *
+     * @param rebalancing `true` al comenzar a mover clientes y `false` al terminar sin errores.
+     */
+    void rebalancing(boolean rebalancing) {
+        this.rebalancing = rebalancing;
+    }
+
+    /**
+     * Ejecuta una operación en todos los shards en paralelo y devuelve sus resultados en el orden de los shards.
+     *
+     * Con un único shard, la operación se ejecuta en el hilo actual. Si alguna falla, se propaga la primera excepción
+     * después de que terminan todas.
+     */
+    private <T> List<T> fanOut(Function<LoanShard, T> operation) {
+        if (shards.size() == 1) {
+            return List.of(operation.apply(shards.getFirst()));
+        }
+        var futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> operation.apply(shard), executor))
+                .toList();
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Intercala préstamos ordenados por `id` en un único recorrido ordenado por `id`, descartando los repetidos.
+     */
+    private static Iterator<Loan> merge(List<Iterator<Loan>> sources) {
+        return sources.size() == 1 ? sources.getFirst() : new MergingIterator(sources);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        shards.forEach(LoanShard::close);
+    }
+
+    /**
+     * `MergingIterator` intercala varios recorridos ordenados por `id` con una cola de prioridad que contiene el
+     * próximo préstamo de cada uno, de modo que cada préstamo cuesta `O(log N)` comparaciones, con `N` shards.
+     */
+    private static final class MergingIterator implements Iterator<Loan> {
+
+        private final PriorityQueue<Head> heads;
+        private long lastId = Long.MIN_VALUE;
+
+        MergingIterator(List<Iterator<Loan>> sources) {
+            this.heads = new PriorityQueue<>(Math.max(sources.size(), 1),
+                    (a, b) -> Long.compare(a.loan.getId(), b.loan.getId()));
+            sources.forEach(this::advance);
+            skipRepeated();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Loan next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            Loan loan = head.loan;
+            lastId = loan.getId();
+            advance(head.source);
+            skipRepeated();
+            return loan;
+        }
+
+        private void advance(Iterator<Loan> source) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+
+        private void skipRepeated() {
+            while (!heads.isEmpty() && heads.peek().loan.getId() == lastId) {
+                advance(heads.poll().source);
+            }
+        }
+
+        private record Head(Loan loan, Iterator<Loan> source) {
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.chanochoca.app.loans.service;
+
+import com.chanochoca.app.loans.config.LoanProperties;
+import com.chanochoca.app.loans.entity.Loan;
+import com.chanochoca.app.loans.repository.LoanStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * `LoanLookupCache` es una caché de lectura (read-through) de los préstamos consultados por `loanId`.
+ *
+ * Los préstamos no se modifican una vez guardados, por lo que una entrada de la caché nunca queda desactualizada y solo
+ * vence para acotar el consumo de memoria. Los préstamos inexistentes no se guardan en la caché: un préstamo encolado
+ * por el modo write-behind puede no estar guardado todavía en la primera consulta y sí estarlo en la siguiente.
+ *
+ * Las métricas se publican con el nombre de caché `loans-by-id` (`cache.gets`, `cache.evictions`, `cache.size`, ...).
+ */
+@Component
+public class LoanLookupCache {
+
+    private final LoanStore loanRepository;
+    private final Cache<UUID, Loan> cache;
+
+    public LoanLookupCache(LoanStore loanRepository, LoanProperties properties, MeterRegistry meterRegistry) {
+        var settings = properties.lookupCache();
+        this.loanRepository = loanRepository;
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(settings.maximumSize())
+                .expireAfterAccess(settings.expireAfterAccess())
+                .recordStats()
+                .<UUID, Loan>build(), "loans-by-id");
+    }
+
+    /**
+     * Busca un préstamo por su identificador de negocio, consultando la base de datos si no está en la caché.
+     *
+     * @param loanId El `loanId` del préstamo.
+     * @return El préstamo, o un `Optional` vacío si no existe.
+     */
+    public Optional<Loan> findByLoanId(UUID loanId) {
+        return Optional.ofNullable(cache.get(loanId, id -> loanRepository.findByLoanId(id).orElse(null)));
+    }
+}
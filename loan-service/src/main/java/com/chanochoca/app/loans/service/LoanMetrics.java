@@ -0,0 +1,115 @@
+package com.chanochoca.app.loans.service;
+
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `LoanMetrics` publica las métricas de negocio de las solicitudes de préstamo.
+ *
+ * Todas las combinaciones de etiquetas se registran al crear el componente y se guardan en arreglos indexados por el
+ * ordinal de `LoanStatus` y `Currency`, de modo que registrar una decisión no busca el medidor en el `MeterRegistry`
+ * ni crea arreglos de etiquetas. Las etiquetas solo toman los valores de esas enumeraciones (sin IDs de clientes ni de
+ * préstamos), por lo que la cantidad de series es fija.
+ *
+ * Métricas publicadas:
+ *
+ * - `loan.decisions` con las etiquetas `status` y `currency`: préstamos evaluados por resultado y moneda.
+ * - `loan.amount` con la etiqueta `currency`: distribución de los montos solicitados, con cubetas fijas (`AMOUNT_SLOS`).
+ * - `loan.fraud.check` con la etiqueta `outcome` (`APPROVED`, `REJECTED` o `BATCH` para las evaluaciones en lote):
+ *   duración de la evaluación de fraude vista por `loan-service`, incluidas la caché y la capa de resiliencia, con
+ *   cubetas fijas (`LATENCY_SLOS`).
+ */
+@Component
+public class LoanMetrics {
+
+    /** Límites de las cubetas de `loan.amount`. */
+    static final double[] AMOUNT_SLOS = {1_000, 5_000, 10_000, 50_000, 100_000, 500_000, 1_000_000};
+
+    /** Límites de las cubetas de `loan.fraud.check`. */
+    static final Duration[] LATENCY_SLOS = {Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10),
+            Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1)};
+
+    private static final LoanStatus[] STATUSES = LoanStatus.values();
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    /** Contadores de decisiones, indexados por `status.ordinal() * CURRENCIES.length + currency.ordinal()`. */
+    private final Counter[] decisions = new Counter[STATUSES.length * CURRENCIES.length];
+
+    /** Distribuciones de montos, indexadas por `currency.ordinal()`. */
+    private final DistributionSummary[] amounts = new DistributionSummary[CURRENCIES.length];
+
+    /** Temporizadores de la evaluación de fraude, indexados por `status.ordinal()`. */
+    private final Timer[] fraudChecks = new Timer[STATUSES.length];
+
+    private final Timer batchFraudChecks;
+
+    public LoanMetrics(MeterRegistry meterRegistry) {
+        for (LoanStatus status : STATUSES) {
+            for (Currency currency : CURRENCIES) {
+                decisions[status.ordinal() * CURRENCIES.length + currency.ordinal()] = Counter.builder("loan.decisions")
+                        .description("Loan applications evaluated, by decision and currency")
+                        .tag("status", status.name())
+                        .tag("currency", currency.name())
+                        .register(meterRegistry);
+            }
+            fraudChecks[status.ordinal()] = fraudCheckTimer(meterRegistry, status.name());
+        }
+        for (Currency currency : CURRENCIES) {
+            amounts[currency.ordinal()] = DistributionSummary.builder("loan.amount")
+                    .description("Requested loan amounts")
+                    .tag("currency", currency.name())
+                    .serviceLevelObjectives(AMOUNT_SLOS)
+                    .register(meterRegistry);
+        }
+        this.batchFraudChecks = fraudCheckTimer(meterRegistry, "BATCH");
+    }
+
+    /**
+     * Registra la decisión sobre una solicitud de préstamo y su monto.
+     *
+     * @param status La decisión de la evaluación de fraude.
+     * @param amount El monto solicitado y su moneda.
+     */
+    public void recordDecision(LoanStatus status, Money amount) {
+        int currency = amount.currency().ordinal();
+        decisions[status.ordinal() * CURRENCIES.length + currency].increment();
+        amounts[currency].record(amount.doubleValue());
+    }
+
+    /**
+     * Registra la duración de la evaluación de fraude de un préstamo.
+     *
+     * @param outcome El resultado de la evaluación.
+     * @param nanos La duración en nanosegundos, medida con `System.nanoTime()`.
+     */
+    public void recordFraudCheck(LoanStatus outcome, long nanos) {
+        fraudChecks[outcome.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra la duración de una evaluación de fraude en lote.
+     *
+     * @param nanos La duración en nanosegundos, medida con `System.nanoTime()`.
+     */
+    public void recordBatchFraudCheck(long nanos) {
+        batchFraudChecks.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer fraudCheckTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("loan.fraud.check")
+                .description("Fraud evaluation latency seen by loan-service, by outcome")
+                .tag("outcome", outcome)
+                .serviceLevelObjectives(LATENCY_SLOS)
+                .register(meterRegistry);
+    }
+}
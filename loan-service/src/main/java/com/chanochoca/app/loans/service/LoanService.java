@@ -1,37 +1,133 @@
 package com.chanochoca.app.loans.service;
 
-import com.chanochoca.app.loans.repository.LoanRepository;
+import com.chanochoca.app.loans.config.LoanProperties;
+import com.chanochoca.app.loans.repository.LoanStore;
+import com.chanochoca.app.loans.repository.LoanWriteBehindQueue;
+import com.chanochoca.app.loans.client.FraudCheckRequest;
 import com.chanochoca.app.loans.client.FraudDetectionClient;
 import com.chanochoca.app.loans.dto.LoanDto;
+import com.chanochoca.app.loans.dto.LoanPage;
+import com.chanochoca.app.loans.dto.LoanStats;
 import com.chanochoca.app.loans.entity.Loan;
 import com.chanochoca.app.loans.entity.LoanStatus;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class LoanService {
 
     private final FraudDetectionClient fraudDetectionClient;
-    private final LoanRepository loanRepository;
+    private final LoanStore loanRepository;
+    private final LoanWriteBehindQueue loanWriteBehindQueue;
+    private final LoanLookupCache loanLookupCache;
+    private final LoanStatistics loanStatistics;
+    private final LoanProperties loanProperties;
+    private final LoanMetrics loanMetrics;
+    private final ObservationRegistry observationRegistry;
 
-    public List<LoanDto> listAllLoans() {
-        return loanRepository.findAll()
-                .stream()
-                .map(LoanDto::from)
-                .toList();
+    public void streamAllLoans(Consumer<LoanDto> consumer) {
+        loanRepository.forEach(loanProperties.listing().fetchSize(), loan -> consumer.accept(LoanDto.from(loan)));
     }
 
-    public String applyLoan(LoanDto loanDto) {
+    public LoanPage listLoans(long afterId, int limit) {
+        int pageSize = Math.clamp(limit, 1, loanProperties.listing().maxPageSize());
+        var loans = loanRepository.findPage(afterId, pageSize);
+        Long nextAfterId = loans.size() == pageSize ? loans.getLast().getId() : null;
+        return new LoanPage(loans.stream().map(LoanDto::from).toList(), nextAfterId);
+    }
+
+    public Optional<LoanDto> findLoan(UUID loanId) {
+        return loanLookupCache.findByLoanId(loanId).map(LoanDto::from);
+    }
+
+    public List<LoanDto> findLoansByCustomer(int customerId) {
+        return loanRepository.findByCustomerId(customerId).stream().map(LoanDto::from).toList();
+    }
+
+    public LoanStats loanStats() {
+        return loanStatistics.summary();
+    }
+
+    public LoanStats.CustomerTotals customerStats(int customerId) {
+        return loanStatistics.customer(customerId);
+    }
+
+    public LoanDto applyLoan(LoanDto loanDto) {
         var loan = Loan.from(loanDto);
-        LoanStatus loanStatus = fraudDetectionClient.evaluateLoan(loan.getCustomerId());
+        long start = System.nanoTime();
+        LoanStatus loanStatus = fraudDetectionClient.evaluateLoan(fraudCheck(loan));
+        loanMetrics.recordFraudCheck(loanStatus, System.nanoTime() - start);
+        loanMetrics.recordDecision(loanStatus, loan.getAmount());
         loan.setLoanStatus(loanStatus);
         if (loanStatus.equals(LoanStatus.APPROVED)) {
-            loanRepository.save(loan);
-            return "Loan applied successfully";
+            loanWriteBehindQueue.write(loan);
+        } else {
+            tagRejected();
+        }
+        return LoanDto.from(loan);
+    }
+
+    public List<LoanDto> applyLoans(List<LoanDto> loanDtos) {
+        var results = new ArrayList<LoanDto>(loanDtos.size());
+        applyLoans(loanDtos.iterator(), results::add);
+        return results;
+    }
+
+    public void applyLoans(Iterator<LoanDto> loanDtos, Consumer<LoanDto> results) {
+        int chunkSize = loanProperties.batch().chunkSize();
+        var chunk = new ArrayList<Loan>(chunkSize);
+        while (loanDtos.hasNext()) {
+            chunk.add(Loan.from(loanDtos.next()));
+            if (chunk.size() == chunkSize || !loanDtos.hasNext()) {
+                applyChunk(chunk).forEach(loan -> results.accept(LoanDto.from(loan)));
+                chunk.clear();
+            }
+        }
+    }
+
+    private List<Loan> applyChunk(List<Loan> chunk) {
+        var requests = new FraudCheckRequest[chunk.size()];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = fraudCheck(chunk.get(i));
+        }
+        long start = System.nanoTime();
+        var statuses = fraudDetectionClient.evaluateLoans(requests);
+        loanMetrics.recordBatchFraudCheck(System.nanoTime() - start);
+        var approved = new ArrayList<Loan>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            var loan = chunk.get(i);
+            loan.setLoanStatus(statuses[i]);
+            loanMetrics.recordDecision(statuses[i], loan.getAmount());
+            if (statuses[i] == LoanStatus.APPROVED) {
+                approved.add(loan);
+            }
+        }
+        if (approved.size() < chunk.size()) {
+            tagRejected();
+        }
+        loanRepository.saveAll(approved);
+        return chunk;
+    }
+
+    private static FraudCheckRequest fraudCheck(Loan loan) {
+        return new FraudCheckRequest(loan.getCustomerId(), loan.getAmount());
+    }
+
+    private void tagRejected() {
+        var observation = observationRegistry.getCurrentObservation();
+        if (observation != null) {
+            observation.highCardinalityKeyValue("loan.status", LoanStatus.REJECTED.name());
         }
-        return "Sorry! Your loan was not approved";
     }
 }
@@ -0,0 +1,250 @@
+package com.chanochoca.app.loans.service;
+
+import com.chanochoca.app.loans.config.LoanProperties;
+import com.chanochoca.app.loans.dto.LoanStats;
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.Loan;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import com.chanochoca.app.loans.repository.LoanStore;
+import com.chanochoca.app.loans.repository.LoansSavedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * `LoanStatistics` mantiene en memoria los totales de los préstamos guardados (cantidad y suma de montos por estado,
+ * por cliente y de los clientes con más préstamos), para responder `GET /loan/stats` sin recorrer la tabla `loans`.
+ *
+ * Los totales se cargan una sola vez al iniciar, con una consulta de agregación (`LoanStore.forEachCustomerTotal`),
+ * y luego se actualizan con cada `LoansSavedEvent` después del commit de la inserción, de modo que solo reflejan
+ * préstamos confirmados (incluidos los que guarda el modo write-behind). Como los préstamos no se modifican ni se
+ * eliminan, las cantidades solo crecen y la lista de clientes con más préstamos se mantiene exacta comparando cada
+ * cliente actualizado con el último de la lista.
+ *
+ * Los totales son locales a la instancia: los préstamos que guarden otras instancias sobre la misma base de datos solo
+ * se reflejan al reiniciar.
+ */
+@Component
+@Slf4j
+public class LoanStatistics {
+
+    private static final LoanStatus[] STATUSES = LoanStatus.values();
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final LoanStore loanRepository;
+    private final int topSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Totales por estado, indexados por `status.ordinal()`. Protegidos por `lock`. */
+    private final Aggregate[] byStatus = new Aggregate[STATUSES.length];
+
+    /** Totales por cliente. Protegido por `lock`. */
+    private final Map<Integer, CustomerAggregate> byCustomer = new HashMap<>();
+
+    /** Clientes con más préstamos, de mayor a menor cantidad. Protegido por `lock`. */
+    private final List<CustomerAggregate> top;
+
+    public LoanStatistics(LoanStore loanRepository, LoanProperties properties) {
+        this.loanRepository = loanRepository;
+        this.topSize = Math.max(properties.stats().topCustomers(), 0);
+        this.top = new ArrayList<>(topSize);
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = new Aggregate();
+        }
+    }
+
+    /**
+     * Carga los totales de los préstamos existentes con una única consulta de agregación.
+     */
+    @PostConstruct
+    void load() {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            loanRepository.forEachCustomerTotal(this::add);
+            log.info("Loan statistics loaded for {} customers in {} ms", byCustomer.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Suma a los totales los préstamos guardados, después del commit de su transacción.
+     *
+     * @param event El evento con los préstamos guardados.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoansSaved(LoansSavedEvent event) {
+        lock.lock();
+        try {
+            for (Loan loan : event.loans()) {
+                add(loan.getCustomerId(), loan.getLoanStatus(), loan.getCurrency(), 1, loan.getAmount().minorUnits());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve el resumen de todos los préstamos guardados.
+     *
+     * @return Los totales generales, por estado y de los clientes con más préstamos.
+     *
+     * El costo no depende de la cantidad de préstamos ni de clientes: solo se copian los totales por estado y los
+     * `loan.stats.top-customers` clientes de la lista.
+     */
+    public LoanStats summary() {
+        lock.lock();
+        try {
+            var total = new Aggregate();
+            var statuses = new EnumMap<LoanStatus, LoanStats.Totals>(LoanStatus.class);
+            for (LoanStatus status : STATUSES) {
+                Aggregate aggregate = byStatus[status.ordinal()];
+                total.add(aggregate);
+                statuses.put(status, aggregate.totals());
+            }
+            var topCustomers = new ArrayList<LoanStats.CustomerTotals>(top.size());
+            for (CustomerAggregate customer : top) {
+                topCustomers.add(customer.customerTotals());
+            }
+            return new LoanStats(total.totals(), statuses, topCustomers);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve los totales de los préstamos guardados de un cliente.
+     *
+     * @param customerId El ID del cliente.
+     * @return Los totales del cliente, con cantidad `0` si no tiene préstamos.
+     */
+    public LoanStats.CustomerTotals customer(int customerId) {
+        lock.lock();
+        try {
+            CustomerAggregate customer = byCustomer.get(customerId);
+            return customer != null
+                    ? customer.customerTotals()
+                    : new LoanStats.CustomerTotals(customerId, 0, Collections.emptyMap());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Suma un grupo de préstamos a los totales. Debe invocarse con `lock` tomado.
+     */
+    private void add(int customerId, LoanStatus status, Currency currency, long count, long amountMinorUnits) {
+        byStatus[status.ordinal()].add(currency, count, amountMinorUnits);
+        CustomerAggregate customer = byCustomer.computeIfAbsent(customerId, CustomerAggregate::new);
+        customer.add(currency, count, amountMinorUnits);
+        promote(customer);
+    }
+
+    /**
+     * Actualiza la posición de un cliente cuya cantidad de préstamos aumentó en la lista de clientes con más préstamos.
+     *
+     * Los clientes fuera de la lista tienen a lo sumo tantos préstamos como el último de la lista, por lo que basta con
+     * compararlo con el último y luego desplazarlo hacia arriba mientras supere al anterior.
+     */
+    private void promote(CustomerAggregate customer) {
+        if (customer.rank < 0) {
+            if (top.size() < topSize) {
+                customer.rank = top.size();
+                top.add(customer);
+            } else if (topSize > 0 && customer.count > top.getLast().count) {
+                top.getLast().rank = -1;
+                customer.rank = top.size() - 1;
+                top.set(customer.rank, customer);
+            } else {
+                return;
+            }
+        }
+        while (customer.rank > 0 && top.get(customer.rank - 1).count < customer.count) {
+            CustomerAggregate previous = top.get(customer.rank - 1);
+            top.set(customer.rank, previous);
+            top.set(customer.rank - 1, customer);
+            previous.rank++;
+            customer.rank--;
+        }
+    }
+
+    /**
+     * Cantidad de préstamos y suma de montos por moneda de un grupo.
+     *
+     * Los montos se suman en unidades menores (`Money.minorUnits`), por lo que actualizar los totales no crea objetos;
+     * solo `amount()` los convierte a `BigDecimal` para la respuesta.
+     */
+    private static class Aggregate {
+
+        long count;
+
+        /** Suma de montos en unidades menores, indexada por `currency.ordinal()`. */
+        final long[] amounts = new long[CURRENCIES.length];
+
+        /** Indica, por `currency.ordinal()`, si el grupo tiene préstamos en esa moneda. */
+        final boolean[] currencies = new boolean[CURRENCIES.length];
+
+        void add(Currency currency, long loans, long amountMinorUnits) {
+            count += loans;
+            amounts[currency.ordinal()] += amountMinorUnits;
+            currencies[currency.ordinal()] = true;
+        }
+
+        void add(Aggregate other) {
+            count += other.count;
+            for (Currency currency : CURRENCIES) {
+                if (other.currencies[currency.ordinal()]) {
+                    add(currency, 0, other.amounts[currency.ordinal()]);
+                }
+            }
+        }
+
+        Map<Currency, BigDecimal> amount() {
+            var amount = new EnumMap<Currency, BigDecimal>(Currency.class);
+            for (Currency currency : CURRENCIES) {
+                if (currencies[currency.ordinal()]) {
+                    amount.put(currency, BigDecimal.valueOf(amounts[currency.ordinal()], Money.SCALE));
+                }
+            }
+            return amount;
+        }
+
+        LoanStats.Totals totals() {
+            return new LoanStats.Totals(count, amount());
+        }
+    }
+
+    /**
+     * Totales de un cliente, con su posición en la lista de clientes con más préstamos.
+     */
+    private static final class CustomerAggregate extends Aggregate {
+
+        final int customerId;
+
+        /** Posición en `top`, o `-1` si el cliente no está en la lista. */
+        int rank = -1;
+
+        CustomerAggregate(int customerId) {
+            this.customerId = customerId;
+        }
+
+        LoanStats.CustomerTotals customerTotals() {
+            return new LoanStats.CustomerTotals(customerId, count, amount());
+        }
+    }
+}
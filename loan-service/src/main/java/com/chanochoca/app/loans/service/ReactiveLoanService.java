@@ -0,0 +1,123 @@
+package com.chanochoca.app.loans.service;
+
+import com.chanochoca.app.loans.client.FraudCheckRequest;
+import com.chanochoca.app.loans.client.ReactiveFraudDetectionClient;
+import com.chanochoca.app.loans.config.LoanProperties;
+import com.chanochoca.app.loans.dto.LoanDto;
+import com.chanochoca.app.loans.dto.LoanPage;
+import com.chanochoca.app.loans.dto.LoanStats;
+import com.chanochoca.app.loans.entity.Loan;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.repository.ReactiveLoanRepository;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveLoanService {
+
+    private final ReactiveFraudDetectionClient fraudDetectionClient;
+    private final ReactiveLoanRepository loanRepository;
+    private final LoanStatistics loanStatistics;
+    private final LoanProperties loanProperties;
+    private final LoanMetrics loanMetrics;
+    private final ObservationRegistry observationRegistry;
+
+    public Flux<LoanDto> streamAllLoans() {
+        return loanRepository.findAll(loanProperties.listing().fetchSize()).map(LoanDto::from);
+    }
+
+    public Mono<LoanPage> listLoans(long afterId, int limit) {
+        int pageSize = Math.clamp(limit, 1, loanProperties.listing().maxPageSize());
+        return loanRepository.findPage(afterId, pageSize).collectList().map(loans -> {
+            Long nextAfterId = loans.size() == pageSize ? loans.getLast().getId() : null;
+            return new LoanPage(loans.stream().map(LoanDto::from).toList(), nextAfterId);
+        });
+    }
+
+    public Mono<LoanDto> findLoan(UUID loanId) {
+        return loanRepository.findByLoanId(loanId).map(LoanDto::from);
+    }
+
+    public Flux<LoanDto> findLoansByCustomer(int customerId) {
+        return loanRepository.findByCustomerId(customerId).map(LoanDto::from);
+    }
+
+    public LoanStats loanStats() {
+        return loanStatistics.summary();
+    }
+
+    public LoanStats.CustomerTotals customerStats(int customerId) {
+        return loanStatistics.customer(customerId);
+    }
+
+    public Mono<LoanDto> applyLoan(LoanDto loanDto) {
+        return Mono.defer(() -> {
+            var loan = Loan.from(loanDto);
+            long start = System.nanoTime();
+            return fraudDetectionClient.evaluateLoan(fraudCheck(loan)).flatMap(loanStatus -> {
+                loanMetrics.recordFraudCheck(loanStatus, System.nanoTime() - start);
+                loanMetrics.recordDecision(loanStatus, loan.getAmount());
+                loan.setLoanStatus(loanStatus);
+                if (loanStatus.equals(LoanStatus.APPROVED)) {
+                    return loanRepository.save(loan).then(Mono.fromSupplier(() -> LoanDto.from(loan)));
+                }
+                tagRejected();
+                return Mono.just(LoanDto.from(loan));
+            });
+        });
+    }
+
+    public Flux<LoanDto> applyLoans(Flux<LoanDto> loanDtos) {
+        return loanDtos.map(Loan::from)
+                .buffer(loanProperties.batch().chunkSize())
+                .concatMap(this::applyChunk)
+                .map(LoanDto::from);
+    }
+
+    private Flux<Loan> applyChunk(List<Loan> chunk) {
+        return Mono.defer(() -> {
+            var requests = new FraudCheckRequest[chunk.size()];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = fraudCheck(chunk.get(i));
+            }
+            long start = System.nanoTime();
+            return fraudDetectionClient.evaluateLoans(requests)
+                    .doOnNext(statuses -> loanMetrics.recordBatchFraudCheck(System.nanoTime() - start));
+        }).flatMapMany(statuses -> {
+            var approved = new ArrayList<Loan>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                var loan = chunk.get(i);
+                loan.setLoanStatus(statuses[i]);
+                loanMetrics.recordDecision(statuses[i], loan.getAmount());
+                if (statuses[i] == LoanStatus.APPROVED) {
+                    approved.add(loan);
+                }
+            }
+            if (approved.size() < chunk.size()) {
+                tagRejected();
+            }
+            return loanRepository.saveAll(approved).thenMany(Flux.fromIterable(chunk));
+        });
+    }
+
+    private static FraudCheckRequest fraudCheck(Loan loan) {
+        return new FraudCheckRequest(loan.getCustomerId(), loan.getAmount());
+    }
+
+    private void tagRejected() {
+        var observation = observationRegistry.getCurrentObservation();
+        if (observation != null) {
+            observation.highCardinalityKeyValue("loan.status", LoanStatus.REJECTED.name());
+        }
+    }
+}
@@ -1,6 +1,6 @@
 truncate table loans;
 ALTER TABLE loans AUTO_INCREMENT = 1;
-INSERT INTO loans (id, loanId, customerName, customerId, amount, loanStatus)
-VALUES (1, UUID(), 'John', 101, 5000.00, 'APPROVED'),
-       (2, UUID(), 'Sai', 102, 7500.00, 'APPROVED'),
-       (3, UUID(), 'Alice', 103, 3000.00, 'REJECTED');
+INSERT INTO loans (id, loanId, customerName, customerId, amountMinor, currency, loanStatus)
+VALUES (1, UUID_TO_BIN('0191aae1-a401-7000-8000-000000000001'), 'John', 101, 500000, 'INR', 'APPROVED'),
+       (2, UUID_TO_BIN('0191aae1-a402-7000-8000-000000000002'), 'Sai', 102, 750000, 'INR', 'APPROVED'),
+       (3, UUID_TO_BIN('0191aae1-a403-7000-8000-000000000003'), 'Alice', 103, 300000, 'USD', 'REJECTED');
@@ -0,0 +1,2 @@
+CREATE UNIQUE INDEX ux_loans_loan_id ON loans (loanId);
+CREATE INDEX ix_loans_customer_id ON loans (customerId, id);
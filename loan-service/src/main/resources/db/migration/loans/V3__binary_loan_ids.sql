@@ -0,0 +1,6 @@
+ALTER TABLE loans ADD COLUMN loanIdBin BINARY(16) NULL AFTER loanId;
+UPDATE loans SET loanIdBin = UUID_TO_BIN(loanId);
+ALTER TABLE loans DROP INDEX ux_loans_loan_id;
+ALTER TABLE loans DROP COLUMN loanId;
+ALTER TABLE loans CHANGE COLUMN loanIdBin loanId BINARY(16) NOT NULL;
+CREATE UNIQUE INDEX ux_loans_loan_id ON loans (loanId);
@@ -0,0 +1 @@
+ALTER TABLE loans ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT 'INR' AFTER amount;
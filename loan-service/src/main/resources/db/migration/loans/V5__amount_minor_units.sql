@@ -0,0 +1,4 @@
+ALTER TABLE loans ADD COLUMN amountMinor BIGINT NULL AFTER amount;
+UPDATE loans SET amountMinor = amount * 100;
+ALTER TABLE loans DROP COLUMN amount;
+ALTER TABLE loans MODIFY COLUMN amountMinor BIGINT NOT NULL;
@@ -0,0 +1,129 @@
+package com.chanochoca.app.loans;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.datasource.url=jdbc:h2:mem:reactive-tracing;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-tracing?options=MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "spring.flyway.locations=classpath:db/migration/loans,classpath:db/h2",
+        "spring.sql.init.mode=never",
+        "observability.sampling.enabled=false",
+        "management.tracing.sampling.probability=1.0",
+        "spring.autoconfigure.exclude="
+                + "org.springframework.boot.actuate.autoconfigure.tracing.zipkin.ZipkinAutoConfiguration"})
+@ActiveProfiles("reactive")
+@AutoConfigureObservability(metrics = false)
+class ReactiveTracingTests {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    /** Los encabezados `traceparent` recibidos por el servicio de fraude simulado. */
+    private static final List<String> fraudTraceparents = new CopyOnWriteArrayList<>();
+    private static final List<MutableSpan> spans = new CopyOnWriteArrayList<>();
+    private static final HttpServer fraudService = startFraudService();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void fraudServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("fraud.client.base-url", () -> "http://localhost:" + fraudService.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopFraudService() {
+        fraudService.stop(0);
+    }
+
+    @Test
+    void traceIdSurvivesTheFraudCallAndTheInsert() {
+        webTestClient.post().uri("/loan")
+                .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("""
+                        {"customerName": "Ana", "customerId": 501, "amount": 1000.00, "currency": "USD"}""")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Loan applied successfully");
+
+        assertThat(fraudTraceparents).singleElement().asString().startsWith("00-" + TRACE_ID + "-");
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(spans)
+                .filteredOn(span -> span.tag("r2dbc.connection") != null)
+                .anySatisfy(span -> {
+                    assertThat(span.traceId()).isEqualTo(TRACE_ID);
+                    assertThat(span.tag("r2dbc.query[0]")).startsWith("INSERT INTO loans");
+                }));
+    }
+
+    private static HttpServer startFraudService() {
+        try {
+            var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/fraud/check", ReactiveTracingTests::approve);
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void approve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            fraudTraceparents.add(exchange.getRequestHeaders().getFirst("traceparent"));
+            byte[] body = "\"APPROVED\"".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class SpanRecorder {
+
+        @Bean
+        SpanHandler recordingSpanHandler() {
+            return new SpanHandler() {
+                @Override
+                public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+                    spans.add(span);
+                    return true;
+                }
+            };
+        }
+    }
+}
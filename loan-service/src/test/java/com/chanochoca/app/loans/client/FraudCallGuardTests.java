@@ -0,0 +1,231 @@
+package com.chanochoca.app.loans.client;
+
+import com.chanochoca.app.loans.config.FraudClientProperties;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class FraudCallGuardTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /** Las respuestas del servicio de fraude simulado, en el orden en que llegan las solicitudes. */
+    private final Queue<Reply> replies = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+
+    private HttpServer server;
+    private RestTemplate restTemplate;
+    private FraudCallGuard guard;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/fraud/check", this::reply);
+        server.start();
+        var httpClient = HttpClients.custom()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.ofSeconds(1))
+                        .build())
+                .build();
+        restTemplate = new RestTemplateBuilder()
+                .rootUri("http://localhost:" + server.getAddress().getPort())
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (guard != null) {
+            guard.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void hedgedCallReturnsFirstSuccessfulResponseAndCancelsTheOtherCall() {
+        guard = guard(true, bulkheadRegistry);
+        warmUp();
+        replies.add(new Reply(Duration.ofSeconds(3), 200, LoanStatus.REJECTED));
+        replies.add(new Reply(Duration.ZERO, 200, LoanStatus.APPROVED));
+
+        assertThat(check()).isEqualTo(LoanStatus.APPROVED);
+        assertThat(requests).hasValue(2);
+        var bulkhead = bulkheadRegistry.bulkhead(FraudCallGuard.INSTANCE);
+        await().atMost(Duration.ofMillis(300)).untilAsserted(() -> {
+            assertThat(meterRegistry.counter("fraud.client.hedges", "winner", "hedge").count()).isEqualTo(1);
+            assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls())
+                    .isEqualTo(bulkhead.getBulkheadConfig().getMaxConcurrentCalls());
+        });
+    }
+
+    @Test
+    void hedgeIsNotSentWithoutAFreeBulkheadPermit() {
+        guard = guard(true, BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build()));
+        warmUp();
+        replies.add(new Reply(Duration.ofMillis(200), 200, LoanStatus.REJECTED));
+        replies.add(new Reply(Duration.ZERO, 200, LoanStatus.APPROVED));
+
+        assertThat(check()).isEqualTo(LoanStatus.REJECTED);
+        assertThat(requests).hasValue(1);
+        assertThat(meterRegistry.counter("fraud.client.hedges", "winner", "primary").count()).isEqualTo(1);
+    }
+
+    @Test
+    void readTimeoutAnswersWithFallbackDecision() {
+        guard = guard(false, BulkheadRegistry.ofDefaults());
+        replies.add(new Reply(Duration.ofSeconds(2), 200, LoanStatus.APPROVED));
+
+        assertThat(checkOrFallback()).isEqualTo(LoanStatus.REJECTED);
+        assertThat(meterRegistry.counter("fraud.client.fallbacks", "reason", "error").count()).isEqualTo(1);
+    }
+
+    @Test
+    void serverErrorsOpenTheCircuit() {
+        guard = guard(false, BulkheadRegistry.ofDefaults());
+        for (int i = 0; i < 200; i++) {
+            replies.add(new Reply(Duration.ZERO, 500, null));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(checkOrFallback()).isEqualTo(LoanStatus.REJECTED);
+        }
+        assertThat(requests.get()).isLessThan(200);
+        assertThat(meterRegistry.counter("fraud.client.fallbacks", "reason", "circuit-open").count()).isPositive();
+        assertThat(meterRegistry.counter("fraud.client.fallbacks", "reason", "error").count()).isPositive();
+        replies.clear();
+    }
+
+    @Test
+    void hedgedReactiveCallReturnsFirstSuccessfulResponse() {
+        guard = guard(true, BulkheadRegistry.ofDefaults());
+        var attempts = new AtomicInteger();
+        var request = Mono.defer(() -> attempts.getAndIncrement() == 0
+                ? Mono.delay(Duration.ofSeconds(2)).thenReturn(LoanStatus.REJECTED)
+                : Mono.just(LoanStatus.APPROVED));
+
+        StepVerifier.create(guard.execute(request))
+                .expectNext(LoanStatus.APPROVED)
+                .verifyComplete();
+        assertThat(attempts).hasValue(2);
+        assertThat(meterRegistry.counter("fraud.client.hedges", "winner", "hedge").count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedReactiveCallAnswersWithFallbackDecision() {
+        guard = guard(false, BulkheadRegistry.ofDefaults());
+        Mono<LoanStatus> request = Mono.error(new WebClientRequestException(new IOException("connection refused"),
+                HttpMethod.GET, URI.create("http://localhost:8081/fraud/check"), HttpHeaders.EMPTY));
+
+        StepVerifier.create(guard.execute(request).onErrorResume(RuntimeException.class,
+                        e -> Mono.just(guard.fallback(e))))
+                .expectNext(LoanStatus.REJECTED)
+                .verifyComplete();
+        assertThat(meterRegistry.counter("fraud.client.fallbacks", "reason", "error").count()).isEqualTo(1);
+    }
+
+    /**
+     * Abre una conexión con el servicio simulado, para que la primera llamada llegue antes que la de cobertura.
+     */
+    private void warmUp() {
+        replies.add(new Reply(Duration.ZERO, 200, LoanStatus.APPROVED));
+        restTemplate.getForObject("/fraud/check?customerId=100", LoanStatus.class);
+        requests.set(0);
+    }
+
+    private LoanStatus check() {
+        return guard.execute(() -> restTemplate.getForObject("/fraud/check?customerId=101", LoanStatus.class));
+    }
+
+    private LoanStatus checkOrFallback() {
+        try {
+            return check();
+        } catch (RuntimeException e) {
+            if (!(e instanceof CallNotPermittedException)) {
+                assertThat(e).isInstanceOfAny(ResourceAccessException.class,
+                        HttpServerErrorException.class);
+            }
+            return guard.fallback(e);
+        }
+    }
+
+    private FraudCallGuard guard(boolean hedging, BulkheadRegistry bulkheadRegistry) {
+        var properties = new FraudClientProperties("http://localhost:8081", null, null, null,
+                new FraudClientProperties.Resilience(LoanStatus.REJECTED,
+                        new FraudClientProperties.Hedging(hedging, 0.95, Duration.ofMillis(10), Duration.ofMillis(50))),
+                FraudClientProperties.Encoding.BINARY);
+        return new FraudCallGuard(bulkheadRegistry, CircuitBreakerRegistry.ofDefaults(),
+                ObservationRegistry.NOOP, meterRegistry, properties);
+    }
+
+    private void reply(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        var reply = replies.poll();
+        try (exchange) {
+            if (reply == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            Thread.sleep(reply.delay());
+            if (reply.status() == null) {
+                exchange.sendResponseHeaders(reply.code(), -1);
+                return;
+            }
+            byte[] body = ('"' + reply.status().name() + '"').getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+            exchange.sendResponseHeaders(reply.code(), body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Una respuesta del servicio de fraude simulado.
+     *
+     * @param delay La demora antes de responder.
+     * @param code El código de estado HTTP.
+     * @param status La decisión, o `null` para responder sin cuerpo.
+     */
+    private record Reply(Duration delay, int code, LoanStatus status) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.chanochoca.app.loans.client;
+
+import com.chanochoca.app.loans.entity.LoanStatus;
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.context.ThreadLocalAccessor;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FraudCheckBatcherTests {
+
+    private static final ThreadLocal<String> TRACE = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(new ThreadLocalAccessor<String>() {
+            @Override
+            public Object key() {
+                return FraudCheckBatcherTests.class.getName();
+            }
+
+            @Override
+            public String getValue() {
+                return TRACE.get();
+            }
+
+            @Override
+            public void setValue(String value) {
+                TRACE.set(value);
+            }
+
+            @Override
+            public void setValue() {
+                TRACE.remove();
+            }
+        });
+    }
+
+    @Test
+    void batchFlushedOnTimeoutRunsInTheContextOfItsFirstCheck() {
+        List<String> traces = new CopyOnWriteArrayList<>();
+        var batcher = new FraudCheckBatcher(requests -> {
+            traces.add(TRACE.get() + "@" + Thread.currentThread().getName());
+            var decisions = new FraudDecision[requests.length];
+            Arrays.fill(decisions, new FraudDecision(LoanStatus.APPROVED, true));
+            return decisions;
+        }, Duration.ofMillis(10), 100, false, 1);
+        try {
+            TRACE.set("trace-1");
+            var first = batcher.submit(new FraudCheckRequest(101, null));
+            TRACE.set("trace-2");
+            var second = batcher.submit(new FraudCheckRequest(102, null));
+            TRACE.remove();
+
+            assertThat(first.join().status()).isEqualTo(LoanStatus.APPROVED);
+            assertThat(second.join().status()).isEqualTo(LoanStatus.APPROVED);
+            assertThat(traces).singleElement().asString().startsWith("trace-1@fraud-batch-");
+        } finally {
+            batcher.close();
+        }
+    }
+}
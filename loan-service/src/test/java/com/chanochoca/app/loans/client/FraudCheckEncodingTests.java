@@ -0,0 +1,44 @@
+package com.chanochoca.app.loans.client;
+
+import com.chanochoca.app.loans.config.FraudClientProperties;
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FraudCheckEncodingTests {
+
+    @Test
+    void writesFixedSizeRequests() {
+        byte[] body = FraudCheckEncoding.encode(new FraudCheckRequest[]{
+                new FraudCheckRequest(7, null),
+                new FraudCheckRequest(8, new Money(1_234_567, Currency.EUR))});
+
+        assertThat(body).hasSize(2 * FraudCheckEncoding.REQUEST_SIZE);
+        var buffer = ByteBuffer.wrap(body);
+        assertThat(buffer.getInt()).isEqualTo(7);
+        assertThat(buffer.getLong()).isEqualTo(Long.MIN_VALUE);
+        assertThat(buffer.getShort()).isEqualTo((short) 0);
+        assertThat(buffer.getInt()).isEqualTo(8);
+        assertThat(buffer.getLong()).isEqualTo(1_234_567);
+        assertThat(buffer.getShort()).isEqualTo((short) 978);
+    }
+
+    @Test
+    void readsOneByteDecisions() {
+        assertThat(FraudCheckEncoding.decode(new byte[]{'A', 'R', 'A'}, LoanStatus[].class))
+                .isEqualTo(new LoanStatus[]{LoanStatus.APPROVED, LoanStatus.REJECTED, LoanStatus.APPROVED});
+        assertThat(FraudCheckEncoding.decode(new byte[]{'R'}, LoanStatus.class)).isEqualTo(LoanStatus.REJECTED);
+        assertThatThrownBy(() -> FraudCheckEncoding.decode(new byte[]{'A', 'R'}, LoanStatus.class))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FraudCheckEncoding.decode(new byte[]{'X'}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(FraudCheckEncoding.headers(FraudClientProperties.Encoding.BINARY, true).getFirst("Accept"))
+                .isEqualTo("application/x-fraud-check, application/json;q=0.5");
+    }
+}
@@ -0,0 +1,227 @@
+package com.chanochoca.app.loans.client;
+
+import com.chanochoca.app.loans.config.FraudClientProperties;
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FraudCheckNegotiationTests {
+
+    private static final FraudCheckRequest[] REQUESTS = {
+            new FraudCheckRequest(101, new Money(100_00, Currency.USD)),
+            new FraudCheckRequest(102, null)};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /** El `Content-Type` de cada lote recibido por el servicio de fraude simulado. */
+    private final List<String> requestTypes = new CopyOnWriteArrayList<>();
+    /** El `Content-Type` de cada respuesta del servicio de fraude simulado. */
+    private final List<String> responseTypes = new CopyOnWriteArrayList<>();
+    private final List<String> requestIds = new CopyOnWriteArrayList<>();
+
+    /** Indica si el servicio de fraude simulado admite `application/x-fraud-check`. */
+    private volatile boolean binarySupported = true;
+
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/fraud/check/batch", this::batch);
+        server.createContext("/fraud/check", this::check);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void restTemplateWritesAndReadsTheBinaryFormat() {
+        var client = restClient();
+
+        assertThat(client.evaluateLoans(REQUESTS)).containsExactly(LoanStatus.REJECTED, LoanStatus.APPROVED);
+        assertThat(client.evaluateLoan(new FraudCheckRequest(104, null))).isEqualTo(LoanStatus.APPROVED);
+
+        assertThat(requestTypes).containsExactly(FraudCheckEncoding.MEDIA_TYPE.toString());
+        assertThat(responseTypes).containsOnly(FraudCheckEncoding.MEDIA_TYPE.toString()).hasSize(2);
+    }
+
+    @Test
+    void webClientWritesAndReadsTheBinaryFormat() {
+        var client = reactiveClient();
+
+        assertThat(client.evaluateLoans(REQUESTS).block()).containsExactly(LoanStatus.REJECTED, LoanStatus.APPROVED);
+        assertThat(client.evaluateLoan(new FraudCheckRequest(104, null)).block()).isEqualTo(LoanStatus.APPROVED);
+
+        assertThat(requestTypes).containsExactly(FraudCheckEncoding.MEDIA_TYPE.toString());
+        assertThat(responseTypes).containsOnly(FraudCheckEncoding.MEDIA_TYPE.toString()).hasSize(2);
+    }
+
+    @Test
+    void restTemplateRetriesAsJsonAfterUnsupportedMediaTypeAndKeepsJson() {
+        binarySupported = false;
+        var client = restClient();
+
+        assertThat(client.evaluateLoans(REQUESTS)).containsExactly(LoanStatus.REJECTED, LoanStatus.APPROVED);
+        assertThat(client.evaluateLoans(REQUESTS)).containsExactly(LoanStatus.REJECTED, LoanStatus.APPROVED);
+
+        assertDowngradedToJson();
+    }
+
+    @Test
+    void webClientRetriesAsJsonAfterUnsupportedMediaTypeAndKeepsJson() {
+        binarySupported = false;
+        var client = reactiveClient();
+
+        assertThat(client.evaluateLoans(REQUESTS).block()).containsExactly(LoanStatus.REJECTED, LoanStatus.APPROVED);
+        assertThat(client.evaluateLoans(REQUESTS).block()).containsExactly(LoanStatus.REJECTED, LoanStatus.APPROVED);
+
+        assertDowngradedToJson();
+    }
+
+    private void assertDowngradedToJson() {
+        assertThat(requestTypes).containsExactly(FraudCheckEncoding.MEDIA_TYPE.toString(),
+                MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE);
+        assertThat(requestIds.get(1)).isEqualTo(requestIds.get(0));
+        assertThat(requestIds.get(2)).isNotEqualTo(requestIds.get(0));
+        assertThat(responseTypes).containsOnly(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(meterRegistry.find("fraud.client.fallbacks").counters())
+                .allSatisfy(counter -> assertThat(counter.count()).isZero());
+    }
+
+    private FraudDetectionClient restClient() {
+        var properties = properties();
+        RestTemplate restTemplate = new RestTemplateBuilder()
+                .rootUri(baseUrl())
+                .messageConverters(new RestTemplate().getMessageConverters())
+                .additionalMessageConverters(new FraudCheckMessageConverter())
+                .build();
+        return new FraudDetectionClient(restTemplate, new FraudDecisionCache(properties, meterRegistry),
+                callGuard(properties), properties, new MockEnvironment());
+    }
+
+    private ReactiveFraudDetectionClient reactiveClient() {
+        var properties = properties();
+        var webClient = WebClient.builder()
+                .baseUrl(baseUrl())
+                .codecs(codecs -> {
+                    codecs.customCodecs().register(new FraudCheckEncoder());
+                    codecs.customCodecs().register(new FraudCheckDecoder());
+                })
+                .build();
+        return new ReactiveFraudDetectionClient(webClient, new FraudDecisionCache(properties, meterRegistry),
+                callGuard(properties), properties);
+    }
+
+    private FraudCallGuard callGuard(FraudClientProperties properties) {
+        return new FraudCallGuard(BulkheadRegistry.ofDefaults(), CircuitBreakerRegistry.ofDefaults(),
+                ObservationRegistry.NOOP, meterRegistry, properties);
+    }
+
+    private FraudClientProperties properties() {
+        return new FraudClientProperties(baseUrl(), null,
+                new FraudClientProperties.Batch(false, Duration.ofMillis(5), 100),
+                new FraudClientProperties.Cache(false, 0, Duration.ZERO, Duration.ZERO, null),
+                new FraudClientProperties.Resilience(LoanStatus.REJECTED,
+                        new FraudClientProperties.Hedging(false, 0.95, Duration.ofMillis(10), Duration.ofMillis(50))),
+                FraudClientProperties.Encoding.BINARY);
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Responde un lote como `fraud-detection-service`: los clientes impares se rechazan y los pares se aprueban.
+     */
+    private void batch(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String contentType = exchange.getRequestHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+            requestTypes.add(contentType);
+            requestIds.add(exchange.getRequestHeaders().getFirst(FraudCheckEncoding.REQUEST_ID_HEADER));
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            var customerIds = new ArrayList<Integer>();
+            if (contentType.startsWith(FraudCheckEncoding.MEDIA_TYPE.toString())) {
+                if (!binarySupported) {
+                    exchange.sendResponseHeaders(415, -1);
+                    return;
+                }
+                var buffer = ByteBuffer.wrap(body);
+                while (buffer.hasRemaining()) {
+                    customerIds.add(buffer.getInt());
+                    buffer.getLong();
+                    buffer.getShort();
+                }
+            } else {
+                for (JsonNode request : objectMapper.readTree(body)) {
+                    customerIds.add(request.get("customerId").asInt());
+                }
+            }
+            respond(exchange, customerIds, true);
+        }
+    }
+
+    private void check(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String query = exchange.getRequestURI().getQuery();
+            int customerId = Integer.parseInt(query.replaceAll(".*customerId=(\\d+).*", "$1"));
+            respond(exchange, List.of(customerId), false);
+        }
+    }
+
+    private void respond(HttpExchange exchange, List<Integer> customerIds, boolean array) throws IOException {
+        String accept = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT);
+        boolean binary = binarySupported && accept != null && accept.contains(FraudCheckEncoding.MEDIA_TYPE.toString());
+        var statuses = customerIds.stream()
+                .map(customerId -> customerId % 2 == 0 ? LoanStatus.APPROVED : LoanStatus.REJECTED)
+                .toList();
+        byte[] body;
+        if (binary) {
+            body = new byte[statuses.size()];
+            for (int i = 0; i < body.length; i++) {
+                body[i] = (byte) (statuses.get(i) == LoanStatus.APPROVED ? 'A' : 'R');
+            }
+        } else {
+            body = objectMapper.writeValueAsString(array ? statuses : statuses.getFirst())
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+        String contentType = binary ? FraudCheckEncoding.MEDIA_TYPE.toString() : MediaType.APPLICATION_JSON_VALUE;
+        responseTypes.add(contentType);
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+}
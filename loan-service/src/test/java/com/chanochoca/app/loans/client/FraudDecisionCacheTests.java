@@ -0,0 +1,38 @@
+package com.chanochoca.app.loans.client;
+
+import com.chanochoca.app.loans.config.FraudClientProperties;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FraudDecisionCacheTests {
+
+    private final FraudDecisionCache cache = new FraudDecisionCache(new FraudClientProperties(null, null, null,
+            new FraudClientProperties.Cache(true, 100, Duration.ofMinutes(1), Duration.ofMinutes(1), null), null,
+            FraudClientProperties.Encoding.JSON), new SimpleMeterRegistry());
+
+    @Test
+    void batchDecisionIsStoredWhenNothingWasInvalidatedDuringTheCall() {
+        long generation = cache.generation();
+
+        cache.put(101, new FraudDecision(LoanStatus.APPROVED, true), generation);
+
+        assertThat(cache.getIfPresent(101)).isEqualTo(LoanStatus.APPROVED);
+    }
+
+    @Test
+    void batchDecisionIsDroppedWhenAnInvalidationRacedTheCall() {
+        long generation = cache.generation();
+        cache.invalidate(new int[]{101});
+
+        cache.put(101, new FraudDecision(LoanStatus.APPROVED, true), generation);
+        cache.put(102, new FraudDecision(LoanStatus.APPROVED, true), cache.generation());
+
+        assertThat(cache.getIfPresent(101)).isNull();
+        assertThat(cache.getIfPresent(102)).isEqualTo(LoanStatus.APPROVED);
+    }
+}
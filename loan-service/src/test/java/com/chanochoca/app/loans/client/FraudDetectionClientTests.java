@@ -0,0 +1,109 @@
+package com.chanochoca.app.loans.client;
+
+import com.chanochoca.app.loans.config.FraudClientProperties;
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FraudDetectionClientTests {
+
+    private static final FraudCheckRequest[] REQUESTS = {
+            new FraudCheckRequest(101, new Money(100_00, Currency.USD)),
+            new FraudCheckRequest(102, new Money(200_00, Currency.USD))};
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+
+    @Test
+    void batchWithOneDecisionPerRequestIsReturnedInOrder() {
+        batchResponds(ResponseEntity.ok(new LoanStatus[]{LoanStatus.APPROVED, LoanStatus.REJECTED}));
+
+        assertThat(client().evaluateLoans(REQUESTS)).containsExactly(LoanStatus.APPROVED, LoanStatus.REJECTED);
+    }
+
+    @Test
+    void batchWithMissingDecisionsAnswersWithFallbackDecision() {
+        batchResponds(ResponseEntity.ok(new LoanStatus[]{LoanStatus.APPROVED}));
+
+        assertThat(client().evaluateLoans(REQUESTS)).containsExactly(LoanStatus.REJECTED, LoanStatus.REJECTED);
+        assertThat(meterRegistry.counter("fraud.client.fallbacks", "reason", "error").count()).isEqualTo(1);
+    }
+
+    @Test
+    void responsesWithoutBodyAnswerWithFallbackDecision() {
+        batchResponds(ResponseEntity.ok().build());
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(LoanStatus.class)))
+                .thenReturn(ResponseEntity.ok().build());
+        var client = client();
+
+        assertThat(client.evaluateLoans(REQUESTS)).containsExactly(LoanStatus.REJECTED, LoanStatus.REJECTED);
+        assertThat(client.evaluateLoan(REQUESTS[0])).isEqualTo(LoanStatus.REJECTED);
+        assertThat(meterRegistry.counter("fraud.client.fallbacks", "reason", "error").count()).isEqualTo(2);
+    }
+
+    @Test
+    void hedgedBatchRepeatsTheRequestIdOfTheOriginalCall() {
+        var requestIds = new CopyOnWriteArrayList<String>();
+        var calls = new AtomicInteger();
+        when(restTemplate.exchange(eq("/fraud/check/batch"), eq(HttpMethod.POST), any(HttpEntity.class),
+                eq(LoanStatus[].class))).thenAnswer(invocation -> {
+                    HttpEntity<?> entity = invocation.getArgument(2);
+                    requestIds.add(entity.getHeaders().getFirst(FraudCheckEncoding.REQUEST_ID_HEADER));
+                    if (calls.getAndIncrement() == 0) {
+                        Thread.sleep(500);
+                    }
+                    return ResponseEntity.ok(new LoanStatus[]{LoanStatus.APPROVED, LoanStatus.APPROVED});
+                });
+        var client = client(true);
+
+        assertThat(client.evaluateLoans(REQUESTS)).containsExactly(LoanStatus.APPROVED, LoanStatus.APPROVED);
+        assertThat(client.evaluateLoans(REQUESTS)).containsExactly(LoanStatus.APPROVED, LoanStatus.APPROVED);
+
+        assertThat(requestIds).hasSize(3).doesNotContainNull();
+        assertThat(requestIds.get(1)).isEqualTo(requestIds.get(0));
+        assertThat(requestIds.get(2)).isNotEqualTo(requestIds.get(0));
+    }
+
+    private void batchResponds(ResponseEntity<LoanStatus[]> response) {
+        when(restTemplate.exchange(eq("/fraud/check/batch"), eq(HttpMethod.POST), any(HttpEntity.class),
+                eq(LoanStatus[].class))).thenReturn(response);
+    }
+
+    private FraudDetectionClient client() {
+        return client(false);
+    }
+
+    private FraudDetectionClient client(boolean hedging) {
+        var properties = new FraudClientProperties("http://localhost:8081", null,
+                new FraudClientProperties.Batch(false, Duration.ofMillis(5), 100),
+                new FraudClientProperties.Cache(false, 0, Duration.ZERO, Duration.ZERO, null),
+                new FraudClientProperties.Resilience(LoanStatus.REJECTED,
+                        new FraudClientProperties.Hedging(hedging, 0.95, Duration.ofMillis(10), Duration.ofMillis(50))),
+                FraudClientProperties.Encoding.JSON);
+        var callGuard = new FraudCallGuard(BulkheadRegistry.ofDefaults(), CircuitBreakerRegistry.ofDefaults(),
+                ObservationRegistry.NOOP, meterRegistry, properties);
+        return new FraudDetectionClient(restTemplate, new FraudDecisionCache(properties, meterRegistry), callGuard,
+                properties, new MockEnvironment());
+    }
+}
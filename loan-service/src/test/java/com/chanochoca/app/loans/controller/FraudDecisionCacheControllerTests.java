@@ -0,0 +1,52 @@
+package com.chanochoca.app.loans.controller;
+
+import com.chanochoca.app.loans.client.FraudDecisionCache;
+import com.chanochoca.app.loans.config.FraudClientProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FraudDecisionCacheControllerTests {
+
+    private final FraudDecisionCache cache = mock(FraudDecisionCache.class);
+
+    @Test
+    void invalidatesOnlyWithTheSharedToken() throws Exception {
+        var mockMvc = mockMvc("s3cret");
+
+        mockMvc.perform(post("/fraud-cache/invalidate").contentType(MediaType.APPLICATION_JSON).content("[101]"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/fraud-cache").header(FraudDecisionCacheController.TOKEN_HEADER, "wrong"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(cache);
+
+        mockMvc.perform(post("/fraud-cache/invalidate").contentType(MediaType.APPLICATION_JSON).content("[101]")
+                        .header(FraudDecisionCacheController.TOKEN_HEADER, "s3cret"))
+                .andExpect(status().isNoContent());
+        verify(cache).invalidate(new int[]{101});
+    }
+
+    @Test
+    void rejectsEveryRequestWithoutAConfiguredToken() throws Exception {
+        mockMvc("").perform(delete("/fraud-cache").header(FraudDecisionCacheController.TOKEN_HEADER, ""))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(cache);
+    }
+
+    private MockMvc mockMvc(String token) {
+        var properties = new FraudClientProperties(null, null, null,
+                new FraudClientProperties.Cache(true, 100, Duration.ofMinutes(1), Duration.ofMinutes(1), token), null,
+                FraudClientProperties.Encoding.JSON);
+        return MockMvcBuilders.standaloneSetup(new FraudDecisionCacheController(cache, properties)).build();
+    }
+}
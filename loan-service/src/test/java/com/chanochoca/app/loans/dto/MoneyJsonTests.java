@@ -0,0 +1,88 @@
+package com.chanochoca.app.loans.dto;
+
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyJsonTests {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void parsesDecimalAmountsIntoMinorUnits() {
+        assertThat(parse("5000")).isEqualTo(500_000);
+        assertThat(parse("5000.5")).isEqualTo(500_050);
+        assertThat(parse("0.05")).isEqualTo(5);
+        assertThat(parse("-12.30")).isEqualTo(-1_230);
+        assertThat(parse("12.3400")).isEqualTo(1_234);
+        assertThat(parse("5E+3")).isEqualTo(500_000);
+        assertThat(parse("99999999.99")).isEqualTo(Money.MAX_MINOR_UNITS);
+    }
+
+    @Test
+    void rejectsAmountsWithExtraScaleOrOutOfRange() {
+        assertThatThrownBy(() -> parse("10.001")).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> parse("100000000")).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> parse("99999999999999999999")).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> parse("12a")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> parse(".")).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void writesAndReadsLoanAmountsAsDecimalNumbers() throws Exception {
+        var loanDto = new LoanDto(null, "John", 101, new Money(500_005, Currency.USD), LoanStatus.APPROVED);
+
+        String json = objectMapper.writeValueAsString(loanDto);
+
+        assertThat(json).isEqualTo("""
+                {"loanId":null,"customerName":"John","customerId":101,"amount":5000.05,"currency":"USD",\
+                "loanStatus":"APPROVED"}""");
+        assertThat(objectMapper.readValue(json, LoanDto.class)).isEqualTo(loanDto);
+        assertThat(objectMapper.readValue("""
+                {"amount":0.5,"customerName":"Sai","customerId":102,"unknown":[1]}""", LoanDto.class).getAmount())
+                .isEqualTo(new Money(50, Currency.DEFAULT));
+    }
+
+    @Test
+    void writesAmountsAsStringsWhenTheGeneratorWritesNumbersAsStrings() throws Exception {
+        var numbersAsStrings = JsonMapper.builder().enable(JsonWriteFeature.WRITE_NUMBERS_AS_STRINGS).build();
+        var loanDto = new LoanDto(null, "John", 101, new Money(500_005, Currency.USD), LoanStatus.APPROVED);
+
+        String json = numbersAsStrings.writeValueAsString(loanDto);
+
+        assertThat(json).contains("\"customerId\":\"101\"", "\"amount\":\"5000.05\"");
+        assertThat(numbersAsStrings.readValue(json, LoanDto.class)).isEqualTo(loanDto);
+    }
+
+    @Test
+    void rejectsInvalidLoanAmounts() {
+        assertThatThrownBy(() -> objectMapper.readValue("""
+                {"customerId":101,"amount":10.001}""", LoanDto.class))
+                .isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> objectMapper.readValue("""
+                {"customerId":101,"currency":"INR"}""", LoanDto.class))
+                .isInstanceOf(MismatchedInputException.class);
+        assertThatThrownBy(() -> objectMapper.readValue("""
+                {"customerId":101,"amount":0}""", LoanDto.class))
+                .isInstanceOf(MismatchedInputException.class)
+                .hasMessageContaining("must be positive");
+        assertThatThrownBy(() -> objectMapper.readValue("""
+                {"customerId":101,"amount":-0.5}""", LoanDto.class))
+                .isInstanceOf(MismatchedInputException.class)
+                .hasMessageContaining("must be positive");
+    }
+
+    private static long parse(String amount) {
+        return Money.parseMinorUnits(amount.toCharArray(), 0, amount.length());
+    }
+}
@@ -0,0 +1,26 @@
+package com.chanochoca.app.loans.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedIdsTests {
+
+    @Test
+    void generatesIncreasingVersion7Ids() {
+        byte[] previous = TimeOrderedIds.toBytes(TimeOrderedIds.next());
+        for (int i = 0; i < 100_000; i++) {
+            UUID id = TimeOrderedIds.next();
+            assertThat(id.version()).isEqualTo(7);
+            assertThat(id.variant()).isEqualTo(2);
+            byte[] current = TimeOrderedIds.toBytes(id);
+            assertThat(Arrays.compareUnsigned(current, previous)).isPositive();
+            assertThat(TimeOrderedIds.fromBytes(current)).isEqualTo(id);
+            previous = current;
+        }
+    }
+
+}
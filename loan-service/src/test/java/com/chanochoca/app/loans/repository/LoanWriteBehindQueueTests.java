@@ -0,0 +1,117 @@
+package com.chanochoca.app.loans.repository;
+
+import com.chanochoca.app.loans.config.LoanProperties;
+import com.chanochoca.app.loans.entity.Loan;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class LoanWriteBehindQueueTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void persistsQueuedLoansInBatchesAndDrainsOnClose() throws InterruptedException {
+        var repository = mock(LoanRepository.class);
+        var saved = new ConcurrentLinkedQueue<Loan>();
+        var batches = new ConcurrentLinkedQueue<Integer>();
+        doAnswer(invocation -> {
+            List<Loan> batch = invocation.getArgument(0);
+            saved.addAll(batch);
+            batches.add(batch.size());
+            return null;
+        }).when(repository).saveAll(anyList());
+        var queue = queue(repository, Duration.ofMillis(10), Duration.ofSeconds(5));
+
+        for (int i = 0; i < 500; i++) {
+            queue.write(Loan.builder().customerId(i).build());
+        }
+        queue.close();
+
+        assertThat(saved).hasSize(500);
+        assertThat(batches).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(50));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void retriesFailedBatchesWithBackoff() throws InterruptedException {
+        var repository = mock(LoanRepository.class);
+        doThrow(new DataAccessResourceFailureException("down"))
+                .doThrow(new DataAccessResourceFailureException("down"))
+                .doNothing()
+                .when(repository).saveAll(anyList());
+        var queue = queue(repository, Duration.ofMillis(50), Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        queue.write(Loan.builder().customerId(1).build());
+        queue.close();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(150));
+        verify(repository, times(3)).saveAll(anyList());
+        assertThat(meterRegistry.counter("loan.write-behind.retries").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("loan.write-behind.dead-letter").count()).isZero();
+    }
+
+    @Test
+    void savesLoansOneByOneAfterTheLastRetryAndDeadLettersTheOnesThatFail() throws InterruptedException {
+        var repository = mock(LoanRepository.class);
+        doThrow(new DataIntegrityViolationException("bad loan")).when(repository).saveAll(anyList());
+        var saved = new ConcurrentLinkedQueue<Integer>();
+        doAnswer(invocation -> {
+            Loan loan = invocation.getArgument(0);
+            if (loan.getCustomerId() == 2) {
+                throw new DataIntegrityViolationException("bad loan");
+            }
+            saved.add(loan.getCustomerId());
+            return 1L;
+        }).when(repository).save(any());
+        var queue = queue(repository, Duration.ofMillis(1), Duration.ofSeconds(5));
+
+        for (int i = 1; i <= 3; i++) {
+            queue.write(Loan.builder().customerId(i).build());
+        }
+        queue.close();
+
+        assertThat(saved).containsExactlyInAnyOrder(1, 3);
+        assertThat(meterRegistry.counter("loan.write-behind.dead-letter").count()).isEqualTo(1);
+    }
+
+    @Test
+    void closeDeadLettersQueuedLoansWhenTheWriterDoesNotFinishInTime() throws InterruptedException {
+        var repository = mock(LoanRepository.class);
+        doThrow(new DataAccessResourceFailureException("down")).when(repository).saveAll(anyList());
+        var queue = queue(repository, Duration.ofSeconds(30), Duration.ofMillis(200));
+
+        for (int i = 0; i < 10; i++) {
+            queue.write(Loan.builder().customerId(i).build());
+        }
+        long start = System.nanoTime();
+        queue.close();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(meterRegistry.counter("loan.write-behind.dead-letter").count()).isEqualTo(10);
+        verify(repository, never()).save(any());
+    }
+
+    private LoanWriteBehindQueue queue(LoanStore repository, Duration retryBackoff, Duration shutdownTimeout) {
+        var properties = new LoanProperties(null, null, new LoanProperties.WriteBehind(true, 1000, 50,
+                Duration.ofMillis(100), 3, retryBackoff, Duration.ofSeconds(30), shutdownTimeout), null, null, null);
+        return new LoanWriteBehindQueue(repository, properties, meterRegistry, new MockEnvironment());
+    }
+}
@@ -0,0 +1,188 @@
+package com.chanochoca.app.loans.repository;
+
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.Loan;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import com.chanochoca.app.loans.id.SnowflakeIds;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ShardedLoanRepositoryTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrentLinkedQueue<Loan> savedEvents = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void routesLoansByCustomerAndMergesListingsById() {
+        String prefix = UUID.randomUUID().toString();
+        var databases = List.of(database(prefix + "-a"), database(prefix + "-b"), database(prefix + "-c"));
+        var repository = repository(databases);
+
+        var loans = new ArrayList<Loan>();
+        for (int i = 0; i < 300; i++) {
+            loans.add(loan(i % 40));
+        }
+        repository.saveAll(loans.subList(0, 200));
+        loans.subList(200, 300).forEach(repository::save);
+
+        assertThat(savedEvents).hasSize(300);
+        for (var database : databases) {
+            assertThat(count(database)).isBetween(1L, 299L);
+        }
+        List<Long> ids = loans.stream().map(Loan::getId).sorted().toList();
+        assertThat(repository.findAll()).extracting(Loan::getId).containsExactlyElementsOf(ids);
+
+        var paged = new ArrayList<Long>();
+        long afterId = 0;
+        List<Loan> page;
+        do {
+            page = repository.findPage(afterId, 7);
+            page.forEach(loan -> paged.add(loan.getId()));
+            afterId = page.isEmpty() ? afterId : page.getLast().getId();
+        } while (page.size() == 7);
+        assertThat(paged).containsExactlyElementsOf(ids);
+
+        var streamed = new ArrayList<Long>();
+        repository.forEach(5, loan -> streamed.add(loan.getId()));
+        assertThat(streamed).containsExactlyElementsOf(ids);
+
+        assertThat(repository.findByCustomerId(7)).extracting(Loan::getId)
+                .containsExactlyElementsOf(loans.stream().filter(loan -> loan.getCustomerId() == 7)
+                        .map(Loan::getId).sorted().toList());
+        assertThat(repository.findByLoanId(loans.get(123).getLoanId())).get()
+                .extracting(Loan::getId).isEqualTo(loans.get(123).getId());
+
+        var total = new AtomicLong();
+        repository.forEachCustomerTotal((customerId, status, currency, count, amount) -> total.addAndGet(count));
+        assertThat(total).hasValue(300);
+        assertThat(meterRegistry.find("loan.shard.requests").tag("operation", "saveAll").timers()).hasSize(3);
+    }
+
+    @Test
+    void rebalancerMovesCustomersToTheShardAddedToTheRing() throws InterruptedException {
+        String prefix = UUID.randomUUID().toString();
+        var databases = List.of(database(prefix + "-a"), database(prefix + "-b"));
+        var loans = new ArrayList<Loan>();
+        for (int i = 0; i < 500; i++) {
+            loans.add(loan(i % 100));
+        }
+        repository(databases).saveAll(loans);
+        Map<Integer, List<Long>> before = idsByCustomer(loans);
+
+        var added = new ArrayList<>(databases);
+        added.add(database(prefix + "-c"));
+        var repository = repository(added);
+        for (var customer : before.entrySet()) {
+            assertThat(repository.findByCustomerId(customer.getKey()))
+                    .extracting(Loan::getId).containsExactlyElementsOf(customer.getValue());
+        }
+        var rebalancer = new ShardRebalancer(repository, 3, false, meterRegistry);
+        assertThat(rebalancer.start()).isTrue();
+        Instant deadline = Instant.now().plusSeconds(30);
+        while (rebalancer.status().running() && Instant.now().isBefore(deadline)) {
+            Thread.sleep(10);
+        }
+
+        var status = rebalancer.status();
+        assertThat(status.running()).isFalse();
+        assertThat(status.error()).isNull();
+        assertThat(status.loans()).isPositive().isLessThan(500);
+        assertThat(count(added.get(2))).isEqualTo(status.loans());
+        assertThat(added.stream().mapToLong(ShardedLoanRepositoryTests::count).sum()).isEqualTo(500);
+        for (var customer : before.entrySet()) {
+            LoanShard owner = repository.shardFor(customer.getKey());
+            List<Loan> owned = owner.read("test", shard -> shard.findByCustomerId(customer.getKey()));
+            assertThat(owned).extracting(Loan::getId).containsExactlyElementsOf(customer.getValue());
+            assertThat(repository.findByCustomerId(customer.getKey()))
+                    .extracting(Loan::getId).containsExactlyElementsOf(customer.getValue());
+        }
+        assertThat(savedEvents).hasSize(500);
+    }
+
+    @Test
+    void shardsWithCollidingStringHashCodesBothReceiveCustomers() {
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+        var ring = new ConsistentHashRing(List.of("Aa", "BB"), 160);
+
+        var counts = new int[2];
+        for (int customerId = 0; customerId < 10_000; customerId++) {
+            counts[ring.shardFor(customerId)]++;
+        }
+
+        assertThat(counts[0]).isBetween(3_000, 7_000);
+        assertThat(counts[1]).isBetween(3_000, 7_000);
+    }
+
+    @Test
+    void ringRejectsDuplicateShardNames() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-0"), 16));
+    }
+
+    private ShardedLoanRepository repository(List<DataSource> databases) {
+        var shards = new ArrayList<LoanShard>();
+        for (int i = 0; i < databases.size(); i++) {
+            shards.add(new LoanShard("shard-" + i, databases.get(i), event -> {
+                savedEvents.addAll(((LoansSavedEvent) event).loans());
+            }, meterRegistry));
+        }
+        return new ShardedLoanRepository(shards, 64, new SnowflakeIds(1));
+    }
+
+    private static Map<Integer, List<Long>> idsByCustomer(List<Loan> loans) {
+        var ids = new TreeMap<Integer, List<Long>>();
+        loans.stream().sorted(Comparator.comparing(Loan::getId))
+                .forEach(loan -> ids.computeIfAbsent(loan.getCustomerId(), id -> new ArrayList<>()).add(loan.getId()));
+        return ids;
+    }
+
+    private static Loan loan(int customerId) {
+        return Loan.builder()
+                .customerId(customerId)
+                .customerName("customer-" + customerId)
+                .amount(new Money(10_000, Currency.INR))
+                .loanStatus(LoanStatus.APPROVED)
+                .build();
+    }
+
+    private static long count(DataSource database) {
+        return new JdbcTemplate(database).queryForObject("SELECT COUNT(*) FROM loans", Long.class);
+    }
+
+    private static DataSource database(String name) {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(dataSource).execute("""
+                CREATE TABLE loans
+                (
+                    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    loanId       BINARY(16)     NOT NULL,
+                    customerName VARCHAR(255)   NOT NULL,
+                    customerId   INT            NOT NULL,
+                    amountMinor  BIGINT         NOT NULL,
+                    currency     VARCHAR(3)     NOT NULL,
+                    loanStatus   VARCHAR(50)    NOT NULL
+                );
+                CREATE UNIQUE INDEX ux_loans_loan_id ON loans (loanId);
+                CREATE INDEX ix_loans_customer_id ON loans (customerId, id);
+                """);
+        return dataSource;
+    }
+}
@@ -0,0 +1,61 @@
+package com.chanochoca.app.loans.service;
+
+import com.chanochoca.app.loans.config.LoanProperties;
+import com.chanochoca.app.loans.dto.LoanStats;
+import com.chanochoca.app.loans.entity.Currency;
+import com.chanochoca.app.loans.entity.Loan;
+import com.chanochoca.app.loans.entity.LoanStatus;
+import com.chanochoca.app.loans.entity.Money;
+import com.chanochoca.app.loans.repository.LoanStore;
+import com.chanochoca.app.loans.repository.LoanStore.LoanTotalsConsumer;
+import com.chanochoca.app.loans.repository.LoansSavedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class LoanStatisticsTests {
+
+    @Test
+    void seedsFromTheAggregateQueryAndAddsSavedLoans() {
+        var repository = mock(LoanStore.class);
+        doAnswer(invocation -> {
+            LoanTotalsConsumer consumer = invocation.getArgument(0);
+            consumer.accept(1, LoanStatus.APPROVED, Currency.INR, 3, 30000);
+            consumer.accept(2, LoanStatus.APPROVED, Currency.USD, 2, 5000);
+            consumer.accept(3, LoanStatus.APPROVED, Currency.INR, 1, 1000);
+            consumer.accept(2, LoanStatus.REJECTED, Currency.INR, 1, 2000);
+            return null;
+        }).when(repository).forEachCustomerTotal(any());
+        var properties = new LoanProperties(null, null, null, null, new LoanProperties.Stats(2), null);
+        var statistics = new LoanStatistics(repository, properties);
+        statistics.load();
+
+        statistics.onLoansSaved(new LoansSavedEvent(List.of(loan(3, 500), loan(3, 500), loan(3, 500))));
+
+        LoanStats summary = statistics.summary();
+        assertThat(summary.total().count()).isEqualTo(10);
+        assertThat(summary.byStatus().get(LoanStatus.APPROVED))
+                .isEqualTo(new LoanStats.Totals(9, Map.of(Currency.INR, new BigDecimal("325.00"),
+                        Currency.USD, new BigDecimal("50.00"))));
+        assertThat(summary.topCustomers()).extracting(LoanStats.CustomerTotals::customerId).containsExactly(3, 1);
+        assertThat(statistics.customer(2))
+                .isEqualTo(new LoanStats.CustomerTotals(2, 3, Map.of(Currency.USD, new BigDecimal("50.00"),
+                        Currency.INR, new BigDecimal("20.00"))));
+        assertThat(statistics.customer(4).count()).isZero();
+    }
+
+    private static Loan loan(int customerId, long amountMinorUnits) {
+        return Loan.builder()
+                .customerId(customerId)
+                .amount(new Money(amountMinorUnits, Currency.INR))
+                .loanStatus(LoanStatus.APPROVED)
+                .build();
+    }
+}
@@ -0,0 +1,3 @@
+-- H2 no tiene la función UUID_TO_BIN de MySQL que utilizan las migraciones; esta la reemplaza con la misma conversión
+-- (16 bytes en el orden de la forma textual, sin intercambiar los campos de tiempo).
+CREATE ALIAS IF NOT EXISTS UUID_TO_BIN FOR 'com.chanochoca.app.loans.id.TimeOrderedIds.toBytes';
@@ -0,0 +1,72 @@
+package com.chanochoca.app.observability;
+
+import brave.Tracing;
+import brave.TracingCustomizer;
+import brave.handler.SpanHandler;
+import brave.sampler.RateLimitingSampler;
+import brave.sampler.Sampler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import zipkin2.reporter.brave.AsyncZipkinSpanHandler;
+
+/**
+ * `AdaptiveSamplingAutoConfiguration` reemplaza el muestreo probabilístico de Spring Boot por un muestreo adaptativo
+ * cuando `observability.sampling.enabled` es `true` (valor por defecto).
+ *
+ * - **Cabecera:** un `RateLimitingSampler` muestrea como máximo `traces-per-second` trazas nuevas por segundo. Solo
+ *   decide sobre las trazas que se inician en este servicio; si la solicitud trae un contexto de trazas (`traceparent`),
+ *   se respeta la decisión del servicio que la originó, de modo que la decisión de `loan-service` se propaga a
+ *   `fraud-detection-service`.
+ * - **Cola:** todas las trazas se registran localmente (`alwaysSampleLocal`) y `TailSamplingSpanHandler` envía a Zipkin
+ *   las no muestreadas que terminaron con error, fueron lentas o tienen alguna de las etiquetas de `keep-tags`.
+ *
+ * Se ejecuta antes de `BraveAutoConfiguration` para que su `Sampler` reemplace al de Spring Boot.
+ */
+@AutoConfiguration(beforeName = "org.springframework.boot.actuate.autoconfigure.tracing.BraveAutoConfiguration")
+@ConditionalOnClass({Tracing.class, AsyncZipkinSpanHandler.class})
+@ConditionalOnProperty(prefix = "observability.sampling", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(AdaptiveSamplingProperties.class)
+public class AdaptiveSamplingAutoConfiguration {
+
+    /**
+     * Declara el muestreador de cabecera limitado por tasa.
+     *
+     * @param properties La configuración del muestreo adaptativo.
+     * @return Un `Sampler` que muestrea como máximo `traces-per-second` trazas nuevas por segundo.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    Sampler adaptiveSampler(AdaptiveSamplingProperties properties) {
+        return RateLimitingSampler.create(properties.tracesPerSecond());
+    }
+
+    /**
+     * Hace que Brave registre localmente los spans de las trazas no muestreadas, para que el muestreo de cola pueda
+     * conservarlas.
+     *
+     * @return Un `TracingCustomizer` que habilita `alwaysSampleLocal`.
+     */
+    @Bean
+    TracingCustomizer alwaysSampleLocalTracingCustomizer() {
+        return Tracing.Builder::alwaysSampleLocal;
+    }
+
+    /**
+     * Declara el manejador de muestreo de cola, que exporta las trazas conservadas a través del exportador de Zipkin.
+     *
+     * @param zipkinSpanHandler El exportador de Zipkin de Spring Boot, si la exportación está habilitada.
+     * @param properties La configuración del muestreo adaptativo.
+     * @return Una instancia de `TailSamplingSpanHandler` que Spring Boot agrega a `Tracing` y vincula al `MeterRegistry`.
+     */
+    @Bean
+    TailSamplingSpanHandler tailSamplingSpanHandler(ObjectProvider<AsyncZipkinSpanHandler> zipkinSpanHandler,
+                                                    AdaptiveSamplingProperties properties) {
+        SpanHandler exporter = zipkinSpanHandler.getIfAvailable();
+        return new TailSamplingSpanHandler(exporter != null ? exporter : SpanHandler.NOOP, properties);
+    }
+}
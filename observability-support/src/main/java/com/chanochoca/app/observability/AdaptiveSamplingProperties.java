@@ -0,0 +1,32 @@
+package com.chanochoca.app.observability;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * `AdaptiveSamplingProperties` agrupa la configuración del muestreo adaptativo de trazas (`observability.sampling.*`).
+ *
+ * @param enabled           Si es `true`, reemplaza el muestreo probabilístico de Spring Boot
+ *                          (`management.tracing.sampling.probability`) por el muestreo adaptativo.
+ * @param tracesPerSecond   Cantidad máxima de trazas nuevas por segundo que se muestrean al iniciarse (muestreo de cabecera).
+ * @param latencyThreshold  Duración a partir de la cual se conserva una traza no muestreada por ser lenta.
+ * @param keepTags          Etiquetas que, si aparecen con el valor indicado en algún span de la traza, hacen que se
+ *                          conserve (por ejemplo, `keep-tags[loan.status]=REJECTED`).
+ * @param maxBufferedTraces Cantidad máxima de trazas no muestreadas que se retienen a la espera de que termine su span raíz.
+ * @param bufferTimeout     Tiempo a partir del cual una traza retenida cuyo span raíz no terminó puede descartarse.
+ */
+@ConfigurationProperties(prefix = "observability.sampling")
+public record AdaptiveSamplingProperties(@DefaultValue("true") boolean enabled,
+                                         @DefaultValue("10") int tracesPerSecond,
+                                         @DefaultValue("500ms") Duration latencyThreshold,
+                                         Map<String, String> keepTags,
+                                         @DefaultValue("10000") int maxBufferedTraces,
+                                         @DefaultValue("30s") Duration bufferTimeout) {
+
+    public AdaptiveSamplingProperties {
+        keepTags = keepTags == null ? Map.of() : Map.copyOf(keepTags);
+    }
+}
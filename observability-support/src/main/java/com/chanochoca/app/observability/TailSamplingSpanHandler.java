@@ -0,0 +1,248 @@
+package com.chanochoca.app.observability;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * `TailSamplingSpanHandler` conserva las trazas que el muestreo de cabecera descartó, pero que resultaron relevantes.
+ *
+ * Con `alwaysSampleLocal`, Brave registra localmente todos los spans, aunque la traza no esté muestreada; el exportador
+ * de Zipkin solo envía los spans muestreados. Este manejador retiene en memoria los spans no muestreados de cada traza
+ * local (agrupados por el span raíz local) y, cuando termina el span raíz, decide:
+ *
+ * - **Error:** algún span de la traza terminó con una excepción, con la etiqueta `error` (distinta de `none`) o con `outcome=SERVER_ERROR`.
+ * - **Lenta:** el span raíz duró al menos `latencyThreshold`.
+ * - **Etiqueta:** algún span tiene una de las etiquetas configuradas en `keepTags` (por ejemplo, un préstamo rechazado).
+ *
+ * Si la traza cumple alguna condición, todos sus spans se entregan al exportador como muestreados; si no, se descartan.
+ * Los spans que ya estaban muestreados por la cabecera no se retienen ni se duplican. La decisión de las últimas
+ * `maxBufferedTraces` trazas se recuerda, de modo que un span que termina después que su span raíz (por ejemplo, una
+ * tarea asíncrona) sigue la decisión de su traza en lugar de quedar retenido.
+ *
+ * La memoria está acotada: si hay `maxBufferedTraces` trazas retenidas, primero se descartan las que llevan más de
+ * `bufferTimeout` sin terminar y, si no alcanza, los spans de las trazas nuevas no se retienen (solo podrá conservarse
+ * su span raíz). Cada traza retiene como máximo `MAX_SPANS_PER_TRACE` spans.
+ *
+ * La decisión es local a cada servicio y no se propaga: cuando termina el span raíz local, los servicios llamados ya
+ * tomaron su propia decisión sobre sus spans, con sus propias condiciones. Una traza conservada por un servicio puede
+ * quedar incompleta en Tempo: contiene los spans de los servicios que la conservaron, y los de otros solo si también
+ * cumplían alguna condición (por ejemplo, un error propagado como `outcome=SERVER_ERROR` se conserva en ambos).
+ *
+ * Métricas publicadas:
+ *
+ * - `tracing.sampling.tail` con la etiqueta `decision` (`error`, `slow`, `tag` o `dropped`).
+ * - `tracing.sampling.buffer.traces`: trazas retenidas a la espera de su span raíz.
+ * - `tracing.sampling.buffer.overflow`: spans que no se retuvieron por falta de espacio.
+ */
+public class TailSamplingSpanHandler extends SpanHandler implements MeterBinder {
+
+    /** Cantidad máxima de spans retenidos por traza local. */
+    static final int MAX_SPANS_PER_TRACE = 256;
+
+    private final SpanHandler exporter;
+    private final long latencyThresholdMicros;
+    private final Map<String, String> keepTags;
+    private final int maxBufferedTraces;
+    private final long bufferTimeoutNanos;
+
+    private final Map<Long, PendingTrace> pending = new ConcurrentHashMap<>();
+
+    /** Decisiones de las últimas trazas terminadas, por span raíz local: `true` si la traza se conservó. */
+    private final Map<Long, Boolean> decided;
+
+    private final LongAdder keptForError = new LongAdder();
+    private final LongAdder keptForLatency = new LongAdder();
+    private final LongAdder keptForTag = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+
+    /**
+     * Crea el manejador de muestreo de cola.
+     *
+     * @param exporter   El manejador que exporta los spans muestreados (por ejemplo, `AsyncZipkinSpanHandler`).
+     * @param properties La configuración del muestreo adaptativo.
+     */
+    public TailSamplingSpanHandler(SpanHandler exporter, AdaptiveSamplingProperties properties) {
+        this.exporter = exporter;
+        this.latencyThresholdMicros = properties.latencyThreshold().toNanos() / 1000;
+        this.keepTags = properties.keepTags();
+        this.maxBufferedTraces = properties.maxBufferedTraces();
+        this.bufferTimeoutNanos = properties.bufferTimeout().toNanos();
+        this.decided = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > maxBufferedTraces;
+            }
+        });
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (Boolean.TRUE.equals(context.sampled()) || cause == Cause.ABANDONED) {
+            return true;
+        }
+        if (!context.isLocalRoot()) {
+            Boolean kept = decided.get(context.localRootId());
+            if (kept == null) {
+                buffer(context, span);
+            } else if (kept) {
+                export(context, span);
+            }
+            return true;
+        }
+        PendingTrace trace = pending.remove(context.localRootId());
+        boolean error = isError(span) || (trace != null && trace.error);
+        boolean tagged = hasKeepTag(span) || (trace != null && trace.tagged);
+        boolean slow = span.finishTimestamp() - span.startTimestamp() >= latencyThresholdMicros;
+        boolean keep = error || tagged || slow;
+        decided.put(context.localRootId(), keep);
+        if (!keep) {
+            dropped.increment();
+            return true;
+        }
+        (error ? keptForError : slow ? keptForLatency : keptForTag).increment();
+        if (trace != null) {
+            for (BufferedSpan buffered : trace.drain()) {
+                export(buffered.context(), buffered.span());
+            }
+        }
+        export(context, span);
+        return true;
+    }
+
+    /**
+     * Retiene un span no muestreado hasta que termine el span raíz de su traza local.
+     */
+    private void buffer(TraceContext context, MutableSpan span) {
+        long localRootId = context.localRootId();
+        PendingTrace trace = pending.get(localRootId);
+        if (trace == null) {
+            if (pending.size() >= maxBufferedTraces && !evictExpired()) {
+                overflow.increment();
+                return;
+            }
+            trace = pending.computeIfAbsent(localRootId, id -> new PendingTrace(System.nanoTime()));
+        }
+        if (!trace.add(context, span, isError(span), hasKeepTag(span))) {
+            overflow.increment();
+        }
+        // Si el span raíz terminó mientras se retenía este span, la traza ya no se decidirá: se aplica su decisión.
+        Boolean kept = decided.get(localRootId);
+        if (kept != null && pending.remove(localRootId, trace) && kept) {
+            for (BufferedSpan buffered : trace.drain()) {
+                export(buffered.context(), buffered.span());
+            }
+        }
+    }
+
+    /**
+     * Descarta las trazas retenidas que superaron `bufferTimeout`.
+     *
+     * @return `true` si quedó espacio para retener una traza nueva.
+     */
+    private boolean evictExpired() {
+        long now = System.nanoTime();
+        pending.values().removeIf(trace -> now - trace.createdNanos > bufferTimeoutNanos);
+        return pending.size() < maxBufferedTraces;
+    }
+
+    private void export(TraceContext context, MutableSpan span) {
+        exporter.end(context.toBuilder().sampled(true).build(), span, Cause.FINISHED);
+    }
+
+    /**
+     * Indica si el span terminó con error. Las observaciones de Micrometer agregan `error=none` cuando no hubo error.
+     */
+    private static boolean isError(MutableSpan span) {
+        String error = span.tag("error");
+        return span.error() != null || (error != null && !"none".equals(error))
+                || "SERVER_ERROR".equals(span.tag("outcome"));
+    }
+
+    private boolean hasKeepTag(MutableSpan span) {
+        if (keepTags.isEmpty() || span.tagCount() == 0) {
+            return false;
+        }
+        for (var keepTag : keepTags.entrySet()) {
+            if (keepTag.getValue().equals(span.tag(keepTag.getKey()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Devuelve la cantidad de trazas retenidas a la espera de su span raíz.
+     *
+     * @return El tamaño del búfer.
+     */
+    public int bufferedTraces() {
+        return pending.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        decisionCounter(registry, "error", keptForError);
+        decisionCounter(registry, "slow", keptForLatency);
+        decisionCounter(registry, "tag", keptForTag);
+        decisionCounter(registry, "dropped", dropped);
+        Gauge.builder("tracing.sampling.buffer.traces", this, TailSamplingSpanHandler::bufferedTraces)
+                .description("Unsampled local traces buffered until their root span ends")
+                .register(registry);
+        FunctionCounter.builder("tracing.sampling.buffer.overflow", overflow, LongAdder::sum)
+                .description("Unsampled spans that could not be buffered")
+                .register(registry);
+    }
+
+    private static void decisionCounter(MeterRegistry registry, String decision, LongAdder count) {
+        FunctionCounter.builder("tracing.sampling.tail", count, LongAdder::sum)
+                .description("Tail sampling decisions for traces not sampled at the head")
+                .tag("decision", decision)
+                .register(registry);
+    }
+
+    private record BufferedSpan(TraceContext context, MutableSpan span) {
+    }
+
+    /**
+     * Spans retenidos de una traza local y las condiciones observadas hasta el momento.
+     */
+    private static final class PendingTrace {
+
+        private final long createdNanos;
+        private final List<BufferedSpan> spans = new ArrayList<>();
+        private volatile boolean error;
+        private volatile boolean tagged;
+
+        private PendingTrace(long createdNanos) {
+            this.createdNanos = createdNanos;
+        }
+
+        private synchronized boolean add(TraceContext context, MutableSpan span, boolean error, boolean tagged) {
+            this.error |= error;
+            this.tagged |= tagged;
+            if (spans.size() >= MAX_SPANS_PER_TRACE) {
+                return false;
+            }
+            spans.add(new BufferedSpan(context, span));
+            return true;
+        }
+
+        private synchronized List<BufferedSpan> drain() {
+            return List.copyOf(spans);
+        }
+    }
+}
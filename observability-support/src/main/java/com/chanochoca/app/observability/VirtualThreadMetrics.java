@@ -0,0 +1,110 @@
+package com.chanochoca.app.observability;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * `VirtualThreadMetrics` publica métricas sobre los hilos virtuales de la aplicación.
+ *
+ * Las métricas se obtienen de los eventos de JFR que emite la JVM, a través de un `RecordingStream` en memoria que no
+ * escribe ningún archivo:
+ *
+ * - `jvm.threads.virtual.pinned`: cantidad y duración de los episodios en que un hilo virtual quedó fijado a su hilo
+ *   portador (por ejemplo, al bloquearse dentro de un bloque `synchronized`) por más del umbral configurado.
+ * - `jvm.threads.virtual.submit.failed`: cantidad de veces que no se pudo planificar un hilo virtual.
+ * - `jvm.threads.virtual.live` (solo con `observability.virtual-threads.live-threads=true`): cantidad de hilos
+ *   virtuales iniciados después de registrar las métricas y aún no terminados.
+ *
+ * La cantidad de hilos vivos se obtiene de los eventos `jdk.VirtualThreadStart` y `jdk.VirtualThreadEnd`, que la JVM
+ * emite una vez por hilo virtual, es decir, una vez por solicitud HTTP en este modo. Por ese costo no se habilitan por
+ * defecto. Los hilos se identifican por su ID, por lo que la finalización de un hilo iniciado antes de registrar las
+ * métricas se ignora y el valor nunca es negativo; esos hilos no se cuentan.
+ *
+ * JDK 21 no expone el estado del planificador de hilos virtuales (sus hilos portadores montados o libres) fuera de
+ * sus clases internas, por lo que no se publica una métrica de hilos portadores.
+ */
+@Slf4j
+public class VirtualThreadMetrics implements MeterBinder, DisposableBean {
+
+    private final Duration pinnedThreshold;
+    private final boolean trackLiveThreads;
+    private final Set<Long> liveThreads = ConcurrentHashMap.newKeySet();
+    private RecordingStream recordingStream;
+
+    /**
+     * Crea el publicador de métricas de hilos virtuales.
+     *
+     * @param pinnedThreshold La duración mínima de un episodio de fijación para que sea registrado.
+     * @param trackLiveThreads Indica si se publica `jvm.threads.virtual.live`, escuchando el inicio y el fin de cada
+     *                         hilo virtual.
+     */
+    public VirtualThreadMetrics(Duration pinnedThreshold, boolean trackLiveThreads) {
+        this.pinnedThreshold = pinnedThreshold;
+        this.trackLiveThreads = trackLiveThreads;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Timer pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Episodes in which a virtual thread blocked while pinned to its carrier")
+                .register(registry);
+        Counter submitFailed = Counter.builder("jvm.threads.virtual.submit.failed")
+                .description("Virtual threads that could not be scheduled or unparked")
+                .register(registry);
+
+        recordingStream = new RecordingStream();
+        recordingStream.enable("jdk.VirtualThreadPinned").withThreshold(pinnedThreshold).withStackTrace();
+        recordingStream.enable("jdk.VirtualThreadSubmitFailed");
+        recordingStream.onEvent("jdk.VirtualThreadPinned", event -> pinned.record(event.getDuration()));
+        recordingStream.onEvent("jdk.VirtualThreadSubmitFailed", event -> submitFailed.increment());
+        if (trackLiveThreads) {
+            Gauge.builder("jvm.threads.virtual.live", liveThreads, Set::size)
+                    .description("Virtual threads started since the metrics were bound and not yet terminated")
+                    .register(registry);
+            recordingStream.enable("jdk.VirtualThreadStart");
+            recordingStream.enable("jdk.VirtualThreadEnd");
+            recordingStream.onEvent("jdk.VirtualThreadStart", event -> started(event.getLong("javaThreadId")));
+            recordingStream.onEvent("jdk.VirtualThreadEnd", event -> ended(event.getLong("javaThreadId")));
+        }
+        recordingStream.startAsync();
+        log.info("Virtual thread metrics enabled (pinned threshold {})", pinnedThreshold);
+    }
+
+    /**
+     * Registra el inicio de un hilo virtual.
+     */
+    void started(long threadId) {
+        liveThreads.add(threadId);
+    }
+
+    /**
+     * Registra el fin de un hilo virtual. Se ignora si el hilo se inició antes de registrar las métricas.
+     */
+    void ended(long threadId) {
+        liveThreads.remove(threadId);
+    }
+
+    /**
+     * Devuelve la cantidad de hilos virtuales vivos registrados.
+     */
+    int liveThreads() {
+        return liveThreads.size();
+    }
+
+    @Override
+    public void destroy() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+}
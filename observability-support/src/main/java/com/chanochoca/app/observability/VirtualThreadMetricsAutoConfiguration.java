@@ -0,0 +1,31 @@
+package com.chanochoca.app.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * `VirtualThreadMetricsAutoConfiguration` registra `VirtualThreadMetrics` cuando la aplicación se ejecuta en modo de
+ * hilos virtuales (`spring.threads.virtual.enabled=true`).
+ */
+@AutoConfiguration
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnThreading(Threading.VIRTUAL)
+@EnableConfigurationProperties(VirtualThreadProperties.class)
+public class VirtualThreadMetricsAutoConfiguration {
+
+    /**
+     * Declara el publicador de métricas de hilos virtuales.
+     *
+     * @param properties La configuración de las métricas de hilos virtuales.
+     * @return Una instancia de `VirtualThreadMetrics` que Spring Boot vincula al `MeterRegistry` de la aplicación.
+     */
+    @Bean
+    VirtualThreadMetrics virtualThreadMetrics(VirtualThreadProperties properties) {
+        return new VirtualThreadMetrics(properties.pinnedThreshold(), properties.liveThreads());
+    }
+}
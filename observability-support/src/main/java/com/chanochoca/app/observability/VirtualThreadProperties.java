@@ -0,0 +1,20 @@
+package com.chanochoca.app.observability;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * `VirtualThreadProperties` agrupa la configuración de las métricas de hilos virtuales (`observability.virtual-threads.*`).
+ *
+ * @param pinnedThreshold La duración mínima de un episodio de fijación de un hilo virtual a su portador para que sea
+ *                        registrado en `jvm.threads.virtual.pinned`.
+ * @param liveThreads Indica si se publica `jvm.threads.virtual.live`. Requiere un evento de JFR al iniciar y al terminar
+ *                    cada hilo virtual, por lo que está deshabilitado por defecto.
+ */
+@ConfigurationProperties(prefix = "observability.virtual-threads")
+public record VirtualThreadProperties(
+        @DefaultValue("20ms") Duration pinnedThreshold,
+        @DefaultValue("false") boolean liveThreads) {
+}
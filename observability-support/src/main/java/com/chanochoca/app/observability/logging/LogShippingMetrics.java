@@ -0,0 +1,79 @@
+package com.chanochoca.app.observability.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * `LogShippingMetrics` publica las métricas de los `LokiShippingAppender` configurados en Logback.
+ *
+ * Los appenders se crean al configurar Logback, antes que el contexto de Spring, por lo que no pueden registrar sus
+ * propias métricas; este `MeterBinder` los busca en el `LoggerContext` al vincularse al `MeterRegistry`. Todas las
+ * métricas llevan la etiqueta `appender` con el nombre del appender:
+ *
+ * - `logging.shipping.queued`: eventos en cola a la espera de ser enviados.
+ * - `logging.shipping.sent`: eventos enviados a Loki.
+ * - `logging.shipping.failed`: eventos descartados porque su lote no pudo enviarse luego de los reintentos.
+ * - `logging.shipping.dropped` con la etiqueta `level` (`debug`, `info` o `warn`): eventos descartados por la política
+ *   de desborde.
+ * - `logging.shipping.error.overflow`: eventos `ERROR` que no entraron en la cola y se guardaron en la cola de desborde.
+ */
+public class LogShippingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        appenders().forEach((name, appender) -> {
+            Gauge.builder("logging.shipping.queued", appender, LokiShippingAppender::queued)
+                    .description("Log events waiting to be shipped")
+                    .tag("appender", name)
+                    .register(registry);
+            counter(registry, "logging.shipping.sent", "Log events shipped", name, appender,
+                    LokiShippingAppender::shipped);
+            counter(registry, "logging.shipping.failed", "Log events lost because their batch could not be sent",
+                    name, appender, LokiShippingAppender::failed);
+            counter(registry, "logging.shipping.error.overflow", "ERROR events kept beyond the ring buffer capacity",
+                    name, appender, LokiShippingAppender::errorOverflows);
+            for (Level level : new Level[] {Level.DEBUG, Level.INFO, Level.WARN}) {
+                FunctionCounter.builder("logging.shipping.dropped", appender, shipper -> shipper.dropped(level))
+                        .description("Log events dropped by the overflow policy")
+                        .tag("appender", name)
+                        .tag("level", level.levelStr.toLowerCase())
+                        .register(registry);
+            }
+        });
+    }
+
+    private static void counter(MeterRegistry registry, String meter, String description, String name,
+                                LokiShippingAppender appender, ToDoubleFunction<LokiShippingAppender> count) {
+        FunctionCounter.builder(meter, appender, count)
+                .description(description)
+                .tag("appender", name)
+                .register(registry);
+    }
+
+    /**
+     * Busca los `LokiShippingAppender` asociados a cualquier logger del `LoggerContext` actual.
+     */
+    private static Map<String, LokiShippingAppender> appenders() {
+        var appenders = new LinkedHashMap<String, LokiShippingAppender>();
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext context) {
+            for (Logger logger : context.getLoggerList()) {
+                logger.iteratorForAppenders().forEachRemaining(appender -> {
+                    if (appender instanceof LokiShippingAppender shipper) {
+                        appenders.putIfAbsent(shipper.getName(), shipper);
+                    }
+                });
+            }
+        }
+        return appenders;
+    }
+}
@@ -0,0 +1,25 @@
+package com.chanochoca.app.observability.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * `LogShippingMetricsAutoConfiguration` registra `LogShippingMetrics` cuando la aplicación usa Logback.
+ */
+@AutoConfiguration
+@ConditionalOnClass({MeterRegistry.class, LoggerContext.class})
+public class LogShippingMetricsAutoConfiguration {
+
+    /**
+     * Declara el publicador de métricas de los appenders de envío de registros.
+     *
+     * @return Una instancia de `LogShippingMetrics` que Spring Boot vincula al `MeterRegistry` de la aplicación.
+     */
+    @Bean
+    LogShippingMetrics logShippingMetrics() {
+        return new LogShippingMetrics();
+    }
+}
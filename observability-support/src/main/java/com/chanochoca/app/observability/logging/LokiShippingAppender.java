@@ -0,0 +1,413 @@
+package com.chanochoca.app.observability.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * `LokiShippingAppender` es un appender de Logback que envía los registros a Loki sin bloquear a los hilos que registran.
+ *
+ * El hilo que registra un evento solo captura los datos ligados al hilo (nombre del hilo y MDC, donde están el
+ * `traceId` y el `spanId`) y lo agrega a un `RingBuffer` sin bloqueos. Un único hilo de envío, propio del appender:
+ *
+ * - Agrupa los eventos en lotes de hasta `batchMaxItems` eventos o `batchTimeoutMillis` milisegundos.
+ * - Da formato a cada evento (el mensaje con `message` y las etiquetas de Loki con `labels`), lo que incluye el
+ *   reemplazo de los argumentos del mensaje, fuera del hilo de la solicitud.
+ * - Codifica el lote en el formato JSON de `/loki/api/v1/push`, lo comprime con gzip y lo envía con reintentos.
+ *
+ * Si Loki está lento o no responde, la cola se llena y se aplica la política de descarte, en lugar de detener a los
+ * hilos de la aplicación:
+ *
+ * - Los eventos `TRACE` y `DEBUG` se descartan cuando la cola supera el `discardDebugAbove` % de su capacidad.
+ * - Los eventos `INFO` se descartan cuando la cola supera el `discardInfoAbove` % de su capacidad.
+ * - Los eventos `WARN` se descartan solo si la cola está llena.
+ * - Los eventos `ERROR` nunca se descartan: si la cola está llena, se guardan en una cola de desborde sin límite.
+ *
+ * Los contadores de eventos encolados, enviados, fallidos y descartados se publican como métricas a través de
+ * `LogShippingMetrics`.
+ */
+public class LokiShippingAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    /** Tiempo de espera del hilo de envío cuando la cola está vacía. */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** Demora inicial entre reintentos; se duplica en cada intento. */
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+
+    private String url;
+    private String labels = "level=%level";
+    private String message = "%msg%n";
+    private int capacity = 8192;
+    private int batchMaxItems = 1000;
+    private long batchTimeoutMillis = 1000;
+    private boolean compress = true;
+    private long connectTimeoutMillis = 1000;
+    private long requestTimeoutMillis = 5000;
+    private int maxRetries = 2;
+    private int discardDebugAbove = 50;
+    private int discardInfoAbove = 80;
+    private long maxFlushTimeMillis = 5000;
+
+    private final LongAdder shipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder droppedDebug = new LongAdder();
+    private final LongAdder droppedInfo = new LongAdder();
+    private final LongAdder droppedWarn = new LongAdder();
+    private final LongAdder errorOverflows = new LongAdder();
+
+    private RingBuffer<ILoggingEvent> buffer;
+    private final Queue<ILoggingEvent> errorOverflow = new ConcurrentLinkedQueue<>();
+    private PatternLayout labelsLayout;
+    private PatternLayout messageLayout;
+    private HttpClient httpClient;
+    private URI endpoint;
+    private Thread worker;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        if (url == null) {
+            addError("No url configured for appender " + getName());
+            return;
+        }
+        endpoint = URI.create(url);
+        labelsLayout = layout(labels);
+        messageLayout = layout(message);
+        buffer = new RingBuffer<>(capacity);
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+        running = true;
+        worker = Thread.ofPlatform().daemon().name("loki-shipper-" + getName()).start(this::run);
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        running = false;
+        try {
+            worker.join(maxFlushTimeMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            addWarn("Appender " + getName() + " did not flush within " + maxFlushTimeMillis + " ms; "
+                    + queued() + " events were not sent");
+        }
+        httpClient.close();
+        labelsLayout.stop();
+        messageLayout.stop();
+        super.stop();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int level = event.getLevel().toInt();
+        if (level < Level.ERROR_INT && shouldDiscard(level)) {
+            dropped(level).increment();
+            return;
+        }
+        // El mensaje se formatea en el hilo de envío; aquí solo se captura lo que depende del hilo actual.
+        event.getThreadName();
+        event.getMDCPropertyMap();
+        if (!buffer.offer(event)) {
+            if (level >= Level.ERROR_INT) {
+                errorOverflow.add(event);
+                errorOverflows.increment();
+            } else {
+                dropped(level).increment();
+            }
+        }
+    }
+
+    /**
+     * Aplica la política de descarte según el nivel del evento y la ocupación de la cola.
+     */
+    private boolean shouldDiscard(int level) {
+        if (level >= Level.WARN_INT) {
+            return false;
+        }
+        int fill = buffer.size() * 100 / buffer.capacity();
+        return fill >= (level <= Level.DEBUG_INT ? discardDebugAbove : discardInfoAbove);
+    }
+
+    private LongAdder dropped(int level) {
+        return level <= Level.DEBUG_INT ? droppedDebug : level == Level.INFO_INT ? droppedInfo : droppedWarn;
+    }
+
+    /**
+     * Bucle del hilo de envío: arma lotes con los eventos encolados y los envía a Loki.
+     */
+    private void run() {
+        var batch = new ArrayList<ILoggingEvent>(batchMaxItems);
+        long batchTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(batchTimeoutMillis);
+        long batchStarted = 0;
+        while (true) {
+            boolean stopping = !running;
+            ILoggingEvent event;
+            while (batch.size() < batchMaxItems && (event = next()) != null) {
+                if (batch.isEmpty()) {
+                    batchStarted = System.nanoTime();
+                }
+                batch.add(event);
+            }
+            if (!batch.isEmpty() && (stopping || batch.size() >= batchMaxItems
+                    || System.nanoTime() - batchStarted >= batchTimeoutNanos)) {
+                ship(batch);
+                batch.clear();
+            } else if (stopping && batch.isEmpty()) {
+                return;
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private ILoggingEvent next() {
+        ILoggingEvent event = errorOverflow.poll();
+        return event != null ? event : buffer.poll();
+    }
+
+    /**
+     * Codifica y envía un lote, reintentando ante errores de conexión, respuestas `429` o `5xx`.
+     */
+    private void ship(List<ILoggingEvent> batch) {
+        HttpRequest request;
+        try {
+            request = request(encode(batch));
+        } catch (IOException | RuntimeException e) {
+            failed.add(batch.size());
+            addError("Could not encode a batch of " + batch.size() + " events", e);
+            return;
+        }
+        for (int attempt = 0; ; attempt++) {
+            String failure;
+            try {
+                int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status / 100 == 2) {
+                    shipped.add(batch.size());
+                    return;
+                }
+                failure = "HTTP " + status;
+                if (status != 429 && status < 500) {
+                    attempt = maxRetries;
+                }
+            } catch (IOException e) {
+                failure = e.toString();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = "interrupted";
+                attempt = maxRetries;
+            }
+            if (attempt >= maxRetries || !running) {
+                failed.add(batch.size());
+                addWarn("Could not send " + batch.size() + " events to " + endpoint + ": " + failure);
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_BACKOFF_MILLIS << attempt));
+        }
+    }
+
+    private HttpRequest request(byte[] body) {
+        var builder = HttpRequest.newBuilder(endpoint)
+                .timeout(Duration.ofMillis(requestTimeoutMillis))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (compress) {
+            builder.header("Content-Encoding", "gzip");
+        }
+        return builder.build();
+    }
+
+    /**
+     * Codifica un lote en el formato JSON de `/loki/api/v1/push`, con un flujo por cada combinación de etiquetas y los
+     * eventos de cada flujo ordenados por tiempo.
+     */
+    byte[] encode(List<ILoggingEvent> batch) throws IOException {
+        var streams = new LinkedHashMap<String, List<ILoggingEvent>>();
+        for (ILoggingEvent event : batch) {
+            streams.computeIfAbsent(labelsLayout.doLayout(event), key -> new ArrayList<>()).add(event);
+        }
+        var json = new StringBuilder(batch.size() * 256);
+        json.append("{\"streams\":[");
+        boolean firstStream = true;
+        for (Map.Entry<String, List<ILoggingEvent>> stream : streams.entrySet()) {
+            json.append(firstStream ? "" : ",").append("{\"stream\":{");
+            firstStream = false;
+            appendLabels(json, stream.getKey());
+            json.append("},\"values\":[");
+            var events = stream.getValue();
+            events.sort(Comparator.comparing(ILoggingEvent::getInstant));
+            for (int i = 0; i < events.size(); i++) {
+                ILoggingEvent event = events.get(i);
+                Instant instant = event.getInstant();
+                json.append(i == 0 ? "[\"" : ",[\"")
+                        .append(instant.getEpochSecond() * 1_000_000_000L + instant.getNano())
+                        .append("\",");
+                appendString(json, messageLayout.doLayout(event));
+                json.append(']');
+            }
+            json.append("]}");
+        }
+        json.append("]}");
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        if (!compress) {
+            return body;
+        }
+        var compressed = new ByteArrayOutputStream(body.length / 4);
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Convierte las etiquetas con la forma `clave=valor,clave=valor` en los miembros de un objeto JSON.
+     */
+    private static void appendLabels(StringBuilder json, String labels) {
+        boolean first = true;
+        for (String label : labels.split(",")) {
+            int separator = label.indexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            json.append(first ? "" : ",");
+            first = false;
+            appendString(json, label.substring(0, separator).trim());
+            json.append(':');
+            appendString(json, label.substring(separator + 1).trim());
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    private PatternLayout layout(String pattern) {
+        var layout = new PatternLayout();
+        layout.setContext(getContext());
+        layout.setPattern(pattern);
+        layout.start();
+        return layout;
+    }
+
+    /** Cantidad de eventos en cola a la espera de ser enviados. */
+    int queued() {
+        return buffer == null ? 0 : buffer.size() + errorOverflow.size();
+    }
+
+    /** Cantidad de eventos enviados a Loki. */
+    long shipped() {
+        return shipped.sum();
+    }
+
+    /** Cantidad de eventos descartados porque su lote no pudo enviarse. */
+    long failed() {
+        return failed.sum();
+    }
+
+    /** Cantidad de eventos descartados por la política de desborde para el nivel indicado (`DEBUG`, `INFO` o `WARN`). */
+    long dropped(Level level) {
+        return dropped(level.toInt()).sum();
+    }
+
+    /** Cantidad de eventos `ERROR` que no entraron en la cola y se guardaron en la cola de desborde. */
+    long errorOverflows() {
+        return errorOverflows.sum();
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public void setLabels(String labels) {
+        this.labels = labels;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setBatchMaxItems(int batchMaxItems) {
+        this.batchMaxItems = batchMaxItems;
+    }
+
+    public void setBatchTimeoutMillis(long batchTimeoutMillis) {
+        this.batchTimeoutMillis = batchTimeoutMillis;
+    }
+
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
+    public void setConnectTimeoutMillis(long connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public void setRequestTimeoutMillis(long requestTimeoutMillis) {
+        this.requestTimeoutMillis = requestTimeoutMillis;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public void setDiscardDebugAbove(int discardDebugAbove) {
+        this.discardDebugAbove = discardDebugAbove;
+    }
+
+    public void setDiscardInfoAbove(int discardInfoAbove) {
+        this.discardInfoAbove = discardInfoAbove;
+    }
+
+    public void setMaxFlushTimeMillis(long maxFlushTimeMillis) {
+        this.maxFlushTimeMillis = maxFlushTimeMillis;
+    }
+}
@@ -0,0 +1,105 @@
+package com.chanochoca.app.observability.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * `RingBuffer` es una cola acotada sin bloqueos, con múltiples productores y un único consumidor.
+ *
+ * Cada posición del arreglo tiene un número de secuencia que indica si está libre para el productor de una vuelta
+ * determinada o si ya contiene un elemento publicado para el consumidor. Los productores reservan posiciones con una
+ * única operación `compareAndSet` sobre el índice de escritura y nunca esperan: si la cola está llena, `offer` devuelve
+ * `false` de inmediato. El consumidor no necesita operaciones atómicas de lectura-modificación-escritura.
+ *
+ * @param <E> El tipo de los elementos.
+ */
+final class RingBuffer<E> {
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<E> elements;
+
+    /** Próxima posición a reservar por los productores. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Próxima posición a leer por el consumidor. Solo la modifica el hilo consumidor. */
+    private volatile long head;
+
+    /**
+     * Crea una cola con la capacidad indicada, redondeada a la siguiente potencia de dos.
+     *
+     * @param capacity La cantidad mínima de elementos que puede contener la cola.
+     */
+    RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.elements = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Agrega un elemento sin bloquear. Puede invocarse desde cualquier hilo.
+     *
+     * @param element El elemento a agregar.
+     * @return `true` si el elemento fue agregado, `false` si la cola está llena.
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Extrae el elemento más antiguo. Solo debe invocarse desde el hilo consumidor.
+     *
+     * @return El elemento, o `null` si la cola está vacía.
+     */
+    E poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.set(index, position + mask + 1);
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * Devuelve la cantidad aproximada de elementos en la cola.
+     *
+     * @return La cantidad de elementos reservados y aún no extraídos.
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * Devuelve la capacidad de la cola.
+     *
+     * @return La cantidad máxima de elementos.
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,80 @@
+package com.chanochoca.app.observability.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * `CollapsedStacks` convierte los eventos de una grabación de JFR en pilas colapsadas, el formato de texto que
+ * utilizan `flamegraph.pl`, speedscope y Grafana Pyroscope para dibujar flame graphs.
+ *
+ * Cada línea contiene una pila, de la raíz a la hoja, con los marcos separados por `;`, seguida de un espacio y el peso
+ * acumulado de esa pila (por ejemplo, `java.lang.Thread.run;com.example.Service.handle 42`).
+ */
+public final class CollapsedStacks {
+
+    private CollapsedStacks() {
+    }
+
+    /**
+     * Colapsa las pilas de los eventos de una grabación.
+     *
+     * @param recording El archivo JFR.
+     * @param since Los eventos que comenzaron antes de este instante se ignoran.
+     * @param filter Los eventos que se incluyen.
+     * @param weight El peso de cada evento (1 por muestra, bytes asignados o nanosegundos de espera).
+     * @param leaf Devuelve el marco que se agrega como hoja de la pila de cada evento (por ejemplo, la clase asignada),
+     *             o `null` si no se agrega ninguno.
+     * @return Las pilas colapsadas, una por línea, ordenadas alfabéticamente.
+     */
+    public static String collapse(Path recording, Instant since, Predicate<RecordedEvent> filter,
+                                  ToLongFunction<RecordedEvent> weight,
+                                  Function<RecordedEvent, String> leaf) throws IOException {
+        Map<String, Long> stacks = new TreeMap<>();
+        var stack = new StringBuilder();
+        try (var file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                RecordedStackTrace stackTrace = event.getStackTrace();
+                if (stackTrace == null || event.getStartTime().isBefore(since) || !filter.test(event)) {
+                    continue;
+                }
+                stack.setLength(0);
+                List<RecordedFrame> frames = stackTrace.getFrames();
+                for (int i = frames.size() - 1; i >= 0; i--) {
+                    if (!stack.isEmpty()) {
+                        stack.append(';');
+                    }
+                    stack.append(frame(frames.get(i)));
+                }
+                String leafFrame = leaf.apply(event);
+                if (leafFrame != null) {
+                    stack.append(';').append(leafFrame);
+                }
+                stacks.merge(stack.toString(), weight.applyAsLong(event), Long::sum);
+            }
+        }
+        var collapsed = new StringBuilder();
+        stacks.forEach((key, value) -> collapsed.append(key).append(' ').append(value).append('\n'));
+        return collapsed.toString();
+    }
+
+    /**
+     * Devuelve el nombre de un marco: la clase y el método (`com.example.Service.handle`).
+     */
+    static String frame(RecordedFrame frame) {
+        var method = frame.getMethod();
+        return method.getType().getName() + "." + method.getName();
+    }
+}
@@ -0,0 +1,132 @@
+package com.chanochoca.app.observability.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * `ContinuousRecording` mantiene una grabación de JFR en curso durante toda la vida de la aplicación.
+ *
+ * La grabación utiliza la configuración `default` de JFR (muestreo de CPU cada 20 ms, muestreo de asignaciones
+ * limitado a 150 muestras por segundo, esperas por monitores y locks de más de 20 ms, GC, JIT y E/S), cuyo costo es
+ * menor al 1 %, más los eventos propios de la aplicación con los umbrales de `observability.profiling.thresholds`.
+ * Los datos se escriben en el repositorio en disco de JFR y solo se conservan los de los últimos `max-age` (hasta
+ * `max-size`), de modo que `dump` siempre devuelve una ventana móvil de la actividad reciente.
+ *
+ * La grabación es un `RecordingStream`: además de escribirse en disco, sus eventos se entregan en la propia aplicación a
+ * quienes se suscriben con `onEvent` (como `HotSpotMetrics`), sin una segunda grabación que duplique el costo de
+ * registrar y escribir los mismos eventos.
+ *
+ * Los eventos de `SENSITIVE_EVENTS` se deshabilitan aunque la configuración los incluya: registran las variables de
+ * entorno, las propiedades del sistema y los argumentos de la JVM, donde suelen pasarse credenciales, y cualquiera que
+ * descargue la grabación podría leerlos.
+ */
+@Slf4j
+public class ContinuousRecording implements InitializingBean, DisposableBean {
+
+    /** Los eventos de la configuración `default` que registran variables de entorno, propiedades o argumentos. */
+    static final List<String> SENSITIVE_EVENTS = List.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty",
+            "jdk.JVMInformation");
+
+    private final String settings;
+    private final Duration maxAge;
+    private final long maxSize;
+    private final Map<String, Duration> thresholds;
+    private RecordingStream recording;
+
+    /**
+     * Crea la grabación continua, sin iniciarla.
+     *
+     * @param settings La configuración de JFR: `default`, `profile` o la ruta de un archivo `.jfc`.
+     * @param maxAge La antigüedad máxima de los datos que se conservan.
+     * @param maxSize El tamaño máximo en bytes de los datos que se conservan.
+     * @param thresholds Los umbrales de duración por nombre de evento.
+     */
+    public ContinuousRecording(String settings, Duration maxAge, long maxSize, Map<String, Duration> thresholds) {
+        this.settings = settings;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.thresholds = thresholds;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException, ParseException {
+        var configuration = settings.endsWith(".jfc")
+                ? Configuration.create(Path.of(settings))
+                : Configuration.getConfiguration(settings);
+        recording = new RecordingStream(configuration);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSize);
+        thresholds.forEach((event, threshold) -> recording.enable(event).withThreshold(threshold));
+        SENSITIVE_EVENTS.forEach(recording::disable);
+        recording.startAsync();
+        log.info("Continuous JFR recording started (settings '{}', max age {}, max size {} bytes)", settings, maxAge,
+                maxSize);
+    }
+
+    /**
+     * Registra una acción que se ejecuta, en el hilo de la grabación, por cada evento con el nombre indicado.
+     *
+     * @param eventName El nombre del evento, que debe estar habilitado en la configuración de la grabación.
+     * @param action La acción.
+     */
+    public void onEvent(String eventName, Consumer<RecordedEvent> action) {
+        recording.onEvent(eventName, action);
+    }
+
+    /**
+     * Registra una acción que se ejecuta, en el hilo de la grabación, después de procesar cada lote de eventos (como
+     * mínimo, una vez por segundo).
+     *
+     * @param action La acción.
+     */
+    public void onFlush(Runnable action) {
+        recording.onFlush(action);
+    }
+
+    /**
+     * Escribe en un archivo los datos de la ventana que conserva la grabación.
+     *
+     * @param destination El archivo de destino, con formato JFR.
+     *
+     * La grabación sigue en curso: la descarga solo copia los fragmentos ya escritos y el fragmento actual.
+     */
+    public void dump(Path destination) throws IOException {
+        recording.dump(destination);
+    }
+
+    /**
+     * Escribe los datos de la ventana que conserva la grabación en un archivo temporal.
+     *
+     * @return La ruta del archivo temporal, que debe eliminar quien lo solicita.
+     */
+    Path dumpToTempFile() throws IOException {
+        Path file = Files.createTempFile("continuous-", ".jfr");
+        try {
+            dump(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.chanochoca.app.observability.profiling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordedEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * `HotSpotMetrics` publica como métricas un resumen de los puntos calientes de asignación de memoria y de contención
+ * de locks, obtenido de los eventos de la grabación continua (`ContinuousRecording`) a medida que se registran.
+ *
+ * - `jvm.profiling.allocation`: bytes asignados, estimados a partir de las muestras de asignación de JFR.
+ * - `jvm.profiling.allocation.hotspot` con la etiqueta `frame`: bytes asignados por segundo durante el último período
+ *   (`hot-spot-window`) por cada uno de los `hot-spots` orígenes que más asignaron.
+ * - `jvm.profiling.lock.contention` con la etiqueta `kind` (`monitor` para `synchronized`, `lock` para los locks de
+ *   `java.util.concurrent`): esperas de más de `lock-threshold`.
+ * - `jvm.profiling.lock.hotspot` con la etiqueta `frame`: segundos de espera por segundo durante el último período por
+ *   cada uno de los `hot-spots` orígenes con más espera.
+ *
+ * El origen de un evento (`frame`) es el primer marco de su pila, desde la hoja, que no pertenece al JDK
+ * (`StackProfile.site`). La cantidad de series está acotada por `hot-spots`: al terminar cada período se reemplazan
+ * las series del período anterior.
+ *
+ * Los eventos son los que ya registra la grabación: con la configuración `default` de JFR, el muestreo de asignaciones
+ * está limitado a 150 muestras por segundo y las esperas solo se registran a partir de 20 ms, por lo que la cantidad
+ * de eventos procesados no depende de la carga de la aplicación. Las esperas más cortas que `lock-threshold` se
+ * ignoran.
+ */
+@Slf4j
+public class HotSpotMetrics implements MeterBinder {
+
+    private final ContinuousRecording recording;
+    private final Duration lockThreshold;
+    private final int hotSpots;
+    private final Duration window;
+
+    /** Bytes asignados por origen en el período actual. Solo se accede desde el hilo de `recordingStream`. */
+    private final Map<String, Long> allocationSites = new HashMap<>();
+
+    /** Nanosegundos de espera por origen en el período actual. Solo se accede desde el hilo de `recordingStream`. */
+    private final Map<String, Long> lockSites = new HashMap<>();
+
+    private long windowStart = System.nanoTime();
+
+    /**
+     * Crea el publicador de métricas de puntos calientes.
+     *
+     * @param recording La grabación continua de la que se obtienen los eventos.
+     * @param lockThreshold La duración mínima de una espera para que se registre.
+     * @param hotSpots La cantidad de orígenes que se publican por métrica.
+     * @param window El período sobre el que se calculan los puntos calientes.
+     */
+    public HotSpotMetrics(ContinuousRecording recording, Duration lockThreshold, int hotSpots, Duration window) {
+        this.recording = recording;
+        this.lockThreshold = lockThreshold;
+        this.hotSpots = hotSpots;
+        this.window = window;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Counter allocated = Counter.builder("jvm.profiling.allocation")
+                .description("Bytes allocated, estimated from JFR allocation samples")
+                .baseUnit("bytes")
+                .register(registry);
+        Timer monitorWaits = Timer.builder("jvm.profiling.lock.contention")
+                .description("Waits for a contended monitor or lock longer than the configured threshold")
+                .tag("kind", "monitor")
+                .register(registry);
+        Timer lockWaits = Timer.builder("jvm.profiling.lock.contention")
+                .description("Waits for a contended monitor or lock longer than the configured threshold")
+                .tag("kind", "lock")
+                .register(registry);
+        MultiGauge allocationHotSpots = MultiGauge.builder("jvm.profiling.allocation.hotspot")
+                .description("Bytes allocated per second by the top allocation sites over the last window")
+                .baseUnit("bytes")
+                .register(registry);
+        MultiGauge lockHotSpots = MultiGauge.builder("jvm.profiling.lock.hotspot")
+                .description("Seconds spent waiting per second for contended locks by the top sites over the last window")
+                .register(registry);
+
+        recording.onEvent("jdk.ObjectAllocationSample", event -> {
+            long bytes = StackProfile.ALLOCATION.weight(event);
+            allocated.increment(bytes);
+            add(allocationSites, event, bytes);
+        });
+        recording.onEvent("jdk.JavaMonitorEnter", event -> {
+            if (event.getDuration().compareTo(lockThreshold) < 0) {
+                return;
+            }
+            monitorWaits.record(event.getDuration());
+            add(lockSites, event, event.getDuration().toNanos());
+        });
+        recording.onEvent("jdk.ThreadPark", event -> {
+            if (StackProfile.LOCK.includes(event) && event.getDuration().compareTo(lockThreshold) >= 0) {
+                lockWaits.record(event.getDuration());
+                add(lockSites, event, event.getDuration().toNanos());
+            }
+        });
+        recording.onFlush(() -> {
+            long elapsed = System.nanoTime() - windowStart;
+            if (elapsed >= window.toNanos()) {
+                double seconds = elapsed / 1e9;
+                allocationHotSpots.register(top(allocationSites, seconds), true);
+                lockHotSpots.register(top(lockSites, seconds * 1e9), true);
+                allocationSites.clear();
+                lockSites.clear();
+                windowStart = System.nanoTime();
+            }
+        });
+        log.info("Hot spot metrics enabled (lock threshold {}, {} hot spots per {})", lockThreshold, hotSpots, window);
+    }
+
+    private static void add(Map<String, Long> sites, RecordedEvent event, long weight) {
+        String site = StackProfile.site(event);
+        if (site != null) {
+            sites.merge(site, weight, Long::sum);
+        }
+    }
+
+    /**
+     * Devuelve las filas de los `hotSpots` orígenes con más peso, con el peso dividido por `divisor`.
+     */
+    private List<MultiGauge.Row<?>> top(Map<String, Long> sites, double divisor) {
+        return sites.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(hotSpots)
+                .<MultiGauge.Row<?>>map(site -> MultiGauge.Row.of(Tags.of("frame", site.getKey()),
+                        site.getValue() / divisor))
+                .toList();
+    }
+}
@@ -0,0 +1,63 @@
+package com.chanochoca.app.observability.profiling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * `ProfilingAutoConfiguration` registra la grabación continua de JFR (`ContinuousRecording`), las métricas de puntos
+ * calientes (`HotSpotMetrics`) y el endpoint de Actuator `jfr` (`ProfilingEndpoint`).
+ *
+ * Está habilitada por defecto; se deshabilita con `observability.profiling.enabled=false`. El endpoint `jfr` no se expone
+ * por defecto: debe agregarse a `management.endpoints.web.exposure.include`, preferentemente con un puerto de gestión
+ * propio (`management.server.port`) que no sea accesible desde fuera de la red interna.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(prefix = "observability.profiling", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(ProfilingProperties.class)
+public class ProfilingAutoConfiguration {
+
+    /**
+     * Declara la grabación continua de JFR.
+     *
+     * @param properties La configuración de la grabación.
+     * @return Una `ContinuousRecording` que se inicia al crearse y se cierra al detener la aplicación.
+     */
+    @Bean
+    ContinuousRecording continuousRecording(ProfilingProperties properties) {
+        return new ContinuousRecording(properties.settings(), properties.maxAge(), properties.maxSize().toBytes(),
+                properties.thresholds());
+    }
+
+    /**
+     * Declara el publicador de métricas de puntos calientes.
+     *
+     * @param continuousRecording La grabación de la que se obtienen los eventos.
+     * @param properties La configuración de las métricas.
+     * @return Una instancia de `HotSpotMetrics` que Spring Boot vincula al `MeterRegistry` de la aplicación.
+     */
+    @Bean
+    @ConditionalOnClass(MeterRegistry.class)
+    HotSpotMetrics hotSpotMetrics(ContinuousRecording continuousRecording, ProfilingProperties properties) {
+        return new HotSpotMetrics(continuousRecording, properties.lockThreshold(), properties.hotSpots(), properties.hotSpotWindow());
+    }
+
+    /**
+     * `EndpointConfiguration` declara el endpoint `jfr` cuando Actuator está en el classpath y el endpoint está expuesto.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class EndpointConfiguration {
+
+        @Bean
+        @ConditionalOnAvailableEndpoint(endpoint = ProfilingEndpoint.class)
+        ProfilingEndpoint profilingEndpoint(ContinuousRecording continuousRecording, ProfilingProperties properties) {
+            return new ProfilingEndpoint(continuousRecording, properties.maxAge(), properties.maxConcurrentDumps());
+        }
+    }
+}
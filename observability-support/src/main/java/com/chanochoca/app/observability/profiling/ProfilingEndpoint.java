@@ -0,0 +1,166 @@
+package com.chanochoca.app.observability.profiling;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * `ProfilingEndpoint` expone la grabación continua de JFR en el endpoint de Actuator `jfr`.
+ *
+ * - `GET /actuator/jfr`: descarga la ventana móvil de la grabación (`observability.profiling.max-age`) como un archivo
+ *   JFR, que se abre con JDK Mission Control o `jfr print`.
+ * - `GET /actuator/jfr/{profile}?seconds=`: devuelve las pilas colapsadas (`CollapsedStacks`) del perfil `cpu`,
+ *   `allocation` o `lock` (`StackProfile`) de los últimos `seconds` segundos, o de toda la ventana si no se indica o
+ *   si la supera, listas para dibujar un flame graph.
+ *
+ * Cada solicitud copia la grabación en un archivo temporal, que se elimina al terminar la respuesta. Como la ventana
+ * puede ocupar hasta `observability.profiling.max-size`, solo se atienden `maxConcurrentDumps` solicitudes a la vez; las
+ * demás reciben `429 Too Many Requests` en lugar de esperar.
+ *
+ * La grabación contiene nombres de clases y métodos, pilas y datos de la actividad de la aplicación, por lo que el
+ * endpoint no se expone por defecto (`ProfilingAutoConfiguration`).
+ */
+@WebEndpoint(id = "jfr")
+public class ProfilingEndpoint {
+
+    private final ContinuousRecording recording;
+    private final Duration maxAge;
+    private final Semaphore dumps;
+
+    /**
+     * Crea el endpoint.
+     *
+     * @param recording La grabación continua.
+     * @param maxAge La antigüedad máxima de los datos que conserva la grabación.
+     * @param maxConcurrentDumps La cantidad máxima de solicitudes que se atienden a la vez.
+     */
+    public ProfilingEndpoint(ContinuousRecording recording, Duration maxAge, int maxConcurrentDumps) {
+        this.recording = recording;
+        this.maxAge = maxAge;
+        this.dumps = new Semaphore(Math.max(maxConcurrentDumps, 1));
+    }
+
+    /**
+     * Descarga la ventana móvil de la grabación.
+     *
+     * @return El archivo JFR.
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> recording() throws IOException {
+        if (!dumps.tryAcquire()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        try {
+            return new WebEndpointResponse<>(new TemporaryFileResource(recording.dumpToTempFile(), dumps::release));
+        } catch (IOException | RuntimeException e) {
+            dumps.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Devuelve las pilas colapsadas de un perfil.
+     *
+     * @param profile El perfil: `cpu`, `allocation` o `lock`.
+     * @param seconds La cantidad de segundos recientes que se incluyen, o `null` para toda la ventana.
+     * @return Las pilas colapsadas, una por línea.
+     */
+    @ReadOperation(produces = "text/plain")
+    public WebEndpointResponse<String> flameGraph(@Selector String profile, @Nullable Long seconds) throws IOException {
+        StackProfile stackProfile = stackProfile(profile);
+        Instant since = since(seconds);
+        if (!dumps.tryAcquire()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        try {
+            Path file = recording.dumpToTempFile();
+            try {
+                return new WebEndpointResponse<>(stackProfile.collapse(file, since));
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } finally {
+            dumps.release();
+        }
+    }
+
+    /**
+     * Devuelve el instante desde el que se incluyen los eventos: `Instant.MIN` si no se indica `seconds` o si supera la
+     * ventana de la grabación.
+     */
+    private Instant since(@Nullable Long seconds) {
+        if (seconds == null || seconds >= maxAge.toSeconds()) {
+            return Instant.MIN;
+        }
+        if (seconds < 0) {
+            throw new InvalidEndpointRequestException("Negative seconds " + seconds,
+                    "Invalid seconds (expected zero or more)");
+        }
+        return Instant.now().minusSeconds(seconds);
+    }
+
+    private static StackProfile stackProfile(String profile) {
+        try {
+            return StackProfile.valueOf(profile.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException("Unknown profile '" + profile + "'",
+                    "Unknown profile (expected cpu, allocation or lock)");
+        }
+    }
+
+    /**
+     * Un archivo temporal que se elimina al cerrar el flujo de lectura con el que se escribe la respuesta, momento en
+     * el que también se libera el permiso de la descarga (`onClose`).
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private final AtomicReference<Runnable> onClose;
+
+        TemporaryFileResource(Path path, Runnable onClose) {
+            super(path);
+            this.onClose = new AtomicReference<>(onClose);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        try {
+                            Files.deleteIfExists(getFile().toPath());
+                        } finally {
+                            Runnable action = onClose.getAndSet(null);
+                            if (action != null) {
+                                action.run();
+                            }
+                        }
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.chanochoca.app.observability.profiling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * `ProfilingProperties` agrupa la configuración de la grabación continua de JFR (`observability.profiling.*`).
+ *
+ * @param enabled       Si es `true`, la aplicación mantiene una grabación de JFR en curso desde que inicia.
+ * @param settings      La configuración de JFR de la grabación (`default` o `profile`, o la ruta de un archivo `.jfc`).
+ *                      `default` está diseñada para un costo menor al 1 % y es la adecuada para producción.
+ * @param maxAge        Antigüedad máxima de los datos que conserva la grabación (la ventana móvil que se descarga).
+ * @param maxSize       Tamaño máximo en disco de los datos que conserva la grabación.
+ * @param thresholds    Duración mínima de los eventos indicados para que se registren, por nombre de evento (por
+ *                      ejemplo, `thresholds[com.chanochoca.loans.FraudCheck]=0ms`). Reemplaza el umbral de la
+ *                      configuración de JFR y el de la anotación `@Threshold` del evento.
+ * @param lockThreshold Duración mínima de una espera por un monitor o un lock para que se cuente como contención en
+ *                      `jvm.profiling.lock.contention` y `jvm.profiling.lock.hotspot`. Solo tiene efecto por encima del
+ *                      umbral con el que la grabación registra esas esperas (20 ms en la configuración `default`).
+ * @param hotSpots      Cantidad de puntos calientes de asignación y de contención que se publican como métricas.
+ * @param hotSpotWindow Período sobre el que se calculan los puntos calientes publicados.
+ * @param maxConcurrentDumps Cantidad máxima de solicitudes al endpoint `jfr` que se atienden a la vez. Cada una copia la
+ *                      ventana de la grabación (hasta `max-size`) en un archivo temporal; las que superan el límite
+ *                      reciben `429 Too Many Requests`.
+ */
+@ConfigurationProperties(prefix = "observability.profiling")
+public record ProfilingProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("default") String settings,
+                                  @DefaultValue("5m") Duration maxAge,
+                                  @DefaultValue("100MB") DataSize maxSize,
+                                  Map<String, Duration> thresholds,
+                                  @DefaultValue("20ms") Duration lockThreshold,
+                                  @DefaultValue("10") int hotSpots,
+                                  @DefaultValue("1m") Duration hotSpotWindow,
+                                  @DefaultValue("1") int maxConcurrentDumps) {
+
+    public ProfilingProperties {
+        thresholds = thresholds == null ? Map.of() : Map.copyOf(thresholds);
+    }
+}
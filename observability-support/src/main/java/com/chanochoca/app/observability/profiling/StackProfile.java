@@ -0,0 +1,129 @@
+package com.chanochoca.app.observability.profiling;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * `StackProfile` define los perfiles de pilas que se obtienen de la grabación continua, a partir de los eventos de JFR
+ * de la configuración `default`.
+ *
+ * - `CPU`: muestras de ejecución de código Java (`jdk.ExecutionSample`), con peso 1 por muestra.
+ * - `ALLOCATION`: muestras de asignación de objetos (`jdk.ObjectAllocationSample`), con el peso en bytes que estima
+ *   JFR para cada muestra y la clase asignada como hoja (`clase_[i]`).
+ * - `LOCK`: esperas por un monitor (`jdk.JavaMonitorEnter`) o por un lock de `java.util.concurrent`
+ *   (`jdk.ThreadPark` sobre un sincronizador `*Sync`, como el de `ReentrantLock`), con el peso en nanosegundos de
+ *   espera y la clase del monitor o del lock como hoja (`clase_[k]`). Las esperas de los hilos inactivos de los pools,
+ *   que también se registran como `jdk.ThreadPark`, no se incluyen.
+ */
+public enum StackProfile {
+
+    CPU(Set.of("jdk.ExecutionSample")),
+    ALLOCATION(Set.of("jdk.ObjectAllocationSample")),
+    LOCK(Set.of("jdk.JavaMonitorEnter", "jdk.ThreadPark"));
+
+    /** Prefijos de los paquetes del JDK, que no se consideran el origen de una asignación o una espera. */
+    private static final String[] JDK_PACKAGES = {"java.", "javax.", "jdk.", "sun.", "com.sun."};
+
+    private final Set<String> eventTypes;
+
+    StackProfile(Set<String> eventTypes) {
+        this.eventTypes = eventTypes;
+    }
+
+    /**
+     * Devuelve los nombres de los eventos de JFR del perfil.
+     */
+    public Set<String> eventTypes() {
+        return eventTypes;
+    }
+
+    /**
+     * Indica si el evento pertenece al perfil.
+     */
+    public boolean includes(RecordedEvent event) {
+        String type = event.getEventType().getName();
+        if (!eventTypes.contains(type)) {
+            return false;
+        }
+        if (type.equals("jdk.ThreadPark")) {
+            RecordedClass parkedClass = event.getClass("parkedClass");
+            return parkedClass != null && parkedClass.getName().endsWith("Sync");
+        }
+        return true;
+    }
+
+    /**
+     * Devuelve el peso del evento: 1 por muestra de CPU, los bytes de la muestra de asignación o los nanosegundos de la
+     * espera.
+     */
+    public long weight(RecordedEvent event) {
+        return switch (this) {
+            case CPU -> 1;
+            case ALLOCATION -> event.getLong("weight");
+            case LOCK -> event.getDuration().toNanos();
+        };
+    }
+
+    /**
+     * Devuelve el marco que se agrega como hoja de la pila del evento, o `null` si el perfil no agrega ninguno.
+     */
+    String leaf(RecordedEvent event) {
+        RecordedClass type = switch (this) {
+            case CPU -> null;
+            case ALLOCATION -> event.getClass("objectClass");
+            case LOCK -> event.getClass(event.getEventType().getName().equals("jdk.ThreadPark")
+                    ? "parkedClass" : "monitorClass");
+        };
+        if (type == null) {
+            return null;
+        }
+        return type.getName() + (this == ALLOCATION ? "_[i]" : "_[k]");
+    }
+
+    /**
+     * Colapsa las pilas de los eventos del perfil de una grabación.
+     *
+     * @param recording El archivo JFR.
+     * @param since Los eventos que comenzaron antes de este instante se ignoran.
+     * @return Las pilas colapsadas, una por línea.
+     */
+    public String collapse(Path recording, Instant since) throws IOException {
+        return CollapsedStacks.collapse(recording, since, this::includes, this::weight, this::leaf);
+    }
+
+    /**
+     * Devuelve el origen del evento: el primer marco de su pila, desde la hoja, que no pertenece al JDK.
+     *
+     * @param event El evento.
+     * @return El marco (`com.example.Service.handle`), el marco hoja si toda la pila pertenece al JDK, o `null` si el
+     *         evento no tiene pila.
+     */
+    static String site(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame() && !isJdk(frame.getMethod().getType().getName())) {
+                return CollapsedStacks.frame(frame);
+            }
+        }
+        return CollapsedStacks.frame(stackTrace.getFrames().getFirst());
+    }
+
+    private static boolean isJdk(String className) {
+        for (String prefix : JDK_PACKAGES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,176 @@
+package com.chanochoca.app.observability;
+
+import brave.Span;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import brave.propagation.TraceContextOrSamplingFlags;
+import brave.sampler.Sampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TailSamplingSpanHandlerTests {
+
+    private static final long START = 1_000_000;
+
+    private final List<MutableSpan> exported = new CopyOnWriteArrayList<>();
+    private final List<Tracing> tracings = new ArrayList<>();
+
+    private final TailSamplingSpanHandler handler = handler(exported, 100, Duration.ofSeconds(30));
+    private final Tracing tracing = tracing(handler);
+
+    @AfterEach
+    void close() {
+        tracings.forEach(Tracing::close);
+    }
+
+    @Test
+    void dropsFastTracesWithoutErrorsOrKeepTags() {
+        trace(Duration.ofMillis(10), null);
+
+        assertThat(exported).isEmpty();
+        assertThat(handler.bufferedTraces()).isZero();
+    }
+
+    @Test
+    void keepsWholeTraceWhenAnySpanHasKeepTag() {
+        trace(Duration.ofMillis(10), "REJECTED");
+
+        assertThat(exported).extracting(MutableSpan::name).containsExactly("child", "root");
+        assertThat(handler.bufferedTraces()).isZero();
+    }
+
+    @Test
+    void keepsTracesSlowerThanLatencyThreshold() {
+        trace(Duration.ofSeconds(1), null);
+
+        assertThat(exported).extracting(MutableSpan::name).containsExactly("child", "root");
+    }
+
+    @Test
+    void keepsWholeTraceWhenAnySpanFailed() {
+        Span root = tracing.tracer().newTrace().name("root").start(START);
+        tracing.tracer().newChild(root.context()).name("child").start(START + 1)
+                .error(new IllegalStateException("boom"))
+                .finish(START + 2);
+        Span server = tracing.tracer().newTrace().name("server").start(START);
+        server.tag("outcome", "SERVER_ERROR");
+
+        root.finish(START + 3);
+        server.finish(START + 3);
+
+        assertThat(exported).extracting(MutableSpan::name).containsExactly("child", "root", "server");
+    }
+
+    @Test
+    void childEndingAfterItsRootFollowsTheTraceDecision() {
+        Span keptRoot = tracing.tracer().newTrace().name("kept").start(START);
+        Span keptChild = tracing.tracer().newChild(keptRoot.context()).name("late-kept").start(START + 1);
+        Span droppedRoot = tracing.tracer().newTrace().name("dropped").start(START);
+        Span droppedChild = tracing.tracer().newChild(droppedRoot.context()).name("late-dropped").start(START + 1);
+        keptRoot.finish(START + Duration.ofSeconds(1).toNanos() / 1000);
+        droppedRoot.finish(START + 2);
+
+        keptChild.finish(START + Duration.ofSeconds(2).toNanos() / 1000);
+        droppedChild.finish(START + 3);
+
+        assertThat(exported).extracting(MutableSpan::name).containsExactly("kept", "late-kept");
+        assertThat(handler.bufferedTraces()).isZero();
+    }
+
+    @Test
+    void doesNotBufferMoreThanMaxBufferedTraces() {
+        var registry = new SimpleMeterRegistry();
+        var bounded = handler(exported, 2, Duration.ofSeconds(30));
+        bounded.bindTo(registry);
+        var boundedTracing = tracing(bounded);
+
+        for (int i = 0; i < 3; i++) {
+            Span root = boundedTracing.tracer().newTrace().name("root").start(START);
+            boundedTracing.tracer().newChild(root.context()).name("child").start(START + 1).finish(START + 2);
+        }
+
+        assertThat(bounded.bufferedTraces()).isEqualTo(2);
+        assertThat(registry.get("tracing.sampling.buffer.overflow").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsExpiredTracesToMakeRoomForNewOnes() {
+        var registry = new SimpleMeterRegistry();
+        var bounded = handler(exported, 2, Duration.ZERO);
+        bounded.bindTo(registry);
+        var boundedTracing = tracing(bounded);
+
+        for (int i = 0; i < 3; i++) {
+            Span root = boundedTracing.tracer().newTrace().name("root").start(START);
+            boundedTracing.tracer().newChild(root.context()).name("child").start(START + 1).finish(START + 2);
+        }
+
+        assertThat(bounded.bufferedTraces()).isLessThanOrEqualTo(2);
+        assertThat(registry.get("tracing.sampling.buffer.overflow").functionCounter().count()).isZero();
+    }
+
+    @Test
+    void decisionIsNotPropagatedToTheCalledService() {
+        var downstreamExported = new CopyOnWriteArrayList<MutableSpan>();
+        var downstream = tracing(handler(downstreamExported, 100, Duration.ofSeconds(30)));
+        Span root = tracing.tracer().newTrace().name("root").start(START);
+        Span client = tracing.tracer().newChild(root.context()).kind(Span.Kind.CLIENT).name("client").start(START + 1);
+
+        // El servicio llamado recibe la traza sin muestrear y decide con sus propios spans, que no cumplen ninguna
+        // condición, antes de que el servicio que llama decida conservarla por su error.
+        TraceContext propagated = client.context().toBuilder().sampledLocal(false).build();
+        Span server = downstream.tracer().nextSpan(TraceContextOrSamplingFlags.create(propagated))
+                .kind(Span.Kind.SERVER).name("server").start(START + 2);
+        server.finish(START + 3);
+        client.finish(START + 4);
+        root.error(new IllegalStateException("boom")).finish(START + 5);
+
+        assertThat(exported).extracting(MutableSpan::name).containsExactly("client", "root");
+        assertThat(downstreamExported).isEmpty();
+    }
+
+    private void trace(Duration rootDuration, String loanStatus) {
+        Span root = tracing.tracer().newTrace().name("root").start(START);
+        Span child = tracing.tracer().newChild(root.context()).name("child").start(START + 1);
+        if (loanStatus != null) {
+            child.tag("loan.status", loanStatus);
+        }
+        child.finish(START + 2);
+        assertThat(handler.bufferedTraces()).isOne();
+        root.finish(START + rootDuration.toNanos() / 1000);
+    }
+
+    private static TailSamplingSpanHandler handler(List<MutableSpan> exported, int maxBufferedTraces,
+                                                   Duration bufferTimeout) {
+        return new TailSamplingSpanHandler(new SpanHandler() {
+            @Override
+            public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+                assertThat(context.sampled()).isTrue();
+                exported.add(span);
+                return true;
+            }
+        }, new AdaptiveSamplingProperties(true, 10, Duration.ofMillis(500), Map.of("loan.status", "REJECTED"),
+                maxBufferedTraces, bufferTimeout));
+    }
+
+    private Tracing tracing(TailSamplingSpanHandler handler) {
+        var tracing = Tracing.newBuilder()
+                .sampler(Sampler.NEVER_SAMPLE)
+                .alwaysSampleLocal()
+                .addSpanHandler(handler)
+                .build();
+        tracings.add(tracing);
+        return tracing;
+    }
+}
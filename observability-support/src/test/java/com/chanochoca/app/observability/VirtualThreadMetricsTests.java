@@ -0,0 +1,44 @@
+package com.chanochoca.app.observability;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadMetricsTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void liveThreadsIgnoreThreadsStartedBeforeBinding() {
+        var metrics = new VirtualThreadMetrics(Duration.ofMillis(20), true);
+        try {
+            metrics.bindTo(registry);
+            metrics.ended(1);
+            metrics.started(2);
+            metrics.started(3);
+            metrics.ended(2);
+
+            assertThat(metrics.liveThreads()).isEqualTo(1);
+            assertThat(registry.get("jvm.threads.virtual.live").gauge().value()).isEqualTo(1);
+        } finally {
+            metrics.destroy();
+        }
+    }
+
+    @Test
+    void liveThreadsAndCarriersAreNotPublishedByDefault() {
+        var metrics = new VirtualThreadMetrics(Duration.ofMillis(20), false);
+        try {
+            metrics.bindTo(registry);
+
+            assertThat(registry.find("jvm.threads.virtual.live").gauge()).isNull();
+            assertThat(registry.find("jvm.threads.virtual.carriers").gauge()).isNull();
+            assertThat(registry.get("jvm.threads.virtual.pinned").timer()).isNotNull();
+        } finally {
+            metrics.destroy();
+        }
+    }
+}
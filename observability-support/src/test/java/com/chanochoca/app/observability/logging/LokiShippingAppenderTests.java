@@ -0,0 +1,104 @@
+package com.chanochoca.app.observability.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class LokiShippingAppenderTests {
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final LoggerContext context = new LoggerContext();
+    private final LokiShippingAppender appender = new LokiShippingAppender();
+    private HttpServer server;
+    private Logger logger;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/loki/api/v1/push", exchange -> {
+            try (var body = new GZIPInputStream(exchange.getRequestBody())) {
+                received.add(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        appender.setContext(context);
+        appender.setName("LOKI");
+        appender.setUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/loki/api/v1/push");
+        appender.setLabels("application=test,level=%level");
+        appender.setMessage("%msg");
+        appender.setBatchTimeoutMillis(50);
+        appender.setRequestTimeoutMillis(20_000);
+        logger = context.getLogger("test");
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void stopStub() {
+        release.countDown();
+        appender.stop();
+        server.stop(0);
+    }
+
+    @Test
+    void shipsCompressedBatchesGroupedByLabels() {
+        release.countDown();
+        appender.start();
+
+        logger.info("loan {} approved", 1);
+        logger.warn("loan \"2\" rejected");
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> appender.shipped() == 2);
+        String body = String.join("", received);
+        assertThat(body).contains("{\"stream\":{\"application\":\"test\",\"level\":\"INFO\"}")
+                .contains("\"loan 1 approved\"")
+                .contains("{\"stream\":{\"application\":\"test\",\"level\":\"WARN\"}")
+                .contains("\"loan \\\"2\\\" rejected\"");
+    }
+
+    @Test
+    void dropsInfoBeforeErrorWhenLokiIsSlow() {
+        appender.setCapacity(16);
+        appender.setBatchMaxItems(1);
+        appender.start();
+
+        logger.info("first");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> received.size() == 1);
+        for (int i = 0; i < 32; i++) {
+            logger.info("info {}", i);
+        }
+        for (int i = 0; i < 32; i++) {
+            logger.error("error {}", i);
+        }
+
+        assertThat(appender.dropped(Level.INFO)).isGreaterThan(0);
+        assertThat(appender.errorOverflows()).isGreaterThan(0);
+        release.countDown();
+        await().atMost(10, TimeUnit.SECONDS).until(() -> appender.queued() == 0 && appender.shipped()
+                == 65 - appender.dropped(Level.INFO));
+        assertThat(received.stream().filter(body -> body.contains("\"level\":\"ERROR\""))).hasSize(32);
+    }
+}
@@ -0,0 +1,60 @@
+package com.chanochoca.app.observability.profiling;
+
+import jdk.jfr.Event;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CollapsedStacksTests {
+
+    @Name("test.Sample")
+    static class SampleEvent extends Event {
+        long weight;
+    }
+
+    @Test
+    void collapsesStacksFromRootToLeafAndAddsTheirWeights(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("recording.jfr");
+        try (var recording = new Recording()) {
+            recording.enable("test.Sample").withStackTrace();
+            recording.start();
+            for (int i = 0; i < 3; i++) {
+                hot(2);
+            }
+            cold(5);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        String collapsed = CollapsedStacks.collapse(file, Instant.MIN,
+                event -> event.getEventType().getName().equals("test.Sample"),
+                event -> event.getLong("weight"), event -> "leaf");
+
+        String prefix = CollapsedStacksTests.class.getName();
+        assertThat(collapsed.lines())
+                .hasSize(2)
+                .anySatisfy(line -> assertThat(line).endsWith(";" + prefix + ".hot;" + prefix + ".commit;leaf 6"))
+                .anySatisfy(line -> assertThat(line).endsWith(";" + prefix + ".cold;" + prefix + ".commit;leaf 5"))
+                .allSatisfy(line -> assertThat(line).doesNotStartWith(prefix));
+    }
+
+    private static void hot(long weight) {
+        commit(weight);
+    }
+
+    private static void cold(long weight) {
+        commit(weight);
+    }
+
+    private static void commit(long weight) {
+        var event = new SampleEvent();
+        event.weight = weight;
+        event.commit();
+    }
+}
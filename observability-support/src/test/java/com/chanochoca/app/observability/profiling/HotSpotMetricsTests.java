@@ -0,0 +1,139 @@
+package com.chanochoca.app.observability.profiling;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class HotSpotMetricsTests {
+
+    private static final String TEST_CLASS = HotSpotMetricsTests.class.getName();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ContinuousRecording recording = new ContinuousRecording("default", Duration.ofMinutes(1),
+            100L * 1024 * 1024, Map.of());
+
+    /** Los objetos asignados, que se conservan para que el compilador no elimine las asignaciones. */
+    private final List<byte[]> allocated = new ArrayList<>();
+
+    @AfterEach
+    void stopRecording() {
+        recording.destroy();
+    }
+
+    @Test
+    void publishesAllocationsAndMonitorWaitsByApplicationFrame() throws Exception {
+        start(Duration.ofMillis(20));
+
+        allocate();
+        contendForMonitor(Duration.ofMillis(100));
+
+        await().atMost(Duration.ofSeconds(15)).untilAsserted(() -> {
+            assertThat(registry.get("jvm.profiling.allocation").counter().count()).isPositive();
+            assertThat(registry.get("jvm.profiling.lock.contention").tag("kind", "monitor").timer().count())
+                    .isPositive();
+            assertThat(hotSpot("jvm.profiling.allocation.hotspot", TEST_CLASS + ".allocate")).isPositive();
+            assertThat(hotSpot("jvm.profiling.lock.hotspot", TEST_CLASS + ".enterMonitor")).isPositive();
+        });
+    }
+
+    @Test
+    void countsLockWaitsOnlyAboveTheThreshold() throws Exception {
+        start(Duration.ofMillis(200));
+
+        contendForLock(Duration.ofMillis(50));
+        contendForLock(Duration.ofMillis(400));
+
+        await().atMost(Duration.ofSeconds(15)).untilAsserted(() ->
+                assertThat(registry.get("jvm.profiling.lock.contention").tag("kind", "lock").timer().count())
+                        .isEqualTo(1));
+        assertThat(registry.get("jvm.profiling.lock.contention").tag("kind", "lock").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(200);
+    }
+
+    private void start(Duration lockThreshold) throws Exception {
+        recording.afterPropertiesSet();
+        new HotSpotMetrics(recording, lockThreshold, 5, Duration.ofSeconds(1)).bindTo(registry);
+    }
+
+    /**
+     * Devuelve el valor de la fila de un punto caliente, o 0 si el origen no está entre los publicados.
+     */
+    private double hotSpot(String name, String frame) {
+        Gauge gauge = registry.find(name).tag("frame", frame).gauge();
+        return gauge == null ? 0 : gauge.value();
+    }
+
+    private void allocate() {
+        long deadline = System.nanoTime() + Duration.ofMillis(500).toNanos();
+        while (System.nanoTime() < deadline) {
+            allocated.add(new byte[64 * 1024]);
+            if (allocated.size() > 100) {
+                allocated.clear();
+            }
+        }
+    }
+
+    /**
+     * Retiene un monitor durante `hold` mientras otro hilo intenta entrar en él.
+     */
+    private static void contendForMonitor(Duration hold) throws InterruptedException {
+        Object monitor = new Object();
+        var held = new CountDownLatch(1);
+        Thread holder = Thread.ofPlatform().start(() -> {
+            synchronized (monitor) {
+                held.countDown();
+                sleep(hold);
+            }
+        });
+        held.await();
+        enterMonitor(monitor);
+        holder.join();
+    }
+
+    private static void enterMonitor(Object monitor) {
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Retiene un `ReentrantLock` durante `hold` mientras otro hilo intenta adquirirlo.
+     */
+    private static void contendForLock(Duration hold) throws InterruptedException {
+        var lock = new ReentrantLock();
+        var held = new CountDownLatch(1);
+        Thread holder = Thread.ofPlatform().start(() -> {
+            lock.lock();
+            try {
+                held.countDown();
+                sleep(hold);
+            } finally {
+                lock.unlock();
+            }
+        });
+        held.await();
+        lock.lock();
+        lock.unlock();
+        holder.join();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
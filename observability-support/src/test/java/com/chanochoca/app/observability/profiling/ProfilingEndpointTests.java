@@ -0,0 +1,82 @@
+package com.chanochoca.app.observability.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ProfilingEndpointTests {
+
+    private final ContinuousRecording recording = new ContinuousRecording("default", Duration.ofMinutes(1),
+            100L * 1024 * 1024, Map.of());
+    private final ProfilingEndpoint endpoint = new ProfilingEndpoint(recording, Duration.ofMinutes(1), 1);
+
+    @BeforeEach
+    void startRecording() throws Exception {
+        recording.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void stopRecording() {
+        recording.destroy();
+    }
+
+    @Test
+    void recordingDoesNotContainEnvironmentSystemPropertiesOrJvmArguments(@TempDir Path directory) throws Exception {
+        WebEndpointResponse<Resource> response = endpoint.recording();
+
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        Path file = directory.resolve("recording.jfr");
+        Path temporaryFile = response.getBody().getFile().toPath();
+        try (InputStream body = response.getBody().getInputStream()) {
+            Files.copy(body, file);
+        }
+        assertThat(temporaryFile).doesNotExist();
+        assertThat(RecordingFile.readAllEvents(file))
+                .isNotEmpty()
+                .extracting(RecordedEvent::getEventType)
+                .noneMatch(type -> ContinuousRecording.SENSITIVE_EVENTS.contains(type.getName()));
+    }
+
+    @Test
+    void rejectsDumpsBeyondTheLimitUntilTheRunningOneIsWritten() throws Exception {
+        WebEndpointResponse<Resource> first = endpoint.recording();
+        InputStream body = first.getBody().getInputStream();
+
+        assertThat(endpoint.recording().getStatus()).isEqualTo(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        assertThat(endpoint.flameGraph("cpu", null).getStatus())
+                .isEqualTo(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+
+        body.close();
+        assertThat(endpoint.flameGraph("cpu", null).getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        assertThat(endpoint.flameGraph("cpu", null).getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+    }
+
+    @Test
+    void secondsBeyondTheWindowReturnTheWholeWindow() throws Exception {
+        assertThat(endpoint.flameGraph("lock", Long.MAX_VALUE).getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        assertThat(endpoint.flameGraph("allocation", 0L).getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+    }
+
+    @Test
+    void rejectsNegativeSecondsAndUnknownProfiles() {
+        assertThatExceptionOfType(InvalidEndpointRequestException.class)
+                .isThrownBy(() -> endpoint.flameGraph("cpu", -1L));
+        assertThatExceptionOfType(InvalidEndpointRequestException.class)
+                .isThrownBy(() -> endpoint.flameGraph("heap", null));
+    }
+}